@@ -0,0 +1,136 @@
+package com.rubicon.benchmark;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.NullNode;
+import com.rubicon.model.BidderData;
+import com.rubicon.model.BidderParam;
+import com.rubicon.model.PropertiesData;
+import com.rubicon.model.Transformation;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Bidder specs used as benchmark input: the bundled {@code test_input.json} and synthetic specs
+ * described as {@code <bidder params>x<transformations>}, e.g. {@code 500x200}.
+ */
+final class BidderSpecs {
+
+    static final String TEST_INPUT = "test_input.json";
+
+    private static final List<String> PARAM_TYPES = Arrays.asList("String", "Integer", "Double", "Float", "Long",
+            "Boolean");
+    /**
+     * Distinct modifiable OpenRTB 2.5 fields within the depth supported by the generator.
+     */
+    private static final List<String> STRING_TARGETS = Arrays.asList(
+            "imp.displaymanager", "imp.displaymanagerver", "imp.tagid", "imp.bidfloorcur",
+            "imp.banner.id", "id", "site.id", "site.name", "site.domain", "site.page", "site.ref", "site.search",
+            "site.keywords", "site.publisher.id", "site.publisher.name", "site.publisher.domain", "app.id",
+            "app.name", "app.bundle", "app.domain", "app.storeurl", "app.ver", "app.keywords", "app.publisher.id",
+            "app.publisher.name", "app.publisher.domain", "device.ua", "device.ip", "device.ipv6", "device.make",
+            "device.model", "device.os", "device.osv", "device.hwv", "device.flashver", "device.language",
+            "device.carrier", "device.mccmnc", "device.ifa", "device.didsha1", "device.didmd5", "device.dpidsha1",
+            "device.dpidmd5", "device.macsha1", "device.macmd5", "device.geo.ipservice", "device.geo.country",
+            "device.geo.region", "device.geo.regionfips104", "device.geo.metro", "device.geo.city",
+            "device.geo.zip", "user.id", "user.buyeruid", "user.gender", "user.keywords", "user.customdata",
+            "user.geo.country", "user.geo.region", "user.geo.regionfips104", "user.geo.metro", "user.geo.city",
+            "user.geo.zip", "source.tid", "source.pchain");
+    private static final List<String> OTHER_TARGETS = Arrays.asList(
+            "imp.metric", "imp.instl", "imp.bidfloor", "imp.clickbrowser", "imp.secure", "imp.iframebuster",
+            "imp.exp", "imp.banner.format", "imp.banner.w", "imp.banner.h", "imp.banner.wmax", "imp.banner.hmax",
+            "imp.banner.wmin", "imp.banner.hmin", "imp.banner.btype", "imp.banner.battr", "imp.banner.pos",
+            "imp.banner.mimes", "imp.banner.topframe", "imp.banner.expdir", "imp.banner.api", "imp.banner.vcm",
+            "imp.video.mimes", "imp.video.minduration", "imp.video.maxduration", "imp.video.protocols",
+            "imp.video.protocol", "imp.video.w", "imp.video.h", "imp.video.startdelay", "imp.video.placement",
+            "imp.video.linearity", "imp.video.skip", "imp.video.skipmin", "imp.video.skipafter",
+            "imp.video.sequence", "imp.video.battr", "imp.video.maxextended", "imp.video.minbitrate",
+            "imp.video.maxbitrate", "imp.video.boxingallowed", "imp.video.playbackmethod", "imp.video.playbackend",
+            "imp.video.delivery", "imp.video.pos", "imp.video.companionad", "imp.video.api",
+            "imp.video.companiontype", "imp.audio.mimes", "imp.audio.minduration", "imp.audio.maxduration",
+            "imp.audio.protocols", "imp.audio.startdelay", "imp.audio.sequence", "imp.audio.battr",
+            "imp.audio.maxextended", "imp.audio.minbitrate", "imp.audio.maxbitrate", "imp.audio.delivery",
+            "imp.audio.companionad", "imp.audio.api", "imp.audio.companiontype", "imp.audio.maxseq",
+            "imp.audio.feed", "imp.audio.stitched", "imp.audio.nvol", "imp.pmp.private_auction", "imp.pmp.deals",
+            "test", "at", "tmax", "wseat", "bseat", "allimps", "cur", "wlang", "bcat", "badv", "bapp", "site.cat",
+            "site.sectioncat", "site.pagecat", "site.mobile", "site.privacypolicy", "site.publisher.cat", "app.cat",
+            "app.sectioncat", "app.pagecat", "app.privacypolicy", "app.paid", "app.publisher.cat", "device.dnt",
+            "device.lmt", "device.devicetype", "device.h", "device.w", "device.ppi", "device.pxratio", "device.js",
+            "device.geofetch", "device.connectiontype", "device.geo.lat", "device.geo.lon", "device.geo.type",
+            "device.geo.accuracy", "device.geo.lastfix", "device.geo.utcoffset", "user.yob", "user.data",
+            "user.geo.lat", "user.geo.lon", "user.geo.type", "user.geo.accuracy", "user.geo.lastfix",
+            "user.geo.ipservice", "user.geo.utcoffset", "source.fd", "regs.coppa");
+
+    private static final List<String> TARGETS = interleave(STRING_TARGETS, OTHER_TARGETS);
+
+    private static final ObjectMapper MAPPER = new ObjectMapper()
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+    private BidderSpecs() {
+    }
+
+    static BidderData load(String spec) throws IOException {
+        if (TEST_INPUT.equals(spec)) {
+            try (InputStream inputStream = BidderSpecs.class.getClassLoader().getResourceAsStream(TEST_INPUT)) {
+                return MAPPER.readValue(inputStream, BidderData.class);
+            }
+        }
+        final String[] sizes = spec.split("x");
+        return synthetic(Integer.parseInt(sizes[0]), Integer.parseInt(sizes[1]));
+    }
+
+    private static BidderData synthetic(int paramsCount, int transformationsCount) {
+        final List<BidderParam> bidderParams = new ArrayList<>(paramsCount);
+        for (int i = 0; i < paramsCount; i++) {
+            bidderParams.add(new BidderParam("param" + i, PARAM_TYPES.get(i % PARAM_TYPES.size())));
+        }
+
+        if (transformationsCount > TARGETS.size()) {
+            throw new IllegalArgumentException("Synthetic specs support up to " + TARGETS.size()
+                    + " transformations with distinct targets");
+        }
+        final List<Transformation> transformations = new ArrayList<>(transformationsCount);
+        for (String target : TARGETS.subList(0, transformationsCount)) {
+            transformations.add(syntheticTransformation(target));
+        }
+
+        return BidderData.builder()
+                .bidderName("syntheticBidder")
+                .strategy("SINGLE_REQUEST")
+                .urlParams("%2Fsetuid%3Fbidder%3Dsynthetic%26uid%3D")
+                .properties(new PropertiesData(null, "https://test.synthetic.com/openrtb",
+                        "https://rtb.synthetic.com/usersync", null, "synthetic@email.com",
+                        Arrays.asList("banner", "video"), Arrays.asList("banner", "video"), 1))
+                .bidderParams(bidderParams)
+                .transformations(transformations)
+                .build();
+    }
+
+    /**
+     * Imp string fields are copied from the bidder ext, request string fields are copied from themselves
+     * (which keeps sources distinct) and all other fields are set to null.
+     */
+    private static Transformation syntheticTransformation(String target) {
+        if (!STRING_TARGETS.contains(target)) {
+            return new Transformation(target, NullNode.getInstance(), null);
+        }
+        return new Transformation(target, null, target.startsWith("imp.") ? "impExt.param0" : target);
+    }
+
+    private static List<String> interleave(List<String> first, List<String> second) {
+        final List<String> result = new ArrayList<>(first.size() + second.size());
+        for (int i = 0; i < Math.max(first.size(), second.size()); i++) {
+            if (i < first.size()) {
+                result.add(first.get(i));
+            }
+            if (i < second.size()) {
+                result.add(second.get(i));
+            }
+        }
+        return result;
+    }
+}
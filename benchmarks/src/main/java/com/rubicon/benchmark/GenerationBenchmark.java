@@ -0,0 +1,92 @@
+package com.rubicon.benchmark;
+
+import com.rubicon.config.FreemarkerConfiguration;
+import com.rubicon.model.BidderData;
+import com.rubicon.service.processing.CodeGenerationProcessing;
+import com.rubicon.service.processing.FileCreator;
+import com.rubicon.service.processing.GeneratedFile;
+import com.rubicon.service.processing.GenerationContext;
+import com.rubicon.service.processing.GenerationManifest;
+import com.rubicon.service.processing.StringGenerator;
+import com.rubicon.service.processing.TemplateProcessing;
+import freemarker.template.TemplateException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the generation engine without any file system access: rendered files stay in memory and are consumed
+ * by JMH. Run with {@code -prof gc} to see allocation rates.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GenerationBenchmark {
+
+    @Param({BidderSpecs.TEST_INPUT, "1x1", "10x10", "100x50", "500x180"})
+    private String spec;
+
+    private AnnotationConfigApplicationContext applicationContext;
+    private StringGenerator stringGenerator;
+    private CodeGenerationProcessing codeGenerationProcessing;
+    private TemplateProcessing templateProcessing;
+
+    private BidderData bidderData;
+    private GenerationContext generationContext;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        applicationContext = new AnnotationConfigApplicationContext(FreemarkerConfiguration.class,
+                GenerationManifest.class, FileCreator.class, StringGenerator.class, CodeGenerationProcessing.class,
+                TemplateProcessing.class);
+        stringGenerator = applicationContext.getBean(StringGenerator.class);
+        codeGenerationProcessing = applicationContext.getBean(CodeGenerationProcessing.class);
+        templateProcessing = applicationContext.getBean(TemplateProcessing.class);
+
+        bidderData = BidderSpecs.load(spec);
+        generationContext = GenerationContext.from(bidderData);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        applicationContext.close();
+    }
+
+    @Benchmark
+    public String resolveGivenBidRequestString() {
+        return stringGenerator.resolveGivenBidRequestString(generationContext);
+    }
+
+    @Benchmark
+    public String resolveExpectedBidRequestString() {
+        return stringGenerator.resolveExpectedBidRequestString(generationContext);
+    }
+
+    @Benchmark
+    public List<GeneratedFile> generateBidderJavaFiles() throws IOException, TemplateException {
+        return codeGenerationProcessing.generateBidderJavaFiles(bidderData);
+    }
+
+    @Benchmark
+    public List<GeneratedFile> generateBidderFilesFromTemplates() throws IOException, TemplateException {
+        return templateProcessing.generateBidderFilesFromTemplates(bidderData);
+    }
+}
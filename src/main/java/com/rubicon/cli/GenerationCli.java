@@ -0,0 +1,190 @@
+package com.rubicon.cli;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rubicon.config.ExecutorConfiguration;
+import com.rubicon.config.FreemarkerConfiguration;
+import com.rubicon.model.BidderData;
+import com.rubicon.model.GenerationResult;
+import com.rubicon.service.BidderService;
+import com.rubicon.service.GenerationMetrics;
+import com.rubicon.service.processing.ArchiveCreator;
+import com.rubicon.service.processing.CodeGenerationProcessing;
+import com.rubicon.service.processing.CompilationVerifier;
+import com.rubicon.service.processing.FileCreator;
+import com.rubicon.service.processing.GenerationManifest;
+import com.rubicon.service.processing.StringGenerator;
+import com.rubicon.service.processing.TemplateProcessing;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.hibernate.validator.messageinterpolation.ParameterMessageInterpolator;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.core.env.MapPropertySource;
+
+import javax.validation.Validation;
+import javax.validation.Validator;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Generates bidders from JSON spec files without starting the web server, e.g. on CI.
+ * <p>
+ * Services are wired by a plain Spring context of the generation services alone, without Spring Boot
+ * auto-configuration, the web server or component scanning. The context is started in background while specs are
+ * read, mostly for the slow Bean Validation bootstrap. Generation properties, e.g. {@code generation.batch.threads},
+ * can be set as system properties; compiling generated sources is off unless {@code generation.verify.enabled} is set.
+ * <p>
+ * Arguments are spec files or directories, whose {@code *.json} files are all read. A spec file holds a single
+ * bidder, as posted to {@code /generate}, or an array of them, as posted to {@code /generate/batch}.
+ * All bidders are generated in one batch, a summary line is printed per bidder, and the exit code is 1
+ * if any spec could not be read or generated, or if the generation services could not be started.
+ * <p>
+ * With {@code --watch <directory>} all specs of the directory are generated first, then the bidders of every
+ * spec file are generated again whenever the file is saved, until the process is stopped.
+ */
+public class GenerationCli {
+
+    private static final int EXIT_FAILURE = 1;
+    private static final int EXIT_USAGE = 2;
+    private static final String WATCH_OPTION = "--watch";
+    private static final long DEBOUNCE_MILLIS = 100L;
+
+    private static final ObjectMapper MAPPER = new ObjectMapper()
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+    public static void main(String[] args) {
+        // must be set before the first logger is created
+        System.setProperty("logback.configurationFile", "logback-cli.xml");
+
+        final boolean watch = args.length > 0 && WATCH_OPTION.equals(args[0]);
+        if (args.length == 0 || (watch && args.length != 2)) {
+            System.err.println("Usage: GenerationCli <spec file or directory>...");
+            System.err.println("       GenerationCli " + WATCH_OPTION + " <spec directory>");
+            System.exit(EXIT_USAGE);
+        }
+
+        final long start = System.nanoTime();
+        final CompletableFuture<BidderService> bidderService =
+                CompletableFuture.supplyAsync(() -> createContext().getBean(BidderService.class));
+        final List<String> specPaths = watch ? Collections.singletonList(args[1]) : Arrays.asList(args);
+        final int failures = generate(bidderService, specPaths, start);
+        if (!watch) {
+            System.exit(failures > 0 ? EXIT_FAILURE : 0);
+        }
+
+        System.out.printf("Watching %s for changes%n", args[1]);
+        try {
+            new SpecWatcher(Paths.get(args[1]), DEBOUNCE_MILLIS, specFile -> generate(bidderService,
+                    Collections.singletonList(specFile.toString()), System.nanoTime())).watch();
+        } catch (IOException e) {
+            System.err.println("Watching stopped: " + e);
+            System.exit(EXIT_FAILURE);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Generates all bidders of the given specs, prints the outcome and returns the number of failures.
+     */
+    private static int generate(CompletableFuture<BidderService> bidderService, List<String> specPaths, long start) {
+        final List<BidderData> biddersData = new ArrayList<>();
+        int failures = 0;
+        for (String specPath : specPaths) {
+            try {
+                for (Path specFile : listSpecFiles(Paths.get(specPath))) {
+                    biddersData.addAll(readSpecFile(specFile));
+                }
+            } catch (IOException e) {
+                System.out.printf("FAILED %s: %s%n", specPath, e);
+                failures++;
+            }
+        }
+
+        final List<GenerationResult> results = awaitStartup(bidderService).generateBatch(biddersData);
+        for (GenerationResult result : results) {
+            if (result.getError() != null) {
+                System.out.printf("FAILED %s: %s%n", result.getBidderName(), result.getError());
+                failures++;
+            } else {
+                System.out.printf("OK     %s: %d written, %d unchanged (%d ms)%n", result.getBidderName(),
+                        result.getWrittenFiles().size(), result.getUnchangedFiles().size(), result.getTimeMillis());
+            }
+        }
+        System.out.printf("%d bidders generated, %d failures, %d ms%n",
+                results.stream().filter(result -> result.getError() == null).count(), failures,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        return failures;
+    }
+
+    // a context that failed to start leaves nothing to generate with, in watch mode too
+    private static BidderService awaitStartup(CompletableFuture<BidderService> bidderService) {
+        try {
+            return bidderService.join();
+        } catch (CompletionException e) {
+            System.err.println("Generation services could not be started: " + e.getCause());
+            e.getCause().printStackTrace();
+            System.exit(EXIT_FAILURE);
+            throw e;
+        }
+    }
+
+    private static AnnotationConfigApplicationContext createContext() {
+        final AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext();
+        // CI builds compile the written sources anyway, compiling stubs would only slow down startup
+        context.getEnvironment().getPropertySources().addLast(new MapPropertySource("cliDefaults",
+                Collections.singletonMap("generation.verify.enabled", false)));
+        context.register(ExecutorConfiguration.class, FreemarkerConfiguration.class, BidderService.class,
+                TemplateProcessing.class, CodeGenerationProcessing.class, StringGenerator.class, FileCreator.class,
+                GenerationManifest.class, CompilationVerifier.class, ArchiveCreator.class, GenerationMetrics.class);
+        context.registerBean(Validator.class, GenerationCli::createValidator);
+        context.registerBean(MeterRegistry.class, SimpleMeterRegistry::new);
+        context.registerShutdownHook();
+        context.refresh();
+        return context;
+    }
+
+    // messages are plain constraint texts, so there is no need to bootstrap expression language
+    private static Validator createValidator() {
+        return Validation.byDefaultProvider()
+                .configure()
+                .messageInterpolator(new ParameterMessageInterpolator())
+                .buildValidatorFactory()
+                .getValidator();
+    }
+
+    private static List<Path> listSpecFiles(Path path) throws IOException {
+        if (!Files.isDirectory(path)) {
+            return Collections.singletonList(path);
+        }
+        try (Stream<Path> files = Files.list(path)) {
+            return files.filter(file -> file.getFileName().toString().endsWith(".json"))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+
+    private static List<BidderData> readSpecFile(Path specFile) throws IOException {
+        final JsonNode spec = MAPPER.readTree(specFile.toFile());
+        if (!spec.isArray()) {
+            return Collections.singletonList(MAPPER.treeToValue(spec, BidderData.class));
+        }
+        final List<BidderData> biddersData = new ArrayList<>(spec.size());
+        for (JsonNode bidderSpec : spec) {
+            biddersData.add(MAPPER.treeToValue(bidderSpec, BidderData.class));
+        }
+        return biddersData;
+    }
+}
@@ -0,0 +1,106 @@
+package com.rubicon.cli;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Watches a directory of spec files and reports every changed {@code *.json} file once it is saved.
+ * <p>
+ * Editors often save a file in several steps (truncate, write, rename), each producing an event, so a file is
+ * reported only after no events came for it during the debounce period. Files are reported on the watching thread,
+ * one at a time, in the order they changed.
+ */
+class SpecWatcher {
+
+    private final Path directory;
+    private final long debounceNanos;
+    private final Consumer<Path> changeListener;
+
+    SpecWatcher(Path directory, long debounceMillis, Consumer<Path> changeListener) {
+        this.directory = directory;
+        this.debounceNanos = TimeUnit.MILLISECONDS.toNanos(debounceMillis);
+        this.changeListener = changeListener;
+    }
+
+    /**
+     * Watches until the thread is interrupted or the directory becomes inaccessible.
+     */
+    void watch() throws IOException, InterruptedException {
+        try (WatchService watchService = directory.getFileSystem().newWatchService()) {
+            directory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                    StandardWatchEventKinds.ENTRY_MODIFY);
+
+            // file -> System.nanoTime() when it is considered saved
+            final Map<Path, Long> pendingFiles = new LinkedHashMap<>();
+            while (true) {
+                final WatchKey key = pendingFiles.isEmpty()
+                        ? watchService.take()
+                        : watchService.poll(nanosToNextDeadline(pendingFiles), TimeUnit.NANOSECONDS);
+                if (key != null) {
+                    for (WatchEvent<?> event : key.pollEvents()) {
+                        for (Path file : changedFiles(event)) {
+                            pendingFiles.remove(file);
+                            pendingFiles.put(file, System.nanoTime() + debounceNanos);
+                        }
+                    }
+                    if (!key.reset()) {
+                        throw new IOException("Directory " + directory + " is no longer accessible");
+                    }
+                }
+                reportSavedFiles(pendingFiles);
+            }
+        }
+    }
+
+    // events were lost when the queue overflows, so all spec files are treated as changed
+    private Iterable<Path> changedFiles(WatchEvent<?> event) throws IOException {
+        if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+            final List<Path> specFiles = new ArrayList<>();
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*.json")) {
+                files.forEach(specFiles::add);
+            }
+            return specFiles;
+        }
+        final Path file = directory.resolve((Path) event.context());
+        return file.getFileName().toString().endsWith(".json")
+                ? Collections.singletonList(file)
+                : Collections.emptyList();
+    }
+
+    private void reportSavedFiles(Map<Path, Long> pendingFiles) {
+        final long now = System.nanoTime();
+        final Iterator<Map.Entry<Path, Long>> iterator = pendingFiles.entrySet().iterator();
+        while (iterator.hasNext()) {
+            final Map.Entry<Path, Long> pendingFile = iterator.next();
+            if (pendingFile.getValue() - now <= 0) {
+                iterator.remove();
+                if (Files.isRegularFile(pendingFile.getKey())) {
+                    changeListener.accept(pendingFile.getKey());
+                }
+            }
+        }
+    }
+
+    private static long nanosToNextDeadline(Map<Path, Long> pendingFiles) {
+        final long now = System.nanoTime();
+        long nanos = Long.MAX_VALUE;
+        for (long deadline : pendingFiles.values()) {
+            nanos = Math.min(nanos, deadline - now);
+        }
+        return Math.max(nanos, 0L);
+    }
+}
@@ -0,0 +1,68 @@
+package com.rubicon.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Configuration
+public class ExecutorConfiguration {
+
+    /**
+     * Bounded pool for batch generation. When the queue is full, the submitting thread renders the bidder itself,
+     * which throttles producers instead of rejecting work.
+     */
+    @Bean(destroyMethod = "shutdown")
+    ExecutorService batchExecutor(@Value("${generation.batch.threads:0}") int threads,
+                                  @Value("${generation.batch.queue-size:256}") int queueSize) {
+        return boundedExecutor("batch-generation-", threads, queueSize, new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    /**
+     * Pool for rendering the artifacts of a single bidder concurrently. Artifact tasks never wait for other tasks,
+     * so sharing it between batch workers can't deadlock.
+     */
+    @Bean(destroyMethod = "shutdown")
+    ExecutorService artifactExecutor(@Value("${generation.artifact.threads:0}") int threads,
+                                     @Value("${generation.artifact.queue-size:1024}") int queueSize) {
+        return boundedExecutor("artifact-generation-", threads, queueSize,
+                new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    /**
+     * Pool for asynchronous generation jobs. Unlike the other pools it rejects jobs when the queue is full,
+     * since running them on the submitting thread would block the servlet thread that async jobs should free.
+     */
+    @Bean(destroyMethod = "shutdown")
+    ExecutorService jobExecutor(@Value("${generation.jobs.threads:0}") int threads,
+                                @Value("${generation.jobs.queue-size:256}") int queueSize) {
+        return boundedExecutor("generation-job-", threads, queueSize, new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * Creates a fixed pool of daemon threads with a bounded queue, non-positive thread count means
+     * the number of CPU cores.
+     */
+    private static ExecutorService boundedExecutor(String threadPrefix, int threads, int queueSize,
+                                                   RejectedExecutionHandler rejectedExecutionHandler) {
+        final int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        return new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueSize), namedThreadFactory(threadPrefix), rejectedExecutionHandler);
+    }
+
+    private static ThreadFactory namedThreadFactory(String prefix) {
+        final AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            final Thread thread = new Thread(runnable, prefix + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -0,0 +1,36 @@
+package com.rubicon.config;
+
+import freemarker.cache.ClassTemplateLoader;
+import freemarker.cache.StrongCacheStorage;
+import freemarker.template.Configuration;
+import freemarker.template.DefaultObjectWrapperBuilder;
+import freemarker.template.TemplateExceptionHandler;
+import org.springframework.context.annotation.Bean;
+
+/**
+ * Holds a single, shared FreeMarker {@link Configuration}.
+ * <p>
+ * Templates are loaded from the classpath, so the same setup works from sources and from the packaged jar.
+ * Once parsed, templates stay in a strong cache and are never checked for updates.
+ */
+@org.springframework.context.annotation.Configuration
+public class FreemarkerConfiguration {
+
+    private static final String TEMPLATES_PATH = "/templates";
+
+    @Bean
+    Configuration templateConfiguration() {
+        final Configuration cfg = new Configuration(Configuration.VERSION_2_3_28);
+        cfg.setTemplateLoader(new ClassTemplateLoader(FreemarkerConfiguration.class, TEMPLATES_PATH));
+        cfg.setCacheStorage(new StrongCacheStorage());
+        cfg.setTemplateUpdateDelayMilliseconds(Long.MAX_VALUE);
+        cfg.setObjectWrapper(new DefaultObjectWrapperBuilder(Configuration.VERSION_2_3_28).build());
+
+        cfg.setDefaultEncoding("UTF-8");
+        cfg.setTemplateExceptionHandler(TemplateExceptionHandler.RETHROW_HANDLER);
+        cfg.setLogTemplateExceptions(false);
+        cfg.setWrapUncheckedExceptions(true);
+
+        return cfg;
+    }
+}
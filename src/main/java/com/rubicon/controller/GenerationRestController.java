@@ -1,37 +1,127 @@
 package com.rubicon.controller;
 
 import com.rubicon.model.BidderData;
+import com.rubicon.model.GenerationResponse;
+import com.rubicon.model.GenerationResult;
+import com.rubicon.model.JobStatus;
 import com.rubicon.service.BidderService;
-import freemarker.template.TemplateException;
-import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.context.ApplicationContext;
+import com.rubicon.service.DuplicateJobException;
+import com.rubicon.service.GenerationException;
+import com.rubicon.service.GenerationJobService;
+import com.rubicon.service.processing.CompilationVerifier;
+import com.rubicon.service.processing.GeneratedFile;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
-import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import javax.servlet.http.HttpServletResponse;
 import java.io.IOException;
+import java.net.URI;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.stream.Collectors;
 
 @RestController
 public class GenerationRestController {
 
+    private static final String SERVER_TIMING_HEADER = "Server-Timing";
+
     private final BidderService bidderService;
+    private final GenerationJobService jobService;
+    private final boolean timingHeaderEnabled;
 
-    public GenerationRestController(BidderService bidderService) {
+    public GenerationRestController(BidderService bidderService, GenerationJobService jobService,
+                                    @Value("${generation.metrics.timing-header:false}") boolean timingHeaderEnabled) {
         this.bidderService = Objects.requireNonNull(bidderService);
+        this.jobService = Objects.requireNonNull(jobService);
+        this.timingHeaderEnabled = timingHeaderEnabled;
     }
 
     @PostMapping(value = "/generate", consumes = "application/json")
-    @ResponseStatus(code = HttpStatus.OK, reason = "Generating bidder files")
-    public void generate(@Validated @RequestBody BidderData bidderData) {
+    public GenerationResponse generate(@Validated @RequestBody BidderData bidderData, HttpServletResponse response) {
+        final GenerationResult result;
         try {
-            bidderService.generateBidderFiles(bidderData);
-        } catch (IOException | TemplateException e) {
+            result = bidderService.generateBidderFiles(bidderData);
+        } catch (IOException | GenerationException | IllegalArgumentException e) {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.toString(), e);
         }
+
+        if (timingHeaderEnabled) {
+            response.setHeader(SERVER_TIMING_HEADER, toServerTiming(result.getStageNanos()));
+        }
+        return GenerationResponse.of(HttpStatus.OK.value(), CompilationVerifier.hasErrors(result.getDiagnostics())
+                ? "Generated bidder files don't compile" : "Generating bidder files", result);
+    }
+
+    @PostMapping(value = "/generate/archive", consumes = "application/json", produces = "application/zip")
+    public ResponseEntity<StreamingResponseBody> generateArchive(@Validated @RequestBody BidderData bidderData) {
+        final List<GeneratedFile> generatedFiles;
+        try {
+            generatedFiles = bidderService.renderBidderFiles(bidderData);
+        } catch (GenerationException | IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.toString(), e);
+        }
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("application/zip"))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"" + bidderData.getBidderName().toLowerCase() + ".zip\"")
+                .body(outputStream -> bidderService.writeArchive(generatedFiles, outputStream));
+    }
+
+    @PostMapping(value = "/generate/batch", consumes = "application/json")
+    public List<GenerationResult> generateBatch(@RequestBody List<BidderData> biddersData) {
+        return bidderService.generateBatch(biddersData);
+    }
+
+    /**
+     * Queues generation of the bidder and returns right away, the returned job id is polled at {@code /jobs/{id}}.
+     */
+    @PostMapping(value = "/jobs", consumes = "application/json")
+    public ResponseEntity<JobStatus> submitJob(@Validated @RequestBody BidderData bidderData) {
+        final JobStatus jobStatus;
+        try {
+            jobStatus = jobService.submit(bidderData);
+        } catch (DuplicateJobException e) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, e.getMessage(), e);
+        } catch (RejectedExecutionException e) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Generation job queue is full", e);
+        }
+
+        return ResponseEntity.accepted()
+                .location(URI.create("/jobs/" + jobStatus.getId()))
+                .body(jobStatus);
+    }
+
+    @GetMapping("/jobs/{id}")
+    public JobStatus jobStatus(@PathVariable String id) {
+        final JobStatus jobStatus = jobService.status(id);
+        if (jobStatus == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Unknown generation job " + id);
+        }
+        return jobStatus;
+    }
+
+    /**
+     * Formats stage durations as a Server-Timing header value, e.g. "render-bidder;dur=12.345, total;dur=20.1",
+     * which browser developer tools show next to the request.
+     */
+    private static String toServerTiming(Map<String, Long> stageNanos) {
+        return stageNanos.entrySet().stream()
+                .map(stage -> String.format(Locale.ROOT, "%s;dur=%.3f", stage.getKey(), stage.getValue() / 1e6))
+                .collect(Collectors.joining(", "));
     }
 }
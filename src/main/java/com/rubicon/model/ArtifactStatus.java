@@ -0,0 +1,17 @@
+package com.rubicon.model;
+
+/**
+ * Progress of a single generated file within a generation job.
+ */
+public enum ArtifactStatus {
+
+    PENDING,
+
+    RENDERED,
+
+    WRITTEN,
+
+    UNCHANGED,
+
+    FAILED
+}
@@ -27,4 +27,14 @@ public class BidderData {
     List<BidderParam> bidderParams;
 
     List<Transformation> transformations;
+
+    boolean optimizeTransformations;
+
+    boolean instrumentBidder;
+
+    boolean generateBenchmark;
+
+    boolean streamBidResponses;
+
+    boolean cacheImpExts;
 }
@@ -3,11 +3,26 @@ package com.rubicon.model;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 
+import java.util.List;
+
 @AllArgsConstructor
 @Data
 public class BidderParam {
 
     String name;
 
+    /**
+     * One of the types known to {@link com.rubicon.service.processing.ParamTypeRegistry}, e.g. "Integer",
+     * "BigDecimal", "List<String>" or "Object".
+     */
     String type;
+
+    /**
+     * Allowed values of a String param, optional.
+     */
+    List<String> values;
+
+    public BidderParam(String name, String type) {
+        this(name, type, null);
+    }
 }
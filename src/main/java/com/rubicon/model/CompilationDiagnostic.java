@@ -0,0 +1,28 @@
+package com.rubicon.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Value;
+
+/**
+ * Compiler error or warning reported for a generated source file.
+ */
+@AllArgsConstructor(staticName = "of")
+@Value
+public class CompilationDiagnostic {
+
+    /**
+     * "ERROR", "WARNING" or "MANDATORY_WARNING".
+     */
+    String kind;
+
+    /**
+     * Path relative to the PBS root directory, as in the written files.
+     */
+    String file;
+
+    long line;
+
+    long column;
+
+    String message;
+}
@@ -0,0 +1,18 @@
+package com.rubicon.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Value;
+
+/**
+ * Response of a single bidder generation. Status and message are read by the web page.
+ */
+@AllArgsConstructor(staticName = "of")
+@Value
+public class GenerationResponse {
+
+    int status;
+
+    String message;
+
+    GenerationResult result;
+}
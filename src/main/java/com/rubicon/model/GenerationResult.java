@@ -0,0 +1,40 @@
+package com.rubicon.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.Builder;
+import lombok.Value;
+
+import java.util.List;
+import java.util.Map;
+
+@Builder
+@Value
+public class GenerationResult {
+
+    String bidderName;
+
+    /**
+     * Files that were created or whose content changed.
+     */
+    List<String> writtenFiles;
+
+    /**
+     * Files that already had the generated content and were not touched.
+     */
+    List<String> unchangedFiles;
+
+    long timeMillis;
+
+    /**
+     * Compiler errors and warnings of the generated Java sources, null when sources were not verified.
+     */
+    List<CompilationDiagnostic> diagnostics;
+
+    String error;
+
+    /**
+     * Duration of each render and write stage, e.g. "render-bidder", and "total", in nanoseconds.
+     */
+    @JsonIgnore
+    Map<String, Long> stageNanos;
+}
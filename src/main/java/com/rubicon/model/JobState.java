@@ -0,0 +1,12 @@
+package com.rubicon.model;
+
+public enum JobState {
+
+    QUEUED,
+
+    RUNNING,
+
+    SUCCEEDED,
+
+    FAILED
+}
@@ -0,0 +1,33 @@
+package com.rubicon.model;
+
+import com.rubicon.service.processing.FileType;
+import lombok.AllArgsConstructor;
+import lombok.Value;
+
+import java.util.Map;
+
+/**
+ * Snapshot of an asynchronous generation job, returned when the job is submitted and on every poll.
+ */
+@AllArgsConstructor(staticName = "of")
+@Value
+public class JobStatus {
+
+    String id;
+
+    String bidderName;
+
+    JobState state;
+
+    /**
+     * Status of each file. Empty until the job starts rendering.
+     */
+    Map<FileType, ArtifactStatus> artifacts;
+
+    /**
+     * Written and unchanged files, present once the job succeeded.
+     */
+    GenerationResult result;
+
+    String error;
+}
@@ -1,6 +1,7 @@
 package com.rubicon.model;
 
 import lombok.AllArgsConstructor;
+import lombok.Builder;
 import lombok.Data;
 
 import javax.validation.constraints.NotBlank;
@@ -8,6 +9,7 @@ import javax.validation.constraints.NotNull;
 import java.util.List;
 
 @AllArgsConstructor
+@Builder(toBuilder = true)
 @Data
 public class PropertiesData {
 
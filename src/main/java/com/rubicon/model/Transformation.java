@@ -13,4 +13,19 @@ public class Transformation {
     JsonNode staticValue;
 
     String from;
+
+    /**
+     * Converts the value read from {@link #from} to the target type, see
+     * {@link com.rubicon.service.processing.TypeCasts} for the supported pairs.
+     */
+    boolean cast;
+
+    /**
+     * Applies the transformation only when the condition holds, optional.
+     */
+    TransformationCondition condition;
+
+    public Transformation(String target, JsonNode staticValue, String from) {
+        this(target, staticValue, from, false, null);
+    }
 }
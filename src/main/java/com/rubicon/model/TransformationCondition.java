@@ -0,0 +1,29 @@
+package com.rubicon.model;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Condition under which a {@link Transformation} is applied, checked against the incoming imp or request.
+ * Either {@link #field} or {@link #mediaType} is set.
+ */
+@AllArgsConstructor
+@Data
+public class TransformationCondition {
+
+    /**
+     * Path of the field that must be present, e.g. "site", "imp.banner.pos" or "impExt.placement".
+     */
+    String field;
+
+    /**
+     * Literal the field must be equal to, optional.
+     */
+    JsonNode value;
+
+    /**
+     * Media type the imp must have: "banner", "video", "audio" or "native".
+     */
+    String mediaType;
+}
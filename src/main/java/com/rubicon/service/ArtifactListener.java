@@ -0,0 +1,17 @@
+package com.rubicon.service;
+
+import com.rubicon.model.ArtifactStatus;
+import com.rubicon.service.processing.FileType;
+
+/**
+ * Receives progress of every file while a bidder is generated. Called from render workers concurrently,
+ * so implementations must be thread-safe.
+ */
+@FunctionalInterface
+public interface ArtifactListener {
+
+    ArtifactListener NOOP = (fileType, status) -> {
+    };
+
+    void onStatus(FileType fileType, ArtifactStatus status);
+}
@@ -1,26 +1,276 @@
 package com.rubicon.service;
 
+import com.rubicon.model.ArtifactStatus;
 import com.rubicon.model.BidderData;
+import com.rubicon.model.CompilationDiagnostic;
+import com.rubicon.model.GenerationResult;
+import com.rubicon.service.processing.ArchiveCreator;
+import com.rubicon.service.processing.ArtifactTask;
 import com.rubicon.service.processing.CodeGenerationProcessing;
+import com.rubicon.service.processing.CompilationVerifier;
+import com.rubicon.service.processing.FileCreator;
+import com.rubicon.service.processing.FileType;
+import com.rubicon.service.processing.GeneratedFile;
 import com.rubicon.service.processing.TemplateProcessing;
-import freemarker.template.TemplateException;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Service;
 
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 
 @Service
 public class BidderService {
 
+    private static final String TEMPLATE_STAGE = "template";
+    private static final String CODE_STAGE = "code";
+
     private TemplateProcessing templateProcessing;
     private CodeGenerationProcessing generationProcessing;
+    private FileCreator fileCreator;
+    private CompilationVerifier compilationVerifier;
+    private ArchiveCreator archiveCreator;
+    private Validator validator;
+    private ExecutorService batchExecutor;
+    private ExecutorService artifactExecutor;
+    private GenerationMetrics metrics;
 
-    public BidderService(TemplateProcessing templateProcessing, CodeGenerationProcessing generationProcessing) {
+    public BidderService(TemplateProcessing templateProcessing, CodeGenerationProcessing generationProcessing,
+                         FileCreator fileCreator, CompilationVerifier compilationVerifier,
+                         ArchiveCreator archiveCreator, Validator validator,
+                         @Qualifier("batchExecutor") ExecutorService batchExecutor,
+                         @Qualifier("artifactExecutor") ExecutorService artifactExecutor,
+                         GenerationMetrics metrics) {
         this.templateProcessing = templateProcessing;
         this.generationProcessing = generationProcessing;
+        this.fileCreator = fileCreator;
+        this.compilationVerifier = compilationVerifier;
+        this.archiveCreator = archiveCreator;
+        this.validator = validator;
+        this.batchExecutor = batchExecutor;
+        this.artifactExecutor = artifactExecutor;
+        this.metrics = metrics;
+    }
+
+    /**
+     * Generates bidder files and writes them to the PBS directory. Files whose content didn't change are left
+     * untouched, so their modification time stays the same and PBS builds don't recompile them.
+     * <p>
+     * Nothing is written unless all files were rendered, and the files are written all together or not at all.
+     * Generated Java sources are compiled before they are written, compiler errors are returned in the result
+     * and don't prevent writing, since the PBS build is the final judge.
+     */
+    public GenerationResult generateBidderFiles(BidderData bidderData) throws IOException, GenerationException {
+        return generateBidderFiles(bidderData, ArtifactListener.NOOP);
+    }
+
+    /**
+     * Same as {@link #generateBidderFiles(BidderData)}, reporting the status of every file to the given listener
+     * as soon as it is rendered and written.
+     */
+    public GenerationResult generateBidderFiles(BidderData bidderData, ArtifactListener listener)
+            throws IOException, GenerationException {
+        final long start = System.nanoTime();
+        boolean success = false;
+        try {
+            final GenerationResult result = writeBidderFiles(bidderData, start, listener);
+            success = true;
+            return result;
+        } finally {
+            metrics.recordGeneration(success, System.nanoTime() - start);
+        }
+    }
+
+    private GenerationResult writeBidderFiles(BidderData bidderData, long start, ArtifactListener listener)
+            throws IOException, GenerationException {
+        final Map<String, Long> stageNanos = new LinkedHashMap<>();
+        final List<String> writtenFiles = new ArrayList<>();
+        final List<String> unchangedFiles = new ArrayList<>();
+        final List<GeneratedFile> generatedFiles = renderBidderFiles(bidderData, stageNanos, listener);
+        final List<CompilationDiagnostic> diagnostics = verifySources(generatedFiles, stageNanos);
+        final long writeStart = System.nanoTime();
+        final Set<GeneratedFile> changedFiles;
+        try {
+            changedFiles = fileCreator.writeBidderFiles(bidderData.getBidderName(), generatedFiles);
+        } catch (IOException e) {
+            generatedFiles.forEach(generatedFile -> listener.onStatus(generatedFile.getFileType(),
+                    ArtifactStatus.FAILED));
+            throw e;
+        }
+        final long writeNanos = System.nanoTime() - writeStart;
+        metrics.recordWrite(writeNanos);
+        stageNanos.put("write", writeNanos);
+
+        for (GeneratedFile generatedFile : generatedFiles) {
+            final FileType fileType = generatedFile.getFileType();
+            final String path = fileCreator.resolveAbsolutePath(generatedFile).toString();
+            final boolean written = changedFiles.contains(generatedFile);
+            metrics.recordWrittenFile(fileType, written);
+            listener.onStatus(fileType, written ? ArtifactStatus.WRITTEN : ArtifactStatus.UNCHANGED);
+            if (written) {
+                writtenFiles.add(path);
+            } else {
+                unchangedFiles.add(path);
+            }
+        }
+        stageNanos.put("total", System.nanoTime() - start);
+        return GenerationResult.builder()
+                .bidderName(bidderData.getBidderName())
+                .writtenFiles(writtenFiles)
+                .unchangedFiles(unchangedFiles)
+                .timeMillis(millisSince(start))
+                .diagnostics(diagnostics)
+                .stageNanos(stageNanos)
+                .build();
+    }
+
+    private List<CompilationDiagnostic> verifySources(List<GeneratedFile> generatedFiles,
+                                                      Map<String, Long> stageNanos) {
+        final long start = System.nanoTime();
+        final List<CompilationDiagnostic> diagnostics = compilationVerifier.verify(generatedFiles);
+        if (diagnostics != null) {
+            final long nanos = System.nanoTime() - start;
+            metrics.recordVerification(!CompilationVerifier.hasErrors(diagnostics), nanos);
+            stageNanos.put("verify", nanos);
+        }
+        return diagnostics;
+    }
+
+    /**
+     * Renders all bidder files into memory without touching the file system.
+     * <p>
+     * Every artifact is rendered as a separate task on the artifact executor, so the call takes roughly as long
+     * as the slowest artifact. All tasks are awaited even if some fail, and all failures are reported together.
+     */
+    public List<GeneratedFile> renderBidderFiles(BidderData bidderData) throws GenerationException {
+        return renderBidderFiles(bidderData, new LinkedHashMap<>(), ArtifactListener.NOOP);
+    }
+
+    private List<GeneratedFile> renderBidderFiles(BidderData bidderData, Map<String, Long> stageNanos,
+                                                  ArtifactListener listener) throws GenerationException {
+        final Map<FileType, ArtifactTask> templateTasks = templateProcessing.createArtifactTasks(bidderData);
+        final Map<FileType, ArtifactTask> codeTasks = generationProcessing.createArtifactTasks(bidderData);
+        templateTasks.keySet().forEach(fileType -> listener.onStatus(fileType, ArtifactStatus.PENDING));
+        codeTasks.keySet().forEach(fileType -> listener.onStatus(fileType, ArtifactStatus.PENDING));
+
+        final Map<FileType, Future<GeneratedFile>> futures = new LinkedHashMap<>();
+        final Map<FileType, Long> renderNanos = new ConcurrentHashMap<>();
+        submitRenderTasks(futures, templateTasks, TEMPLATE_STAGE, renderNanos, listener);
+        submitRenderTasks(futures, codeTasks, CODE_STAGE, renderNanos, listener);
+
+        final List<GeneratedFile> generatedFiles = new ArrayList<>(futures.size());
+        final Map<FileType, Throwable> failures = new LinkedHashMap<>();
+        for (Map.Entry<FileType, Future<GeneratedFile>> future : futures.entrySet()) {
+            try {
+                generatedFiles.add(future.getValue().get());
+            } catch (ExecutionException e) {
+                failures.put(future.getKey(), e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                failures.put(future.getKey(), e);
+            }
+        }
+
+        for (FileType fileType : futures.keySet()) {
+            final Long nanos = renderNanos.get(fileType);
+            if (nanos != null) {
+                stageNanos.put("render-" + stageName(fileType), nanos);
+            }
+        }
+
+        if (!failures.isEmpty()) {
+            throw new GenerationException(failures);
+        }
+        return generatedFiles;
+    }
+
+    private void submitRenderTasks(Map<FileType, Future<GeneratedFile>> futures, Map<FileType, ArtifactTask> tasks,
+                                   String stage, Map<FileType, Long> renderNanos, ArtifactListener listener) {
+        for (Map.Entry<FileType, ArtifactTask> task : tasks.entrySet()) {
+            final FileType fileType = task.getKey();
+            final ArtifactTask artifactTask = task.getValue();
+            futures.put(fileType, artifactExecutor.submit(() -> {
+                final long start = System.nanoTime();
+                try {
+                    final GeneratedFile generatedFile = artifactTask.render();
+                    final long nanos = System.nanoTime() - start;
+                    metrics.recordRender(stage, fileType, nanos);
+                    renderNanos.put(fileType, nanos);
+                    listener.onStatus(fileType, ArtifactStatus.RENDERED);
+                    return generatedFile;
+                } catch (Exception e) {
+                    metrics.recordRenderFailure(stage, fileType);
+                    listener.onStatus(fileType, ArtifactStatus.FAILED);
+                    throw e;
+                }
+            }));
+        }
+    }
+
+    private static String stageName(FileType fileType) {
+        return StringUtils.replace(fileType.name().toLowerCase(), "_", "-");
+    }
+
+    public void writeArchive(List<GeneratedFile> generatedFiles, OutputStream outputStream) throws IOException {
+        archiveCreator.writeArchive(generatedFiles, outputStream);
+    }
+
+    /**
+     * Generates files for each bidder on the batch executor. A failing bidder is reported in its own result
+     * and doesn't affect the rest of the batch. Results are returned in the order of the input list.
+     */
+    public List<GenerationResult> generateBatch(List<BidderData> biddersData) {
+        final List<CompletableFuture<GenerationResult>> futures = biddersData.stream()
+                .map(bidderData -> CompletableFuture.supplyAsync(() -> generateForBatch(bidderData), batchExecutor))
+                .collect(Collectors.toList());
+
+        return futures.stream()
+                .map(CompletableFuture::join)
+                .collect(Collectors.toList());
+    }
+
+    private GenerationResult generateForBatch(BidderData bidderData) {
+        final long start = System.nanoTime();
+        try {
+            validate(bidderData);
+            return generateBidderFiles(bidderData);
+        } catch (IOException | GenerationException | RuntimeException e) {
+            return GenerationResult.builder()
+                    .bidderName(bidderData != null ? bidderData.getBidderName() : null)
+                    .timeMillis(millisSince(start))
+                    .error(e.toString())
+                    .build();
+        }
+    }
+
+    private void validate(BidderData bidderData) {
+        if (bidderData == null) {
+            throw new IllegalArgumentException("Bidder data is missing");
+        }
+        final Set<ConstraintViolation<BidderData>> violations = validator.validate(bidderData);
+        if (!violations.isEmpty()) {
+            throw new IllegalArgumentException(violations.stream()
+                    .map(violation -> violation.getPropertyPath() + " " + violation.getMessage())
+                    .sorted()
+                    .collect(Collectors.joining(", ")));
+        }
     }
 
-    public void generateBidderFiles(BidderData bidderData) throws IOException, TemplateException {
-        templateProcessing.generateBidderFilesFromTemplates(bidderData);
-        generationProcessing.generateBidderJavaFiles(bidderData);
+    private static long millisSince(long startNanos) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
     }
 }
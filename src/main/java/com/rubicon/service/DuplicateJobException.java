@@ -0,0 +1,21 @@
+package com.rubicon.service;
+
+import com.rubicon.model.JobStatus;
+
+/**
+ * Rejects a generation job for a bidder that another queued or running job generates already.
+ */
+public class DuplicateJobException extends RuntimeException {
+
+    private final JobStatus activeJob;
+
+    public DuplicateJobException(JobStatus activeJob) {
+        super(String.format("Bidder %s is already being generated by job %s", activeJob.getBidderName(),
+                activeJob.getId()));
+        this.activeJob = activeJob;
+    }
+
+    public JobStatus getActiveJob() {
+        return activeJob;
+    }
+}
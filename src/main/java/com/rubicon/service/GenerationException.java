@@ -0,0 +1,27 @@
+package com.rubicon.service;
+
+import com.rubicon.service.processing.FileType;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Reports every artifact that failed to generate for a bidder, not just the first one.
+ */
+public class GenerationException extends Exception {
+
+    private final Map<FileType, Throwable> failures;
+
+    public GenerationException(Map<FileType, Throwable> failures) {
+        super(failures.entrySet().stream()
+                .map(failure -> failure.getKey() + ": " + failure.getValue())
+                .collect(Collectors.joining("; ")), failures.values().iterator().next());
+        this.failures = Collections.unmodifiableMap(failures);
+        failures.values().stream().skip(1).forEach(this::addSuppressed);
+    }
+
+    public Map<FileType, Throwable> getFailures() {
+        return failures;
+    }
+}
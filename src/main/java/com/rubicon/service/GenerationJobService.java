@@ -0,0 +1,159 @@
+package com.rubicon.service;
+
+import com.rubicon.model.ArtifactStatus;
+import com.rubicon.model.BidderData;
+import com.rubicon.model.GenerationResult;
+import com.rubicon.model.JobState;
+import com.rubicon.model.JobStatus;
+import com.rubicon.service.processing.FileType;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Runs bidder generation in the background, so the submitting request returns a job id right away
+ * and the progress is polled by that id.
+ * <p>
+ * Jobs wait in the bounded queue of the job executor, a slow disk only makes them wait longer. A bidder is generated
+ * by at most one job at a time, a job submitted while another one of the same bidder is queued or running is rejected,
+ * so two jobs never write the files of the same bidder concurrently.
+ * Finished jobs are kept for polling until more than {@code generation.jobs.retained} jobs have finished after them.
+ */
+@Service
+public class GenerationJobService {
+
+    private final BidderService bidderService;
+    private final ExecutorService jobExecutor;
+    private final int retainedJobs;
+
+    private final Map<String, GenerationJob> jobs = new ConcurrentHashMap<>();
+    private final Queue<String> finishedJobs = new ConcurrentLinkedQueue<>();
+    // queued and running jobs by bidder key
+    private final Map<String, GenerationJob> activeJobs = new ConcurrentHashMap<>();
+
+    public GenerationJobService(BidderService bidderService,
+                                @Qualifier("jobExecutor") ExecutorService jobExecutor,
+                                @Value("${generation.jobs.retained:1000}") int retainedJobs) {
+        this.bidderService = bidderService;
+        this.jobExecutor = jobExecutor;
+        this.retainedJobs = retainedJobs;
+    }
+
+    /**
+     * Queues generation of the given bidder.
+     *
+     * @throws DuplicateJobException      if a job of the same bidder is queued or running
+     * @throws RejectedExecutionException if the job queue is full
+     */
+    public JobStatus submit(BidderData bidderData) {
+        final GenerationJob job = new GenerationJob(UUID.randomUUID().toString(), bidderData.getBidderName());
+        final GenerationJob activeJob = activeJobs.putIfAbsent(job.bidderKey, job);
+        if (activeJob != null) {
+            throw new DuplicateJobException(activeJob.toStatus());
+        }
+
+        jobs.put(job.id, job);
+        try {
+            jobExecutor.execute(() -> run(job, bidderData));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.id);
+            activeJobs.remove(job.bidderKey, job);
+            throw e;
+        }
+        return job.toStatus();
+    }
+
+    /**
+     * Returns current status of the job, or null if there is no such job or it was already evicted.
+     */
+    public JobStatus status(String id) {
+        final GenerationJob job = jobs.get(id);
+        return job != null ? job.toStatus() : null;
+    }
+
+    private void run(GenerationJob job, BidderData bidderData) {
+        job.start();
+        GenerationResult result = null;
+        String error = null;
+        try {
+            result = bidderService.generateBidderFiles(bidderData, job);
+        } catch (IOException | GenerationException | RuntimeException e) {
+            error = e.toString();
+        } finally {
+            // the bidder is released before the job shows finished, so whoever polls the job finished
+            // can submit the bidder again right away
+            activeJobs.remove(job.bidderKey, job);
+        }
+
+        if (error == null) {
+            job.succeed(result);
+        } else {
+            job.fail(error);
+        }
+        finishedJobs.add(job.id);
+        evictFinishedJobs();
+    }
+
+    private void evictFinishedJobs() {
+        while (finishedJobs.size() > retainedJobs) {
+            final String id = finishedJobs.poll();
+            if (id != null) {
+                jobs.remove(id);
+            }
+        }
+    }
+
+    /**
+     * Mutable state of a single job, updated by the job worker and render workers and read by polling requests.
+     */
+    private static class GenerationJob implements ArtifactListener {
+
+        private final String id;
+        private final String bidderName;
+        // bidder names differing in case only share their package and files
+        private final String bidderKey;
+        private final Map<FileType, ArtifactStatus> artifacts = new EnumMap<>(FileType.class);
+        private JobState state = JobState.QUEUED;
+        private GenerationResult result;
+        private String error;
+
+        GenerationJob(String id, String bidderName) {
+            this.id = id;
+            this.bidderName = bidderName;
+            this.bidderKey = bidderName.toLowerCase();
+        }
+
+        @Override
+        public synchronized void onStatus(FileType fileType, ArtifactStatus status) {
+            artifacts.put(fileType, status);
+        }
+
+        synchronized void start() {
+            state = JobState.RUNNING;
+        }
+
+        synchronized void succeed(GenerationResult result) {
+            this.result = result;
+            state = JobState.SUCCEEDED;
+        }
+
+        synchronized void fail(String error) {
+            this.error = error;
+            state = JobState.FAILED;
+        }
+
+        synchronized JobStatus toStatus() {
+            return JobStatus.of(id, bidderName, state, new EnumMap<>(artifacts), result, error);
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.rubicon.service;
+
+import com.rubicon.service.processing.FileType;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Micrometer meters of the generation stages, exposed through the actuator metrics endpoint.
+ * <p>
+ * Render meters are tagged with the stage ("template" or "code") and {@link FileType}. Files of a bidder are written
+ * together, so the write timer measures the whole write and the files are only counted, by {@link FileType}
+ * and outcome ("written" or "unchanged"). The verification timer is tagged with the outcome of compiling
+ * generated sources ("compiled" or "failed").
+ */
+@Service
+public class GenerationMetrics {
+
+    private static final String GENERATION = "generation.bidder";
+    private static final String RENDER = "generation.render";
+    private static final String RENDER_FAILURES = "generation.render.failures";
+    private static final String VERIFY = "generation.verify";
+    private static final String WRITE = "generation.write";
+    private static final String WRITE_FILES = "generation.write.files";
+
+    private final MeterRegistry meterRegistry;
+
+    public GenerationMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    public void recordGeneration(boolean success, long nanos) {
+        meterRegistry.timer(GENERATION, "outcome", success ? "success" : "failure")
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordRender(String stage, FileType fileType, long nanos) {
+        meterRegistry.timer(RENDER, "stage", stage, "fileType", fileType.name())
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordRenderFailure(String stage, FileType fileType) {
+        meterRegistry.counter(RENDER_FAILURES, "stage", stage, "fileType", fileType.name()).increment();
+    }
+
+    public void recordVerification(boolean compiled, long nanos) {
+        meterRegistry.timer(VERIFY, "outcome", compiled ? "compiled" : "failed")
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordWrite(long nanos) {
+        meterRegistry.timer(WRITE).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordWrittenFile(FileType fileType, boolean written) {
+        meterRegistry.counter(WRITE_FILES, "fileType", fileType.name(), "outcome", written ? "written" : "unchanged")
+                .increment();
+    }
+}
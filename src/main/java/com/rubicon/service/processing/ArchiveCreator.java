@@ -0,0 +1,28 @@
+package com.rubicon.service.processing;
+
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+@Service
+public class ArchiveCreator {
+
+    /**
+     * Writes generated files as a ZIP archive straight to the given stream, keeping their PBS-relative paths.
+     * The stream is finished but not closed.
+     */
+    public void writeArchive(List<GeneratedFile> generatedFiles, OutputStream outputStream) throws IOException {
+        final ZipOutputStream zipOutputStream = new ZipOutputStream(outputStream);
+        for (GeneratedFile generatedFile : generatedFiles) {
+            zipOutputStream.putNextEntry(new ZipEntry(generatedFile.getPath()));
+            zipOutputStream.write(generatedFile.getContent().getBytes(StandardCharsets.UTF_8));
+            zipOutputStream.closeEntry();
+        }
+        zipOutputStream.finish();
+    }
+}
@@ -0,0 +1,14 @@
+package com.rubicon.service.processing;
+
+import freemarker.template.TemplateException;
+
+import java.io.IOException;
+
+/**
+ * Renders a single bidder artifact. Tasks of one bidder share only read-only input and can run concurrently.
+ */
+@FunctionalInterface
+public interface ArtifactTask {
+
+    GeneratedFile render() throws IOException, TemplateException;
+}
@@ -2,88 +2,122 @@ package com.rubicon.service.processing;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.rubicon.model.BidderData;
 import com.rubicon.model.BidderParam;
 import com.rubicon.model.Transformation;
 import com.squareup.javapoet.AnnotationSpec;
 import com.squareup.javapoet.ClassName;
+import com.squareup.javapoet.CodeBlock;
 import com.squareup.javapoet.FieldSpec;
 import com.squareup.javapoet.JavaFile;
 import com.squareup.javapoet.MethodSpec;
 import com.squareup.javapoet.ParameterizedTypeName;
+import com.squareup.javapoet.TypeName;
 import com.squareup.javapoet.TypeSpec;
+import freemarker.template.TemplateException;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Value;
 import org.apache.commons.collections4.CollectionUtils;
-import org.apache.commons.lang3.StringUtils;
 import org.assertj.core.api.Assertions;
 import org.junit.Before;
 import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 
+import javax.annotation.PostConstruct;
 import javax.lang.model.element.Modifier;
 import java.io.IOException;
-import java.nio.file.Paths;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
 public class CodeGenerationProcessing {
 
-    private static final String IMP_SOURCE = "imp.";
-    private static final String REQUEST_SOURCE = "bidRequest.";
+    private static final Logger logger = LoggerFactory.getLogger(CodeGenerationProcessing.class);
 
-    private static String bidderName;
-    private static String bidderImpExtName;
-    private static String bidderPackage;
-    private static String bidderFile;
+    private static final String REQUEST_SOURCE = "bidRequest.";
+    private static final String REQUEST_PER_IMP = "REQUEST_PER_IMP";
+
+    private static final ClassName METRIC_REGISTRY = ClassName.get("com.codahale.metrics", "MetricRegistry");
+    private static final ClassName METRICS = ClassName.get("org.prebid.server.metric", "Metrics");
+    private static final ClassName ADAPTER_METRICS = ClassName.get("org.prebid.server.metric", "AdapterMetrics");
+    private static final String TRANSFORM_IMP = "transformImp";
+    private static final String TRANSFORM_REQUEST = "transformRequest";
+    private static final String EXT_EXTRACTION_METRIC = "ext_extraction_time";
+    private static final String MODIFY_IMP_METRIC = "modify_imp_time";
+    private static final String MODIFY_REQUEST_METRIC = "modify_request_time";
+    private static final String BIDS_METRIC = "parsed_bids";
 
-    private final FileCreator fileCreator;
     private final StringGenerator stringGenerator;
 
-    public CodeGenerationProcessing(FileCreator fileCreator, StringGenerator stringGenerator) {
-        this.fileCreator = fileCreator;
+    public CodeGenerationProcessing(StringGenerator stringGenerator) {
         this.stringGenerator = stringGenerator;
     }
 
-    public void generateBidderJavaFiles(BidderData bidderData) throws IOException {
-        setStaticFields(bidderData);
+    /**
+     * Compiles a cast imp transformation and a nested request one at startup, so that no request pays for loading
+     * the OpenRTB index, the param types or the casts, nor for the first path lookups.
+     */
+    @PostConstruct
+    public void warmUp() {
+        final long warmUpStart = System.nanoTime();
+        TransformationTree.compile(Arrays.asList(
+                new Transformation("imp.banner.w", null, "impExt.size", true, null),
+                new Transformation("site.publisher.name", null, "app.name")),
+                Collections.singletonMap("size", ParamTypeRegistry.resolve(new BidderParam("size", "String"))));
+        logger.info("OpenRTB index of {} fields loaded and sample transformations compiled in {} ms",
+                OpenRtbIndex.size(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - warmUpStart));
+    }
 
-        final JavaFile extJavaFile = createExtJavaFile(bidderData);
-        if (extJavaFile != null) {
-            writeGeneratedFile(extJavaFile, bidderData, FileType.EXT);
+    public List<GeneratedFile> generateBidderJavaFiles(BidderData bidderData) throws IOException, TemplateException {
+        final List<GeneratedFile> createdFiles = new ArrayList<>();
+        for (ArtifactTask task : createArtifactTasks(bidderData).values()) {
+            createdFiles.add(task.render());
         }
+        return createdFiles;
+    }
 
-        final JavaFile bidderJavaFile = createBidderJavaFile(bidderData);
-        writeGeneratedFile(bidderJavaFile, bidderData, FileType.BIDDER);
+    public Map<FileType, ArtifactTask> createArtifactTasks(BidderData bidderData) {
+        final GenerationContext context = GenerationContext.from(bidderData);
+        final Map<FileType, ArtifactTask> tasks = new LinkedHashMap<>();
 
-        if (CollectionUtils.isNotEmpty(bidderData.getTransformations())) {
-            final JavaFile bidderTestJavaFile = createBidderTestJavaFile(bidderData);
-            writeGeneratedFile(bidderTestJavaFile, bidderData, FileType.BIDDER_TEST);
+        if (CollectionUtils.isNotEmpty(bidderData.getBidderParams())) {
+            tasks.put(FileType.EXT, () -> toGeneratedFile(createExtJavaFile(context), FileType.EXT));
         }
-    }
 
-    private static void setStaticFields(BidderData bidderData) {
-        bidderName = bidderData.getBidderName();
-        bidderPackage = bidderName.toLowerCase();
-        final String capitalizedName = StringUtils.capitalize(bidderName);
-        bidderImpExtName = "ExtImp" + capitalizedName;
-        bidderFile = capitalizedName + "Bidder";
-    }
+        tasks.put(FileType.BIDDER, () -> toGeneratedFile(createBidderJavaFile(context), FileType.BIDDER));
 
-    private static JavaFile createExtJavaFile(BidderData bidderData) {
-        final List<BidderParam> properties = bidderData.getBidderParams();
-        if (CollectionUtils.isEmpty(properties)) {
-            return null;
+        if (CollectionUtils.isNotEmpty(bidderData.getTransformations())) {
+            tasks.put(FileType.BIDDER_TEST,
+                    () -> toGeneratedFile(createBidderTestJavaFile(context), FileType.BIDDER_TEST));
+        }
+
+        // PBS doesn't depend on JMH, so the benchmark is generated on demand only
+        if (bidderData.isGenerateBenchmark()) {
+            tasks.put(FileType.BIDDER_BENCHMARK,
+                    () -> toGeneratedFile(createBidderBenchmarkJavaFile(context), FileType.BIDDER_BENCHMARK));
         }
+        return tasks;
+    }
 
+    private static JavaFile createExtJavaFile(GenerationContext context) {
+        final List<BidderParam> properties = context.getBidderData().getBidderParams();
         final TypeSpec.Builder extensionClassBuilder =
-                TypeSpec.classBuilder(bidderImpExtName)
-                        .addJavadoc("Defines the contract for $Limp[i].ext.$L\n", REQUEST_SOURCE, bidderName)
+                TypeSpec.classBuilder(context.getBidderImpExtName())
+                        .addJavadoc("Defines the contract for $Limp[i].ext.$L\n", REQUEST_SOURCE,
+                                context.getBidderName())
                         .addModifiers(Modifier.PUBLIC)
                         .addAnnotation(properties.size() > 4
                                 ? AnnotationSpec.builder(Builder.class).build()
@@ -93,173 +127,391 @@ public class CodeGenerationProcessing {
 
         for (BidderParam field : properties) {
             final String fieldName = field.getName();
-            try {
-                final Class<?> forName = Class.forName(qualifiedClassName(field.getType()));
-                final FieldSpec fieldSpec = FieldSpec.builder(forName, fieldName)
-                        .addAnnotation(AnnotationSpec.builder(JsonProperty.class)
-                                .addMember("value", "$S", fieldName)
-                                .build())
-                        .build();
-                extensionClassBuilder.addField(fieldSpec);
-            } catch (ClassNotFoundException e) {
-                e.printStackTrace();
-            }
+            final FieldSpec fieldSpec = FieldSpec.builder(context.getParamTypes().get(fieldName).getTypeName(),
+                    fieldName)
+                    .addAnnotation(AnnotationSpec.builder(JsonProperty.class)
+                            .addMember("value", "$S", fieldName)
+                            .build())
+                    .build();
+            extensionClassBuilder.addField(fieldSpec);
         }
 
         return JavaFile.builder("org.prebid.server.proto.openrtb.ext.request."
-                        + bidderPackage, extensionClassBuilder.build())
+                        + context.getBidderPackage(), extensionClassBuilder.build())
                 .indent("    ")
                 .skipJavaLangImports(true)
                 .build();
     }
 
-    private static String qualifiedClassName(String inputName) {
-        return "java.lang." + inputName;
-    }
-
-    private JavaFile createBidderJavaFile(BidderData bidderData) {
+    private JavaFile createBidderJavaFile(GenerationContext context) {
+        final BidderData bidderData = context.getBidderData();
         final List<BidderParam> bidderParams = bidderData.getBidderParams();
         final ClassName extClass = CollectionUtils.isNotEmpty(bidderParams)
                 ? ClassName.get("org.prebid.server.proto.openrtb.ext.request."
-                + bidderPackage, bidderImpExtName)
+                + context.getBidderPackage(), context.getBidderImpExtName())
                 : ClassName.get(Void.class);
+        final ClassName convertedExtClass = readsImpExt(context) ? ImpExtReader.NODE_TYPE : extClass;
 
         final String strategy = bidderData.getStrategy();
         final ClassName jacksonMapper = ClassName.get("org.prebid.server.json", "JacksonMapper");
-        final MethodSpec bidderConstructor = MethodSpec.constructorBuilder()
+        final MethodSpec.Builder bidderConstructor = MethodSpec.constructorBuilder()
                 .addModifiers(Modifier.PUBLIC)
                 .addParameter(String.class, "endpointUrl")
-                .addParameter(jacksonMapper, "mapper")
-                .addStatement("super(endpointUrl, RequestCreationStrategy.$L, $T.class, mapper)", strategy, extClass)
-                .build();
+                .addParameter(jacksonMapper, "mapper");
 
         final ClassName openrtbBidder = ClassName.get("org.prebid.server.bidder", "OpenrtbBidder");
+        final ClassName bidderClass = ClassName.get("org.prebid.server.bidder." + context.getBidderPackage(),
+                context.getBidderFile());
+        // makeBids of OpenrtbBidder is final, so a streaming bidder nests the OpenrtbBidder it makes requests with
+        final boolean isStreamed = bidderData.isStreamBidResponses();
+        final ClassName requestBidderClass = isStreamed
+                ? bidderClass.nestedClass(StreamingBidParser.REQUEST_BIDDER)
+                : bidderClass;
         final TypeSpec.Builder bidderClassBuilder =
-                TypeSpec.classBuilder(bidderFile)
-                        .addModifiers(Modifier.PUBLIC)
-                        .superclass(ParameterizedTypeName.get(openrtbBidder, extClass))
-                        .addMethod(bidderConstructor);
+                TypeSpec.classBuilder(requestBidderClass)
+                        .addModifiers(isStreamed
+                                ? new Modifier[]{Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL}
+                                : new Modifier[]{Modifier.PUBLIC})
+                        .superclass(ParameterizedTypeName.get(openrtbBidder, convertedExtClass));
+
+        final MethodSpec readImpExt = readsImpExt(context)
+                ? ImpExtReader.addTo(bidderClassBuilder, extClass)
+                : null;
+        if (bidderData.isInstrumentBidder()) {
+            bidderClassBuilder.addMethod(bidderConstructor.build().toBuilder()
+                    .addStatement("this(endpointUrl, mapper, null)")
+                    .build());
+            bidderConstructor.addParameter(METRICS, "metrics")
+                    .addStatement("super(endpointUrl, RequestCreationStrategy.$L, $T.class, mapper)", strategy,
+                            convertedExtClass);
+            addInstrumentationHooks(bidderClassBuilder, bidderConstructor, context, extClass, readImpExt);
+        } else {
+            bidderConstructor.addStatement("super(endpointUrl, RequestCreationStrategy.$L, $T.class, mapper)",
+                    strategy, convertedExtClass);
+            if (readImpExt != null) {
+                bidderClassBuilder.addMethod(readingModifyImp(context, extClass, readImpExt)
+                        .addAnnotation(Override.class)
+                        .addStatement("return $L", transformImpCall(context))
+                        .build());
+            }
+        }
+        bidderClassBuilder.addMethod(bidderConstructor.build());
 
         final List<Transformation> transformations = bidderData.getTransformations();
         if (CollectionUtils.isNotEmpty(transformations)) {
-            modifyImps(bidderClassBuilder, bidderData, extClass);
-            modifyRequest(bidderClassBuilder, bidderData, extClass);
+            modifyImps(bidderClassBuilder, context, extClass);
+            modifyRequest(bidderClassBuilder, context, convertedExtClass);
+            bidderClassBuilder.addMethods(context.getTransformations().getConverters());
+        }
+        if (readImpExt != null) {
+            if (!bidderData.isInstrumentBidder() && !context.getTransformations().getRequestTargets().hasChildren()) {
+                bidderClassBuilder.addMethod(ImpExtReader.modifyRequest());
+            }
+            bidderClassBuilder.addMethod(readImpExt);
         }
 
-        return JavaFile.builder("org.prebid.server.bidder." + bidderPackage, bidderClassBuilder.build())
+        final TypeSpec bidderClassSpec = isStreamed
+                ? StreamingBidParser.wrap(bidderClass, bidderClassBuilder.build())
+                : bidderClassBuilder.build();
+        return JavaFile.builder("org.prebid.server.bidder." + context.getBidderPackage(), bidderClassSpec)
                 .skipJavaLangImports(true)
                 .indent("    ")
                 .build();
     }
 
-    private void modifyImps(TypeSpec.Builder classBuilder, BidderData bidderData, ClassName extClass) {
-
-        // filter impressions modifications only, make .imp a root element by removing if from target path string
-        final List<Transformation> impTransformations = bidderData.getTransformations().stream()
-                .filter(transformation -> transformation.getTarget().contains(IMP_SOURCE))
-                .map(transformation -> new Transformation(
-                        StringUtils.replace(transformation.getTarget(), IMP_SOURCE, ""),
-                        transformation.getStaticValue(),
-                        transformation.getFrom()))
-                .collect(Collectors.toList());
+    private void modifyImps(TypeSpec.Builder classBuilder, GenerationContext context, ClassName extClass) {
+        final PathNode impTargets = context.getTransformations().getImpTargets();
 
         // if there are changes to be done to the impression - create a overridden "modifyImp" method
-        if (!impTransformations.isEmpty()) {
+        if (impTargets.hasChildren()) {
 
             final ClassName impClass = ClassName.get("com.iab.openrtb.request", "Imp");
-            final MethodSpec.Builder modifyImps = MethodSpec.methodBuilder("modifyImp")
-                    .addModifiers(Modifier.PROTECTED)
+            final MethodSpec.Builder modifyImps = transformationMethod("modifyImp", TRANSFORM_IMP, context)
                     .returns(impClass)
-                    .addAnnotation(Override.class)
                     .addParameter(impClass, "imp")
-                    .addParameter(extClass, "impExt")
-                    .addStatement("final Imp.ImpBuilder impBuilder = imp.toBuilder()");
+                    .addParameter(extClass, "impExt");
 
-            final Map<String, List<Transformation>> fieldToTransformations = impTransformations.stream()
-                    .collect(Collectors.groupingBy(transformation -> StringUtils.split(transformation.getTarget(), ".")[0]));
-
-            stringGenerator.resolveMethodBody(modifyImps, fieldToTransformations, ModificationType.IMP, null);
+            if (context.getBidderData().isOptimizeTransformations()) {
+                stringGenerator.resolveLeanMethodBody(modifyImps, classBuilder, impTargets, ModificationType.IMP);
+            } else {
+                modifyImps.addStatement("final Imp.ImpBuilder impBuilder = imp.toBuilder()");
+                stringGenerator.resolveMethodBody(modifyImps, impTargets, ModificationType.IMP);
+            }
 
             classBuilder.addMethod(modifyImps.build());
         }
     }
 
-    // bidrequest.site/app.content - no .toBuilder() method - not available for modifications!
-    private void modifyRequest(TypeSpec.Builder classBuilder, BidderData bidderData, ClassName extClass) {
-
-        // filter out impression transformations, leave request level only
-        final List<Transformation> requestTransformations = bidderData.getTransformations().stream()
-                .filter(transformation -> !transformation.getTarget().contains(IMP_SOURCE))
-                .collect(Collectors.toList());
+    // targets within objects without toBuilder(), e.g. site.content.title, are rejected by TransformationTree
+    private void modifyRequest(TypeSpec.Builder classBuilder, GenerationContext context, ClassName extClass) {
+        final PathNode requestTargets = context.getTransformations().getRequestTargets();
 
-        if (!requestTransformations.isEmpty()) {
+        if (requestTargets.hasChildren()) {
             final ClassName bidRequest = ClassName.get("com.iab.openrtb.request", "BidRequest");
             final ClassName impWithExt = ClassName.get("org.prebid.server.bidder.model", "ImpWithExt");
-            final MethodSpec.Builder modifyRequest = MethodSpec.methodBuilder("modifyRequest")
-                    .addModifiers(Modifier.PROTECTED)
-                    .addAnnotation(Override.class)
+            final MethodSpec.Builder modifyRequest = transformationMethod("modifyRequest", TRANSFORM_REQUEST, context)
                     .addParameter(bidRequest, "bidRequest")
                     .addParameter(bidRequest.nestedClass("BidRequestBuilder"), "requestBuilder")
                     .addParameter(ParameterizedTypeName.get(ClassName.get(List.class),
                             ParameterizedTypeName.get(impWithExt, extClass)), "impsWithExts");
+            if (readsImpExt(context) && !context.getBidderData().isInstrumentBidder()) {
+                modifyRequest.addStatement(ImpExtReader.clearImpExts());
+            }
 
-            final Map<String, List<Transformation>> fieldToTransformations = requestTransformations.stream()
-                    .collect(Collectors.groupingBy(transformation -> StringUtils.split(transformation.getTarget(), ".")[0]));
-
-            for (Map.Entry<String, List<Transformation>> field : fieldToTransformations.entrySet()) {
-                final List<Transformation> transformations = field.getValue();
-                final String topFieldName = field.getKey();
-                final String capKey = StringUtils.capitalize(topFieldName);
-                final ClassName keyClass = ClassName.get("com.iab.openrtb.request", capKey);
-
-                if (transformations.size() > 1) {
-                    stringGenerator.addTopFieldBuilder(modifyRequest, REQUEST_SOURCE, keyClass, topFieldName,
-                            capKey);
-
-                    final Map<String, List<Transformation>> midFieldToTrans = transformations.stream()
-                            .collect(Collectors.groupingBy(tr -> StringUtils.split(tr.getTarget(), ".")[1]));
-
-                    stringGenerator.resolveMethodBody(modifyRequest, midFieldToTrans, ModificationType.REQUEST,
-                            topFieldName);
-                } else {
-                    final Transformation singleTransformation = transformations.get(0);
-                    final String target = singleTransformation.getTarget();
-                    final String[] targetPath = StringUtils.split(target, ".");
-                    if (targetPath.length == 1) {
-                        stringGenerator.addBuilderField(modifyRequest, singleTransformation,
-                                ModificationType.REQUEST, ModificationType.REQUEST.getName(), null);
-                    } else {
-                        stringGenerator.addTopFieldBuilder(modifyRequest, REQUEST_SOURCE, keyClass, topFieldName,
-                                capKey);
-                        final String midField = targetPath[1];
-                        final String capMiddleName = StringUtils.capitalize(midField);
-                        final ClassName midClass = ClassName.get("com.iab.openrtb.request", capMiddleName);
-                        if (targetPath.length == 2) {
-                            stringGenerator.addBuilderField(modifyRequest, singleTransformation,
-                                    ModificationType.REQUEST, topFieldName, null);
-                            modifyRequest.addStatement("requestBuilder.$L($LBuilder.build())",
-                                    topFieldName, topFieldName);
-                        } else {
-                            stringGenerator.addNestedFieldBuilder(modifyRequest, midClass, topFieldName,
-                                    midField, capMiddleName);
-                            modifyRequest.addStatement("requestBuilder.$L($LBuilder.$L($LBuilder$L.build()).build())",
-                                    topFieldName, topFieldName, midField, midField,
-                                    stringGenerator.addTransformationString(singleTransformation, ModificationType.REQUEST));
-                        }
-                    }
-                }
+            if (isRequestTransformationHoisted(context)) {
+                final MethodSpec resolveTransformedRequest = addHoistedRequestTransformation(classBuilder,
+                        modifyRequest, context, bidRequest);
+                classBuilder.addMethod(modifyRequest.build())
+                        .addMethod(resolveTransformedRequest);
+            } else {
+                addRequestTransformationBody(modifyRequest, classBuilder, context);
+                classBuilder.addMethod(modifyRequest.build());
             }
-            classBuilder.addMethod(modifyRequest.build());
         }
     }
 
-    private JavaFile createBidderTestJavaFile(BidderData bidderData) {
+    private void addRequestTransformationBody(MethodSpec.Builder method, TypeSpec.Builder classBuilder,
+                                              GenerationContext context) {
+        final PathNode requestTargets = context.getTransformations().getRequestTargets();
+        if (context.getBidderData().isOptimizeTransformations()) {
+            stringGenerator.resolveLeanMethodBody(method, classBuilder, requestTargets, ModificationType.REQUEST);
+        } else {
+            stringGenerator.resolveMethodBody(method, requestTargets, ModificationType.REQUEST);
+        }
+    }
+
+    /**
+     * REQUEST_PER_IMP bidders call modifyRequest with the same incoming request for every imp, so objects built by
+     * request level transformations are worth computing once and sharing between all outgoing requests.
+     */
+    private static boolean isRequestTransformationHoisted(GenerationContext context) {
+        return REQUEST_PER_IMP.equals(context.getBidderData().getStrategy())
+                && context.getTransformations().getRequestTargets().getChildren().stream()
+                .anyMatch(field -> !field.isLeaf());
+    }
+
+    // transformed fields are collected in a partial BidRequest, cached for the last seen incoming request
+    private MethodSpec addHoistedRequestTransformation(TypeSpec.Builder classBuilder, MethodSpec.Builder modifyRequest,
+                                                       GenerationContext context, ClassName bidRequest) {
+        final TypeSpec requestTransformation = TypeSpec.classBuilder("RequestTransformation")
+                .addModifiers(Modifier.PRIVATE, Modifier.STATIC)
+                .addAnnotation(AnnotationSpec.builder(AllArgsConstructor.class)
+                        .addMember("staticName", "$S", "of")
+                        .build())
+                .addAnnotation(Value.class)
+                .addField(bidRequest, "bidRequest")
+                .addField(bidRequest, "transformedRequest")
+                .build();
+        final ClassName requestTransformationClass = ClassName.get("org.prebid.server.bidder."
+                + context.getBidderPackage(), context.getBidderFile(), requestTransformation.name);
+        final FieldSpec lastTransformation = FieldSpec.builder(requestTransformationClass,
+                "lastRequestTransformation", Modifier.PRIVATE, Modifier.VOLATILE)
+                .build();
+
+        final MethodSpec.Builder resolveTransformedRequest = MethodSpec.methodBuilder("resolveTransformedRequest")
+                .addModifiers(Modifier.PRIVATE)
+                .returns(bidRequest)
+                .addParameter(bidRequest, "bidRequest")
+                .addStatement("final $T cached = $N", requestTransformationClass, lastTransformation)
+                .beginControlFlow("if (cached != null && cached.getBidRequest() == bidRequest)")
+                .addStatement("return cached.getTransformedRequest()")
+                .endControlFlow()
+                .addCode("\n")
+                .addStatement("final $T.BidRequestBuilder requestBuilder = $T.builder()", bidRequest, bidRequest);
+        addRequestTransformationBody(resolveTransformedRequest, classBuilder, context);
+        resolveTransformedRequest
+                .addStatement("final $T transformedRequest = requestBuilder.build()", bidRequest)
+                .addStatement("$N = $N.of(bidRequest, transformedRequest)", lastTransformation,
+                        requestTransformation)
+                .addStatement("return transformedRequest");
+
+        modifyRequest.addStatement("final $T transformedRequest = resolveTransformedRequest(bidRequest)",
+                bidRequest);
+        for (PathNode field : context.getTransformations().getRequestTargets().getChildren()) {
+            if (field.isLeaf() && field.getCondition() != null) {
+                // the cached request can't tell a skipped field from a null one
+                modifyRequest.beginControlFlow("if ($L)", field.getCondition().check())
+                        .addStatement("requestBuilder.$L(transformedRequest.get$L())", field.getName(),
+                                field.getCapitalizedName())
+                        .endControlFlow();
+            } else if (field.isLeaf()) {
+                modifyRequest.addStatement("requestBuilder.$L(transformedRequest.get$L())", field.getName(),
+                        field.getCapitalizedName());
+            } else {
+                // absent object means it is kept as is
+                modifyRequest.beginControlFlow("if (transformedRequest.get$L() != null)", field.getCapitalizedName())
+                        .addStatement("requestBuilder.$L(transformedRequest.get$L())", field.getName(),
+                                field.getCapitalizedName())
+                        .endControlFlow();
+            }
+        }
+
+        classBuilder.addField(lastTransformation)
+                .addType(requestTransformation);
+        return resolveTransformedRequest.build();
+    }
+
+    /**
+     * Instrumented bidders keep transformations in private methods, wrapped by the timed overrides, as do bidders
+     * reading their imp ext, for imp transformations.
+     */
+    private static MethodSpec.Builder transformationMethod(String overriddenName, String instrumentedName,
+                                                           GenerationContext context) {
+        return context.getBidderData().isInstrumentBidder()
+                || (readsImpExt(context) && TRANSFORM_IMP.equals(instrumentedName))
+                ? MethodSpec.methodBuilder(instrumentedName).addModifiers(Modifier.PRIVATE)
+                : MethodSpec.methodBuilder(overriddenName).addModifiers(Modifier.PROTECTED)
+                .addAnnotation(Override.class);
+    }
+
+    /**
+     * Bidders with params may read their imp ext with {@link ImpExtReader}, then OpenrtbBidder only converts it to
+     * a JsonNode.
+     */
+    private static boolean readsImpExt(GenerationContext context) {
+        return context.getBidderData().isCacheImpExts()
+                && CollectionUtils.isNotEmpty(context.getBidderData().getBidderParams());
+    }
+
+    /**
+     * Returns modifyImp of bidders reading their imp ext, which reads it before the imp transformations, if any.
+     */
+    private static MethodSpec.Builder readingModifyImp(GenerationContext context, ClassName extClass,
+                                                       MethodSpec readImpExt) {
+        final ClassName impClass = ClassName.get("com.iab.openrtb.request", "Imp");
+        final MethodSpec.Builder modifyImp = MethodSpec.methodBuilder("modifyImp")
+                .addModifiers(Modifier.PROTECTED)
+                .returns(impClass)
+                .addParameter(impClass, "imp")
+                .addParameter(ImpExtReader.NODE_TYPE, "impExtNode");
+        if (context.getTransformations().getImpTargets().hasChildren()) {
+            return modifyImp.addStatement("final $T impExt = $N(imp)", extClass, readImpExt);
+        }
+        // the ext is still read, so that an imp whose ext doesn't match the ext class fails as before
+        return modifyImp.addStatement("$N(imp)", readImpExt);
+    }
+
+    private static String transformImpCall(GenerationContext context) {
+        if (context.getTransformations().getImpTargets().hasChildren()) {
+            return TRANSFORM_IMP + "(imp, impExt)";
+        }
+        return readsImpExt(context) ? "super.modifyImp(imp, impExtNode)" : "super.modifyImp(imp, impExt)";
+    }
+
+    // OpenrtbBidder parses imp.ext privately between validateImp and modifyImp, so the extraction is timed
+    // between these two calls, and bids are counted as their types are resolved. Metrics are absent when
+    // the bidder is created without them, hooks then only check for null.
+    private static void addInstrumentationHooks(TypeSpec.Builder classBuilder, MethodSpec.Builder constructor,
+                                                GenerationContext context, ClassName extClass,
+                                                MethodSpec readImpExt) {
+        final FieldSpec adapterMetrics = FieldSpec.builder(ADAPTER_METRICS, StreamingBidParser.ADAPTER_METRICS,
+                Modifier.PRIVATE, Modifier.FINAL)
+                .build();
+        classBuilder.addField(adapterMetrics);
+        constructor.addStatement("$N = metrics != null ? metrics.forAdapter($S) : null", adapterMetrics,
+                context.getBidderPackage());
+
+        final FieldSpec extExtractionStart = FieldSpec.builder(ParameterizedTypeName.get(
+                ClassName.get(ThreadLocal.class), TypeName.get(long[].class)), "EXT_EXTRACTION_START",
+                Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
+                .initializer("$T.withInitial(() -> new long[1])", ThreadLocal.class)
+                .build();
+        classBuilder.addField(extExtractionStart);
+
+        final ClassName impClass = ClassName.get("com.iab.openrtb.request", "Imp");
+        final MethodSpec validateImp = MethodSpec.methodBuilder("validateImp")
+                .addModifiers(Modifier.PROTECTED)
+                .addAnnotation(Override.class)
+                .addParameter(impClass, "imp")
+                .addStatement("super.validateImp(imp)")
+                .beginControlFlow("if ($N != null)", adapterMetrics)
+                .addStatement("$N.get()[0] = System.nanoTime()", extExtractionStart)
+                .endControlFlow()
+                .build();
+
+        final TransformationTree transformations = context.getTransformations();
+        final String transformImp = transformImpCall(context);
+        // the ext read by the bidder itself is timed with the inherited conversion
+        final MethodSpec modifyImp = (readImpExt != null
+                ? readingModifyImp(context, extClass, readImpExt)
+                : MethodSpec.methodBuilder("modifyImp")
+                .addModifiers(Modifier.PROTECTED)
+                .returns(impClass)
+                .addParameter(impClass, "imp")
+                .addParameter(extClass, "impExt"))
+                .addAnnotation(Override.class)
+                .beginControlFlow("if ($N == null)", adapterMetrics)
+                .addStatement("return $L", transformImp)
+                .endControlFlow()
+                .addCode("\n")
+                .addStatement("final long start = System.nanoTime()")
+                .addStatement("$N.updateTimer($T.$L, $T.NANOSECONDS.toMillis(start - $N.get()[0]))", adapterMetrics,
+                        StreamingBidParser.METRIC_NAME, EXT_EXTRACTION_METRIC, TimeUnit.class, extExtractionStart)
+                .addStatement("final $T modifiedImp = $L", impClass, transformImp)
+                .addStatement("$N.updateTimer($T.$L, $T.NANOSECONDS.toMillis(System.nanoTime() - start))",
+                        adapterMetrics, StreamingBidParser.METRIC_NAME, MODIFY_IMP_METRIC, TimeUnit.class)
+                .addStatement("return modifiedImp")
+                .build();
+
+        final ClassName bidRequest = ClassName.get("com.iab.openrtb.request", "BidRequest");
+        final String transformRequest = transformations.getRequestTargets().hasChildren()
+                ? TRANSFORM_REQUEST + "(bidRequest, requestBuilder, impsWithExts)"
+                : "super.modifyRequest(bidRequest, requestBuilder, impsWithExts)";
+        final MethodSpec.Builder modifyRequest = MethodSpec.methodBuilder("modifyRequest")
+                .addModifiers(Modifier.PROTECTED)
+                .addAnnotation(Override.class)
+                .addParameter(bidRequest, "bidRequest")
+                .addParameter(bidRequest.nestedClass("BidRequestBuilder"), "requestBuilder")
+                .addParameter(ParameterizedTypeName.get(ClassName.get(List.class), ParameterizedTypeName.get(
+                        ClassName.get("org.prebid.server.bidder.model", "ImpWithExt"),
+                        readImpExt != null ? ImpExtReader.NODE_TYPE : extClass)), "impsWithExts");
+        if (readImpExt != null) {
+            modifyRequest.addStatement(ImpExtReader.clearImpExts());
+        }
+        modifyRequest.beginControlFlow("if ($N == null)", adapterMetrics)
+                .addStatement(transformRequest)
+                .addStatement("return")
+                .endControlFlow()
+                .addCode("\n")
+                .addStatement("final long start = System.nanoTime()")
+                .addStatement(transformRequest)
+                .addStatement("$N.updateTimer($T.$L, $T.NANOSECONDS.toMillis(System.nanoTime() - start))",
+                        adapterMetrics, StreamingBidParser.METRIC_NAME, MODIFY_REQUEST_METRIC, TimeUnit.class);
+
+        final ClassName bidType = ClassName.get("org.prebid.server.proto.openrtb.ext.response", "BidType");
+        final MethodSpec getBidType = MethodSpec.methodBuilder("getBidType")
+                .addModifiers(Modifier.PROTECTED)
+                .addAnnotation(Override.class)
+                .returns(bidType)
+                .addParameter(String.class, "impId")
+                .addParameter(ParameterizedTypeName.get(ClassName.get(List.class), impClass), "imps")
+                .beginControlFlow("if ($N != null)", adapterMetrics)
+                .addStatement("$N.incCounter($T.$L)", adapterMetrics, StreamingBidParser.METRIC_NAME, BIDS_METRIC)
+                .endControlFlow()
+                .addStatement("return super.getBidType(impId, imps)")
+                .build();
+
+        classBuilder.addMethod(validateImp)
+                .addMethod(modifyImp)
+                .addMethod(modifyRequest.build())
+                .addMethod(getBidType);
+    }
+
+    // PBS adapter metrics are named "adapter.<bidder>.<metric>"
+    private static String metricPrefix(GenerationContext context) {
+        return "adapter." + context.getBidderPackage() + ".";
+    }
+
+    private JavaFile createBidderTestJavaFile(GenerationContext context) {
+        final String bidderName = context.getBidderName();
+        final String bidderFile = context.getBidderFile();
         final FieldSpec endpointField = FieldSpec.builder(String.class, "ENDPOINT_URL")
                 .addModifiers(Modifier.PUBLIC, Modifier.STATIC, Modifier.FINAL)
                 .initializer("$S", "https://test.endpoint.com")
                 .build();
 
-        final ClassName bidderClass = ClassName.get("org.prebid.server.bidder." + bidderPackage, bidderFile);
+        final ClassName bidderClass = ClassName.get("org.prebid.server.bidder." + context.getBidderPackage(),
+                bidderFile);
         final FieldSpec bidderInstance = FieldSpec.builder(bidderClass, bidderName + "Bidder", Modifier.PRIVATE)
                 .build();
         final MethodSpec setUpMethod = MethodSpec.methodBuilder("setUp")
@@ -330,6 +582,21 @@ public class CodeGenerationProcessing {
                         .addStatement("assertThat(result.getValue()).containsOnly(BidderBid.of(Bid.builder()"
                                 + ".impid(\"123\").build(), banner, \"USD\"))"));
 
+        final MethodSpec streamedBidsTest = createTestMethod("makeBidsShouldReturnBidsOfDecodedBidResponse",
+                method -> method.addException(IOException.class)
+                        .addCode("// given\nfinal HttpCall<BidRequest> httpCall = givenHttpCall(\n")
+                        .addCode("BidRequest.builder().imp(singletonList(Imp.builder().id(\"123\").build())).build(),\n")
+                        .addCode("BID_RESPONSE);\n\n")
+                        .addCode("// when\nfinal $T<List<BidderBid>> result = $N.makeBids(httpCall, null);\n\n",
+                                result, bidderInstance)
+                        .addCode("// then\nfinal List<BidderBid> expectedBids = mapper.readValue(BID_RESPONSE, "
+                                + "BidResponse.class).getSeatbid().stream()\n")
+                        .addCode(".flatMap(seatBid -> seatBid.getBid().stream())\n")
+                        .addCode(".map(bid -> BidderBid.of(bid, banner, \"USD\"))\n")
+                        .addCode(".collect($T.toList());\n", Collectors.class)
+                        .addCode("assertThat(result.getErrors()).isEmpty();\n")
+                        .addStatement("assertThat(result.getValue()).hasSize(3).isEqualTo(expectedBids)"));
+
         final MethodSpec targetingTest = createTestMethod("extractTargetingShouldReturnEmptyMap",
                 method -> method.addStatement("assertThat($N.extractTargeting(mapper.createObjectNode())).isEqualTo(emptyMap())",
                         bidderInstance));
@@ -345,49 +612,282 @@ public class CodeGenerationProcessing {
                         .addMethod(endpointValidationTest)
                         .addMethod(extCannotBeParsedTest);
 
-        resolveAndAddBidderTransformationsTest(testClassBuilder, bidderData, bidderInstance);
+        resolveAndAddBidderTransformationsTest(testClassBuilder, context, bidderInstance);
+
+        if (context.getBidderData().isInstrumentBidder()) {
+            addInstrumentationTests(testClassBuilder, context, bidderClass, endpointField);
+        }
 
         testClassBuilder
                 .addMethod(responseBodyTest)
                 .addMethod(bidResponseNullTest)
                 .addMethod(seatBidNullTest)
-                .addMethod(bannerBidTest)
-                .addMethod(targetingTest);
+                .addMethod(bannerBidTest);
+
+        // the bidder parses responses itself, so it is checked against the mapper on every kind of field
+        if (context.getBidderData().isStreamBidResponses()) {
+            testClassBuilder.addField(FieldSpec.builder(String.class, "BID_RESPONSE",
+                    Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
+                    .initializer("$S", StreamingBidParser.getSampleBidResponse())
+                    .build())
+                    .addMethod(streamedBidsTest);
+        }
+
+        testClassBuilder.addMethod(targetingTest);
+
+        // the ext is read within the nested request bidder of streaming bidders, which tests can't reach
+        final boolean testsImpExtReading = readsImpExt(context) && !context.getBidderData().isStreamBidResponses();
+        if (testsImpExtReading) {
+            addImpExtReadingTests(testClassBuilder, context, bidderInstance);
+        }
 
-        addUtilityMethods(testClassBuilder, bidderData);
+        addUtilityMethods(testClassBuilder, context);
 
-        return JavaFile.builder("org.prebid.server.bidder."
-                        + bidderPackage, testClassBuilder.build())
+        final JavaFile.Builder testFile = JavaFile.builder("org.prebid.server.bidder."
+                        + context.getBidderPackage(), testClassBuilder.build())
                 .skipJavaLangImports(true)
                 .addStaticImport(Collections.class, "emptyMap", "singletonList")
                 .addStaticImport(Assertions.class, "assertThat", "assertThatIllegalArgumentException")
                 .addStaticImport(ClassName.get("org.prebid.server.proto.openrtb.ext.response", "BidType"), "banner")
                 .addStaticImport(Function.class, "identity")
-                .indent("    ")
-                .build();
+                .indent("    ");
+        if (testsImpExtReading) {
+            testFile.addStaticImport(Assertions.class, "assertThatThrownBy");
+        }
+        return testFile.build();
     }
 
-    private void resolveAndAddBidderTransformationsTest(TypeSpec.Builder builder, BidderData bidderData,
+    private void resolveAndAddBidderTransformationsTest(TypeSpec.Builder builder, GenerationContext context,
                                                         FieldSpec bidderInstance) {
         final MethodSpec transformationsTest = createTestMethod("makeHttpRequestsShouldReturnExpectedRequest",
                 method -> method
                         .addCode("// given\n")
-                        .addCode(stringGenerator.resolveGivenBidRequestString(bidderData))
+                        .addCode(stringGenerator.resolveGivenBidRequestString(context))
                         .addCode("\n\n")
                         .addCode("// when\nfinal Result<List<HttpRequest<BidRequest>>> result = "
-                                + "$NBidder.makeHttpRequests(bidRequest);\n\n", bidderInstance)
+                                + "$N.makeHttpRequests(bidRequest);\n\n", bidderInstance)
                         .addCode("// then\n")
-                        .addCode(stringGenerator.resolveExpectedBidRequestString(bidderData))
+                        .addCode(stringGenerator.resolveExpectedBidRequestString(context))
                         .addCode("\n")
                         .addCode("assertThat(result.getErrors()).isEmpty();\n")
                         .addCode("assertThat(result.getValue()).hasSize(1)\n")
                         .addCode(".extracting(httpRequest -> mapper.readValue(httpRequest.getBody(), BidRequest.class))\n")
-                        .addStatement(".containsOnly(expectedRequest)"));
+                        .addStatement(".containsOnly(toSentRequest(expectedRequest))"));
 
         builder.addMethod(transformationsTest);
+
+        if (context.getTransformations().hasUnmatchedPaths()) {
+            builder.addMethod(createUnmatchedConditionsTest(context, bidderInstance));
+        }
+
+        if (isRequestTransformationHoisted(context)) {
+            builder.addMethod(createRequestPerImpTest(context, bidderInstance));
+        }
+
+        // re-applying transformations that read their own targets may legitimately change the request again
+        final TransformationTree transformations = context.getTransformations();
+        if (context.getBidderData().isOptimizeTransformations() && !transformations.hasOverlappingSources()) {
+            builder.addMethod(createUnchangedObjectsTest(context, bidderInstance));
+        }
+    }
+
+    // the given request of the other tests satisfies every condition
+    private MethodSpec createUnmatchedConditionsTest(GenerationContext context, FieldSpec bidderInstance) {
+        return createTestMethod("makeHttpRequestsShouldSkipTransformationsWhoseConditionsDoNotHold",
+                method -> method
+                        .addCode("// given\n")
+                        .addCode(stringGenerator.resolveUnmatchedBidRequestString(context))
+                        .addCode("\n\n")
+                        .addCode("// when\nfinal Result<List<HttpRequest<BidRequest>>> result = "
+                                + "$N.makeHttpRequests(bidRequest);\n\n", bidderInstance)
+                        .addCode("// then\n")
+                        .addCode(stringGenerator.resolveUnmatchedExpectedBidRequestString(context))
+                        .addCode("\n")
+                        .addCode("assertThat(result.getErrors()).isEmpty();\n")
+                        .addCode("assertThat(result.getValue()).hasSize(1)\n")
+                        .addCode(".extracting(httpRequest -> mapper.readValue(httpRequest.getBody(), BidRequest.class))\n")
+                        .addStatement(".containsOnly(toSentRequest(expectedRequest))"));
     }
 
-    private void addUtilityMethods(TypeSpec.Builder builder, BidderData bidderData) {
+    private MethodSpec createRequestPerImpTest(GenerationContext context, FieldSpec bidderInstance) {
+        return createTestMethod("makeHttpRequestsShouldShareRequestTransformationsBetweenImpRequests",
+                method -> {
+                    method.addCode("// given\n")
+                            .addCode(stringGenerator.resolveGivenBidRequestString(context))
+                            .addCode("\n")
+                            .addCode("final BidRequest multiImpRequest = bidRequest.toBuilder()\n")
+                            .addCode(".imp($T.asList(bidRequest.getImp().get(0), bidRequest.getImp().get(0)))\n",
+                                    Arrays.class)
+                            .addCode(".build();\n\n")
+                            .addCode("// when\nfinal Result<List<HttpRequest<BidRequest>>> result = "
+                                    + "$N.makeHttpRequests(multiImpRequest);\n\n", bidderInstance)
+                            .addCode("// then\n")
+                            .addCode(stringGenerator.resolveExpectedBidRequestString(context))
+                            .addCode("\n")
+                            .addCode("assertThat(result.getErrors()).isEmpty();\n")
+                            .addCode("assertThat(result.getValue()).hasSize(2)\n")
+                            .addCode(".extracting(httpRequest -> mapper.readValue(httpRequest.getBody(), BidRequest.class))\n")
+                            .addStatement(".containsOnly(toSentRequest(expectedRequest), toSentRequest(expectedRequest))");
+                    for (PathNode field : context.getTransformations().getRequestTargets().getChildren()) {
+                        if (!field.isLeaf()) {
+                            method.addStatement("assertThat(result.getValue().get(1).getPayload().get$L())"
+                                            + ".isSameAs(result.getValue().get(0).getPayload().get$L())",
+                                    field.getCapitalizedName(), field.getCapitalizedName());
+                        }
+                    }
+                    return method;
+                });
+    }
+
+    private MethodSpec createUnchangedObjectsTest(GenerationContext context, FieldSpec bidderInstance) {
+        final TransformationTree transformations = context.getTransformations();
+        return createTestMethod("makeHttpRequestsShouldReuseObjectsThatAlreadyHoldExpectedValues",
+                method -> {
+                    method.addCode("// given\n")
+                            .addCode(stringGenerator.resolveGivenBidRequestString(context))
+                            .addCode("\n")
+                            .addCode(stringGenerator.resolveExpectedBidRequestString(context))
+                            .addCode("\n\n")
+                            .addCode("// when\nfinal Result<List<HttpRequest<BidRequest>>> result = "
+                                    + "$N.makeHttpRequests(expectedRequest);\n\n", bidderInstance)
+                            .addCode("// then\n")
+                            .addCode("assertThat(result.getErrors()).isEmpty();\n")
+                            .addCode("assertThat(result.getValue()).hasSize(1)\n")
+                            .addCode(".extracting(httpRequest -> mapper.readValue(httpRequest.getBody(), BidRequest.class))\n")
+                            .addStatement(".containsOnly(toSentRequest(expectedRequest))")
+                            .addStatement("final BidRequest payload = result.getValue().get(0).getPayload()");
+                    if (transformations.getImpTargets().hasChildren()) {
+                        method.addStatement("assertThat(payload.getImp().get(0)).isSameAs(expectedRequest.getImp().get(0))");
+                    }
+                    for (PathNode field : transformations.getRequestTargets().getChildren()) {
+                        if (!field.isLeaf()) {
+                            method.addStatement("assertThat(payload.get$L()).isSameAs(expectedRequest.get$L())",
+                                    field.getCapitalizedName(), field.getCapitalizedName());
+                        }
+                    }
+                    return method;
+                });
+    }
+
+    private void addInstrumentationTests(TypeSpec.Builder builder, GenerationContext context, ClassName bidderClass,
+                                         FieldSpec endpointField) {
+        final String metricPrefix = metricPrefix(context);
+        final CodeBlock givenInstrumentedBidder = CodeBlock.builder()
+                .addStatement("final $T metricRegistry = new $T()", METRIC_REGISTRY, METRIC_REGISTRY)
+                .addStatement("final $T metrics = new $T(metricRegistry, $T.counter)", METRICS, METRICS,
+                        ClassName.get("org.prebid.server.metric", "CounterType"))
+                .addStatement("final $T instrumentedBidder = new $T($N, jacksonMapper, metrics)", bidderClass,
+                        bidderClass, endpointField)
+                .build();
+
+        final MethodSpec requestMetricsTest = createTestMethod("makeHttpRequestsShouldRecordInstrumentationMetrics",
+                method -> method
+                        .addCode("// given\n")
+                        .addCode(givenInstrumentedBidder)
+                        .addCode(stringGenerator.resolveGivenBidRequestString(context))
+                        .addCode("\n\n")
+                        .addCode("// when\nfinal Result<List<HttpRequest<BidRequest>>> result = "
+                                + "instrumentedBidder.makeHttpRequests(bidRequest);\n\n")
+                        .addCode("// then\n")
+                        .addStatement("assertThat(result.getErrors()).isEmpty()")
+                        .addStatement("assertThat(metricRegistry.timer($S).getCount()).isEqualTo(1)",
+                                metricPrefix + EXT_EXTRACTION_METRIC)
+                        .addStatement("assertThat(metricRegistry.timer($S).getCount()).isEqualTo(1)",
+                                metricPrefix + MODIFY_IMP_METRIC)
+                        .addStatement("assertThat(metricRegistry.timer($S).getCount()).isEqualTo(1)",
+                                metricPrefix + MODIFY_REQUEST_METRIC));
+
+        // OpenrtbBidder keeps makeBids final, only the streaming parser is timed
+        final boolean timesMakeBids = context.getBidderData().isStreamBidResponses();
+        final MethodSpec bidMetricsTest = createTestMethod(timesMakeBids
+                        ? "makeBidsShouldCountAndTimeBids"
+                        : "makeBidsShouldCountBids",
+                method -> method.addException(JsonProcessingException.class)
+                        .addCode("// given\n")
+                        .addCode(givenInstrumentedBidder)
+                        .addCode("final HttpCall<BidRequest> httpCall = givenHttpCall(\n")
+                        .addCode("BidRequest.builder().imp(singletonList(Imp.builder().id(\"123\").build())).build(),\n")
+                        .addCode("mapper.writeValueAsString(givenBidResponse(bidBuilder -> bidBuilder.impid(\"123\"))));\n\n")
+                        .addCode("// when\nfinal Result<List<BidderBid>> result = instrumentedBidder.makeBids(httpCall, null);\n\n")
+                        .addCode("// then\n")
+                        .addStatement("assertThat(result.getValue()).hasSize(1)")
+                        .addStatement("assertThat(metricRegistry.counter($S).getCount()).isEqualTo(1)",
+                                metricPrefix + BIDS_METRIC)
+                        .addCode(timesMakeBids
+                                ? CodeBlock.of("assertThat(metricRegistry.timer($S).getCount()).isEqualTo(1);\n",
+                                metricPrefix + StreamingBidParser.MAKE_BIDS_METRIC)
+                                : CodeBlock.of("")));
+
+        builder.addMethod(requestMetricsTest)
+                .addMethod(bidMetricsTest);
+    }
+
+    private static void addImpExtReadingTests(TypeSpec.Builder builder, GenerationContext context,
+                                              FieldSpec bidderInstance) {
+        final ClassName extClass = ClassName.get("org.prebid.server.proto.openrtb.ext.request."
+                + context.getBidderPackage(), context.getBidderImpExtName());
+
+        final MethodSpec reuseTest = createTestMethod("readImpExtShouldReuseExtOfEqualImpExtWithinRequest",
+                method -> method
+                        .addCode("// given\n")
+                        .addStatement("final $T impExt = $N.readImpExt(givenImp(identity()))", extClass,
+                                bidderInstance)
+                        .addCode("\n// when\n")
+                        .addStatement("final $T otherImpExt = $N.readImpExt(givenImp(identity()))", extClass,
+                                bidderInstance)
+                        .addCode("\n// then\n")
+                        .addStatement("assertThat(otherImpExt).isSameAs(impExt)"));
+
+        // the other imp differs in its first param, so both exts are kept and compared with the mapper's reading
+        final MethodSpec mapperTest = createTestMethod("readImpExtShouldKeepEachExtOfRequestAsMapperReadsIt",
+                method -> method.addException(JsonProcessingException.class)
+                        .addCode("// given\n")
+                        .addStatement("final Imp imp = givenImp(identity())")
+                        .addStatement("final $T otherExt = imp.getExt().deepCopy()", ObjectNode.class)
+                        .addStatement("(($T) otherExt.get($S)).putNull($S)", ObjectNode.class, "bidder",
+                                context.getBidderData().getBidderParams().get(0).getName())
+                        .addStatement("final Imp otherImp = imp.toBuilder().ext(otherExt).build()")
+                        .addStatement("final $T impExt = $N.readImpExt(imp)", extClass, bidderInstance)
+                        .addStatement("final $T otherImpExt = $N.readImpExt(otherImp)", extClass, bidderInstance)
+                        .addCode("\n// when\n")
+                        .addStatement("final $T keptImpExt = $N.readImpExt(imp)", extClass, bidderInstance)
+                        .addStatement("final $T keptOtherImpExt = $N.readImpExt(otherImp)", extClass,
+                                bidderInstance)
+                        .addCode("\n// then\n")
+                        .addStatement("assertThat(keptImpExt).isSameAs(impExt)\n"
+                                + ".isEqualTo(mapper.treeToValue(imp.getExt().get($S), $T.class))", "bidder", extClass)
+                        .addStatement("assertThat(keptOtherImpExt).isSameAs(otherImpExt)\n"
+                                + ".isEqualTo(mapper.treeToValue(otherExt.get($S), $T.class))\n"
+                                + ".isNotEqualTo(impExt)", "bidder", extClass));
+
+        final MethodSpec requestScopeTest = createTestMethod("readImpExtShouldNotReuseExtOfPreviousRequest",
+                method -> method
+                        .addCode("// given\n")
+                        .addStatement("final Imp imp = givenImp(identity())")
+                        .addStatement("final $T impExt = $N.readImpExt(imp)", extClass, bidderInstance)
+                        .addStatement("$N.makeHttpRequests(BidRequest.builder().imp(singletonList(imp)).build())",
+                                bidderInstance)
+                        .addCode("\n// when\n")
+                        .addStatement("final $T nextImpExt = $N.readImpExt(imp)", extClass, bidderInstance)
+                        .addCode("\n// then\n")
+                        .addStatement("assertThat(nextImpExt).isNotSameAs(impExt).isEqualTo(impExt)"));
+
+        final MethodSpec missingExtTest = createTestMethod("readImpExtShouldFailWithoutImpExt",
+                method -> method
+                        .addCode("// when and then\n")
+                        .addStatement("assertThatThrownBy(() -> $N.readImpExt(Imp.builder().build()))\n"
+                                        + ".isInstanceOf($T.class)\n"
+                                        + ".hasMessageStartingWith($S)", bidderInstance,
+                                ClassName.get("org.prebid.server.exception", "PreBidException"),
+                                "Cannot deserialize instance"));
+
+        builder.addMethod(reuseTest)
+                .addMethod(mapperTest)
+                .addMethod(requestScopeTest)
+                .addMethod(missingExtTest);
+    }
+
+    private void addUtilityMethods(TypeSpec.Builder builder, GenerationContext context) {
         final ClassName bidRequest = ClassName.get("com.iab.openrtb.request", "BidRequest");
         final ClassName bidRequestBuilder = bidRequest.nestedClass("BidRequestBuilder");
         final ClassName imp = ClassName.get("com.iab.openrtb.request", "Imp");
@@ -411,8 +911,6 @@ public class CodeGenerationProcessing {
                 .addStatement("return givenBidRequest(impCustomizer, identity())")
                 .build();
 
-        final ClassName imExtClass = ClassName.get("org.prebid.server.proto.openrtb.ext.request."
-                + bidderPackage, bidderImpExtName);
         final ClassName banner = ClassName.get("com.iab.openrtb.request", "Banner");
         final ClassName video = ClassName.get("com.iab.openrtb.request", "Video");
         final MethodSpec givenImp = MethodSpec.methodBuilder("givenImp")
@@ -421,10 +919,11 @@ public class CodeGenerationProcessing {
                 .addParameter(ParameterizedTypeName.get(ClassName.get(Function.class),
                         impBuilder, impBuilder), "impCustomizer")
                 .addCode("return impCustomizer.apply(Imp.builder()\n")
-                .addCode(".id(\"123\"))\n")
+                .addCode(".id(\"123\")\n")
                 .addCode(".banner($T.builder().build())\n", banner)
                 .addCode(".video($T.builder().build())\n", video)
-                .addCode(stringGenerator.resolveExt(bidderData), imExtClass)
+                .addCode(stringGenerator.resolveExt(context))
+                .addCode(")\n")
                 .addStatement(".build()")
                 .build();
 
@@ -454,16 +953,230 @@ public class CodeGenerationProcessing {
                 .addStatement("$T.of(200, null, body), null)", httpResponse)
                 .build();
 
+        // the bidder sends the request as JSON, so the expected request is compared as it reads back, e.g. with
+        // a Long imp ext param read as an int and a Float one as a decimal
+        final MethodSpec toSentRequest = MethodSpec.methodBuilder("toSentRequest")
+                .addModifiers(Modifier.PRIVATE, Modifier.STATIC)
+                .returns(bidRequest)
+                .addParameter(bidRequest, "bidRequest")
+                .beginControlFlow("try")
+                .addStatement("return mapper.readValue(mapper.writeValueAsString(bidRequest), BidRequest.class)")
+                .nextControlFlow("catch ($T e)", IOException.class)
+                .addStatement("throw new $T(e)", UncheckedIOException.class)
+                .endControlFlow()
+                .build();
+
         builder.addMethod(givenBidRequest)
                 .addMethod(givenBidRequestImp)
                 .addMethod(givenImp)
                 .addMethod(givenBidResponse)
-                .addMethod(givenHttpCall);
+                .addMethod(givenHttpCall)
+                .addMethod(toSentRequest);
+    }
+
+    private static GeneratedFile toGeneratedFile(JavaFile javaFile, FileType fileType) {
+        final String path = fileType.getFilePrefix() + javaFile.packageName.replace('.', '/') + "/"
+                + javaFile.typeSpec.name + ".java";
+        return GeneratedFile.of(fileType, path, javaFile.toString());
     }
 
-    private void writeGeneratedFile(JavaFile bidderFile, BidderData bidderData, FileType fileType) throws IOException {
-        final String bidderFilePath = fileCreator.makeBidderFile(bidderData, fileType);
-        bidderFile.writeTo(Paths.get(bidderFilePath));
+    private JavaFile createBidderBenchmarkJavaFile(GenerationContext context) {
+        final String bidderName = context.getBidderName();
+        final String bidderFile = context.getBidderFile();
+        final String jmh = "org.openjdk.jmh.annotations";
+        final String bidderModel = "org.prebid.server.bidder.model";
+        final ClassName bidRequest = ClassName.get("com.iab.openrtb.request", "BidRequest");
+        final ClassName imp = ClassName.get("com.iab.openrtb.request", "Imp");
+        final ClassName objectMapper = ClassName.get("com.fasterxml.jackson.databind", "ObjectMapper");
+        final ClassName jacksonMapper = ClassName.get("org.prebid.server.json", "JacksonMapper");
+        final ClassName bidderClass = ClassName.get("org.prebid.server.bidder." + context.getBidderPackage(),
+                bidderFile);
+        final ParameterizedTypeName httpCallType = ParameterizedTypeName.get(
+                ClassName.get(bidderModel, "HttpCall"), bidRequest);
+
+        final FieldSpec endpointField = FieldSpec.builder(String.class, "ENDPOINT_URL")
+                .addModifiers(Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
+                .initializer("$S", "https://test.endpoint.com")
+                .build();
+        final FieldSpec mapperField = FieldSpec.builder(objectMapper, "mapper")
+                .addModifiers(Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
+                .initializer("$T.mapper()", ClassName.get("org.prebid.server.json", "ObjectMapperProvider"))
+                .build();
+        final FieldSpec impCountField = FieldSpec.builder(int.class, "impCount", Modifier.PRIVATE)
+                .addAnnotation(AnnotationSpec.builder(ClassName.get(jmh, "Param"))
+                        .addMember("value", "{$S, $S, $S}", "1", "10", "100")
+                        .build())
+                .build();
+        final FieldSpec bidderInstance = FieldSpec.builder(bidderClass, bidderName + "Bidder", Modifier.PRIVATE)
+                .build();
+        final FieldSpec bidRequestField = FieldSpec.builder(bidRequest, "bidRequest", Modifier.PRIVATE).build();
+        final FieldSpec httpCallField = FieldSpec.builder(httpCallType, "httpCall", Modifier.PRIVATE).build();
+
+        final MethodSpec setUpMethod = MethodSpec.methodBuilder("setUp")
+                .addModifiers(Modifier.PUBLIC)
+                .addAnnotation(ClassName.get(jmh, "Setup"))
+                .addException(JsonProcessingException.class)
+                .addStatement("$N = new $T($N, new $T($N))", bidderInstance, bidderClass, endpointField,
+                        jacksonMapper, mapperField)
+                .addCode("$N = givenBidRequest($N,\n", bidRequestField, impCountField)
+                .addCode(stringGenerator.resolveGivenCustomizersString(context))
+                .addCode(");\n")
+                .addStatement("$N = givenHttpCall($N, $N.writeValueAsString(givenBidResponse($N.getImp())))",
+                        httpCallField, bidRequestField, mapperField, bidRequestField)
+                .build();
+
+        final MethodSpec makeHttpRequests = MethodSpec.methodBuilder("makeHttpRequests")
+                .addModifiers(Modifier.PUBLIC)
+                .addAnnotation(ClassName.get(jmh, "Benchmark"))
+                .returns(ParameterizedTypeName.get(ClassName.get(bidderModel, "Result"),
+                        ParameterizedTypeName.get(ClassName.get(List.class), ParameterizedTypeName.get(
+                                ClassName.get(bidderModel, "HttpRequest"), bidRequest))))
+                .addStatement("return $N.makeHttpRequests($N)", bidderInstance, bidRequestField)
+                .build();
+
+        final MethodSpec makeBids = MethodSpec.methodBuilder("makeBids")
+                .addModifiers(Modifier.PUBLIC)
+                .addAnnotation(ClassName.get(jmh, "Benchmark"))
+                .returns(ParameterizedTypeName.get(ClassName.get(bidderModel, "Result"),
+                        ParameterizedTypeName.get(ClassName.get(List.class), ClassName.get(bidderModel, "BidderBid"))))
+                .addStatement("return $N.makeBids($N, $N)", bidderInstance, httpCallField, bidRequestField)
+                .build();
+
+        final TypeSpec.Builder benchmarkClassBuilder = TypeSpec.classBuilder(bidderFile + "Benchmark")
+                .addModifiers(Modifier.PUBLIC)
+                .addAnnotation(AnnotationSpec.builder(ClassName.get(jmh, "State"))
+                        .addMember("value", "$T.Benchmark", ClassName.get(jmh, "Scope"))
+                        .build())
+                .addAnnotation(AnnotationSpec.builder(ClassName.get(jmh, "BenchmarkMode"))
+                        .addMember("value", "{$T.Throughput, $T.AverageTime}", ClassName.get(jmh, "Mode"),
+                                ClassName.get(jmh, "Mode"))
+                        .build())
+                .addAnnotation(AnnotationSpec.builder(ClassName.get(jmh, "OutputTimeUnit"))
+                        .addMember("value", "$T.MICROSECONDS", TimeUnit.class)
+                        .build())
+                .addAnnotation(AnnotationSpec.builder(ClassName.get(jmh, "Warmup"))
+                        .addMember("iterations", "$L", 5)
+                        .addMember("time", "$L", 1)
+                        .build())
+                .addAnnotation(AnnotationSpec.builder(ClassName.get(jmh, "Measurement"))
+                        .addMember("iterations", "$L", 5)
+                        .addMember("time", "$L", 1)
+                        .build())
+                .addAnnotation(AnnotationSpec.builder(ClassName.get(jmh, "Fork"))
+                        .addMember("value", "$L", 1)
+                        .build())
+                .addField(endpointField)
+                .addField(mapperField)
+                .addField(impCountField)
+                .addField(bidderInstance)
+                .addField(bidRequestField)
+                .addField(httpCallField)
+                .addMethod(setUpMethod)
+                .addMethod(makeHttpRequests)
+                .addMethod(makeBids);
+
+        if (readsImpExt(context)) {
+            addImpExtBenchmarks(benchmarkClassBuilder, context, bidderInstance, bidRequestField, mapperField, imp);
+        }
+
+        addBenchmarkUtilityMethods(benchmarkClassBuilder, context, imp, bidRequest);
+
+        return JavaFile.builder("org.prebid.server.bidder." + context.getBidderPackage(),
+                benchmarkClassBuilder.build())
+                .skipJavaLangImports(true)
+                .addStaticImport(Collections.class, "singletonList")
+                .addStaticImport(Function.class, "identity")
+                .indent("    ")
+                .build();
+    }
+
+    // the inherited path is OpenrtbBidder's conversion, which generated bidders reading their imp ext replace
+    private static void addImpExtBenchmarks(TypeSpec.Builder builder, GenerationContext context,
+                                            FieldSpec bidderInstance, FieldSpec bidRequestField,
+                                            FieldSpec mapperField, ClassName imp) {
+        final ClassName extClass = ClassName.get("org.prebid.server.proto.openrtb.ext.request."
+                + context.getBidderPackage(), context.getBidderImpExtName());
+        builder.addMethod(impExtBenchmark("readImpExts", CodeBlock.of("$N.readImpExt(imp)", bidderInstance),
+                extClass, bidRequestField, imp))
+                .addMethod(impExtBenchmark("convertImpExts", CodeBlock.of("$N.convertValue(imp.getExt().get($S), "
+                        + "$T.class)", mapperField, "bidder", extClass), extClass, bidRequestField, imp));
+    }
+
+    private static MethodSpec impExtBenchmark(String name, CodeBlock impExt, ClassName extClass,
+                                              FieldSpec bidRequestField, ClassName imp) {
+        final ParameterizedTypeName extList = ParameterizedTypeName.get(ClassName.get(List.class), extClass);
+        return MethodSpec.methodBuilder(name)
+                .addModifiers(Modifier.PUBLIC)
+                .addAnnotation(ClassName.get("org.openjdk.jmh.annotations", "Benchmark"))
+                .returns(extList)
+                .addStatement("final $T impExts = new $T<>($N.getImp().size())", extList, ArrayList.class,
+                        bidRequestField)
+                .beginControlFlow("for ($T imp : $N.getImp())", imp, bidRequestField)
+                .addStatement("impExts.add($L)", impExt)
+                .endControlFlow()
+                .addStatement("return impExts")
+                .build();
+    }
+
+    private void addBenchmarkUtilityMethods(TypeSpec.Builder builder, GenerationContext context, ClassName imp,
+                                            ClassName bidRequest) {
+        final ClassName impBuilder = imp.nestedClass("ImpBuilder");
+        final ClassName bidRequestBuilder = bidRequest.nestedClass("BidRequestBuilder");
+        final ParameterizedTypeName impList = ParameterizedTypeName.get(ClassName.get(List.class), imp);
+        final MethodSpec givenBidRequest = MethodSpec.methodBuilder("givenBidRequest")
+                .addModifiers(Modifier.PRIVATE, Modifier.STATIC)
+                .returns(bidRequest)
+                .addParameter(int.class, "impCount")
+                .addParameter(ParameterizedTypeName.get(ClassName.get(Function.class), impBuilder, impBuilder),
+                        "impCustomizer")
+                .addParameter(ParameterizedTypeName.get(ClassName.get(Function.class),
+                        bidRequestBuilder, bidRequestBuilder), "requestCustomizer")
+                .addStatement("final $T imps = new $T<>(impCount)", impList, ArrayList.class)
+                .beginControlFlow("for (int i = 0; i < impCount; i++)")
+                .addCode("imps.add(impCustomizer.apply($T.builder()\n", imp)
+                .addCode(".id(String.valueOf(i))\n")
+                .addCode(".banner($T.builder().build())\n", ClassName.get("com.iab.openrtb.request", "Banner"))
+                .addCode(".video($T.builder().build())\n", ClassName.get("com.iab.openrtb.request", "Video"))
+                .addCode(stringGenerator.resolveExt(context))
+                .addStatement(").build())")
+                .endControlFlow()
+                .addStatement("return requestCustomizer.apply($T.builder().id($S).imp(imps)).build()",
+                        bidRequest, "request-id")
+                .build();
+
+        final ClassName bid = ClassName.get("com.iab.openrtb.response", "Bid");
+        final MethodSpec givenBidResponse = MethodSpec.methodBuilder("givenBidResponse")
+                .addModifiers(Modifier.PRIVATE, Modifier.STATIC)
+                .returns(ClassName.get("com.iab.openrtb.response", "BidResponse"))
+                .addParameter(impList, "imps")
+                .addStatement("final $T bids = new $T<>(imps.size())",
+                        ParameterizedTypeName.get(ClassName.get(List.class), bid), ArrayList.class)
+                .beginControlFlow("for ($T imp : imps)", imp)
+                .addStatement("bids.add($T.builder().impid(imp.getId()).price($T.ONE).build())", bid,
+                        BigDecimal.class)
+                .endControlFlow()
+                .addCode("return $T.builder()\n", ClassName.get("com.iab.openrtb.response", "BidResponse"))
+                .addCode(".cur($S)\n", "USD")
+                .addCode(".seatbid(singletonList($T.builder().bid(bids).build()))\n",
+                        ClassName.get("com.iab.openrtb.response", "SeatBid"))
+                .addStatement(".build()")
+                .build();
+
+        final MethodSpec givenHttpCall = MethodSpec.methodBuilder("givenHttpCall")
+                .addModifiers(Modifier.PRIVATE, Modifier.STATIC)
+                .addParameter(bidRequest, "bidRequest")
+                .addParameter(String.class, "body")
+                .returns(ParameterizedTypeName.get(
+                        ClassName.get("org.prebid.server.bidder.model", "HttpCall"), bidRequest))
+                .addCode("return HttpCall.success($T.<BidRequest>builder().payload(bidRequest).build(),\n",
+                        ClassName.get("org.prebid.server.bidder.model", "HttpRequest"))
+                .addStatement("$T.of(200, null, body), null)",
+                        ClassName.get("org.prebid.server.bidder.model", "HttpResponse"))
+                .build();
+
+        builder.addMethod(givenBidRequest)
+                .addMethod(givenBidResponse)
+                .addMethod(givenHttpCall);
     }
 
     private static MethodSpec createTestMethod(String methodName,
@@ -0,0 +1,403 @@
+package com.rubicon.service.processing;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rubicon.model.CompilationDiagnostic;
+import lombok.Builder;
+import org.apache.commons.lang3.StringUtils;
+import org.assertj.core.api.Assertions;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.support.PropertySourceFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StreamUtils;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.annotation.processing.Processor;
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.FileObject;
+import javax.tools.ForwardingJavaFileManager;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileManager;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.StandardLocation;
+import javax.tools.ToolProvider;
+import javax.validation.constraints.NotBlank;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Compiles generated Java sources in memory, so that sources which don't compile are reported right away
+ * instead of by the next PBS build.
+ * <p>
+ * Sources are compiled against the PBS classpath from {@code generation.verify.classpath}, e.g. the output of
+ * {@code mvn dependency:build-classpath} plus {@code target/classes} and {@code target/test-classes}, or against
+ * the bundled stubs of the PBS, OpenRTB, Vert.x and Dropwizard types that generated sources and tests use. Stubs are
+ * compiled once at startup. The Lombok processor class is loaded once, and file managers, which keep the classpath
+ * archives open, are pooled, so verifying a bidder costs only the compilation of its own sources. The standard file
+ * manager isn't thread safe, so each compilation takes an idle one, or opens another one when all of them are busy,
+ * and concurrent verifications don't wait for each other. Compiled classes are discarded.
+ * <p>
+ * On JDK 8 the compiler comes from tools.jar, which the application class loader doesn't see, so Lombok is loaded
+ * by a class loader that sees the compiler classes. When it still can't be loaded, verification is disabled.
+ */
+@Service
+public class CompilationVerifier {
+
+    private static final Logger logger = LoggerFactory.getLogger(CompilationVerifier.class);
+
+    private static final String STUBS_DIRECTORY = "verification-stubs/";
+    private static final String STUBS_INDEX = STUBS_DIRECTORY + "stubs.list";
+    private static final String LOMBOK_PROCESSOR = "lombok.launch.AnnotationProcessorHider$AnnotationProcessor";
+
+    // benchmarks are left out, since neither PBS nor the stubs provide JMH
+    private static final Set<FileType> VERIFIED_FILE_TYPES = EnumSet.of(FileType.BIDDER, FileType.EXT,
+            FileType.CONFIG, FileType.BIDDER_TEST, FileType.TEST_SIMPLE_BIDDER);
+
+    // libraries that stubs and generated sources use besides PBS, each one found by a class it contains
+    private static final List<Class<?>> STUB_LIBRARIES = Arrays.asList(Builder.class, JsonProperty.class,
+            JsonParser.class, ObjectMapper.class, PropertySourceFactory.class, Autowired.class, Configuration.class,
+            ConfigurationProperties.class, NotBlank.class, Test.class, Assertions.class);
+
+    private final boolean enabled;
+    private final String pbsClasspath;
+
+    // idle file managers, with the classpath set
+    private final Queue<StandardJavaFileManager> fileManagers = new ConcurrentLinkedQueue<>();
+
+    private JavaCompiler compiler;
+    private List<File> classpath;
+    private Class<?> lombokProcessor;
+    private Path workDirectory;
+
+    public CompilationVerifier(@Value("${generation.verify.enabled:true}") boolean enabled,
+                               @Value("${generation.verify.classpath:}") String pbsClasspath) {
+        this.enabled = enabled;
+        this.pbsClasspath = pbsClasspath;
+    }
+
+    /**
+     * Sets up the classpath and compiles the stubs, so that neither is paid for by the first verified bidder.
+     */
+    @PostConstruct
+    public void warmUp() throws IOException {
+        if (!enabled) {
+            return;
+        }
+        compiler = ToolProvider.getSystemJavaCompiler();
+        if (compiler == null) {
+            logger.warn("Java compiler is not available, generated sources won't be verified unless run on a JDK");
+            return;
+        }
+
+        final long start = System.nanoTime();
+        workDirectory = Files.createTempDirectory("bidder-verification-");
+        final StandardJavaFileManager fileManager = compiler.getStandardFileManager(null, Locale.ROOT,
+                StandardCharsets.UTF_8);
+        fileManagers.add(fileManager);
+        final List<File> verifiedClasspath;
+        try {
+            verifiedClasspath = createClasspath(fileManager);
+            fileManager.setLocation(StandardLocation.CLASS_PATH, verifiedClasspath);
+        } catch (LinkageError e) {
+            close();
+            logger.warn("Lombok annotation processor can't be loaded with the compiler of this JDK, generated sources "
+                    + "won't be verified", e);
+            return;
+        } catch (IOException | RuntimeException e) {
+            close();
+            throw e;
+        }
+        classpath = verifiedClasspath;
+        logger.info("Compilation verifier warmed up in {} ms",
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    /**
+     * Compiles the Java sources among the given files and returns the reported errors and warnings,
+     * or null when sources can't be verified because verification is disabled or there is no compiler.
+     */
+    public List<CompilationDiagnostic> verify(List<GeneratedFile> generatedFiles) {
+        if (classpath == null) {
+            return null;
+        }
+
+        final List<JavaFileObject> sources = generatedFiles.stream()
+                .filter(generatedFile -> VERIFIED_FILE_TYPES.contains(generatedFile.getFileType()))
+                .map(generatedFile -> new SourceFile(generatedFile.getPath(), generatedFile.getContent()))
+                .collect(Collectors.toList());
+        final DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+        final StandardJavaFileManager fileManager = takeFileManager();
+        try {
+            final JavaCompiler.CompilationTask task = compiler.getTask(null,
+                    new DiscardingFileManager(fileManager, workDirectory), diagnostics, null, null, sources);
+            task.setProcessors(Collections.singletonList(newLombokProcessor(lombokProcessor)));
+            task.call();
+        } finally {
+            fileManagers.add(fileManager);
+        }
+
+        return diagnostics.getDiagnostics().stream()
+                .filter(diagnostic -> diagnostic.getKind() != Diagnostic.Kind.NOTE)
+                .map(CompilationVerifier::toCompilationDiagnostic)
+                .collect(Collectors.toList());
+    }
+
+    public static boolean hasErrors(List<CompilationDiagnostic> diagnostics) {
+        return diagnostics != null && diagnostics.stream()
+                .anyMatch(diagnostic -> Diagnostic.Kind.ERROR.name().equals(diagnostic.getKind()));
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        classpath = null;
+        StandardJavaFileManager fileManager;
+        while ((fileManager = fileManagers.poll()) != null) {
+            fileManager.close();
+        }
+        if (workDirectory != null) {
+            try (Stream<Path> files = Files.walk(workDirectory)) {
+                for (Path file : files.sorted(Comparator.reverseOrder()).collect(Collectors.toList())) {
+                    Files.delete(file);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns an idle file manager, or a new one when every file manager is compiling.
+     */
+    private StandardJavaFileManager takeFileManager() {
+        final StandardJavaFileManager idleFileManager = fileManagers.poll();
+        if (idleFileManager != null) {
+            return idleFileManager;
+        }
+
+        final StandardJavaFileManager fileManager = compiler.getStandardFileManager(null, Locale.ROOT,
+                StandardCharsets.UTF_8);
+        try {
+            fileManager.setLocation(StandardLocation.CLASS_PATH, classpath);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Verification classpath can't be set", e);
+        }
+        return fileManager;
+    }
+
+    private List<File> createClasspath(StandardJavaFileManager fileManager) throws IOException {
+        final List<File> classpath = new ArrayList<>();
+        final File lombokJar = resolveLibrary(Builder.class);
+        if (StringUtils.isNotBlank(pbsClasspath)) {
+            for (String entry : StringUtils.split(pbsClasspath, File.pathSeparator)) {
+                classpath.add(new File(entry.trim()));
+            }
+            lombokProcessor = loadLombokProcessor(compiler, classpath.stream()
+                    .filter(entry -> entry.getName().startsWith("lombok"))
+                    .findFirst()
+                    .orElse(lombokJar));
+        } else {
+            for (Class<?> libraryClass : STUB_LIBRARIES) {
+                classpath.add(resolveLibrary(libraryClass));
+            }
+            lombokProcessor = loadLombokProcessor(compiler, lombokJar);
+            classpath.add(compileStubs(fileManager, classpath));
+        }
+        return classpath;
+    }
+
+    private File compileStubs(StandardJavaFileManager fileManager, List<File> classpath) throws IOException {
+        final List<JavaFileObject> stubs = new ArrayList<>();
+        for (String stubPath : StringUtils.split(readResource(STUBS_INDEX), "\n")) {
+            if (StringUtils.isNotBlank(stubPath) && !stubPath.startsWith("#")) {
+                stubs.add(new SourceFile(stubPath.trim(), readResource(STUBS_DIRECTORY + stubPath.trim())));
+            }
+        }
+
+        final Path stubsDirectory = Files.createDirectory(workDirectory.resolve("stubs"));
+        fileManager.setLocation(StandardLocation.CLASS_PATH, classpath);
+        fileManager.setLocation(StandardLocation.CLASS_OUTPUT, Collections.singletonList(stubsDirectory.toFile()));
+        final DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+        final JavaCompiler.CompilationTask task = compiler.getTask(null, fileManager, diagnostics, null, null, stubs);
+        task.setProcessors(Collections.singletonList(newLombokProcessor(lombokProcessor)));
+        if (!task.call()) {
+            throw new IllegalStateException("Verification stubs don't compile: " + diagnostics.getDiagnostics());
+        }
+        return stubsDirectory.toFile();
+    }
+
+    private static String readResource(String resource) throws IOException {
+        try (InputStream inputStream = CompilationVerifier.class.getClassLoader().getResourceAsStream(resource)) {
+            if (inputStream == null) {
+                throw new IOException("Resource " + resource + " not found");
+            }
+            return StreamUtils.copyToString(inputStream, StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * Returns the jar of the given class, copied to the work directory when the tool runs from an executable jar,
+     * since the compiler can't read jars nested in another jar.
+     */
+    private File resolveLibrary(Class<?> libraryClass) throws IOException {
+        final URL location = libraryClass.getProtectionDomain().getCodeSource().getLocation();
+        if ("file".equals(location.getProtocol())) {
+            try {
+                return Paths.get(location.toURI()).toFile();
+            } catch (URISyntaxException e) {
+                throw new IOException("Invalid location of " + libraryClass.getName() + ": " + location, e);
+            }
+        }
+
+        final String jarName = StringUtils.substringAfterLast(StringUtils.removeEnd(location.getPath(), "!/"), "/");
+        final Path library = workDirectory.resolve(jarName);
+        if (!Files.exists(library)) {
+            try (InputStream inputStream = location.openStream()) {
+                Files.copy(inputStream, library);
+            }
+        }
+        return library.toFile();
+    }
+
+    /**
+     * Loads the Lombok annotation processor from the given jar with a class loader that sees the classes of the given
+     * compiler, wherever the compiler comes from.
+     */
+    static Class<?> loadLombokProcessor(JavaCompiler compiler, File lombokJar) throws IOException {
+        final ClassLoader classLoader = new LombokClassLoader(lombokJar.toURI().toURL(),
+                compiler.getClass().getClassLoader());
+        try {
+            return Class.forName(LOMBOK_PROCESSOR, true, classLoader);
+        } catch (ClassNotFoundException e) {
+            throw new IOException("Lombok annotation processor not found in " + lombokJar, e);
+        }
+    }
+
+    static Processor newLombokProcessor(Class<?> lombokProcessor) {
+        try {
+            return (Processor) lombokProcessor.getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Lombok annotation processor can't be created", e);
+        }
+    }
+
+    private static CompilationDiagnostic toCompilationDiagnostic(Diagnostic<? extends JavaFileObject> diagnostic) {
+        final JavaFileObject source = diagnostic.getSource();
+        return CompilationDiagnostic.of(diagnostic.getKind().name(),
+                source instanceof SourceFile ? ((SourceFile) source).path : null,
+                diagnostic.getLineNumber(), diagnostic.getColumnNumber(), diagnostic.getMessage(Locale.ROOT));
+    }
+
+    private static class SourceFile extends SimpleJavaFileObject {
+
+        private final String path;
+        private final String content;
+
+        SourceFile(String path, String content) {
+            super(URI.create("string:///" + path), Kind.SOURCE);
+            this.path = path;
+            this.content = content;
+        }
+
+        @Override
+        public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+            return content;
+        }
+    }
+
+    /**
+     * Loads Lombok classes from the given jar even if the application classpath has Lombok too, since the processor
+     * has to see the compiler classes, which only the compiler class loader does.
+     */
+    private static class LombokClassLoader extends URLClassLoader {
+
+        private static final String LOMBOK_PACKAGE = "lombok.";
+        private static final String LOMBOK_DIRECTORY = "lombok/";
+
+        LombokClassLoader(URL lombokJar, ClassLoader compilerClassLoader) {
+            super(new URL[]{lombokJar}, compilerClassLoader);
+        }
+
+        @Override
+        protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+            if (!name.startsWith(LOMBOK_PACKAGE)) {
+                return super.loadClass(name, resolve);
+            }
+            synchronized (getClassLoadingLock(name)) {
+                Class<?> lombokClass = findLoadedClass(name);
+                if (lombokClass == null) {
+                    lombokClass = findClass(name);
+                }
+                if (resolve) {
+                    resolveClass(lombokClass);
+                }
+                return lombokClass;
+            }
+        }
+
+        @Override
+        public URL getResource(String name) {
+            final URL resource = name.startsWith(LOMBOK_DIRECTORY) ? findResource(name) : null;
+            return resource != null ? resource : super.getResource(name);
+        }
+    }
+
+    /**
+     * Hands out class files that are never written. Their URIs still point to the work directory, since Lombok on
+     * JDK 9+ turns the URI of every output file into a path.
+     */
+    private static class DiscardingFileManager extends ForwardingJavaFileManager<JavaFileManager> {
+
+        private final Path outputDirectory;
+
+        DiscardingFileManager(JavaFileManager fileManager, Path workDirectory) {
+            super(fileManager);
+            outputDirectory = workDirectory.resolve("discarded");
+        }
+
+        @Override
+        public JavaFileObject getJavaFileForOutput(Location location, String className, JavaFileObject.Kind kind,
+                                                   FileObject sibling) {
+            return new SimpleJavaFileObject(outputDirectory.resolve(className.replace('.', '/') + kind.extension)
+                    .toUri(), kind) {
+                @Override
+                public OutputStream openOutputStream() {
+                    return new ByteArrayOutputStream();
+                }
+            };
+        }
+    }
+}
@@ -2,34 +2,198 @@ package com.rubicon.service.processing;
 
 import com.rubicon.model.BidderData;
 import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
 import java.nio.file.FileAlreadyExistsException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.util.Arrays;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 
 @Service
 public class FileCreator {
 
-    String makeBidderFile(BidderData bidderData, FileType fileType) throws IOException {
-        final String filePath = getAbsolutePbsDirectoryPath() + getPbsFilePath(bidderData, fileType);
-        final Path path = Paths.get(filePath);
-        Files.createDirectories(path.getParent());
+    private static final Logger logger = LoggerFactory.getLogger(FileCreator.class);
 
-        final List<FileType> nonTemplateFiles = Arrays.asList(FileType.BIDDER, FileType.EXT, FileType.BIDDER_TEST);
-        if (!nonTemplateFiles.contains(fileType)) {
+    private static final String STAGING_DIRECTORY_PREFIX = ".bidder-generation-";
+
+    private final GenerationManifest manifest;
+
+    // bidder names differing in case only share their package and files
+    private final ConcurrentMap<String, Lock> bidderLocks = new ConcurrentHashMap<>();
+
+    public FileCreator(GenerationManifest manifest) {
+        this.manifest = manifest;
+    }
+
+    /**
+     * Writes all files of a bidder to the PBS directory, either all of them or none.
+     * <p>
+     * Files that already have exactly the same content are skipped. The rest are written to a staging directory
+     * inside the PBS directory first, each with a single channel write of its in-memory content, and then moved over
+     * their paths by atomic renames, so a replaced file is never missing. Replaced files are kept aside as links or
+     * copies until all renames succeeded, so a failure at any point leaves the PBS directory as it was. Writes of the
+     * same bidder are serialized, so concurrent generations of a bidder never interleave their files.
+     *
+     * @return files that were written, files that were left untouched are not included
+     */
+    public Set<GeneratedFile> writeBidderFiles(String bidderName, List<GeneratedFile> generatedFiles)
+            throws IOException {
+        final Lock bidderLock = bidderLocks.computeIfAbsent(bidderName.toLowerCase(), key -> new ReentrantLock());
+        bidderLock.lock();
+        try {
+            return writeChangedFiles(generatedFiles);
+        } finally {
+            bidderLock.unlock();
+        }
+    }
+
+    private Set<GeneratedFile> writeChangedFiles(List<GeneratedFile> generatedFiles) throws IOException {
+        final Map<GeneratedFile, byte[]> changedFiles = new LinkedHashMap<>();
+        for (GeneratedFile generatedFile : generatedFiles) {
+            final byte[] content = generatedFile.getContent().getBytes(StandardCharsets.UTF_8);
+            if (!manifest.isUnchanged(resolveAbsolutePath(generatedFile), content)) {
+                changedFiles.put(generatedFile, content);
+            }
+        }
+        if (changedFiles.isEmpty()) {
+            return Collections.emptySet();
+        }
+
+        final Path pbsDirectory = Files.createDirectories(Paths.get(getAbsolutePbsDirectoryPath()));
+        final Path stagingDirectory = Files.createTempDirectory(pbsDirectory, STAGING_DIRECTORY_PREFIX);
+        try {
+            final List<StagedFile> stagedFiles = new ArrayList<>(changedFiles.size());
+            for (Map.Entry<GeneratedFile, byte[]> changedFile : changedFiles.entrySet()) {
+                final Path stagedPath = stagingDirectory.resolve(String.valueOf(stagedFiles.size()));
+                writeContent(stagedPath, changedFile.getValue());
+                stagedFiles.add(new StagedFile(resolveAbsolutePath(changedFile.getKey()), stagedPath));
+            }
+
+            commit(stagedFiles);
+
+            final Iterator<byte[]> contents = changedFiles.values().iterator();
+            for (StagedFile stagedFile : stagedFiles) {
+                manifest.record(stagedFile.target, contents.next());
+            }
+            saveManifest();
+        } finally {
+            deleteStagingDirectory(stagingDirectory);
+        }
+        return changedFiles.keySet();
+    }
+
+    private static void writeContent(Path path, byte[] content) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+            final ByteBuffer buffer = ByteBuffer.wrap(content);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+    }
+
+    private static void commit(List<StagedFile> stagedFiles) throws IOException {
+        try {
+            for (StagedFile stagedFile : stagedFiles) {
+                Files.createDirectories(stagedFile.target.getParent());
+                if (Files.isDirectory(stagedFile.target)) {
+                    throw new FileAlreadyExistsException(stagedFile.target.toString(), null, "Directory exists");
+                }
+                if (Files.exists(stagedFile.target)) {
+                    keepBackup(stagedFile);
+                }
+                Files.move(stagedFile.staged, stagedFile.target, StandardCopyOption.ATOMIC_MOVE,
+                        StandardCopyOption.REPLACE_EXISTING);
+                stagedFile.committed = true;
+            }
+        } catch (IOException e) {
+            rollback(stagedFiles, e);
+            throw e;
+        }
+    }
+
+    // a hard link keeps the replaced content without touching the target, filesystems without links get a copy
+    private static void keepBackup(StagedFile stagedFile) throws IOException {
+        try {
+            Files.createLink(stagedFile.backup, stagedFile.target);
+        } catch (UnsupportedOperationException | IOException e) {
+            Files.copy(stagedFile.target, stagedFile.backup, StandardCopyOption.COPY_ATTRIBUTES);
+        }
+        stagedFile.replaced = true;
+    }
+
+    // every replaced file gets its content back, every new file is removed
+    private static void rollback(List<StagedFile> stagedFiles, IOException failure) {
+        for (int i = stagedFiles.size() - 1; i >= 0; i--) {
+            final StagedFile stagedFile = stagedFiles.get(i);
+            if (!stagedFile.committed) {
+                continue;
+            }
             try {
-                Files.createFile(path);
-            } catch (FileAlreadyExistsException e) {
-                Files.delete(path);
-                Files.createFile(path);
+                if (stagedFile.replaced) {
+                    Files.move(stagedFile.backup, stagedFile.target, StandardCopyOption.ATOMIC_MOVE,
+                            StandardCopyOption.REPLACE_EXISTING);
+                } else {
+                    Files.deleteIfExists(stagedFile.target);
+                }
+            } catch (IOException e) {
+                failure.addSuppressed(e);
+            }
+        }
+    }
+
+    // files are already committed at this point, an unsaved manifest only makes them be compared after a restart
+    private void saveManifest() {
+        try {
+            manifest.save();
+        } catch (IOException e) {
+            logger.warn("Generation manifest could not be saved", e);
+        }
+    }
+
+    // files are already committed or rolled back at this point, a leftover directory is only reported
+    private static void deleteStagingDirectory(Path directory) {
+        try {
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+                for (Path file : files) {
+                    Files.delete(file);
+                }
             }
+            Files.delete(directory);
+        } catch (IOException e) {
+            logger.warn("Staging directory {} could not be deleted", directory, e);
         }
-        return filePath;
+    }
+
+    public Path resolveAbsolutePath(GeneratedFile generatedFile) {
+        return getPbsDirectory().resolve(generatedFile.getPath());
+    }
+
+    String resolveFilePath(BidderData bidderData, FileType fileType) {
+        return fileType.getFilePrefix() + resolveFilePackageAndName(bidderData, fileType) + fileType.getFileSuffix();
+    }
+
+    static Path getPbsDirectory() {
+        return Paths.get(getAbsolutePbsDirectoryPath());
     }
 
     private static String getAbsolutePbsDirectoryPath() {
@@ -38,8 +202,22 @@ public class FileCreator {
         return StringUtils.replace(bgtPath, "pbs-java-bidder-generation", "prebid-server-java");
     }
 
-    private static String getPbsFilePath(BidderData bidderData, FileType fileType) {
-        return fileType.getFilePrefix() + resolveFilePackageAndName(bidderData, fileType) + fileType.getFileSuffix();
+    /**
+     * Changed file on its way from the staging directory to the PBS directory.
+     */
+    private static class StagedFile {
+
+        private final Path target;
+        private final Path staged;
+        private final Path backup;
+        private boolean replaced;
+        private boolean committed;
+
+        StagedFile(Path target, Path staged) {
+            this.target = target;
+            this.staged = staged;
+            this.backup = staged.resolveSibling(staged.getFileName() + ".backup");
+        }
     }
 
     private static String resolveFilePackageAndName(BidderData bidderData, FileType fileType) {
@@ -0,0 +1,21 @@
+package com.rubicon.service.processing;
+
+import lombok.AllArgsConstructor;
+import lombok.Value;
+
+/**
+ * Rendered content of a single bidder file, kept in memory until it is written to disk or to an archive.
+ */
+@AllArgsConstructor(staticName = "of")
+@Value
+public class GeneratedFile {
+
+    FileType fileType;
+
+    /**
+     * Path relative to the PBS root directory, e.g. {@code src/main/resources/bidder-config/bidder.yaml}.
+     */
+    String path;
+
+    String content;
+}
@@ -0,0 +1,57 @@
+package com.rubicon.service.processing;
+
+import com.rubicon.model.BidderData;
+import com.rubicon.model.BidderParam;
+import lombok.AllArgsConstructor;
+import lombok.Value;
+import org.apache.commons.collections4.ListUtils;
+import org.apache.commons.lang3.StringUtils;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Immutable names derived from {@link BidderData} for a single generation call.
+ * <p>
+ * Created once per request and passed down explicitly, so concurrent requests never share any state.
+ */
+@AllArgsConstructor(staticName = "of")
+@Value
+public class GenerationContext {
+
+    BidderData bidderData;
+
+    String bidderName;
+
+    String bidderPackage;
+
+    String bidderImpExtName;
+
+    String bidderFile;
+
+    TransformationTree transformations;
+
+    /**
+     * Types of bidder params by param name, resolved up front so that unsupported types and transformations reading
+     * unknown params fail the request before anything is rendered.
+     */
+    Map<String, ParamType> paramTypes;
+
+    public static GenerationContext from(BidderData bidderData) {
+        final String bidderName = bidderData.getBidderName();
+        final String capitalizedName = StringUtils.capitalize(bidderName);
+        final Map<String, ParamType> paramTypes = resolveParamTypes(bidderData);
+        return of(bidderData, bidderName, bidderName.toLowerCase(), "ExtImp" + capitalizedName,
+                capitalizedName + "Bidder",
+                TransformationTree.compile(bidderData.getTransformations(), paramTypes), paramTypes);
+    }
+
+    private static Map<String, ParamType> resolveParamTypes(BidderData bidderData) {
+        final Map<String, ParamType> paramTypes = new LinkedHashMap<>();
+        for (BidderParam param : ListUtils.emptyIfNull(bidderData.getBidderParams())) {
+            paramTypes.put(param.getName(), ParamTypeRegistry.resolve(param));
+        }
+        return Collections.unmodifiableMap(paramTypes);
+    }
+}
@@ -0,0 +1,180 @@
+package com.rubicon.service.processing;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.Value;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Remembers the content hash, size and modification time of every file written by the generator.
+ * <p>
+ * While a file on disk still has the recorded size and modification time, its content is known without reading it,
+ * so checking whether a regenerated file changed costs a single stat call. Files that are not in the manifest
+ * (e.g. after a restart) or were modified outside of the generator are read and compared once.
+ * <p>
+ * A file recorded within the modification time granularity of its last write can be rewritten with the same size
+ * without its modification time moving, so until that window has passed its content is hashed and compared with the
+ * recorded SHA-256 instead.
+ * <p>
+ * The manifest is saved as JSON to {@value #FILE_NAME} in the PBS directory whenever files were written, and loaded
+ * from there on startup, so files generated before a restart are still checked by a stat call. A missing or
+ * unreadable manifest only makes every file be read and compared once.
+ */
+@Service
+public class GenerationManifest {
+
+    static final String FILE_NAME = ".bidder-generation-manifest.json";
+
+    private static final Logger logger = LoggerFactory.getLogger(GenerationManifest.class);
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    // coarsest modification time resolution of common filesystems (FAT)
+    private static final long MTIME_GRANULARITY_MILLIS = 2000L;
+
+    private final Path file;
+
+    private final ConcurrentMap<Path, Entry> entries = new ConcurrentHashMap<>();
+
+    public GenerationManifest() {
+        this(FileCreator.getPbsDirectory().resolve(FILE_NAME));
+    }
+
+    /**
+     * Creates the manifest saved to the given file, loading the entries it already holds.
+     */
+    GenerationManifest(Path file) {
+        this.file = file;
+        load();
+    }
+
+    boolean isUnchanged(Path path, byte[] content) throws IOException {
+        final BasicFileAttributes attributes;
+        try {
+            attributes = Files.readAttributes(path, BasicFileAttributes.class);
+        } catch (NoSuchFileException e) {
+            entries.remove(path);
+            return false;
+        }
+
+        final byte[] hash = hash(content);
+        final Entry entry = entries.get(path);
+        if (entry != null && entry.matches(attributes)) {
+            if (!entry.isRacy()) {
+                return MessageDigest.isEqual(entry.getHash(), hash);
+            }
+            if (MessageDigest.isEqual(entry.getHash(), hash(Files.readAllBytes(path)))) {
+                entries.put(path, Entry.of(entry.getHash(), attributes));
+                return MessageDigest.isEqual(entry.getHash(), hash);
+            }
+        }
+
+        if (attributes.size() != content.length || !Arrays.equals(Files.readAllBytes(path), content)) {
+            return false;
+        }
+        entries.put(path, Entry.of(hash, attributes));
+        return true;
+    }
+
+    void record(Path path, byte[] content) throws IOException {
+        entries.put(path, Entry.of(hash(content), Files.readAttributes(path, BasicFileAttributes.class)));
+    }
+
+    /**
+     * Saves the manifest by replacing its file with a complete new one, so a crash never leaves a partial manifest.
+     */
+    synchronized void save() throws IOException {
+        final Map<String, Entry> savedEntries = new TreeMap<>();
+        entries.forEach((path, entry) -> savedEntries.put(path.toString(), entry));
+
+        final Path tempFile = Files.createTempFile(file.getParent(), FILE_NAME, ".tmp");
+        try {
+            MAPPER.writeValue(tempFile.toFile(), savedEntries);
+            Files.move(tempFile, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+    }
+
+    private void load() {
+        if (!Files.isRegularFile(file)) {
+            return;
+        }
+        try {
+            final Map<String, Entry> savedEntries = MAPPER.readValue(file.toFile(),
+                    new TypeReference<Map<String, Entry>>() {
+                    });
+            savedEntries.forEach((path, entry) -> entries.put(Paths.get(path), entry));
+            logger.info("Generation manifest of {} files loaded from {}", entries.size(), file);
+        } catch (IOException e) {
+            logger.warn("Generation manifest {} could not be loaded, generated files will be compared once", file,
+                    e);
+        }
+    }
+
+    private static byte[] hash(byte[] content) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(content);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // saved as is, the modification time in nanoseconds keeps the full precision of the filesystem
+    @Value
+    private static class Entry {
+
+        byte[] hash;
+
+        long size;
+
+        long lastModifiedNanos;
+
+        long recordedAt;
+
+        @JsonCreator
+        static Entry of(@JsonProperty("hash") byte[] hash, @JsonProperty("size") long size,
+                        @JsonProperty("lastModifiedNanos") long lastModifiedNanos,
+                        @JsonProperty("recordedAt") long recordedAt) {
+            return new Entry(hash, size, lastModifiedNanos, recordedAt);
+        }
+
+        static Entry of(byte[] hash, BasicFileAttributes attributes) {
+            return new Entry(hash, attributes.size(), attributes.lastModifiedTime().to(TimeUnit.NANOSECONDS),
+                    System.currentTimeMillis());
+        }
+
+        boolean matches(BasicFileAttributes attributes) {
+            return size == attributes.size()
+                    && lastModifiedNanos == attributes.lastModifiedTime().to(TimeUnit.NANOSECONDS);
+        }
+
+        /**
+         * Tells whether the file may have been written again after it was recorded without its modification time
+         * changing.
+         */
+        boolean isRacy() {
+            return recordedAt - TimeUnit.NANOSECONDS.toMillis(lastModifiedNanos) < MTIME_GRANULARITY_MILLIS;
+        }
+    }
+}
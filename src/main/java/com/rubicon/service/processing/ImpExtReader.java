@@ -0,0 +1,125 @@
+package com.rubicon.service.processing;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.squareup.javapoet.ClassName;
+import com.squareup.javapoet.CodeBlock;
+import com.squareup.javapoet.FieldSpec;
+import com.squareup.javapoet.MethodSpec;
+import com.squareup.javapoet.ParameterizedTypeName;
+import com.squareup.javapoet.TypeSpec;
+
+import javax.lang.model.element.Modifier;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reading of {@code imp.ext.bidder} by generated bidders themselves, with an {@code ObjectReader} of the ext class
+ * created once from PBS's mapper instead of the general mapper conversion of {@code OpenrtbBidder}.
+ * <p>
+ * Such bidders extend {@code OpenrtbBidder<JsonNode>}, whose private conversion then only copies the node, and
+ * read the typed ext in {@code modifyImp}. Exts read for the request on the current thread are kept by their node,
+ * so imps of the request carrying an equal node, as usual, reuse the ext without parsing.
+ * <p>
+ * {@code OpenrtbBidder} modifies every imp before it modifies the request, so {@code modifyRequest} clears the kept
+ * exts. Its {@code makeHttpRequests} is final, so when every imp fails and the request is never modified, the exts
+ * of that request stay until the next request on the thread is modified; they are immutable and keyed by the whole
+ * node, so a later imp can only reuse an ext equal to the one it would parse. Streaming bidders, which implement
+ * {@code makeHttpRequests} themselves, also clear the exts when it returns. An imp without ext, or whose ext doesn't
+ * match the ext class, fails with a {@code PreBidException}, as with the inherited conversion.
+ */
+public final class ImpExtReader {
+
+    /**
+     * Type that {@code OpenrtbBidder} converts {@code imp.ext.bidder} to for bidders reading it themselves.
+     */
+    public static final ClassName NODE_TYPE = ClassName.get(JsonNode.class);
+
+    private static final ClassName PRE_BID_EXCEPTION = ClassName.get("org.prebid.server.exception",
+            "PreBidException");
+    private static final ClassName IMP = OpenRtbIndex.IMP;
+
+    /**
+     * Name of the static field keeping the exts read for the current request.
+     */
+    static final String IMP_EXTS = "IMP_EXTS";
+
+    private ImpExtReader() {
+    }
+
+    /**
+     * Adds the reader, the exts kept for the current request and the package-private {@code readImpExt(Imp)} method,
+     * which generated benchmarks and tests call directly, to the generated bidder.
+     */
+    public static MethodSpec addTo(TypeSpec.Builder classBuilder, ClassName extClass) {
+        final FieldSpec reader = FieldSpec.builder(ObjectReader.class, "IMP_EXT_READER",
+                Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
+                .initializer("$T.mapper().readerFor($T.class)",
+                        ClassName.get("org.prebid.server.json", "ObjectMapperProvider"), extClass)
+                .build();
+
+        final ParameterizedTypeName impExtsType = ParameterizedTypeName.get(ClassName.get(Map.class), NODE_TYPE,
+                extClass);
+        final FieldSpec impExts = FieldSpec.builder(ParameterizedTypeName.get(ClassName.get(ThreadLocal.class),
+                impExtsType), IMP_EXTS, Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
+                .initializer("$T.withInitial($T::new)", ThreadLocal.class, HashMap.class)
+                .build();
+
+        final MethodSpec readImpExt = MethodSpec.methodBuilder("readImpExt")
+                .returns(extClass)
+                .addParameter(IMP, "imp")
+                .beginControlFlow("if (imp.getExt() == null)")
+                .addStatement("throw new $T($S)", PRE_BID_EXCEPTION, String.format(
+                        "Cannot deserialize instance of `%s` out of missing imp.ext", extClass.reflectionName()))
+                .endControlFlow()
+                .addStatement("final $T node = imp.getExt().get($S)", JsonNode.class, "bidder")
+                .beginControlFlow("if (node == null || node.isNull())")
+                .addStatement("return null")
+                .endControlFlow()
+                .addStatement("final $T impExts = $N.get()", impExtsType, impExts)
+                .addStatement("final $T cached = impExts.get(node)", extClass)
+                .beginControlFlow("if (cached != null)")
+                .addStatement("return cached")
+                .endControlFlow()
+                .addCode("\n")
+                .addStatement("final $T impExt", extClass)
+                .beginControlFlow("try")
+                .addStatement("impExt = $N.readValue(node)", reader)
+                .nextControlFlow("catch ($T e)", IOException.class)
+                .addStatement("throw new $T(e.getMessage())", PRE_BID_EXCEPTION)
+                .endControlFlow()
+                .addStatement("impExts.put(node, impExt)")
+                .addStatement("return impExt")
+                .build();
+
+        classBuilder.addField(reader)
+                .addField(impExts);
+        return readImpExt;
+    }
+
+    /**
+     * Returns the statement clearing the exts kept for the request, which {@code modifyRequest} starts with.
+     */
+    public static CodeBlock clearImpExts() {
+        return CodeBlock.of("$L.remove()", IMP_EXTS);
+    }
+
+    /**
+     * Returns the {@code modifyRequest} override of bidders that don't otherwise change the request, which only
+     * clears the exts kept for it.
+     */
+    public static MethodSpec modifyRequest() {
+        return MethodSpec.methodBuilder("modifyRequest")
+                .addModifiers(Modifier.PROTECTED)
+                .addAnnotation(Override.class)
+                .addParameter(OpenRtbIndex.BID_REQUEST, "bidRequest")
+                .addParameter(OpenRtbIndex.BID_REQUEST.nestedClass("BidRequestBuilder"), "requestBuilder")
+                .addParameter(ParameterizedTypeName.get(ClassName.get(List.class), ParameterizedTypeName.get(
+                        ClassName.get("org.prebid.server.bidder.model", "ImpWithExt"), NODE_TYPE)), "impsWithExts")
+                .addStatement(clearImpExts())
+                .addStatement("super.modifyRequest(bidRequest, requestBuilder, impsWithExts)")
+                .build();
+    }
+}
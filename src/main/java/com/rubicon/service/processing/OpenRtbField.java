@@ -0,0 +1,67 @@
+package com.rubicon.service.processing;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.squareup.javapoet.ClassName;
+import com.squareup.javapoet.TypeName;
+import lombok.AllArgsConstructor;
+import lombok.Value;
+
+/**
+ * Field of the OpenRTB 2.5 request object graph, as indexed by {@link OpenRtbIndex}.
+ */
+@AllArgsConstructor(staticName = "of")
+@Value
+public class OpenRtbField {
+
+    /**
+     * Dot separated JSON path relative to the bid request, e.g. "imp.pmp.private_auction".
+     */
+    String path;
+
+    /**
+     * JSON name of the field, e.g. "private_auction".
+     */
+    String name;
+
+    /**
+     * Java property of the field, e.g. "privateAuction", which names its getter and builder method.
+     */
+    String property;
+
+    /**
+     * Declared Java type, e.g. {@code Integer}, {@code Banner} or {@code List<Format>}.
+     */
+    TypeName type;
+
+    /**
+     * OpenRTB class of an object field or of the elements of an object list, null for value fields.
+     */
+    ClassName objectType;
+
+    /**
+     * Type of a value field, null for object fields.
+     */
+    ParamType valueType;
+
+    boolean list;
+
+    /**
+     * Tells whether fields of the object can be modified, which takes {@code toBuilder()} of its class, false for
+     * value fields.
+     */
+    boolean modifiable;
+
+    /**
+     * Tells whether the field holds OpenRTB objects, which are built with Lombok builders.
+     */
+    public boolean hasBuilder() {
+        return objectType != null;
+    }
+
+    /**
+     * Tells whether the given static value can be assigned to the field.
+     */
+    public boolean accepts(JsonNode value) {
+        return value.isNull() || (valueType != null && valueType.accepts(value));
+    }
+}
@@ -0,0 +1,146 @@
+package com.rubicon.service.processing;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.squareup.javapoet.ClassName;
+import com.squareup.javapoet.ParameterizedTypeName;
+import com.squareup.javapoet.TypeName;
+import org.apache.commons.lang3.StringUtils;
+
+import javax.lang.model.SourceVersion;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Index of all fields of the OpenRTB 2.5 request object graph by JSON path, e.g. "site.publisher.id" or
+ * "imp.banner.w", loaded once from {@value #RESOURCE}.
+ * <p>
+ * The resource lists the fields of every {@code com.iab.openrtb.request} class by JSON name, in declaration order.
+ * A field type is either a bidder param type known to {@link ParamTypeRegistry}, e.g. "Integer" or "List<String>",
+ * with "Object" standing for the {@code ObjectNode} of an ext, or one of the listed classes, possibly as a list,
+ * e.g. "List<Format>". Java properties follow the naming of PBS: "private_auction" becomes "privateAuction" and
+ * Java keywords get an "x" prefix, e.g. "native" becomes "xNative".
+ * <p>
+ * Every class has a Lombok builder. A class PBS builds without {@code toBuilder()}, e.g. {@code Content}, is marked
+ * with {@value #TO_BUILDER} false, and fields of its objects can't be modified.
+ */
+public final class OpenRtbIndex {
+
+    static final String OPENRTB_PACKAGE = "com.iab.openrtb.request";
+
+    static final ClassName BID_REQUEST = ClassName.get(OPENRTB_PACKAGE, "BidRequest");
+    static final ClassName IMP = ClassName.get(OPENRTB_PACKAGE, "Imp");
+
+    private static final String RESOURCE = "openrtb/request-2.5.json";
+    private static final String LIST_PREFIX = "List<";
+    private static final String TO_BUILDER = "@toBuilder";
+
+    private static final Map<String, OpenRtbField> FIELDS = load();
+
+    private OpenRtbIndex() {
+    }
+
+    /**
+     * Returns the field with the given JSON path, or null when OpenRTB has no such field.
+     */
+    public static OpenRtbField find(String path) {
+        return FIELDS.get(path);
+    }
+
+    /**
+     * Returns every field along the given JSON path, starting from the bid request.
+     *
+     * @throws IllegalArgumentException if some field of the path doesn't exist
+     */
+    public static List<OpenRtbField> resolvePath(String path) {
+        final String[] parts = StringUtils.split(path, ".");
+        final List<OpenRtbField> fields = new ArrayList<>(parts.length);
+        final StringBuilder currentPath = new StringBuilder();
+        for (String part : parts) {
+            if (currentPath.length() > 0) {
+                currentPath.append('.');
+            }
+            final OpenRtbField field = FIELDS.get(currentPath.append(part).toString());
+            if (field == null) {
+                throw new IllegalArgumentException(String.format("OpenRTB 2.5 request has no field %s", currentPath));
+            }
+            fields.add(field);
+        }
+        return fields;
+    }
+
+    public static int size() {
+        return FIELDS.size();
+    }
+
+    private static Map<String, OpenRtbField> load() {
+        final Map<String, Map<String, Object>> classes;
+        try (InputStream inputStream = OpenRtbIndex.class.getClassLoader().getResourceAsStream(RESOURCE)) {
+            if (inputStream == null) {
+                throw new IOException("Resource " + RESOURCE + " not found");
+            }
+            classes = new ObjectMapper().readValue(inputStream,
+                    new TypeReference<Map<String, Map<String, Object>>>() {
+                    });
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        final Map<String, OpenRtbField> fields = new HashMap<>();
+        addFields(fields, classes, BID_REQUEST.simpleName(), "");
+        return Collections.unmodifiableMap(fields);
+    }
+
+    private static void addFields(Map<String, OpenRtbField> fields, Map<String, Map<String, Object>> classes,
+                                  String className, String parentPath) {
+        for (Map.Entry<String, Object> classField : classes.get(className).entrySet()) {
+            final String name = classField.getKey();
+            if (name.equals(TO_BUILDER)) {
+                continue;
+            }
+            final String typeName = (String) classField.getValue();
+            final String path = parentPath.isEmpty() ? name : parentPath + "." + name;
+            final boolean isList = typeName.startsWith(LIST_PREFIX);
+            final String elementName = isList
+                    ? typeName.substring(LIST_PREFIX.length(), typeName.length() - 1)
+                    : typeName;
+
+            if (classes.containsKey(elementName)) {
+                final ClassName objectType = ClassName.get(OPENRTB_PACKAGE, elementName);
+                final TypeName type = isList
+                        ? ParameterizedTypeName.get(ClassName.get(List.class), objectType)
+                        : objectType;
+                final boolean isModifiable = !Boolean.FALSE.equals(classes.get(elementName).get(TO_BUILDER));
+                fields.put(path, OpenRtbField.of(path, name, resolveProperty(name), type, objectType, null, isList,
+                        isModifiable));
+                addFields(fields, classes, elementName, path);
+            } else {
+                final ParamType valueType = ParamTypeRegistry.find(typeName);
+                if (valueType == null) {
+                    throw new IllegalStateException(String.format("OpenRTB field %s has unknown type %s", path,
+                            typeName));
+                }
+                fields.put(path, OpenRtbField.of(path, name, resolveProperty(name), valueType.getTypeName(), null,
+                        valueType, isList, false));
+            }
+        }
+    }
+
+    static String resolveProperty(String name) {
+        if (SourceVersion.isKeyword(name)) {
+            return "x" + StringUtils.capitalize(name);
+        }
+        final String[] words = StringUtils.split(name, "_");
+        final StringBuilder property = new StringBuilder(words[0]);
+        for (int i = 1; i < words.length; i++) {
+            property.append(StringUtils.capitalize(words[i]));
+        }
+        return property.toString();
+    }
+}
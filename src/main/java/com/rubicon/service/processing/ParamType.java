@@ -0,0 +1,110 @@
+package com.rubicon.service.processing;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.rubicon.model.BidderParam;
+import com.squareup.javapoet.CodeBlock;
+import com.squareup.javapoet.TypeName;
+import lombok.AllArgsConstructor;
+import lombok.Value;
+import org.apache.commons.collections4.CollectionUtils;
+
+import java.math.BigDecimal;
+
+/**
+ * Type of a bidder param: the Java type of its field in the ext class, its JSON schema and the values
+ * generated tests use for it.
+ */
+@AllArgsConstructor(staticName = "of")
+@Value
+public class ParamType {
+
+    /**
+     * Type name used in bidder specs, e.g. "Integer" or "List<String>".
+     */
+    String name;
+
+    TypeName typeName;
+
+    /**
+     * Members of the param property in the bidder JSON schema, e.g. {@code "type": "string"}.
+     */
+    String schema;
+
+    /**
+     * Format of an expression converting the {@code JsonNode} of the param value, given as the only argument,
+     * to the field type, e.g. {@code %s.intValue()}.
+     */
+    String jsonValueFormat;
+
+    /**
+     * Tells whether test values differ by the number passed to the generator, so each param should get
+     * its own number.
+     */
+    boolean numbered;
+
+    TestValueGenerator testValueGenerator;
+
+    /**
+     * Returns a test value of the param: its first allowed value, if any, or a generated one.
+     */
+    public CodeBlock testValue(BidderParam param, int number) {
+        return CollectionUtils.isNotEmpty(param.getValues())
+                ? CodeBlock.of("$S", param.getValues().get(0))
+                : testValueGenerator.generate(param.getName(), number);
+    }
+
+    public String jsonValue(String jsonNode) {
+        return String.format(jsonValueFormat, jsonNode);
+    }
+
+    /**
+     * Tells whether the given non-null JSON literal is a value of this type.
+     */
+    public boolean accepts(JsonNode value) {
+        switch (name) {
+            case "String":
+                return value.isTextual();
+            case "Integer":
+                return value.isIntegralNumber() && value.canConvertToInt();
+            case "Long":
+                return value.isIntegralNumber() && value.canConvertToLong();
+            case "Float":
+            case "Double":
+            case "BigDecimal":
+                return value.isNumber();
+            case "Boolean":
+                return value.isBoolean();
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Returns Java literal of the given value of this type, e.g. {@code 500L} for a Long or
+     * {@code new BigDecimal("1.5")} for a BigDecimal.
+     */
+    public CodeBlock literal(JsonNode value) {
+        switch (name) {
+            case "String":
+                return CodeBlock.of("$S", value.textValue());
+            case "Long":
+                return CodeBlock.of("$LL", value.longValue());
+            case "Float":
+                return CodeBlock.of("$LF", value.asText());
+            case "Double":
+                return CodeBlock.of("$LD", value.asText());
+            case "BigDecimal":
+                return CodeBlock.of("new $T($S)", BigDecimal.class, value.decimalValue().toPlainString());
+            case "Boolean":
+                return CodeBlock.of("$L", value.booleanValue());
+            default:
+                return CodeBlock.of("$L", value.intValue());
+        }
+    }
+
+    @FunctionalInterface
+    public interface TestValueGenerator {
+
+        CodeBlock generate(String paramName, int number);
+    }
+}
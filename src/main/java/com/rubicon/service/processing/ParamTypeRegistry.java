@@ -0,0 +1,122 @@
+package com.rubicon.service.processing;
+
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.rubicon.model.BidderParam;
+import com.squareup.javapoet.ClassName;
+import com.squareup.javapoet.CodeBlock;
+import com.squareup.javapoet.ParameterizedTypeName;
+import com.squareup.javapoet.TypeName;
+import org.apache.commons.collections4.CollectionUtils;
+import org.apache.commons.lang3.StringUtils;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Types that bidder params can have, built once and never changed.
+ * <p>
+ * Scalar types are named after their Java class, e.g. "String" or "BigDecimal", list types after the Java type,
+ * e.g. "List<Integer>", and "Object" stands for any JSON object. String params may also list their allowed values,
+ * which become the enum of their JSON schema.
+ */
+public final class ParamTypeRegistry {
+
+    private static final String STRING = "String";
+    private static final String LIST = "List";
+
+    private static final Map<String, ParamType> TYPES = createTypes();
+
+    private ParamTypeRegistry() {
+    }
+
+    /**
+     * Returns the type of the given param.
+     *
+     * @throws IllegalArgumentException if the type is not supported
+     */
+    public static ParamType resolve(BidderParam param) {
+        final String typeName = StringUtils.deleteWhitespace(param.getType());
+        final ParamType paramType = typeName != null ? TYPES.get(typeName) : null;
+        if (paramType == null) {
+            throw new IllegalArgumentException(String.format("Bidder param %s has unsupported type %s, "
+                    + "supported types are %s", param.getName(), param.getType(), getTypeNames()));
+        }
+        if (CollectionUtils.isNotEmpty(param.getValues()) && !STRING.equals(typeName)) {
+            throw new IllegalArgumentException(String.format("Bidder param %s has allowed values, "
+                    + "which are supported for %s params only", param.getName(), STRING));
+        }
+        return paramType;
+    }
+
+    /**
+     * Returns the type with the given name, or null when there is no such type.
+     */
+    public static ParamType find(String typeName) {
+        return TYPES.get(typeName);
+    }
+
+    public static Collection<String> getTypeNames() {
+        return TYPES.keySet();
+    }
+
+    /**
+     * Returns test values of the given params, each numbered param gets the next number, starting from 1.
+     */
+    public static List<CodeBlock> resolveTestValues(List<BidderParam> params) {
+        final List<CodeBlock> testValues = new ArrayList<>(params.size());
+        int number = 1;
+        for (BidderParam param : params) {
+            final ParamType paramType = resolve(param);
+            testValues.add(paramType.testValue(param, number));
+            if (paramType.isNumbered()) {
+                number++;
+            }
+        }
+        return testValues;
+    }
+
+    private static Map<String, ParamType> createTypes() {
+        final List<ParamType> scalarTypes = new ArrayList<>();
+        scalarTypes.add(ParamType.of(STRING, ClassName.get(String.class), "\"type\": \"string\"", "%s.textValue()",
+                false, (name, number) -> CodeBlock.of("$S", name + STRING)));
+        scalarTypes.add(ParamType.of("Integer", ClassName.get(Integer.class), "\"type\": \"integer\"",
+                "%s.intValue()", true, (name, number) -> CodeBlock.of("$L", number)));
+        scalarTypes.add(ParamType.of("Long", ClassName.get(Long.class), "\"type\": \"integer\"", "%s.longValue()",
+                true, (name, number) -> CodeBlock.of("$LL", number)));
+        scalarTypes.add(ParamType.of("Double", ClassName.get(Double.class), "\"type\": \"number\"",
+                "%s.doubleValue()", true, (name, number) -> CodeBlock.of("$L", (double) number)));
+        scalarTypes.add(ParamType.of("Float", ClassName.get(Float.class), "\"type\": \"number\"", "%s.floatValue()",
+                true, (name, number) -> CodeBlock.of("$LF", (float) number)));
+        scalarTypes.add(ParamType.of("Boolean", ClassName.get(Boolean.class), "\"type\": \"boolean\"",
+                "%s.booleanValue()", false, (name, number) -> CodeBlock.of("true")));
+        scalarTypes.add(ParamType.of("BigDecimal", ClassName.get(BigDecimal.class), "\"type\": \"number\"",
+                "%s.decimalValue()", true, (name, number) -> CodeBlock.of("new $T($S)", BigDecimal.class,
+                        number + ".5")));
+
+        final Map<String, ParamType> types = new HashMap<>();
+        for (ParamType scalarType : scalarTypes) {
+            types.put(scalarType.getName(), scalarType);
+            final ParamType listType = listType(scalarType);
+            types.put(listType.getName(), listType);
+        }
+        // the object is copied, so that the expected request of a test doesn't share nodes with the given one
+        types.put("Object", ParamType.of("Object", ClassName.get(ObjectNode.class), "\"type\": \"object\"",
+                "%s.deepCopy()", true, (name, number) -> CodeBlock.of("mapper.createObjectNode().put($S, $L)",
+                        name, number)));
+        return Collections.unmodifiableMap(types);
+    }
+
+    private static ParamType listType(ParamType elementType) {
+        return ParamType.of(LIST + "<" + elementType.getName() + ">",
+                ParameterizedTypeName.get(ClassName.get(List.class), elementType.getTypeName()),
+                "\"type\": \"array\", \"items\": {" + elementType.getSchema() + "}",
+                "mapper.convertValue(%s, List.class)", elementType.isNumbered(),
+                (name, number) -> CodeBlock.of("$T.singletonList($L)", Collections.class,
+                        elementType.getTestValueGenerator().generate(name, number)));
+    }
+}
@@ -0,0 +1,79 @@
+package com.rubicon.service.processing;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.squareup.javapoet.CodeBlock;
+import com.squareup.javapoet.TypeName;
+import lombok.AllArgsConstructor;
+import lombok.Value;
+import org.apache.commons.lang3.StringUtils;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Condition of a transformation, checked against {@link OpenRtbIndex} and the bidder params by
+ * {@link TransformationTree}.
+ */
+@AllArgsConstructor(staticName = "of")
+@Value
+public class PathCondition {
+
+    /**
+     * Path of the checked field, e.g. "site.page", "imp.video" for a media type or "impExt.placement".
+     */
+    String path;
+
+    /**
+     * Type of the checked value, null for OpenRTB objects.
+     */
+    ParamType valueType;
+
+    /**
+     * Literal the field must be equal to, null when the field only has to be present.
+     */
+    JsonNode value;
+
+    public boolean isBidderParam() {
+        return path.startsWith(TransformationTree.IMP_EXT_PREFIX);
+    }
+
+    public boolean isImpField() {
+        return path.startsWith(TransformationTree.IMP_PREFIX);
+    }
+
+    /**
+     * Returns the check of the condition over typed getters of "imp", "impExt" or "bidRequest", null-safe along
+     * the path, e.g. {@code imp.getBanner() != null && Objects.equals(imp.getBanner().getPos(), 1)}.
+     */
+    public CodeBlock check() {
+        final List<CodeBlock> checks = new ArrayList<>();
+        CodeBlock getter;
+        if (isBidderParam()) {
+            getter = CodeBlock.of("impExt.get$L()",
+                    StringUtils.capitalize(path.substring(TransformationTree.IMP_EXT_PREFIX.length())));
+        } else {
+            final boolean isImpField = isImpField();
+            final List<OpenRtbField> fields = OpenRtbIndex.resolvePath(path);
+            getter = CodeBlock.of(isImpField ? "imp" : "bidRequest");
+            for (int i = isImpField ? 1 : 0; i < fields.size(); i++) {
+                if (i > (isImpField ? 1 : 0)) {
+                    checks.add(CodeBlock.of("$L != null", getter));
+                }
+                getter = CodeBlock.of("$L.get$L()", getter, StringUtils.capitalize(fields.get(i).getProperty()));
+            }
+        }
+
+        if (value == null) {
+            checks.add(CodeBlock.of("$L != null", getter));
+        } else if (valueType.getTypeName().equals(TypeName.get(BigDecimal.class))) {
+            // equal decimals may differ in scale
+            checks.add(CodeBlock.of("$L != null", getter));
+            checks.add(CodeBlock.of("$L.compareTo($L) == 0", getter, valueType.literal(value)));
+        } else {
+            checks.add(CodeBlock.of("$T.equals($L, $L)", Objects.class, getter, valueType.literal(value)));
+        }
+        return CodeBlock.join(checks, " && ");
+    }
+}
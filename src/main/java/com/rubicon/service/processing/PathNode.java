@@ -0,0 +1,255 @@
+package com.rubicon.service.processing;
+
+import com.rubicon.model.Transformation;
+import com.squareup.javapoet.ClassName;
+import org.apache.commons.lang3.StringUtils;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Single field of an OpenRTB path inside a {@link TransformationTree}.
+ * <p>
+ * Object nodes carry the resolved OpenRTB class and their children in declaration order,
+ * leaf nodes carry the transformation that assigns the field. Every node except the root carries
+ * the {@link OpenRtbField} it stands for. Nodes of object lists have element nodes as children, one for "[*]"
+ * or one per selected index, e.g. "[0]".
+ */
+public class PathNode {
+
+    static final String WILDCARD = "*";
+
+    private final OpenRtbField field;
+
+    private final String name;
+
+    private final String selector;
+
+    private final String path;
+
+    private final String variableName;
+
+    private final ClassName type;
+
+    private final Map<String, PathNode> children = new LinkedHashMap<>();
+
+    private Transformation transformation;
+
+    private TypeCast cast;
+
+    private PathCondition condition;
+
+    private PathNode(OpenRtbField field, String name, String selector, String path, String variableName,
+                     ClassName type) {
+        this.field = field;
+        this.name = name;
+        this.selector = selector;
+        this.path = path;
+        this.variableName = variableName;
+        this.type = type;
+    }
+
+    static PathNode root(String name, ClassName type) {
+        return new PathNode(null, name, null, "", name, type);
+    }
+
+    /**
+     * Returns child node for the given field, creating it when absent.
+     */
+    PathNode child(OpenRtbField childField) {
+        return children.computeIfAbsent(childField.getName(), key -> new PathNode(childField,
+                childField.getProperty(), null, resolvePath(key), resolveVariableName(childField.getProperty()),
+                childField.getObjectType()));
+    }
+
+    /**
+     * Returns element node of this list node for the given selector, "*" or an index, creating it when absent.
+     */
+    PathNode element(String elementSelector) {
+        return children.computeIfAbsent("[" + elementSelector + "]", key -> new PathNode(field, name,
+                elementSelector, path + key,
+                variableName + "Item" + (WILDCARD.equals(elementSelector) ? "" : elementSelector), type));
+    }
+
+    /**
+     * Returns node for the given relative JSON path, or null when this tree has no such path.
+     */
+    public PathNode find(String relativePath) {
+        PathNode current = this;
+        for (String part : StringUtils.split(relativePath, ".")) {
+            current = current.children.get(part);
+            if (current == null) {
+                return null;
+            }
+        }
+        return current;
+    }
+
+    void setTransformation(Transformation transformation) {
+        this.transformation = transformation;
+    }
+
+    void setCast(TypeCast cast) {
+        this.cast = cast;
+    }
+
+    void setCondition(PathCondition condition) {
+        this.condition = condition;
+    }
+
+    private String resolvePath(String fieldName) {
+        return path.isEmpty() ? fieldName : path + "." + fieldName;
+    }
+
+    private String resolveVariableName(String property) {
+        return path.isEmpty() ? property : variableName + StringUtils.capitalize(property);
+    }
+
+    public OpenRtbField getField() {
+        return field;
+    }
+
+    /**
+     * Java property of the field, which names its getter and builder method, e.g. "xNative" for "native".
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * JSON name of the field, as used in transformation paths.
+     */
+    public String getJsonName() {
+        if (selector != null) {
+            return "[" + selector + "]";
+        }
+        return field != null ? field.getName() : name;
+    }
+
+    /**
+     * Tells whether this node stands for a list of objects whose elements are transformed, rather than assigned as
+     * a whole.
+     */
+    public boolean isList() {
+        return selector == null && field != null && field.isList() && field.hasBuilder() && !isLeaf();
+    }
+
+    /**
+     * Tells whether every transformation under this node changes elements of some list, so an absent object has
+     * nothing to change and stays absent.
+     */
+    public boolean changesElementsOnly() {
+        if (isLeaf()) {
+            return false;
+        }
+        if (isList()) {
+            return true;
+        }
+        for (PathNode child : children.values()) {
+            if (!child.changesElementsOnly()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public boolean isElement() {
+        return selector != null;
+    }
+
+    public boolean isWildcard() {
+        return WILDCARD.equals(selector);
+    }
+
+    /**
+     * Index of the element node, which must not be a wildcard.
+     */
+    public int getIndex() {
+        return Integer.parseInt(selector);
+    }
+
+    public String getCapitalizedName() {
+        return StringUtils.capitalize(name);
+    }
+
+    /**
+     * Dot separated JSON path relative to the tree root, e.g. "site.publisher", "banner" for imp trees or
+     * "banner.format[*]" for element nodes.
+     */
+    public String getPath() {
+        return path;
+    }
+
+    /**
+     * Local variable name unique within the tree, e.g. "sitePublisher" for "site.publisher".
+     */
+    public String getVariableName() {
+        return variableName;
+    }
+
+    /**
+     * OpenRTB class of an object or element node, null for value fields.
+     */
+    public ClassName getType() {
+        return type;
+    }
+
+    public Transformation getTransformation() {
+        return transformation;
+    }
+
+    /**
+     * Cast of the value assigned to a leaf target, null when the value fits the target as is.
+     */
+    public TypeCast getCast() {
+        return cast;
+    }
+
+    /**
+     * Condition of the transformation assigned to a leaf target, null when it is always applied.
+     */
+    public PathCondition getCondition() {
+        return condition;
+    }
+
+    /**
+     * Returns distinct conditions of all transformations under this node, at least one of which must hold for
+     * the node to change, or an empty set when some transformation under it is always applied.
+     */
+    public Set<PathCondition> getGuard() {
+        final Set<PathCondition> guard = new LinkedHashSet<>();
+        return collectGuard(guard) ? guard : Collections.emptySet();
+    }
+
+    private boolean collectGuard(Set<PathCondition> guard) {
+        if (isLeaf()) {
+            if (condition == null) {
+                return false;
+            }
+            guard.add(condition);
+            return true;
+        }
+        for (PathNode child : children.values()) {
+            if (!child.collectGuard(guard)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public Collection<PathNode> getChildren() {
+        return Collections.unmodifiableCollection(children.values());
+    }
+
+    public boolean hasChildren() {
+        return !children.isEmpty();
+    }
+
+    public boolean isLeaf() {
+        return transformation != null;
+    }
+}
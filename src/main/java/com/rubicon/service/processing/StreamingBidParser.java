@@ -0,0 +1,513 @@
+package com.rubicon.service.processing;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.squareup.javapoet.ClassName;
+import com.squareup.javapoet.CodeBlock;
+import com.squareup.javapoet.FieldSpec;
+import com.squareup.javapoet.MethodSpec;
+import com.squareup.javapoet.ParameterizedTypeName;
+import com.squareup.javapoet.TypeSpec;
+
+import javax.lang.model.element.Modifier;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * {@code makeBids} of generated bidders that reads the bid response with Jackson's streaming {@code JsonParser}
+ * instead of decoding it into a {@code BidResponse}. Bid fields are loaded once from {@value #RESOURCE}.
+ * <p>
+ * PBS keeps {@code makeBids} of {@code OpenrtbBidder} final, so a streaming bidder implements {@code Bidder} itself
+ * and leaves requests and targeting to the generated {@code OpenrtbBidder}, nested in it as {@value #REQUEST_BIDDER}.
+ * <p>
+ * Only {@code seatbid[].bid[]} is read, every other field of the response and of its seat bids is skipped without
+ * being built or checked. Each bid field is read by a reader of its type, which takes the common token directly
+ * and leaves any other token to the mapper, so values are coerced and rejected as when the whole response is
+ * decoded. Bids are typed by {@code getBidType} of the request bidder in USD, as by {@code OpenrtbBidder}.
+ * <p>
+ * Exts the request bidder keeps for a request with {@link ImpExtReader} are cleared once its
+ * {@code makeHttpRequests} returns.
+ * <p>
+ * When the request bidder records adapter metrics in a field named {@value #ADAPTER_METRICS}, parsing is timed as
+ * {@value #MAKE_BIDS_METRIC}.
+ */
+public final class StreamingBidParser {
+
+    /**
+     * Name of the nested {@code OpenrtbBidder} a streaming bidder makes requests with.
+     */
+    public static final String REQUEST_BIDDER = "RequestBidder";
+
+    /**
+     * Name of the {@code AdapterMetrics} field of an instrumented request bidder.
+     */
+    public static final String ADAPTER_METRICS = "adapterMetrics";
+
+    /**
+     * {@code MetricName} the time spent in {@code makeBids} is recorded as.
+     */
+    public static final String MAKE_BIDS_METRIC = "make_bids_time";
+
+    static final ClassName METRIC_NAME = ClassName.get("org.prebid.server.metric", "MetricName");
+
+    private static final ClassName BID = ClassName.get("com.iab.openrtb.response", "Bid");
+
+    private static final String RESOURCE = "openrtb/response-2.5.json";
+
+    private static final String BIDDER_MODEL_PACKAGE = "org.prebid.server.bidder.model";
+    private static final ClassName BID_REQUEST = OpenRtbIndex.BID_REQUEST;
+    private static final ClassName BIDDER_BID = ClassName.get(BIDDER_MODEL_PACKAGE, "BidderBid");
+    private static final ClassName RESULT = ClassName.get(BIDDER_MODEL_PACKAGE, "Result");
+    private static final ClassName BID_TYPE = ClassName.get("org.prebid.server.proto.openrtb.ext.response", "BidType");
+    private static final ParameterizedTypeName BIDDER_BIDS = ParameterizedTypeName.get(ClassName.get(List.class),
+            BIDDER_BID);
+
+    private static final FieldSpec JSON_FACTORY = FieldSpec.builder(JsonFactory.class, "jsonFactory",
+            Modifier.PRIVATE, Modifier.FINAL)
+            .build();
+
+    private static final FieldSpec BID_CURRENCY = FieldSpec.builder(String.class, "BID_CURRENCY",
+            Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
+            .initializer("$S", "USD")
+            .build();
+
+    private static final MethodSpec EXPECT_TOKEN = MethodSpec.methodBuilder("expectToken")
+            .addModifiers(Modifier.PRIVATE, Modifier.STATIC)
+            .addParameter(JsonParser.class, "parser")
+            .addParameter(JsonToken.class, "expected")
+            .addException(IOException.class)
+            .beginControlFlow("if (parser.getCurrentToken() != expected)")
+            .addStatement("throw new $T(parser, $T.format($S, expected, parser.getCurrentToken()))",
+                    JsonParseException.class, String.class, "Expected %s, but was %s")
+            .endControlFlow()
+            .build();
+
+    private static final Map<String, MethodSpec> READERS = createReaders();
+
+    private static final Map<String, ParamType> BID_FIELDS = load();
+
+    private static final String SAMPLE_BID_RESPONSE = createSampleBidResponse();
+
+    private StreamingBidParser() {
+    }
+
+    /**
+     * Returns the streaming bidder enclosing the given request bidder, which is named {@value #REQUEST_BIDDER}.
+     * Each constructor of the request bidder, taking the {@code JacksonMapper} as parameter "mapper", gets
+     * a public counterpart creating it with the same arguments.
+     */
+    public static TypeSpec wrap(ClassName bidderClass, TypeSpec requestBidder) {
+        final ClassName requestBidderClass = bidderClass.nestedClass(REQUEST_BIDDER);
+        final FieldSpec requestBidderField = FieldSpec.builder(requestBidderClass, "requestBidder",
+                Modifier.PRIVATE, Modifier.FINAL)
+                .build();
+        final MethodSpec parseBid = parseBid();
+        final MethodSpec parseSeatBid = parseSeatBid(parseBid, requestBidderField);
+        final MethodSpec parseBidResponse = parseBidResponse(parseSeatBid);
+
+        final TypeSpec.Builder classBuilder = TypeSpec.classBuilder(bidderClass)
+                .addModifiers(Modifier.PUBLIC)
+                .addSuperinterface(ParameterizedTypeName.get(ClassName.get("org.prebid.server.bidder", "Bidder"),
+                        BID_REQUEST))
+                .addField(BID_CURRENCY)
+                .addField(requestBidderField)
+                .addField(JSON_FACTORY);
+        for (MethodSpec method : requestBidder.methodSpecs) {
+            if (method.isConstructor()) {
+                classBuilder.addMethod(MethodSpec.constructorBuilder()
+                        .addModifiers(Modifier.PUBLIC)
+                        .addParameters(method.parameters)
+                        .addStatement("$N = new $T($L)", requestBidderField, requestBidderClass,
+                                method.parameters.stream()
+                                        .map(parameter -> parameter.name)
+                                        .collect(Collectors.joining(", ")))
+                        .addStatement("$N = mapper.mapper().getFactory()", JSON_FACTORY)
+                        .build());
+            }
+        }
+
+        classBuilder.addMethod(makeHttpRequests(requestBidderField, hasField(requestBidder, ImpExtReader.IMP_EXTS)));
+        if (hasField(requestBidder, ADAPTER_METRICS)) {
+            final MethodSpec parseBids = makeBids("parseBids", parseBidResponse)
+                    .addModifiers(Modifier.PRIVATE)
+                    .build();
+            classBuilder.addMethod(timedMakeBids(parseBids, requestBidderField))
+                    .addMethod(parseBids);
+        } else {
+            classBuilder.addMethod(makeBids("makeBids", parseBidResponse)
+                    .addModifiers(Modifier.PUBLIC)
+                    .addAnnotation(Override.class)
+                    .build());
+        }
+
+        return classBuilder.addMethod(extractTargeting(requestBidderField))
+                .addMethod(parseBidResponse)
+                .addMethod(parseSeatBid)
+                .addMethod(parseBid)
+                .addMethods(READERS.values())
+                .addMethod(EXPECT_TOKEN)
+                .addType(exposeBidType(requestBidder))
+                .build();
+    }
+
+    /**
+     * Returns the bid response generated tests parse with both the generated parser and the mapper: two seat bids
+     * with bids on imp "123", one with every field set, one with null fields and values given as text, and unknown
+     * fields on every level.
+     */
+    public static String getSampleBidResponse() {
+        return SAMPLE_BID_RESPONSE;
+    }
+
+    private static MethodSpec makeHttpRequests(FieldSpec requestBidder, boolean clearsImpExts) {
+        final ClassName httpRequest = ClassName.get(BIDDER_MODEL_PACKAGE, "HttpRequest");
+        final MethodSpec.Builder makeHttpRequests = MethodSpec.methodBuilder("makeHttpRequests")
+                .addModifiers(Modifier.PUBLIC)
+                .addAnnotation(Override.class)
+                .returns(ParameterizedTypeName.get(RESULT, ParameterizedTypeName.get(ClassName.get(List.class),
+                        ParameterizedTypeName.get(httpRequest, BID_REQUEST))))
+                .addParameter(BID_REQUEST, "bidRequest");
+        if (!clearsImpExts) {
+            return makeHttpRequests.addStatement("return $N.makeHttpRequests(bidRequest)", requestBidder)
+                    .build();
+        }
+        return makeHttpRequests.beginControlFlow("try")
+                .addStatement("return $N.makeHttpRequests(bidRequest)", requestBidder)
+                .nextControlFlow("finally")
+                .addStatement("$T.$L", requestBidder.type, ImpExtReader.clearImpExts())
+                .endControlFlow()
+                .build();
+    }
+
+    private static MethodSpec.Builder makeBids(String name, MethodSpec parseBidResponse) {
+        final ClassName bidderError = ClassName.get(BIDDER_MODEL_PACKAGE, "BidderError");
+        return MethodSpec.methodBuilder(name)
+                .returns(ParameterizedTypeName.get(RESULT, BIDDER_BIDS))
+                .addParameter(ParameterizedTypeName.get(ClassName.get(BIDDER_MODEL_PACKAGE, "HttpCall"),
+                        BID_REQUEST), "httpCall")
+                .addParameter(BID_REQUEST, "bidRequest")
+                .beginControlFlow("try ($T parser = $N.createParser(httpCall.getResponse().getBody()))",
+                        JsonParser.class, JSON_FACTORY)
+                .addStatement("return $T.of($N(parser, httpCall.getRequest().getPayload()), $T.emptyList())",
+                        RESULT, parseBidResponse, Collections.class)
+                .nextControlFlow("catch ($T e)", IOException.class)
+                .addStatement("return $T.emptyWithError($T.badServerResponse($S + e.getMessage()))", RESULT,
+                        bidderError, "Failed to decode: ")
+                .nextControlFlow("catch ($T e)", ClassName.get("org.prebid.server.exception", "PreBidException"))
+                .addStatement("return $T.emptyWithError($T.badServerResponse(e.getMessage()))", RESULT,
+                        bidderError)
+                .endControlFlow();
+    }
+
+    private static boolean hasField(TypeSpec requestBidder, String name) {
+        return requestBidder.fieldSpecs.stream().anyMatch(field -> field.name.equals(name));
+    }
+
+    private static MethodSpec timedMakeBids(MethodSpec parseBids, FieldSpec requestBidder) {
+        return MethodSpec.methodBuilder("makeBids")
+                .addModifiers(Modifier.PUBLIC)
+                .addAnnotation(Override.class)
+                .returns(parseBids.returnType)
+                .addParameters(parseBids.parameters)
+                .beginControlFlow("if ($N.$L == null)", requestBidder, ADAPTER_METRICS)
+                .addStatement("return $N(httpCall, bidRequest)", parseBids)
+                .endControlFlow()
+                .addCode("\n")
+                .addStatement("final long start = System.nanoTime()")
+                .beginControlFlow("try")
+                .addStatement("return $N(httpCall, bidRequest)", parseBids)
+                .nextControlFlow("finally")
+                .addStatement("$N.$L.updateTimer($T.$L, $T.NANOSECONDS.toMillis(System.nanoTime() - start))",
+                        requestBidder, ADAPTER_METRICS, METRIC_NAME, MAKE_BIDS_METRIC, TimeUnit.class)
+                .endControlFlow()
+                .build();
+    }
+
+    private static MethodSpec extractTargeting(FieldSpec requestBidder) {
+        return MethodSpec.methodBuilder("extractTargeting")
+                .addModifiers(Modifier.PUBLIC)
+                .addAnnotation(Override.class)
+                .returns(ParameterizedTypeName.get(Map.class, String.class, String.class))
+                .addParameter(ObjectNode.class, "ext")
+                .addStatement("return $N.extractTargeting(ext)", requestBidder)
+                .build();
+    }
+
+    /**
+     * Overrides {@code getBidType} in the request bidder unless it already does, since the streaming bidder may
+     * only call the protected method of {@code OpenrtbBidder} when the nested class declares it.
+     */
+    private static TypeSpec exposeBidType(TypeSpec requestBidder) {
+        for (MethodSpec method : requestBidder.methodSpecs) {
+            if (method.name.equals("getBidType")) {
+                return requestBidder;
+            }
+        }
+        return requestBidder.toBuilder()
+                .addMethod(MethodSpec.methodBuilder("getBidType")
+                        .addModifiers(Modifier.PROTECTED)
+                        .addAnnotation(Override.class)
+                        .returns(BID_TYPE)
+                        .addParameter(String.class, "impId")
+                        .addParameter(ParameterizedTypeName.get(ClassName.get(List.class), OpenRtbIndex.IMP),
+                                "imps")
+                        .addStatement("return super.getBidType(impId, imps)")
+                        .build())
+                .build();
+    }
+
+    private static MethodSpec parseBidResponse(MethodSpec parseSeatBid) {
+        return MethodSpec.methodBuilder("parseBidResponse")
+                .addModifiers(Modifier.PRIVATE)
+                .returns(BIDDER_BIDS)
+                .addParameter(JsonParser.class, "parser")
+                .addParameter(BID_REQUEST, "request")
+                .addException(IOException.class)
+                .addStatement("final $T token = parser.nextToken()", JsonToken.class)
+                .beginControlFlow("if (token == null)")
+                .addStatement("throw new $T(parser, $S)", JsonParseException.class,
+                        "No content to map due to end-of-input")
+                .endControlFlow()
+                .addStatement("final $T bidderBids = new $T<>()", BIDDER_BIDS, ArrayList.class)
+                .beginControlFlow("if (token == $T.VALUE_NULL)", JsonToken.class)
+                .addStatement("return bidderBids")
+                .endControlFlow()
+                .addCode("\n")
+                .addStatement("$N(parser, $T.START_OBJECT)", EXPECT_TOKEN, JsonToken.class)
+                .beginControlFlow("while (parser.nextToken() == $T.FIELD_NAME)", JsonToken.class)
+                .addStatement("final $T field = parser.getCurrentName()", String.class)
+                .beginControlFlow("if (parser.nextToken() != $T.VALUE_NULL && $S.equals(field))", JsonToken.class,
+                        "seatbid")
+                .addStatement("$N(parser, $T.START_ARRAY)", EXPECT_TOKEN, JsonToken.class)
+                .beginControlFlow("while (parser.nextToken() != $T.END_ARRAY)", JsonToken.class)
+                .beginControlFlow("if (parser.getCurrentToken() != $T.VALUE_NULL)", JsonToken.class)
+                .addStatement("$N(parser, request, bidderBids)", parseSeatBid)
+                .endControlFlow()
+                .endControlFlow()
+                .nextControlFlow("else")
+                .addStatement("parser.skipChildren()")
+                .endControlFlow()
+                .endControlFlow()
+                .addStatement("return bidderBids")
+                .build();
+    }
+
+    private static MethodSpec parseSeatBid(MethodSpec parseBid, FieldSpec requestBidder) {
+        return MethodSpec.methodBuilder("parseSeatBid")
+                .addModifiers(Modifier.PRIVATE)
+                .addParameter(JsonParser.class, "parser")
+                .addParameter(BID_REQUEST, "request")
+                .addParameter(BIDDER_BIDS, "bidderBids")
+                .addException(IOException.class)
+                .addStatement("$N(parser, $T.START_OBJECT)", EXPECT_TOKEN, JsonToken.class)
+                .beginControlFlow("while (parser.nextToken() == $T.FIELD_NAME)", JsonToken.class)
+                .addStatement("final $T field = parser.getCurrentName()", String.class)
+                .beginControlFlow("if (parser.nextToken() != $T.VALUE_NULL && $S.equals(field))", JsonToken.class,
+                        "bid")
+                .addStatement("$N(parser, $T.START_ARRAY)", EXPECT_TOKEN, JsonToken.class)
+                .beginControlFlow("while (parser.nextToken() != $T.END_ARRAY)", JsonToken.class)
+                .beginControlFlow("if (parser.getCurrentToken() != $T.VALUE_NULL)", JsonToken.class)
+                .addStatement("final $T bid = $N(parser)", BID, parseBid)
+                .addStatement("final $T bidType = $N.getBidType(bid.getImpid(), request.getImp())", BID_TYPE,
+                        requestBidder)
+                .addStatement("bidderBids.add($T.of(bid, bidType, $N))", BIDDER_BID, BID_CURRENCY)
+                .endControlFlow()
+                .endControlFlow()
+                .nextControlFlow("else")
+                .addStatement("parser.skipChildren()")
+                .endControlFlow()
+                .endControlFlow()
+                .build();
+    }
+
+    /**
+     * Reads a bid by a switch over its field names. A null value leaves the field unset, as the mapper does.
+     */
+    private static MethodSpec parseBid() {
+        final CodeBlock.Builder cases = CodeBlock.builder();
+        for (Map.Entry<String, ParamType> field : BID_FIELDS.entrySet()) {
+            cases.add("case $S:\n", field.getKey())
+                    .indent()
+                    .addStatement("bid.$L($N(parser))", OpenRtbIndex.resolveProperty(field.getKey()),
+                            READERS.get(field.getValue().getName()))
+                    .addStatement("break")
+                    .unindent();
+        }
+        cases.add("default:\n")
+                .indent()
+                .addStatement("parser.skipChildren()")
+                .unindent();
+
+        return MethodSpec.methodBuilder("parseBid")
+                .addModifiers(Modifier.PRIVATE, Modifier.STATIC)
+                .returns(BID)
+                .addParameter(JsonParser.class, "parser")
+                .addException(IOException.class)
+                .addStatement("$N(parser, $T.START_OBJECT)", EXPECT_TOKEN, JsonToken.class)
+                .addStatement("final $T.BidBuilder bid = $T.builder()", BID, BID)
+                .beginControlFlow("while (parser.nextToken() == $T.FIELD_NAME)", JsonToken.class)
+                .addStatement("final $T field = parser.getCurrentName()", String.class)
+                .beginControlFlow("if (parser.nextToken() == $T.VALUE_NULL)", JsonToken.class)
+                .addStatement("continue")
+                .endControlFlow()
+                .beginControlFlow("switch (field)")
+                .addCode(cases.build())
+                .endControlFlow()
+                .endControlFlow()
+                .addStatement("return bid.build()")
+                .build();
+    }
+
+    private static Map<String, MethodSpec> createReaders() {
+        final Map<String, MethodSpec> readers = new LinkedHashMap<>();
+        final MethodSpec readString = scalarReader("readString", String.class,
+                CodeBlock.of("parser.getCurrentToken() == $T.VALUE_STRING", JsonToken.class),
+                CodeBlock.of("parser.getText()"));
+        final MethodSpec readInteger = scalarReader("readInteger", Integer.class,
+                CodeBlock.of("parser.getCurrentToken() == $T.VALUE_NUMBER_INT", JsonToken.class),
+                CodeBlock.of("parser.getIntValue()"));
+        readers.put("String", readString);
+        readers.put("Integer", readInteger);
+        readers.put("BigDecimal", scalarReader("readDecimal", BigDecimal.class,
+                CodeBlock.of("parser.getCurrentToken() == $T.VALUE_NUMBER_FLOAT\n"
+                        + "|| parser.getCurrentToken() == $T.VALUE_NUMBER_INT", JsonToken.class, JsonToken.class),
+                CodeBlock.of("parser.getDecimalValue()")));
+        readers.put("List<String>", listReader("readStrings", readString));
+        readers.put("List<Integer>", listReader("readIntegers", readInteger));
+        readers.put("Object", MethodSpec.methodBuilder("readObject")
+                .addModifiers(Modifier.PRIVATE, Modifier.STATIC)
+                .returns(ObjectNode.class)
+                .addParameter(JsonParser.class, "parser")
+                .addException(IOException.class)
+                .addStatement("return parser.readValueAs($T.class)", ObjectNode.class)
+                .build());
+        return Collections.unmodifiableMap(readers);
+    }
+
+    /**
+     * Reads the common token directly, any other non-null token is read by the mapper of the parser.
+     */
+    private static MethodSpec scalarReader(String name, Class<?> type, CodeBlock commonToken, CodeBlock value) {
+        return MethodSpec.methodBuilder(name)
+                .addModifiers(Modifier.PRIVATE, Modifier.STATIC)
+                .returns(type)
+                .addParameter(JsonParser.class, "parser")
+                .addException(IOException.class)
+                .addStatement("return $L\n? $L\n: parser.readValueAs($T.class)", commonToken, value, type)
+                .build();
+    }
+
+    private static MethodSpec listReader(String name, MethodSpec elementReader) {
+        final ParameterizedTypeName listType = ParameterizedTypeName.get(ClassName.get(List.class),
+                elementReader.returnType);
+        return MethodSpec.methodBuilder(name)
+                .addModifiers(Modifier.PRIVATE, Modifier.STATIC)
+                .returns(listType)
+                .addParameter(JsonParser.class, "parser")
+                .addException(IOException.class)
+                .addStatement("$N(parser, $T.START_ARRAY)", EXPECT_TOKEN, JsonToken.class)
+                .addStatement("final $T values = new $T<>()", listType, ArrayList.class)
+                .beginControlFlow("while (parser.nextToken() != $T.END_ARRAY)", JsonToken.class)
+                .addStatement("values.add(parser.getCurrentToken() != $T.VALUE_NULL ? $N(parser) : null)",
+                        JsonToken.class, elementReader)
+                .endControlFlow()
+                .addStatement("return values")
+                .build();
+    }
+
+    private static String createSampleBidResponse() {
+        final ObjectMapper mapper = new ObjectMapper();
+        final ObjectNode fullBid = mapper.createObjectNode();
+        final ObjectNode textBid = mapper.createObjectNode();
+        int number = 1;
+        for (Map.Entry<String, ParamType> field : BID_FIELDS.entrySet()) {
+            final String name = field.getKey();
+            switch (field.getValue().getName()) {
+                case "String":
+                    fullBid.put(name, name + number);
+                    textBid.put(name, number);
+                    break;
+                case "Integer":
+                    fullBid.put(name, number);
+                    textBid.put(name, String.valueOf(number));
+                    break;
+                case "BigDecimal":
+                    fullBid.put(name, new BigDecimal(number + ".25"));
+                    textBid.put(name, number + ".50");
+                    break;
+                case "List<String>":
+                    fullBid.putArray(name).add(name + number).add(name + (number + 1));
+                    textBid.putArray(name).add(number).addNull();
+                    break;
+                case "List<Integer>":
+                    fullBid.putArray(name).add(number).add(number + 1);
+                    textBid.putArray(name).add(String.valueOf(number)).addNull();
+                    break;
+                default:
+                    fullBid.putObject(name).put("id", number).putArray("list").addObject().put("id", number);
+                    textBid.putNull(name);
+            }
+            number++;
+        }
+        fullBid.put("impid", "123");
+        textBid.put("impid", "123");
+        textBid.putNull("id");
+        fullBid.putObject("unknown").putArray("list").add(1).addObject().putArray("list");
+        textBid.putArray("unknown").addArray().add("value");
+
+        final ObjectNode response = mapper.createObjectNode().put("id", "response-id");
+        final ArrayNode seatBids = response.putArray("seatbid");
+        final ObjectNode seatBid = seatBids.addObject().put("seat", "seat1").putNull("group");
+        seatBid.set("ext", fullBid.deepCopy());
+        seatBid.putArray("bid").add(fullBid).add(textBid);
+        seatBids.addObject().putArray("bid").add(fullBid.deepCopy().put("id", "last"));
+        response.putNull("bidid");
+        response.put("cur", "USD")
+                .putObject("ext").putArray("list").addObject().put("id", 1);
+        try {
+            return mapper.writeValueAsString(response);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static Map<String, ParamType> load() {
+        final Map<String, Map<String, String>> classes;
+        try (InputStream inputStream = StreamingBidParser.class.getClassLoader().getResourceAsStream(RESOURCE)) {
+            if (inputStream == null) {
+                throw new IOException("Resource " + RESOURCE + " not found");
+            }
+            classes = new ObjectMapper().readValue(inputStream,
+                    new TypeReference<Map<String, Map<String, String>>>() {
+                    });
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        final Map<String, ParamType> fields = new LinkedHashMap<>();
+        for (Map.Entry<String, String> field : classes.get(BID.simpleName()).entrySet()) {
+            final ParamType type = ParamTypeRegistry.find(field.getValue());
+            if (type == null || !READERS.containsKey(type.getName())) {
+                throw new IllegalStateException(String.format("Bid field %s has unsupported type %s",
+                        field.getKey(), field.getValue()));
+            }
+            fields.put(field.getKey(), type);
+        }
+        return Collections.unmodifiableMap(fields);
+    }
+}
@@ -1,536 +1,797 @@
 package com.rubicon.service.processing;
 
 import com.fasterxml.jackson.databind.JsonNode;
-import com.rubicon.model.BidderData;
 import com.rubicon.model.BidderParam;
 import com.rubicon.model.Transformation;
 import com.squareup.javapoet.ClassName;
 import com.squareup.javapoet.CodeBlock;
+import com.squareup.javapoet.FieldSpec;
 import com.squareup.javapoet.MethodSpec;
+import com.squareup.javapoet.TypeName;
+import com.squareup.javapoet.TypeSpec;
 import org.apache.commons.collections4.CollectionUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.springframework.stereotype.Service;
 
+import javax.lang.model.element.Modifier;
+import java.math.BigDecimal;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
-import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
 import java.util.StringJoiner;
-import java.util.stream.Collectors;
 
 @Service
 public class StringGenerator {
 
-    public String addTransformationString(Transformation transformation, ModificationType type) {
-        final String target = transformation.getTarget();
-        final JsonNode staticValue = transformation.getStaticValue();
-        final String value = staticValue != null ? resolveStaticValue(staticValue) : transformation.getFrom();
-        final String[] targetPath = StringUtils.split(target, ".");
-        if (type.equals(ModificationType.IMP) && targetPath.length > 2) {
-            throw new IllegalArgumentException("not supported transformation");
+    // objects always present in the imp built by the generated test's givenImp()
+    private static final List<String> givenImpObjects = Arrays.asList("banner", "video");
+
+    /**
+     * Adds statements applying all transformations of the given tree to the builder of its root:
+     * "impBuilder" for {@link ModificationType#IMP}, "requestBuilder" for {@link ModificationType#REQUEST}.
+     */
+    public void resolveMethodBody(MethodSpec.Builder method, PathNode root, ModificationType modificationType) {
+        addFieldStatements(method, root, root.getVariableName(), modificationType.getName() + "Builder", false,
+                Collections.emptySet(), modificationType);
+        if (modificationType.equals(ModificationType.IMP)) {
+            method.addStatement("return impBuilder.build()");
         }
-        return staticValue != null
-                ? createStaticTransformationString(value, targetPath)
-                : createDynamicTransformationString(value, targetPath, type);
     }
 
-    public void addTopFieldBuilder(MethodSpec.Builder method, String sourceString, ClassName className,
-                                   String fieldName, String capName) {
-        method.addStatement("final $T $L = $Lget$L()", className, fieldName, sourceString, capName);
-        resolveFieldBuilderString(method, className, fieldName, capName);
+    /**
+     * Fields whose transformations all have conditions are changed inside an if block checking that one of the
+     * conditions holds, unless the enclosing block already checks the same conditions.
+     */
+    private void addFieldStatements(MethodSpec.Builder method, PathNode parent, String parentName,
+                                    String parentBuilder, boolean isParentNullable,
+                                    Set<PathCondition> enclosingGuard, ModificationType modificationType) {
+        for (PathNode field : parent.getChildren()) {
+            final Set<PathCondition> guard = field.getGuard();
+            final boolean isGuarded = !guard.isEmpty() && !guard.equals(enclosingGuard);
+            if (isGuarded) {
+                method.beginControlFlow("if ($>$>$L$<$<)", resolveGuard(guard));
+            }
+
+            if (field.isLeaf()) {
+                method.addStatement("$L.$L($L)", parentBuilder, field.getName(),
+                        resolveTransformationValue(field, modificationType));
+            } else if (field.isList()) {
+                addListStatements(method, field, parentName, parentBuilder, isParentNullable, guard,
+                        modificationType);
+            } else if (field.changesElementsOnly()) {
+                // an absent object has no elements to change, so it isn't created
+                final String fieldName = field.getVariableName();
+                final ClassName fieldClass = field.getType();
+                addFieldDeclaration(method, field, parentName, isParentNullable);
+                method.beginControlFlow("if ($L != null)", fieldName)
+                        .addStatement("final $T.$LBuilder $LBuilder = $L.toBuilder()", fieldClass,
+                                fieldClass.simpleName(), fieldName, fieldName);
+                addFieldStatements(method, field, fieldName, fieldName + "Builder", false, guard, modificationType);
+                method.addStatement("$L.$L($LBuilder.build())", parentBuilder, field.getName(), fieldName)
+                        .endControlFlow();
+            } else {
+                final String fieldName = field.getVariableName();
+                addFieldDeclaration(method, field, parentName, isParentNullable);
+                addBuilderDeclaration(method, field, fieldName);
+                addFieldStatements(method, field, fieldName, fieldName + "Builder", true, guard, modificationType);
+                method.addStatement("$L.$L($LBuilder.build())", parentBuilder, field.getName(), fieldName);
+            }
+
+            if (isGuarded) {
+                method.endControlFlow();
+            }
+        }
     }
 
-    public void addNestedFieldBuilder(MethodSpec.Builder method, ClassName className,
-                                      String topFieldName, String fieldName, String capName) {
-        method.addStatement("final $T $L = $L != null ? $L.get$L() : null", className, fieldName, topFieldName,
-                topFieldName, capName);
-        resolveFieldBuilderString(method, className, fieldName, capName);
+    /**
+     * Rebuilds the selected elements of a list that is present, copying it into a list sized once: every element
+     * is rebuilt in a single index loop for "[*]", while selected indexes are set on a copy of the list when the list
+     * is long enough.
+     */
+    private void addListStatements(MethodSpec.Builder method, PathNode list, String parentName, String parentBuilder,
+                                   boolean isParentNullable, Set<PathCondition> guard,
+                                   ModificationType modificationType) {
+        final String listName = list.getVariableName();
+        final String updatedName = "updated" + StringUtils.capitalize(listName);
+        addFieldDeclaration(method, list, parentName, isParentNullable);
+        // elements of a list are either all selected by "[*]" or by indexes
+        final boolean isWildcard = list.getChildren().iterator().next().isWildcard();
+        method.beginControlFlow("if ($L != null)", listName)
+                .addStatement("final $T $L = new $T<>($L$L)", list.getField().getType(), updatedName,
+                        ArrayList.class, listName, isWildcard ? ".size()" : "");
+
+        for (PathNode element : list.getChildren()) {
+            final String elementName = element.getVariableName();
+            if (isWildcard) {
+                final String indexName = listName + "Index";
+                method.beginControlFlow("for (int $L = 0; $L < $L.size(); $L++)", indexName, indexName, listName,
+                                indexName)
+                        .addStatement("final $T $L = $L.get($L)", element.getType(), elementName, listName,
+                                indexName);
+                addBuilderDeclaration(method, element, elementName);
+                addFieldStatements(method, element, elementName, elementName + "Builder", true, guard,
+                        modificationType);
+                method.addStatement("$L.add($LBuilder.build())", updatedName, elementName)
+                        .endControlFlow();
+                continue;
+            }
+
+            final Set<PathCondition> elementGuard = element.getGuard();
+            if (!elementGuard.isEmpty() && !elementGuard.equals(guard)) {
+                method.beginControlFlow("if ($L.size() > $L\n$>$>&& ($L)$<$<)", listName, element.getIndex(),
+                        resolveGuard(elementGuard));
+            } else {
+                method.beginControlFlow("if ($L.size() > $L)", listName, element.getIndex());
+            }
+            method.addStatement("final $T $L = $L.get($L)", element.getType(), elementName, listName,
+                    element.getIndex());
+            addBuilderDeclaration(method, element, elementName);
+            addFieldStatements(method, element, elementName, elementName + "Builder", true, elementGuard,
+                    modificationType);
+            method.addStatement("$L.set($L, $LBuilder.build())", updatedName, element.getIndex(), elementName)
+                    .endControlFlow();
+        }
+
+        method.addStatement("$L.$L($L)", parentBuilder, list.getName(), updatedName)
+                .endControlFlow();
     }
 
-    private static void resolveFieldBuilderString(MethodSpec.Builder method, ClassName className, String fieldName,
-                                                  String capName) {
+    private static void addFieldDeclaration(MethodSpec.Builder method, PathNode field, String parentName,
+                                            boolean isParentNullable) {
+        final TypeName fieldType = field.getField().getType();
+        final String fieldName = field.getVariableName();
+        if (isParentNullable) {
+            method.addStatement("final $T $L = $L != null ? $L.get$L() : null", fieldType, fieldName, parentName,
+                    parentName, field.getCapitalizedName());
+        } else {
+            method.addStatement("final $T $L = $L.get$L()", fieldType, fieldName, parentName,
+                    field.getCapitalizedName());
+        }
+    }
+
+    private static void addBuilderDeclaration(MethodSpec.Builder method, PathNode node, String objectName) {
+        final ClassName nodeClass = node.getType();
         method.addStatement("final $T.$LBuilder $LBuilder = $L != null ? $L.toBuilder() : $T.builder()",
-                className, capName, fieldName, fieldName, fieldName, className);
+                nodeClass, nodeClass.simpleName(), objectName, objectName, objectName, nodeClass);
+    }
+
+    /**
+     * Returns check that at least one of the given conditions holds.
+     */
+    private static CodeBlock resolveGuard(Set<PathCondition> guard) {
+        if (guard.size() == 1) {
+            return guard.iterator().next().check();
+        }
+        final List<CodeBlock> checks = new ArrayList<>(guard.size());
+        for (PathCondition condition : guard) {
+            checks.add(CodeBlock.of("($L)", condition.check()));
+        }
+        return CodeBlock.join(checks, "\n|| ");
+    }
+
+    private static CodeBlock resolveTransformationValue(PathNode field, ModificationType type) {
+        final Transformation transformation = field.getTransformation();
+        final JsonNode staticValue = transformation.getStaticValue();
+        if (staticValue != null) {
+            return resolveStaticValue(staticValue, field.getField());
+        }
+
+        final String from = transformation.getFrom();
+        final CodeBlock value;
+        if (type.equals(ModificationType.IMP)) {
+            value = from.startsWith(TransformationTree.IMP_EXT_PREFIX)
+                    ? resolveExtGetterChain(from.substring(TransformationTree.IMP_EXT_PREFIX.length()))
+                    : resolveGetterChain("imp", resolveImpFields(from));
+        } else {
+            value = resolveGetterChain("bidRequest", OpenRtbIndex.resolvePath(from));
+        }
+        return field.getCast() != null ? field.getCast().convert(value) : value;
+    }
+
+    private static List<OpenRtbField> resolveImpFields(String from) {
+        final List<OpenRtbField> fields = OpenRtbIndex.resolvePath(from);
+        return fields.subList(1, fields.size());
     }
 
-    public void resolveMethodBody(MethodSpec.Builder method, Map<String, List<Transformation>> fieldToTransformations,
-                                  ModificationType modificationType, String topFieldName) {
+    private static CodeBlock resolveExtGetterChain(String field) {
+        return CodeBlock.of("impExt.get$L()", StringUtils.capitalize(field));
+    }
+
+    private static CodeBlock resolveGetterChain(String source, List<OpenRtbField> fields) {
+        final CodeBlock.Builder builder = CodeBlock.builder().add("$L", source);
+        for (OpenRtbField field : fields) {
+            builder.add(".get$L()", StringUtils.capitalize(field.getProperty()));
+        }
+        return builder.build();
+    }
+
+    /**
+     * Allocation-lean variant of {@link #resolveMethodBody}: static values are read from constants added to the
+     * class, an object is rebuilt only when one of its targets differs from the expected value, and each rebuilt
+     * object uses a single builder. For {@link ModificationType#IMP} the given imp is returned as is when nothing
+     * changes. Conditional fields keep their value when the condition doesn't hold, and objects whose transformations
+     * all have conditions are left as they are when none holds.
+     */
+    public void resolveLeanMethodBody(MethodSpec.Builder method, TypeSpec.Builder classBuilder, PathNode root,
+                                      ModificationType modificationType) {
         final boolean isImpModification = modificationType.equals(ModificationType.IMP);
-        for (Map.Entry<String, List<Transformation>> field : fieldToTransformations.entrySet()) {
-            final List<Transformation> transformations = field.getValue();
-            final String fieldName = field.getKey();
-            final String capField = StringUtils.capitalize(fieldName);
-            final ClassName fieldClass = ClassName.get("com.iab.openrtb.request", capField);
-
-            if (transformations.size() > 1) {
-                addMethodTransformationsGroup(method, transformations, topFieldName,
-                        fieldClass, fieldName, capField, modificationType);
-            } else {
-                final Transformation singleTransformation = transformations.get(0);
-                final String target = singleTransformation.getTarget();
-                final String[] targetPath = StringUtils.split(target, ".");
-                final String modFieldName = modificationType.getName();
-                if (targetPath.length == 1) {
-                    addBuilderField(method, singleTransformation, modificationType, modFieldName, null);
-                } else if (targetPath.length == 2) {
-                    if (isImpModification) {
-                        addTopFieldBuilder(method, modificationType.getPath(), fieldClass, fieldName, capField);
-                        addBuilderField(method, singleTransformation, modificationType, modFieldName, fieldName);
-                    } else {
-                        addBuilderField(method, singleTransformation, modificationType, topFieldName, null);
-                    }
+        final String rootName = root.getVariableName();
+        final List<CodeBlock> unchangedConditions = new ArrayList<>();
+        final CodeBlock.Builder changes = CodeBlock.builder();
+
+        for (PathNode field : root.getChildren()) {
+            if (field.isLeaf()) {
+                final CodeBlock value = resolveLeanValue(classBuilder, field, modificationType);
+                final PathCondition condition = field.getCondition();
+                if (isImpModification) {
+                    unchangedConditions.add(resolveUnchangedCondition(rootName, field, value, condition));
+                    changes.add("\n.$L($L)", field.getName(),
+                            resolveChangedValue(rootName, false, field, value, condition));
+                } else if (condition != null) {
+                    method.beginControlFlow("if ($L)", condition.check())
+                            .addStatement("requestBuilder.$L($L)", field.getName(), value)
+                            .endControlFlow();
                 } else {
-                    addNestedFieldBuilder(method, fieldClass, topFieldName, fieldName, capField);
-                    addBuilderField(method, singleTransformation, modificationType, topFieldName, fieldName);
+                    method.addStatement("requestBuilder.$L($L)", field.getName(), value);
                 }
+                continue;
+            }
+
+            final String updatedName = field.isList()
+                    ? addLeanListStatements(method, classBuilder, field, rootName, false, modificationType)
+                    : addLeanObjectStatements(method, classBuilder, field, rootName, false, modificationType);
+            if (isImpModification) {
+                unchangedConditions.add(CodeBlock.of("$L == $L", updatedName, field.getVariableName()));
+                changes.add("\n.$L($L)", field.getName(), updatedName);
+            } else {
+                method.beginControlFlow("if ($L != $L)", updatedName, field.getVariableName())
+                        .addStatement("requestBuilder.$L($L)", field.getName(), updatedName)
+                        .endControlFlow();
             }
         }
+
         if (isImpModification) {
-            method.addStatement("return impBuilder.build()");
-        } else {
-            method.addStatement("requestBuilder.$L($LBuilder.build())", topFieldName, topFieldName);
+            method.beginControlFlow("if ($>$>$L$<$<)", CodeBlock.join(unchangedConditions, "\n&& "))
+                    .addStatement("return imp")
+                    .endControlFlow()
+                    .addStatement("return imp.toBuilder()$L\n.build()", changes.build());
         }
     }
 
-    private void addMethodTransformationsGroup(MethodSpec.Builder method, List<Transformation> transformations,
-                                               String topFieldName, ClassName className,
-                                               String fieldName, String capName, ModificationType modificationType) {
-        if (modificationType.equals(ModificationType.IMP)) {
-            final String source = modificationType.getPath();
-            addTopFieldBuilder(method, source, className, fieldName, capName);
-            addStatementForEachTransformation(method, transformations, fieldName, modificationType);
-            method.addStatement("impBuilder.$L($LBuilder.build())", fieldName, fieldName);
+    private String addLeanObjectStatements(MethodSpec.Builder method, TypeSpec.Builder classBuilder, PathNode node,
+                                           String parentName, boolean isParentNullable,
+                                           ModificationType modificationType) {
+        addFieldDeclaration(method, node, parentName, isParentNullable);
+        return addLeanUpdateStatements(method, classBuilder, node, node.getVariableName(), Collections.emptySet(),
+                modificationType);
+    }
+
+    /**
+     * Declares the updated object of the given object or element node, which is the object read into the given
+     * variable when none of its targets changes. Conditions of the enclosing list are not checked again.
+     */
+    private String addLeanUpdateStatements(MethodSpec.Builder method, TypeSpec.Builder classBuilder, PathNode node,
+                                           String objectName, Set<PathCondition> enclosingGuard,
+                                           ModificationType modificationType) {
+        // leaves sharing the conditions of the whole object are checked once for the object
+        final Set<PathCondition> guard = node.getGuard();
+        // an absent object has no elements to change, so it stays absent
+        final boolean isKeptAbsent = node.changesElementsOnly();
+        final List<CodeBlock> unchangedConditions = new ArrayList<>();
+        if (!isKeptAbsent) {
+            unchangedConditions.add(CodeBlock.of("$L != null", objectName));
+        }
+        final CodeBlock.Builder changes = CodeBlock.builder();
+        for (PathNode field : node.getChildren()) {
+            if (field.isLeaf()) {
+                final CodeBlock value = resolveLeanValue(classBuilder, field, modificationType);
+                final PathCondition condition = field.getGuard().equals(guard) ? null : field.getCondition();
+                unchangedConditions.add(resolveUnchangedCondition(objectName, field, value, condition));
+                changes.add("\n.$L($L)", field.getName(),
+                        resolveChangedValue(objectName, true, field, value, condition));
+            } else {
+                final String updatedName = field.isList()
+                        ? addLeanListStatements(method, classBuilder, field, objectName, true, modificationType)
+                        : addLeanObjectStatements(method, classBuilder, field, objectName, true, modificationType);
+                unchangedConditions.add(CodeBlock.of("$L == $L", updatedName, field.getVariableName()));
+                changes.add("\n.$L($L)", field.getName(), updatedName);
+            }
+        }
+
+        final CodeBlock unchanged = isKeptAbsent
+                ? CodeBlock.of("$L == null\n|| $L", objectName, CodeBlock.join(unchangedConditions, "\n&& "))
+                : CodeBlock.join(unchangedConditions, "\n&& ");
+        final CodeBlock builder = isKeptAbsent
+                ? CodeBlock.of("$L.toBuilder()", objectName)
+                : CodeBlock.of("($L != null ? $L.toBuilder() : $T.builder())", objectName, objectName, node.getType());
+        final String updatedName = "updated" + StringUtils.capitalize(node.getVariableName());
+        method.addStatement("final $T $L = $L\n? $L\n: $L$L\n.build()",
+                node.getType(), updatedName,
+                guard.isEmpty() || guard.equals(enclosingGuard)
+                        ? unchanged
+                        : CodeBlock.of("!($L)\n|| ($L)", resolveGuard(guard), unchanged),
+                objectName, builder, changes.build());
+        return updatedName;
+    }
+
+    /**
+     * Declares the updated list of the given list node, which is the list read from the parent until some selected
+     * element changes. The list is copied once, on the first changed element: "[*]" copies the unchanged elements
+     * before it into a list sized once and adds every following element, while indexes set changed elements on a
+     * copy of the whole list. Conditions shared by all elements are checked once, before reading any element.
+     */
+    private String addLeanListStatements(MethodSpec.Builder method, TypeSpec.Builder classBuilder, PathNode list,
+                                         String parentName, boolean isParentNullable,
+                                         ModificationType modificationType) {
+        final String listName = list.getVariableName();
+        final TypeName listType = list.getField().getType();
+        final String updatedName = "updated" + StringUtils.capitalize(listName);
+        addFieldDeclaration(method, list, parentName, isParentNullable);
+        method.addStatement("$T $L = $L", listType, updatedName, listName);
+
+        final Set<PathCondition> guard = list.getGuard();
+        if (guard.isEmpty()) {
+            method.beginControlFlow("if ($L != null)", listName);
         } else {
-            addNestedFieldBuilder(method, className, topFieldName, fieldName, capName);
-            addStatementForEachTransformation(method, transformations, fieldName, modificationType);
-            method.addStatement("$LBuilder.$L($LBuilder.build())", topFieldName, fieldName, fieldName);
+            method.beginControlFlow("if ($L != null\n$>$>&& ($L)$<$<)", listName, resolveGuard(guard));
         }
+
+        for (PathNode element : list.getChildren()) {
+            final String elementName = element.getVariableName();
+            if (element.isWildcard()) {
+                final String indexName = listName + "Index";
+                method.beginControlFlow("for (int $L = 0; $L < $L.size(); $L++)", indexName, indexName, listName,
+                        indexName)
+                        .addStatement("final $T $L = $L.get($L)", element.getType(), elementName, listName,
+                                indexName);
+                final String updatedElementName = addLeanUpdateStatements(method, classBuilder, element,
+                        elementName, guard, modificationType);
+                method.beginControlFlow("if ($L != $L && $L == $L)", updatedElementName, elementName, updatedName,
+                        listName)
+                        .addStatement("$L = new $T<>($L.size())", updatedName, ArrayList.class, listName)
+                        .addStatement("$L.addAll($L.subList(0, $L))", updatedName, listName, indexName)
+                        .endControlFlow()
+                        .beginControlFlow("if ($L != $L)", updatedName, listName)
+                        .addStatement("$L.add($L)", updatedName, updatedElementName)
+                        .endControlFlow()
+                        .endControlFlow();
+                continue;
+            }
+
+            method.beginControlFlow("if ($L.size() > $L)", listName, element.getIndex())
+                    .addStatement("final $T $L = $L.get($L)", element.getType(), elementName, listName,
+                            element.getIndex());
+            final String updatedElementName = addLeanUpdateStatements(method, classBuilder, element, elementName,
+                    guard, modificationType);
+            method.beginControlFlow("if ($L != $L)", updatedElementName, elementName)
+                    .beginControlFlow("if ($L == $L)", updatedName, listName)
+                    .addStatement("$L = new $T<>($L)", updatedName, ArrayList.class, listName)
+                    .endControlFlow()
+                    .addStatement("$L.set($L, $L)", updatedName, element.getIndex(), updatedElementName)
+                    .endControlFlow()
+                    .endControlFlow();
+        }
+
+        method.endControlFlow();
+        return updatedName;
     }
 
-    private void addStatementForEachTransformation(MethodSpec.Builder method, List<Transformation> transformations,
-                                                   String fieldName, ModificationType modificationType) {
-        for (Transformation transformation : transformations) {
-            method.addStatement("$LBuilder$L", fieldName, addTransformationString(transformation, modificationType));
+    private static CodeBlock resolveUnchangedCondition(String objectName, PathNode field, CodeBlock value,
+                                                       PathCondition condition) {
+        final CodeBlock equalsCondition = resolveEqualsCondition(objectName, field, value);
+        return condition != null ? CodeBlock.of("(!($L) || $L)", condition.check(), equalsCondition) : equalsCondition;
+    }
+
+    /**
+     * Returns the value a rebuilt object gets for the field: the transformed one, or the current one when the
+     * condition of the field doesn't hold.
+     */
+    private static CodeBlock resolveChangedValue(String objectName, boolean isObjectNullable, PathNode field,
+                                                 CodeBlock value, PathCondition condition) {
+        if (condition == null) {
+            return value;
         }
+        final CodeBlock currentValue = isObjectNullable
+                ? CodeBlock.of("($L != null ? $L.get$L() : null)", objectName, objectName, field.getCapitalizedName())
+                : CodeBlock.of("$L.get$L()", objectName, field.getCapitalizedName());
+        return CodeBlock.of("$L ? $L : $L", condition.check(), value, currentValue);
     }
 
-    public void addBuilderField(MethodSpec.Builder method, Transformation transformation,
-                                ModificationType modificationType, String topFieldName, String fieldName) {
-        final StringBuilder builder = new StringBuilder(topFieldName)
-                .append("Builder");
-        if (fieldName != null) {
-            builder.append(".").append(fieldName).append("(").append(fieldName).append("Builder$L.build())");
-        } else {
-            builder.append("$L");
+    private static CodeBlock resolveEqualsCondition(String objectName, PathNode field, CodeBlock value) {
+        return value == null
+                ? CodeBlock.of("$L.get$L() == null", objectName, field.getCapitalizedName())
+                : CodeBlock.of("$T.equals($L.get$L(), $L)", Objects.class, objectName, field.getCapitalizedName(),
+                value);
+    }
+
+    /**
+     * Returns expression for the value of a leaf, declaring a constant of the field type in the class for non-null
+     * static values.
+     */
+    private static CodeBlock resolveLeanValue(TypeSpec.Builder classBuilder, PathNode field,
+                                              ModificationType modificationType) {
+        final Transformation transformation = field.getTransformation();
+        final JsonNode staticValue = transformation.getStaticValue();
+        if (staticValue == null) {
+            return resolveTransformationValue(field, modificationType);
+        }
+        if (staticValue.isNull()) {
+            return null;
         }
-        method.addStatement(builder.toString(), addTransformationString(transformation, modificationType));
+
+        // "banner.format[*].w" names BANNER_FORMAT_W, "pmp.deals[0].bidfloor" names PMP_DEALS_0_BIDFLOOR
+        final String target = transformation.getTarget().replace("[*]", "").replaceAll("\\[(\\d+)]", ".$1");
+        final String constantName = StringUtils.replace(target, ".", "_").toUpperCase();
+        final OpenRtbField openRtbField = field.getField();
+        classBuilder.addField(FieldSpec.builder(openRtbField.getType(), constantName)
+                .addModifiers(Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
+                .initializer(resolveStaticValue(staticValue, openRtbField))
+                .build());
+        return CodeBlock.of("$L", constantName);
     }
 
-    public String resolveExt(BidderData bidderData) {
-        final List<BidderParam> bidderParams = bidderData.getBidderParams();
+    public CodeBlock resolveExt(GenerationContext context) {
+        final ClassName extPrebid = ClassName.get("org.prebid.server.proto.openrtb.ext", "ExtPrebid");
+        final List<BidderParam> bidderParams = context.getBidderData().getBidderParams();
         if (CollectionUtils.isEmpty(bidderParams)) {
-            return ".ext(mapper.valueToTree(ExtPrebid.of(null, mapper.createObjectNode())))\n";
+            return CodeBlock.of(".ext(mapper.valueToTree($T.of(null, mapper.createObjectNode())))\n", extPrebid);
         }
-        return bidderParams.size() > 4
-                ? addExtBuilder(bidderParams)
-                : addExtConstructor(bidderParams);
+        final ClassName impExtClass = ClassName.get("org.prebid.server.proto.openrtb.ext.request."
+                + context.getBidderPackage(), context.getBidderImpExtName());
+        return CodeBlock.of(bidderParams.size() > 4
+                ? addExtBuilder(bidderParams, context.getTransformations())
+                : addExtConstructor(bidderParams, context.getTransformations()), extPrebid, impExtClass);
     }
 
-    private static String addExtConstructor(List<BidderParam> params) {
-        int numValue = 1;
-        final StringBuilder builder = new StringBuilder(".ext(mapper.valueToTree(ExtPrebid.of(null,\n")
+    private static String addExtConstructor(List<BidderParam> params, TransformationTree transformations) {
+        final StringBuilder builder = new StringBuilder(".ext(mapper.valueToTree($T.of(null,\n")
                 .append("$T")
                 .append(".of(");
         final StringJoiner joiner = new StringJoiner(",");
+        int numValue = 1;
         for (BidderParam param : params) {
-            joiner.add(resolveParamValue(param, numValue++));
+            joiner.add(resolveParamValue(param, numValue++, transformations));
         }
         return builder.append(joiner).append("))))\n").toString();
     }
 
-    private static String addExtBuilder(List<BidderParam> params) {
-        Integer numValue = 1;
-        final StringBuilder builder = new StringBuilder(".ext(mapper.valueToTree(ExtPrebid.of(null, $T")
+    private static String addExtBuilder(List<BidderParam> params, TransformationTree transformations) {
+        final StringBuilder builder = new StringBuilder(".ext(mapper.valueToTree($T.of(null, $T")
                 .append(".builder()\n");
+        int numValue = 1;
         for (BidderParam param : params) {
-            builder.append(".").append(param.getName()).append("(").append(resolveParamValue(param, numValue)).append(")\n");
-            final String type = param.getType();
-            if (!type.equals("String") && !type.equals("Boolean")) {
+            builder.append(".").append(param.getName())
+                    .append("(").append(resolveParamValue(param, numValue, transformations)).append(")\n");
+            if (ParamTypeRegistry.resolve(param).isNumbered()) {
                 numValue++;
             }
         }
         return builder.append(".build())))\n").toString();
     }
 
-    private static String resolveParamValue(BidderParam param, Integer startNumValue) {
-        final String type = param.getType();
-        switch (type) {
-            case "String":
-                return "\"" + param.getName() + "String" + "\"";
-            case "Double":
-                return String.valueOf(Double.valueOf(startNumValue));
-            case "Float":
-                return Float.valueOf(startNumValue) + "F";
-            case "Long":
-                return Long.valueOf(startNumValue) + "L";
-            case "Boolean":
-                return String.valueOf(true);
-            default:
-                return String.valueOf(startNumValue);
+    /**
+     * Returns the test value of the param, escaped for use in a {@link CodeBlock} format. Params checked by conditions
+     * get the expected literal, text params cast to numbers get numeric text and decimal params cast to integral
+     * numbers get a decimal without fraction.
+     */
+    private static String resolveParamValue(BidderParam param, int numValue, TransformationTree transformations) {
+        final JsonNode conditionValue = transformations.getConditionValue(TransformationTree.IMP_EXT_PREFIX
+                + param.getName());
+        if (conditionValue != null) {
+            return ParamTypeRegistry.resolve(param).literal(conditionValue).toString().replace("$", "$$");
         }
-    }
-
-    private static String resolveStaticValue(JsonNode jsonNode) {
-        switch (jsonNode.getNodeType()) {
-            case NULL:
-                return null;
-            case NUMBER:
-                return jsonNode.asText();
-            case STRING:
-                return "\"" + jsonNode.asText() + "\"";
-            default:
-                throw new IllegalArgumentException();
+        if (transformations.isNumericTextSource(TransformationTree.IMP_EXT_PREFIX + param.getName())) {
+            return "\"" + numValue + "\"";
+        }
+        if (transformations.isIntegralDecimalSource(TransformationTree.IMP_EXT_PREFIX + param.getName())) {
+            return integralDecimal(numValue);
         }
+        return ParamTypeRegistry.resolve(param).testValue(param, numValue).toString().replace("$", "$$");
     }
 
-    private static String createStaticTransformationString(String staticValue, String[] targetPath) {
-        return String.format(".%s(%s)", targetPath[targetPath.length - 1], staticValue);
+    /**
+     * Returns decimal test value written with a zero fraction, so it stays a decimal in JSON and casts exactly.
+     */
+    private static String integralDecimal(int numValue) {
+        return CodeBlock.of("new $T($S)", BigDecimal.class, numValue + ".0").toString();
     }
 
-    private String createDynamicTransformationString(String from, String[] targetPath, ModificationType type) {
-        if (type.equals(ModificationType.IMP)) {
-            return from.contains("impExt.")
-                    ? createFromExtField(StringUtils.replace(from, "impExt.", ""), targetPath)
-                    : createFromImpField(StringUtils.replace(from, "imp.", ""), targetPath);
-        }
-        return createFromRequestField(from, targetPath);
+    /**
+     * Returns literal of the static value, typed as the field it is assigned to. The value is known to fit the field,
+     * see {@link OpenRtbField#accepts}.
+     */
+    private static CodeBlock resolveStaticValue(JsonNode value, OpenRtbField field) {
+        return value.isNull() ? CodeBlock.of("null") : field.getValueType().literal(value);
     }
 
-    private static String createFromExtField(String extField, String[] targetPath) {
-        return resolveFieldString(extField, "impExt", targetPath);
+    public String resolveGivenBidRequestString(GenerationContext context) {
+        return "final BidRequest bidRequest = givenBidRequest(\n" + resolveGivenCustomizersString(context) + ");";
     }
 
-    private static String createFromImpField(String impField, String[] targetPath) {
-        return resolveFieldString(impField, "imp", targetPath);
-    }
+    /**
+     * Returns declaration of a bid request where transformation conditions don't hold: the given request of
+     * {@link #resolveGivenBidRequestString} without the fields of {@link TransformationTree#getUnmatchedPaths}.
+     */
+    public String resolveUnmatchedBidRequestString(GenerationContext context) {
+        final TransformationTree transformations = context.getTransformations();
+        final StringBuilder builder = new StringBuilder("final BidRequest matchingRequest = givenBidRequest(\n")
+                .append(resolveGivenCustomizersString(context))
+                .append(");\n");
+        for (String path : transformations.getUnmatchedPaths()) {
+            if (path.startsWith(TransformationTree.IMP_EXT_PREFIX)) {
+                builder.append("((com.fasterxml.jackson.databind.node.ObjectNode) matchingRequest.getImp().get(0)")
+                        .append(".getExt().get(\"bidder\")).remove(\"")
+                        .append(path.substring(TransformationTree.IMP_EXT_PREFIX.length()))
+                        .append("\");\n");
+            }
+        }
 
-    private static String createFromRequestField(String requestField, String[] targetPath) {
-        return resolveFieldString(requestField, "bidRequest", targetPath);
+        builder.append("final BidRequest bidRequest = matchingRequest.toBuilder()\n");
+        appendUnmatchedFields(builder, transformations.getRequestConditions(), "matchingRequest", "",
+                transformations);
+        final PathNode impConditions = transformations.getImpConditions();
+        if (impConditions.hasChildren()) {
+            builder.append(".imp(singletonList(matchingRequest.getImp().get(0).toBuilder()\n");
+            appendUnmatchedFields(builder, impConditions, "matchingRequest.getImp().get(0)",
+                    TransformationTree.IMP_PREFIX, transformations);
+            builder.append(".build()))\n");
+        }
+        return builder.append(".build();").toString();
     }
 
-    private static String resolveFieldString(String field, String filedPrefix, String[] targetPath) {
-        final String[] filedPath = StringUtils.split(field, ".");
-        final StringBuilder builder = new StringBuilder(".")
-                .append(targetPath[targetPath.length - 1])
-                .append("(")
-                .append(filedPrefix);
-        for (String fieldPart : filedPath) {
-            builder.append(".get")
-                    .append(StringUtils.capitalize(fieldPart))
-                    .append("()");
+    private static void appendUnmatchedFields(StringBuilder builder, PathNode parent, String parentGetter,
+                                              String pathPrefix, TransformationTree transformations) {
+        for (PathNode field : parent.getChildren()) {
+            final String path = pathPrefix + field.getPath();
+            if (!hasUnmatchedPath(path, transformations)) {
+                continue;
+            }
+            builder.append(".").append(field.getName()).append("(");
+            if (transformations.getUnmatchedPaths().contains(path)) {
+                builder.append("null");
+            } else {
+                final String getter = parentGetter + ".get" + field.getCapitalizedName() + "()";
+                builder.append(getter).append(".toBuilder()\n");
+                appendUnmatchedFields(builder, field, getter, pathPrefix, transformations);
+                builder.append(".build()");
+            }
+            builder.append(")\n");
         }
-        return builder.append(")").toString();
     }
 
-    public String resolveGivenBidRequestString(BidderData bidderData) {
-        final StringBuilder builder = new StringBuilder("final BidRequest bidRequest = givenBidRequest(\n");
+    private static boolean hasUnmatchedPath(String path, TransformationTree transformations) {
+        for (String unmatchedPath : transformations.getUnmatchedPaths()) {
+            if (unmatchedPath.equals(path) || unmatchedPath.startsWith(path + ".")) {
+                return true;
+            }
+        }
+        return false;
+    }
 
-        final List<Transformation> fromImpOrRequestFields = bidderData.getTransformations().stream()
-                .filter(transformation -> StringUtils.isNotBlank(transformation.getFrom()))
-                .filter(transformation -> !transformation.getFrom().contains("impExt."))
-                .collect(Collectors.toList());
+    /**
+     * Returns imp and request customizer arguments that fill in every field transformations read from or conditions
+     * check, so that all conditions hold.
+     */
+    public String resolveGivenCustomizersString(GenerationContext context) {
+        final TransformationTree transformations = context.getTransformations();
+        final StringBuilder builder = new StringBuilder();
 
         int numValue = 1;
-        final Set<Transformation> fromImpField = fromImpOrRequestFields.stream()
-                .filter(transformation -> transformation.getFrom().contains("imp."))
-                .map(transformation -> new Transformation(transformation.getTarget(), null,
-                        StringUtils.replace(transformation.getFrom(), "imp.", "")))
-                .collect(Collectors.toSet());
-
-        if (!fromImpField.isEmpty()) {
+        final PathNode impSources = transformations.getImpSources();
+        if (impSources.hasChildren()) {
             builder.append("impBuilder -> impBuilder\n");
-
-            final Map<String, List<Transformation>> fromToTransformations = fromImpField.stream()
-                    .collect(Collectors.groupingBy(transformation -> StringUtils.split(transformation.getFrom(), ".")[0]));
-
-            for (Map.Entry<String, List<Transformation>> field : fromToTransformations.entrySet()) {
-                final List<Transformation> transformations = field.getValue();
-                final String topFieldName = field.getKey();
-                final String capTopField = StringUtils.capitalize(topFieldName);
-                final ClassName topFieldClass = ClassName.get("com.iab.openrtb.request", capTopField);
-
-                if (transformations.size() > 1) {
-                    builder.append(".").append(topFieldName).append("(").append(topFieldClass)
-                            .append(".builder()");
-                    for (Transformation transformation : transformations) {
-                        final String[] fromSplit = StringUtils.split(transformation.getFrom(), ".");
-                        final String targetField = fromSplit[fromSplit.length - 1];
-                        final boolean isIntField = integerFields.contains(targetField);
-                        final String value = resolveParamValue(new BidderParam(targetField, isIntField ? "Integer" : "String"),
-                                numValue++);
-                        builder.append(".").append(fromSplit[1]).append("(").append(value).append(")");
-                    }
-                    builder.append(".build())\n");
-                } else {
-                    final Transformation singleTransformation = transformations.get(0);
-                    final String[] splitFrom = StringUtils.split(singleTransformation.getFrom(), ".");
-                    final String targetField = splitFrom[splitFrom.length - 1];
-                    final boolean isIntField = integerFields.contains(targetField);
-                    final String value = resolveParamValue(new BidderParam(targetField, isIntField ? "Integer" : "String"),
-                            numValue++);
-                    if (splitFrom.length == 1) {
-                        builder.append(".").append(splitFrom[0]).append("(").append(value).append(")\n");
-                    } else {
-                        builder.append(".").append(splitFrom[0]).append("(").append(topFieldClass)
-                                .append(".builder().").append(targetField).append("(").append(value).append(").build())\n");
-                    }
-                }
-            }
+            numValue = appendGivenFields(builder, impSources, TransformationTree.IMP_PREFIX, transformations,
+                    numValue);
             builder.append(",\n");
         } else {
             builder.append("identity(),\n");
         }
 
-        final Set<Transformation> fromRequestField = fromImpOrRequestFields.stream()
-                .filter(transformation -> !transformation.getFrom().contains("imp."))
-                .collect(Collectors.toSet());
-
-        if (!fromRequestField.isEmpty()) {
+        final PathNode requestSources = transformations.getRequestSources();
+        if (requestSources.hasChildren()) {
             builder.append("requestBuilder -> requestBuilder\n");
-
-            final Map<String, List<Transformation>> fromToTransformations = fromRequestField.stream()
-                    .collect(Collectors.groupingBy(transformation -> StringUtils.split(transformation.getFrom(), ".")[0]));
-
-            for (Map.Entry<String, List<Transformation>> field : fromToTransformations.entrySet()) {
-                final List<Transformation> transformations = field.getValue();
-                final String topFieldName = field.getKey();
-                final String capTopField = StringUtils.capitalize(topFieldName);
-                final ClassName topFieldClass = ClassName.get("com.iab.openrtb.request", capTopField);
-
-                if (transformations.size() > 1) {
-                    builder.append(".").append(topFieldName).append("(").append(topFieldClass)
-                            .append(".builder()");
-
-                    final Map<String, List<Transformation>> midFromToTransformations = transformations.stream()
-                            .collect(Collectors.groupingBy(transformation -> StringUtils.split(transformation.getFrom(),
-                                    ".")[1]));
-
-                    for (Map.Entry<String, List<Transformation>> midField : midFromToTransformations.entrySet()) {
-                        final List<Transformation> midTransformations = midField.getValue();
-                        final String midFieldName = midField.getKey();
-                        final String capMidField = StringUtils.capitalize(midFieldName);
-                        final ClassName midFieldClass = ClassName.get("com.iab.openrtb.request", capMidField);
-
-                        if (midTransformations.size() > 1) {
-                            builder.append(".").append(midFieldName).append("(").append(midFieldClass)
-                                    .append(".builder()\n");
-                            for (Transformation transformation : midTransformations) {
-                                final String[] fromSplit = StringUtils.split(transformation.getFrom(), ".");
-                                final String targetField = fromSplit[fromSplit.length - 1];
-                                final boolean isIntField = integerFields.contains(targetField);
-                                final String value = resolveParamValue(new BidderParam(
-                                        targetField, isIntField ? "Integer" : "String"), numValue++);
-                                builder.append(".").append(fromSplit[2]).append("(").append(value).append(")\n");
-                            }
-                            builder.append(".build())\n");
-                        } else {
-                            final Transformation singleTransformation = midTransformations.get(0);
-                            final String[] fromSplit = StringUtils.split(singleTransformation.getFrom(), ".");
-                            final String targetField = fromSplit[fromSplit.length - 1];
-                            final boolean isIntField = integerFields.contains(targetField);
-                            final String value = resolveParamValue(new BidderParam(targetField, isIntField ? "Integer" : "String"),
-                                    numValue++);
-                            builder.append(".");
-                            if (fromSplit.length == 2) {
-                                builder.append(fromSplit[1]).append("(").append(value).append(")\n");
-                            } else {
-                                builder.append(fromSplit[1]).append("(").append(midFieldClass)
-                                        .append(".builder().").append(fromSplit[2]).append("(")
-                                        .append(value).append(").build())\n");
-                            }
-                        }
-                    }
-                    builder.append(".build())\n");
-                } else {
-                    final Transformation singleTransformation = transformations.get(0);
-                    final String[] splitFrom = StringUtils.split(singleTransformation.getFrom(), ".");
-                    final String targetField = splitFrom[splitFrom.length - 1];
-                    final boolean isIntField = integerFields.contains(targetField);
-                    final String value = resolveParamValue(new BidderParam(targetField, isIntField ? "Integer" : "String"),
-                            numValue++);
-                    if (splitFrom.length == 1) {
-                        builder.append(".").append(splitFrom[0]).append("(").append(value).append(")\n");
-                    } else if (splitFrom.length == 2){
-                        builder.append(".").append(splitFrom[0]).append("(").append(topFieldClass)
-                                .append(".builder().").append(targetField).append("(").append(value).append(").build())\n");
-                    } else if (splitFrom.length == 3){
-                        final ClassName midFieldClass = ClassName.get("com.iab.openrtb.request",
-                                StringUtils.capitalize(splitFrom[1]));
-                        builder.append(".").append(splitFrom[0]).append("(").append(topFieldClass)
-                                .append(".builder().").append(splitFrom[1]).append("(")
-                                .append(midFieldClass).append(".builder().")
-                                .append(targetField).append("(").append(value).append(").build()).build())\n");
-                    } else {
-                        final ClassName secondFieldClass = ClassName.get("com.iab.openrtb.request",
-                                StringUtils.capitalize(splitFrom[1]));
-                        final ClassName thirdFieldClass = ClassName.get("com.iab.openrtb.request",
-                                StringUtils.capitalize(splitFrom[2]));
-                        builder.append(".").append(splitFrom[0]).append("(").append(topFieldClass)
-                                .append(".builder().").append(splitFrom[1]).append("(")
-                                .append(secondFieldClass).append(".builder().")
-                                .append(splitFrom[2]).append("(")
-                                .append(thirdFieldClass).append(".builder().")
-                                .append(targetField).append("(").append(value).append(").build()).build()).build())\n");
-                    }
-                }
-            }
+            appendGivenFields(builder, requestSources, "", transformations, numValue);
         } else {
             builder.append("identity()");
         }
-        return builder.append(");").toString();
+        return builder.toString();
     }
 
-    private static final List<String> integerFields = Arrays.asList("w", "h", "at", "pos", "topframe", "minduration",
-            "maxduration", "startdelay", "placement", "sequence", "minbitrate", "maxbitrate", "secure");
+    private static int appendGivenFields(StringBuilder builder, PathNode parent, String pathPrefix,
+                                         TransformationTree transformations, int startNumValue) {
+        int numValue = startNumValue;
+        for (PathNode field : parent.getChildren()) {
+            final String fieldName = field.getName();
+            final JsonNode conditionValue = transformations.getConditionValue(pathPrefix + field.getPath());
+            final Integer listSize = transformations.getGivenListSize(pathPrefix + field.getPath());
+            builder.append(".").append(fieldName).append("(");
+            if (listSize != null) {
+                // every selected element and one more, which only "[*]" changes
+                builder.append("java.util.Collections.nCopies(").append(listSize).append(", ")
+                        .append(field.getType()).append(".builder().build())");
+            } else if (field.hasChildren()) {
+                builder.append(field.getType()).append(".builder()\n");
+                numValue = appendGivenFields(builder, field, pathPrefix, transformations, numValue);
+                builder.append(".build()");
+            } else if (conditionValue != null) {
+                builder.append(field.getField().getValueType().literal(conditionValue).toString().replace("$", "$$"));
+            } else if (transformations.isNumericTextSource(pathPrefix + field.getPath())) {
+                builder.append('"').append(numValue++).append('"');
+            } else if (transformations.isIntegralDecimalSource(pathPrefix + field.getPath())) {
+                builder.append(integralDecimal(numValue++));
+            } else {
+                builder.append(resolveGivenValue(field.getField(), numValue++));
+            }
+            builder.append(")\n");
+        }
+        return numValue;
+    }
 
-    public String resolveExpectedBidRequestString(BidderData bidderData) {
+    /**
+     * Returns test value of the field: a generated value of its type, or an empty object for object fields.
+     */
+    private static CodeBlock resolveGivenValue(OpenRtbField field, int numValue) {
+        final ParamType valueType = field.getValueType();
+        if (valueType != null) {
+            return valueType.getTestValueGenerator().generate(field.getProperty(), numValue);
+        }
+        final CodeBlock object = CodeBlock.of("$T.builder().build()", field.getObjectType());
+        return field.isList() ? CodeBlock.of("$T.singletonList($L)", Collections.class, object) : object;
+    }
+
+    public String resolveExpectedBidRequestString(GenerationContext context) {
+        return resolveExpectedBidRequestString(context, false);
+    }
+
+    /**
+     * Returns the expected request for the request of {@link #resolveUnmatchedBidRequestString}, which only
+     * unconditional transformations change.
+     */
+    public String resolveUnmatchedExpectedBidRequestString(GenerationContext context) {
+        return resolveExpectedBidRequestString(context, true);
+    }
+
+    private String resolveExpectedBidRequestString(GenerationContext context, boolean isUnmatched) {
+        final TransformationTree transformations = context.getTransformations();
         final StringBuilder builder = new StringBuilder("final BidRequest expectedRequest = bidRequest.toBuilder()\n");
 
-        final Map<String, List<Transformation>> fieldToTransformations = bidderData.getTransformations().stream()
-                .collect(Collectors.groupingBy(transformation -> StringUtils.split(transformation.getTarget(), ".")[0]));
+        appendExpectedFields(builder, transformations.getRequestTargets(), "bidRequest",
+                transformations.getRequestSources(), context, isUnmatched);
 
-        for (Map.Entry<String, List<Transformation>> field : fieldToTransformations.entrySet()) {
-            final List<Transformation> transformations = field.getValue();
-            final String topFieldName = field.getKey();
-            final String capTopField = StringUtils.capitalize(topFieldName);
-            final ClassName topFieldClass = ClassName.get("com.iab.openrtb.request", capTopField);
-            final boolean isImp = topFieldName.equals("imp");
+        final PathNode impTargets = transformations.getImpTargets();
+        if (impTargets.hasChildren() && !(isUnmatched && isUnmatchedGuard(impTargets, transformations))) {
+            builder.append(".imp(singletonList(bidRequest.getImp().get(0).toBuilder()\n");
+            appendExpectedFields(builder, impTargets, "bidRequest.getImp().get(0)",
+                    transformations.getImpSources(), context, isUnmatched);
+            builder.append(".build()))\n");
+        }
+        return builder.append(".build();").toString();
+    }
 
-            if (transformations.size() > 1) {
-                builder.append(".");
-                if (isImp) {
-                    builder.append("imp(singletonList(bidRequest.getImp().get(0).toBuilder()\n");
-                } else {
-                    builder.append(topFieldName).append("(").append("(bidRequest.get").append(capTopField)
-                            .append("() == null ? ").append(topFieldClass)
-                            .append(".builder() : bidRequest.get").append(capTopField).append("().toBuilder())\n");
+    private void appendExpectedFields(StringBuilder builder, PathNode parent, String parentGetter,
+                                      PathNode givenRoot, GenerationContext context, boolean isUnmatched) {
+        for (PathNode field : parent.getChildren()) {
+            // without matching conditions conditional fields keep their given value
+            if (isUnmatched && isUnmatchedGuard(field, context.getTransformations())) {
+                continue;
+            }
+            final String getter = parentGetter + ".get" + field.getCapitalizedName() + "()";
+            if (field.isList()) {
+                // without matching conditions lists inside a checked object are absent, so they are left as is
+                if (!(isUnmatched && isUnmatchedPath(resolveFullPath(givenRoot, field), context))) {
+                    builder.append(".").append(field.getName()).append("(");
+                    appendExpectedElements(builder, field, getter, givenRoot, context, isUnmatched);
+                    builder.append(")\n");
                 }
+                continue;
+            }
 
-                final Map<String, List<Transformation>> midFieldToTransformations = transformations.stream()
-                        .collect(Collectors.groupingBy(tr -> StringUtils.split(tr.getTarget(), ".")[1]));
-
-                for (Map.Entry<String, List<Transformation>> midField : midFieldToTransformations.entrySet()) {
-                    final List<Transformation> midTransformations = midField.getValue();
-                    final String midFieldName = midField.getKey();
-                    final String capMidField = StringUtils.capitalize(midFieldName);
-                    final ClassName midFieldClass = ClassName.get("com.iab.openrtb.request", capMidField);
-
-                    if (midTransformations.size() > 1) {
-                        builder.append(".");
-                        if (isImp) {
-                            builder.append(midFieldName).append("(bidRequest.getImp().get(0).get").append(capMidField)
-                                    .append("().toBuilder()\n");
-                        } else {
-                            builder.append(midFieldName).append("(").append(midFieldClass)
-                                    .append(".builder()\n");
-                        }
-
-                        for (Transformation transformation : midTransformations) {
-                            final String[] targetSplit = StringUtils.split(transformation.getTarget(), ".");
-                            builder.append(".").append(targetSplit[2]).append("(")
-                                    .append(resolveValue(transformation, bidderData))
-                                    .append(")\n");
-                        }
-
-                        builder.append(".build())\n");
-                    } else {
-                        final Transformation singleTransformation = midTransformations.get(0);
-                        final String target = singleTransformation.getTarget();
-                        final String[] targetPath = StringUtils.split(target, ".");
-                        builder.append(".");
-                        if (targetPath.length == 2) {
-                            builder.append(targetPath[1]).append("(")
-                                    .append(resolveValue(singleTransformation, bidderData)).append(")\n");
-                        } else {
-                            builder.append(targetPath[1]).append("(").append(midFieldClass)
-                                    .append(".builder().").append(targetPath[2]).append("(")
-                                    .append(resolveValue(singleTransformation, bidderData)).append(").build())\n");
-                        }
-                    }
-                }
-                if (isImp) {
-                    builder.append(".build()))\n");
-                } else {
-                    builder.append(".build())\n");
-                }
+            // objects absent in the given request are built from scratch, present ones are copied
+            final boolean isGiven = !field.isLeaf() && isGivenObject(givenRoot, field)
+                    && !(isUnmatched && isUnmatchedPath(resolveFullPath(givenRoot, field), context));
+            // an absent object whose lists alone change stays absent
+            if (!field.isLeaf() && !isGiven && field.changesElementsOnly()) {
+                continue;
+            }
 
+            builder.append(".").append(field.getName()).append("(");
+            if (field.isLeaf()) {
+                builder.append(resolveValue(field, context, isUnmatched));
             } else {
-                final Transformation singleTransformation = transformations.get(0);
-                final String target = singleTransformation.getTarget();
-                final String[] targetPath = StringUtils.split(target, ".");
-                builder.append(".");
-                if (targetPath.length == 1) {
-                    builder.append(targetPath[0]).append("(").append(resolveValue(singleTransformation, bidderData))
-                            .append(")\n");
-                } else if (targetPath.length == 2) {
-                    if (isImp) {
-                        builder.append("imp(singletonList(bidRequest.getImp().get(0).toBuilder()\n.").append(targetPath[1])
-                                .append("(").append(resolveValue(singleTransformation, bidderData))
-                                .append(").build()))\n");
-                    } else {
-                        builder.append(targetPath[0]).append("(").append(topFieldClass)
-                                .append(".builder().").append(targetPath[1]).append("(")
-                                .append(resolveValue(singleTransformation, bidderData)).append(").build())\n");
-                    }
-                } else {
-                    final ClassName midFieldClass = ClassName.get("com.iab.openrtb.request",
-                            StringUtils.capitalize(targetPath[1]));
-                    if (isImp) {
-                        builder.append("imp(singletonList(bidRequest.getImp().get(0).toBuilder()\n.").append(targetPath[1])
-                                .append("(").append(midFieldClass).append(".builder().")
-                                .append(targetPath[2]).append("(")
-                                .append(resolveValue(singleTransformation, bidderData))
-                                .append(").build()).build()))\n");
-                    } else {
-                        builder.append(targetPath[0]).append("((").append("bidRequest.get")
-                                .append(capTopField).append("() == null ? ").append(topFieldClass)
-                                .append(".builder() : ").append("bidRequest.get").append(capTopField)
-                                .append("().toBuilder())\n.").append(targetPath[1]).append("(")
-                                .append(midFieldClass).append(".builder().")
-                                .append(targetPath[2]).append("(")
-                                .append(resolveValue(singleTransformation, bidderData))
-                                .append(").build()).build())\n");
-                    }
-                }
+                builder.append(isGiven ? getter + ".toBuilder()" : field.getType() + ".builder()")
+                        .append("\n");
+                appendExpectedFields(builder, field, getter, givenRoot, context, isUnmatched);
+                builder.append(".build()");
             }
+            builder.append(")\n");
         }
-        return builder.append(".build();").toString();
     }
 
-    private String resolveValue(Transformation transformation, BidderData bidderData) {
+    /**
+     * Appends every element of the given list, copying the selected elements with their expected fields and keeping
+     * the others as they are.
+     */
+    private void appendExpectedElements(StringBuilder builder, PathNode list, String listGetter, PathNode givenRoot,
+                                        GenerationContext context, boolean isUnmatched) {
+        final int size = context.getTransformations().getGivenListSize(resolveFullPath(givenRoot, list));
+        final PathNode wildcard = list.find("[" + PathNode.WILDCARD + "]");
+        builder.append("java.util.Arrays.asList(");
+        for (int i = 0; i < size; i++) {
+            final String elementGetter = listGetter + ".get(" + i + ")";
+            final PathNode element = wildcard != null ? wildcard : list.find("[" + i + "]");
+            builder.append(i > 0 ? ",\n" : "\n");
+            if (element == null || (isUnmatched && isUnmatchedGuard(element, context.getTransformations()))) {
+                builder.append(elementGetter);
+                continue;
+            }
+            builder.append(elementGetter).append(".toBuilder()\n");
+            appendExpectedFields(builder, element, elementGetter, givenRoot, context, isUnmatched);
+            builder.append(".build()");
+        }
+        builder.append(")");
+    }
+
+    private static boolean isGivenObject(PathNode givenRoot, PathNode field) {
+        if (givenRoot.getName().equals("imp") && givenImpObjects.contains(field.getPath())) {
+            return true;
+        }
+        final PathNode givenField = givenRoot.find(field.getPath());
+        return givenField != null && givenField.hasChildren();
+    }
+
+    private static String resolveFullPath(PathNode root, PathNode field) {
+        return root.getName().equals("imp") ? TransformationTree.IMP_PREFIX + field.getPath() : field.getPath();
+    }
+
+    private static boolean isUnmatchedPath(String path, GenerationContext context) {
+        return context.getTransformations().isUnmatchedPath(path);
+    }
+
+    /**
+     * Tells whether no transformation under the given node applies to the request where conditions don't hold,
+     * as each checks a path left out of it.
+     */
+    private static boolean isUnmatchedGuard(PathNode node, TransformationTree transformations) {
+        final Set<PathCondition> guard = node.getGuard();
+        if (guard.isEmpty()) {
+            return false;
+        }
+        for (PathCondition condition : guard) {
+            if (!transformations.isUnmatchedPath(condition.getPath())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private String resolveValue(PathNode field, GenerationContext context, boolean isUnmatched) {
+        final Transformation transformation = field.getTransformation();
         final JsonNode staticValue = transformation.getStaticValue();
         if (staticValue != null) {
-            return resolveStaticValue(staticValue);
+            return resolveStaticValue(staticValue, field.getField()).toString();
         }
 
         final String from = transformation.getFrom();
-        if (from.contains("impExt")) {
-            final String extField = from.replace("impExt.", "");
-            final String fieldType = bidderData.getBidderParams().stream()
-                    .filter(param -> param.getName().equals(extField))
-                    .map(BidderParam::getType)
-                    .map(String::toLowerCase)
-                    .findFirst().orElse(null);
-
-            final String finalType = "string".equals(fieldType) ? "text" : fieldType;
-            return "bidRequest.getImp().get(0).getExt().get(\"bidder\").get(\""
-                    + extField + "\")." + finalType + "Value()";
-        }
-        final String[] fromSplit = StringUtils.split(from, ".");
+        if (isUnmatched && isUnmatchedPath(from, context)) {
+            return "null";
+        }
+        final String value = resolveSourceValue(from, context);
+        return field.getCast() != null ? field.getCast().expectedValue(value) : value;
+    }
+
+    private static String resolveSourceValue(String from, GenerationContext context) {
+        if (from.startsWith(TransformationTree.IMP_EXT_PREFIX)) {
+            final String extField = from.substring(TransformationTree.IMP_EXT_PREFIX.length());
+            return context.getParamTypes().get(extField).jsonValue(
+                    "bidRequest.getImp().get(0).getExt().get(\"bidder\").get(\"" + extField + "\")");
+        }
         final StringBuilder builder = new StringBuilder("bidRequest");
-        for (String part : fromSplit) {
-            builder.append(".").append("get").append(StringUtils.capitalize(part)).append("()");
-            if (part.equals("imp")) {
+        for (OpenRtbField fromField : OpenRtbIndex.resolvePath(from)) {
+            builder.append(".get").append(StringUtils.capitalize(fromField.getProperty())).append("()");
+            if (fromField.isList() && fromField.getPath().equals("imp")) {
                 builder.append(".get(0)");
             }
         }
@@ -1,25 +1,35 @@
 package com.rubicon.service.processing;
 
 import com.rubicon.model.BidderData;
+import com.rubicon.model.BidderParam;
 import com.rubicon.model.PropertiesData;
+import com.squareup.javapoet.CodeBlock;
 import freemarker.template.Configuration;
 import freemarker.template.Template;
 import freemarker.template.TemplateException;
-import freemarker.template.TemplateExceptionHandler;
 import org.apache.commons.collections4.CollectionUtils;
-import org.springframework.beans.factory.annotation.Autowired;
+import org.apache.commons.collections4.ListUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 
-import java.io.File;
-import java.io.FileWriter;
+import javax.annotation.PostConstruct;
 import java.io.IOException;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 
 @Service
 public class TemplateProcessing {
 
-    private static final String TEMPLATES_DIRECTORY = "src/main/resources/templates";
+    private static final Logger logger = LoggerFactory.getLogger(TemplateProcessing.class);
+
     private static final String PROPERTIES_TEMPLATE = "properties.ftl";
     private static final String BIDDER_CONFIG_TEMPLATE = "configuration.ftl";
     private static final String SCHEMA_TEMPLATE = "schema.ftl";
@@ -31,72 +41,122 @@ public class TemplateProcessing {
     private static final String NO_EXT_BIDDER_TEST_TEMPLATE = "bidder_test_no_ext.ftl";
     private static final String EXT_BIDDER_TEST_TEMPLATE = "bidder_test_ext.ftl";
 
-    @Autowired
-    private FileCreator fileCreator;
+    private static final List<String> TEMPLATES = Arrays.asList(PROPERTIES_TEMPLATE, BIDDER_CONFIG_TEMPLATE,
+            SCHEMA_TEMPLATE, NO_EXT_BIDDER_TEST_TEMPLATE, EXT_BIDDER_TEST_TEMPLATE);
+
+    private final FileCreator fileCreator;
+    private final Configuration configuration;
 
-    public void generateBidderFilesFromTemplates(BidderData bidderData) throws IOException, TemplateException {
-        createPropertiesYamlFile(bidderData);
-        createBidderSchemaJsonFile(bidderData);
-        createBidderConfigurationJavaFile(bidderData);
+    public TemplateProcessing(FileCreator fileCreator, Configuration configuration) {
+        this.fileCreator = fileCreator;
+        this.configuration = configuration;
+    }
+
+    /**
+     * Parses all templates once at startup, so that no request pays for template compilation.
+     */
+    @PostConstruct
+    public void warmUp() throws IOException {
+        final long warmUpStart = System.nanoTime();
+        for (String templateFile : TEMPLATES) {
+            final long templateStart = System.nanoTime();
+            configuration.getTemplate(templateFile);
+            logger.info("Template {} compiled in {} ms", templateFile, millisSince(templateStart));
+        }
+        logger.info("{} templates warmed up in {} ms", TEMPLATES.size(), millisSince(warmUpStart));
+    }
+
+    public List<GeneratedFile> generateBidderFilesFromTemplates(BidderData bidderData)
+            throws IOException, TemplateException {
+        final List<GeneratedFile> createdFiles = new ArrayList<>();
+        for (ArtifactTask task : createArtifactTasks(bidderData).values()) {
+            createdFiles.add(task.render());
+        }
+        return createdFiles;
+    }
+
+    public Map<FileType, ArtifactTask> createArtifactTasks(BidderData bidderData) {
+        final Map<FileType, ArtifactTask> tasks = new LinkedHashMap<>();
+        tasks.put(FileType.PROPERTIES, () -> createPropertiesYamlFile(bidderData));
+        tasks.put(FileType.SCHEMA, () -> createBidderSchemaJsonFile(bidderData));
+        tasks.put(FileType.CONFIG, () -> createBidderConfigurationJavaFile(bidderData));
 
         if (CollectionUtils.isEmpty(bidderData.getTransformations())) {
             if (CollectionUtils.isEmpty(bidderData.getBidderParams())) {
-                createNoExtBidderTestFile(bidderData);
+                tasks.put(FileType.TEST_SIMPLE_BIDDER, () -> createNoExtBidderTestFile(bidderData));
             } else {
-                createBidderWithExtTestFile(bidderData);
+                tasks.put(FileType.TEST_SIMPLE_BIDDER, () -> createBidderWithExtTestFile(bidderData));
             }
         }
+        return tasks;
     }
 
-    private void createPropertiesYamlFile(BidderData bidderData) throws IOException, TemplateException {
-        final PropertiesData propertiesData = bidderData.getProperties();
-        propertiesData.setBidderName(bidderData.getBidderName());
-        propertiesData.setUidPlaceholder(bidderData.getUrlParams());
-        createFileFromTemplate(bidderData, propertiesData, PROPERTIES_TEMPLATE, FileType.PROPERTIES);
+    private GeneratedFile createPropertiesYamlFile(BidderData bidderData) throws IOException, TemplateException {
+        // artifact tasks share the bidder data, so the request's properties are copied rather than filled in
+        final PropertiesData propertiesData = bidderData.getProperties().toBuilder()
+                .bidderName(bidderData.getBidderName())
+                .uidPlaceholder(bidderData.getUrlParams())
+                .build();
+        return createFileFromTemplate(bidderData, propertiesData, PROPERTIES_TEMPLATE, FileType.PROPERTIES);
     }
 
-    private void createBidderConfigurationJavaFile(BidderData bidderData) throws IOException, TemplateException {
-        createFileFromTemplate(bidderData, bidderData, BIDDER_CONFIG_TEMPLATE, FileType.CONFIG);
+    private GeneratedFile createBidderConfigurationJavaFile(BidderData bidderData)
+            throws IOException, TemplateException {
+        return createFileFromTemplate(bidderData, bidderData, BIDDER_CONFIG_TEMPLATE, FileType.CONFIG);
     }
 
-    private void createBidderSchemaJsonFile(BidderData bidderData) throws IOException, TemplateException {
+    private GeneratedFile createBidderSchemaJsonFile(BidderData bidderData) throws IOException, TemplateException {
         final Map<String, Object> schemaData = new HashMap<>();
+        final Map<String, String> paramSchemas = new HashMap<>();
+        for (BidderParam param : ListUtils.emptyIfNull(bidderData.getBidderParams())) {
+            paramSchemas.put(param.getName(), ParamTypeRegistry.resolve(param).getSchema());
+        }
         schemaData.put("bidderParams", bidderData.getBidderParams());
         schemaData.put("bidderName", bidderData.getBidderName());
-        createFileFromTemplate(bidderData, schemaData, SCHEMA_TEMPLATE, FileType.SCHEMA);
+        schemaData.put("paramSchemas", paramSchemas);
+        return createFileFromTemplate(bidderData, schemaData, SCHEMA_TEMPLATE, FileType.SCHEMA);
     }
 
-    private void createNoExtBidderTestFile(BidderData bidderData) throws IOException, TemplateException {
-        createFileFromTemplate(bidderData, bidderData, NO_EXT_BIDDER_TEST_TEMPLATE, FileType.TEST_SIMPLE_BIDDER);
+    private GeneratedFile createNoExtBidderTestFile(BidderData bidderData) throws IOException, TemplateException {
+        return createFileFromTemplate(bidderData, createTestData(bidderData), NO_EXT_BIDDER_TEST_TEMPLATE,
+                FileType.TEST_SIMPLE_BIDDER);
     }
 
-    private void createBidderWithExtTestFile(BidderData bidderData) throws IOException, TemplateException {
-        createFileFromTemplate(bidderData, bidderData, EXT_BIDDER_TEST_TEMPLATE, FileType.TEST_SIMPLE_BIDDER);
+    private GeneratedFile createBidderWithExtTestFile(BidderData bidderData) throws IOException, TemplateException {
+        final List<BidderParam> bidderParams = bidderData.getBidderParams();
+        final Map<String, Object> testData = createTestData(bidderData);
+        testData.put("bidderParams", bidderParams);
+        // the ext is read within the nested request bidder of streaming bidders, which tests can't reach
+        testData.put("testsImpExtReading", bidderData.isCacheImpExts() && !bidderData.isStreamBidResponses());
+        testData.put("paramTestValues", ParamTypeRegistry.resolveTestValues(bidderParams).stream()
+                .map(CodeBlock::toString)
+                .collect(Collectors.toList()));
+        return createFileFromTemplate(bidderData, testData, EXT_BIDDER_TEST_TEMPLATE,
+                FileType.TEST_SIMPLE_BIDDER);
     }
 
-    private void createFileFromTemplate(BidderData bidderData, Object templateData, String templateFile,
-                                        FileType fileType) throws IOException, TemplateException {
-        final Configuration cfg = defaultConfiguration();
-        final Template propertiesTemplate = cfg.getTemplate(templateFile);
-        final String createdFile = fileCreator.makeBidderFile(bidderData, fileType);
-        final FileWriter writer = new FileWriter(createdFile);
-        propertiesTemplate.process(templateData, writer);
-        writer.close();
-    }
-
-    private static Configuration defaultConfiguration() {
-        Configuration cfg = new Configuration(Configuration.VERSION_2_3_28);
-        try {
-            cfg.setDirectoryForTemplateLoading(new File(TEMPLATES_DIRECTORY));
-        } catch (IOException e) {
-            e.printStackTrace();
+    private static Map<String, Object> createTestData(BidderData bidderData) {
+        final Map<String, Object> testData = new HashMap<>();
+        testData.put("bidderName", bidderData.getBidderName());
+        testData.put("instrumentBidder", bidderData.isInstrumentBidder());
+        testData.put("streamBidResponses", bidderData.isStreamBidResponses());
+        if (bidderData.isStreamBidResponses()) {
+            testData.put("bidResponse", StreamingBidParser.getSampleBidResponse());
         }
+        return testData;
+    }
 
-        cfg.setDefaultEncoding("UTF-8");
-        cfg.setTemplateExceptionHandler(TemplateExceptionHandler.RETHROW_HANDLER);
-        cfg.setLogTemplateExceptions(false);
-        cfg.setWrapUncheckedExceptions(true);
+    private GeneratedFile createFileFromTemplate(BidderData bidderData, Object templateData, String templateFile,
+                                                 FileType fileType) throws IOException, TemplateException {
+        final Template template = configuration.getTemplate(templateFile);
+        final long renderStart = System.nanoTime();
+        final StringWriter writer = new StringWriter();
+        template.process(templateData, writer);
+        logger.debug("Template {} rendered in {} ms", templateFile, millisSince(renderStart));
+        return GeneratedFile.of(fileType, fileCreator.resolveFilePath(bidderData, fileType), writer.toString());
+    }
 
-        return cfg;
+    private static long millisSince(long startNanos) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
     }
 }
@@ -0,0 +1,570 @@
+package com.rubicon.service.processing;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.rubicon.model.Transformation;
+import com.rubicon.model.TransformationCondition;
+import com.squareup.javapoet.MethodSpec;
+import com.squareup.javapoet.TypeName;
+import org.apache.commons.lang3.StringUtils;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Transformations of a bidder compiled into tries of OpenRTB paths.
+ * <p>
+ * Target paths drive the generated {@code modifyImp}/{@code modifyRequest} methods and the expected request of the
+ * generated test, source paths drive the given request of the test. Imp paths are stored relative to the imp,
+ * request paths relative to the bid request. Built once per generation call, so every generator walks the same
+ * tree instead of splitting and grouping the raw transformations again, and paths can be nested to any depth.
+ * Targets may go through one list of objects per path, selecting every element with "[*]" or some by index,
+ * e.g. "imp.banner.format[*].w" or "imp.pmp.deals[0].bidfloor".
+ */
+public class TransformationTree {
+
+    static final String IMP_PREFIX = "imp.";
+    static final String IMP_EXT_PREFIX = "impExt.";
+
+    private static final List<String> MEDIA_TYPES = Arrays.asList("banner", "video", "audio", "native");
+
+    // keeps the lists of generated tests, which hold every element up to the selected one, small
+    private static final int MAX_ELEMENT_INDEX = 99;
+
+    private static final Pattern ELEMENT_PART = Pattern.compile("(\\w+)\\[(\\*|\\d+)]");
+
+    private static final Pattern ELEMENT_SELECTOR = Pattern.compile("\\[(\\*|\\d+)]");
+
+    private final PathNode impTargets = PathNode.root("imp", OpenRtbIndex.IMP);
+
+    private final PathNode requestTargets = PathNode.root("bidRequest", OpenRtbIndex.BID_REQUEST);
+
+    private final PathNode impSources = PathNode.root("imp", OpenRtbIndex.IMP);
+
+    private final PathNode requestSources = PathNode.root("bidRequest", OpenRtbIndex.BID_REQUEST);
+
+    private final PathNode impConditions = PathNode.root("imp", OpenRtbIndex.IMP);
+
+    private final PathNode requestConditions = PathNode.root("bidRequest", OpenRtbIndex.BID_REQUEST);
+
+    private final Set<String> conditionPaths = new LinkedHashSet<>();
+
+    private final Set<String> unmatchedPaths = new LinkedHashSet<>();
+
+    private final Map<String, JsonNode> conditionValues = new HashMap<>();
+
+    private final Map<String, Integer> givenListSizes = new HashMap<>();
+
+    private final Map<String, MethodSpec> converters = new LinkedHashMap<>();
+
+    private final Set<String> numericTextSources = new HashSet<>();
+
+    private final Set<String> integralDecimalSources = new HashSet<>();
+
+    private TransformationTree() {
+    }
+
+    /**
+     * Compiles the given transformations, checking every target and source against {@link OpenRtbIndex} and
+     * the given bidder param types.
+     *
+     * @throws IllegalArgumentException if some path doesn't exist, can't be written or read, a value doesn't fit
+     *                                  its target and can't be cast to it, or a condition can't be checked
+     */
+    public static TransformationTree compile(List<Transformation> transformations,
+                                             Map<String, ParamType> paramTypes) {
+        final TransformationTree tree = new TransformationTree();
+        final List<PathNode> targets = new ArrayList<>();
+        if (transformations != null) {
+            for (Transformation transformation : transformations) {
+                final PathNode target = tree.addTarget(transformation);
+                tree.addSource(transformation, target, paramTypes);
+                tree.addCondition(transformation, target, paramTypes);
+                targets.add(target);
+            }
+        }
+        tree.resolveUnmatchedPaths(targets);
+        return tree;
+    }
+
+    /**
+     * Picks the condition paths the request of generated tests where conditions don't hold leaves out. An object
+     * that a transformation applied to that request reads from or writes to stays, so its condition still holds,
+     * which may apply further transformations in turn.
+     */
+    private void resolveUnmatchedPaths(List<PathNode> targets) {
+        unmatchedPaths.addAll(conditionPaths);
+        boolean isChanged = true;
+        while (isChanged) {
+            isChanged = false;
+            for (PathNode target : targets) {
+                final PathCondition condition = target.getCondition();
+                if (condition != null && isUnmatchedPath(condition.getPath())) {
+                    continue;
+                }
+                final Transformation transformation = target.getTransformation();
+                isChanged |= unmatchedPaths.removeIf(path -> isUnder(transformation.getFrom(), path)
+                        || isUnder(ELEMENT_SELECTOR.matcher(transformation.getTarget()).replaceAll(""), path));
+            }
+        }
+    }
+
+    private static boolean isUnder(String path, String objectPath) {
+        return path != null && path.startsWith(objectPath + ".");
+    }
+
+    private PathNode addTarget(Transformation transformation) {
+        final String target = transformation.getTarget();
+        if (StringUtils.isBlank(target)) {
+            throw new IllegalArgumentException("Transformation target is missing");
+        }
+        final boolean isImpTarget = target.startsWith(IMP_PREFIX);
+        final String[] parts = StringUtils.split(target, ".");
+        final String[] selectors = resolveSelectors(target, parts);
+        final List<OpenRtbField> fields = resolveTargetFields(target, String.join(".", parts), selectors,
+                isImpTarget);
+
+        PathNode current = isImpTarget ? impTargets : requestTargets;
+        for (int i = isImpTarget ? 1 : 0; i < fields.size(); i++) {
+            current = current.child(fields.get(i));
+            final boolean isLast = i == fields.size() - 1;
+            if (current.isLeaf() || (isLast && current.hasChildren())) {
+                throw new IllegalArgumentException(String.format("Transformation target %s conflicts with %s",
+                        target, current.isLeaf() ? current.getTransformation().getTarget() : "nested targets"));
+            }
+            if (selectors[i] != null) {
+                current = addElement(target, current, selectors[i], isImpTarget);
+            }
+        }
+
+        final JsonNode staticValue = transformation.getStaticValue();
+        if (staticValue != null && !current.getField().accepts(staticValue)) {
+            throw new IllegalArgumentException(String.format("Static value %s doesn't fit %s of type %s",
+                    staticValue, target, current.getField().getType()));
+        }
+        current.setTransformation(transformation);
+        return current;
+    }
+
+    /**
+     * Splits element selectors off the parts of the given target, e.g. "format[*]" becomes "format" with selector
+     * "*" and "format[0]" becomes "format" with selector "0". Parts without a selector get null.
+     */
+    private static String[] resolveSelectors(String target, String[] parts) {
+        final String[] selectors = new String[parts.length];
+        for (int i = 0; i < parts.length; i++) {
+            if (parts[i].indexOf('[') < 0) {
+                continue;
+            }
+            final Matcher matcher = ELEMENT_PART.matcher(parts[i]);
+            if (!matcher.matches()) {
+                throw new IllegalArgumentException(String.format("Transformation target %s has malformed element "
+                        + "selector %s, expected [*] or an index", target, parts[i]));
+            }
+            parts[i] = matcher.group(1);
+            selectors[i] = matcher.group(2);
+        }
+        return selectors;
+    }
+
+    /**
+     * Returns the fields along the given target path, which may go through a single list of objects, selecting
+     * some of its elements, besides objects and the imp list of imp targets.
+     */
+    private static List<OpenRtbField> resolveTargetFields(String target, String path, String[] selectors,
+                                                          boolean isImpTarget) {
+        final List<OpenRtbField> fields = OpenRtbIndex.resolvePath(path);
+        if (isImpTarget && fields.size() < 2) {
+            throw new IllegalArgumentException(String.format("Transformation path %s has no imp field", target));
+        }
+        if (!isImpTarget && selectors[0] != null) {
+            throw new IllegalArgumentException(String.format("Transformation target %s selects imps, imp targets "
+                    + "apply to every imp as imp.<field>", target));
+        }
+
+        boolean hasSelector = false;
+        for (int i = isImpTarget ? 1 : 0; i < fields.size(); i++) {
+            final OpenRtbField field = fields.get(i);
+            final boolean isLast = i == fields.size() - 1;
+            final String selector = selectors[i];
+            if (selector == null) {
+                if (!isLast && (!field.hasBuilder() || field.isList())) {
+                    throw new IllegalArgumentException(String.format("Transformation path %s goes through %s, "
+                            + "which is not a single object", target, field.getPath()));
+                }
+                if (!isLast && !field.isModifiable()) {
+                    throw new IllegalArgumentException(String.format("Transformation target %s modifies %s, "
+                            + "whose class %s has no toBuilder()", target, field.getPath(),
+                            field.getObjectType().simpleName()));
+                }
+                continue;
+            }
+
+            if (!field.isList() || !field.hasBuilder()) {
+                throw new IllegalArgumentException(String.format("Transformation target %s selects elements of %s, "
+                        + "which is not a list of objects", target, field.getPath()));
+            }
+            if (!field.isModifiable()) {
+                throw new IllegalArgumentException(String.format("Transformation target %s modifies %s, "
+                        + "whose class %s has no toBuilder()", target, field.getPath(),
+                        field.getObjectType().simpleName()));
+            }
+            if (isLast) {
+                throw new IllegalArgumentException(String.format("Transformation target %s must select a field of "
+                        + "the %s element", target, field.getPath()));
+            }
+            if (hasSelector) {
+                throw new IllegalArgumentException(String.format("Transformation target %s selects elements of more "
+                        + "than one list", target));
+            }
+            if (!PathNode.WILDCARD.equals(selector) && Integer.parseInt(selector) > MAX_ELEMENT_INDEX) {
+                throw new IllegalArgumentException(String.format("Transformation target %s selects element %s, "
+                        + "elements up to %d can be selected", target, selector, MAX_ELEMENT_INDEX));
+            }
+            hasSelector = true;
+        }
+        return fields;
+    }
+
+    /**
+     * Adds the elements selected from the given list node to the targets, and the list to the sources, so the given
+     * request of generated tests holds every selected element and one more that stays as is.
+     */
+    private PathNode addElement(String target, PathNode list, String selector, boolean isImpTarget) {
+        final boolean isWildcard = PathNode.WILDCARD.equals(selector);
+        final String listPath = (isImpTarget ? IMP_PREFIX : "") + list.getPath();
+        for (PathNode element : list.getChildren()) {
+            if (element.isWildcard() != isWildcard) {
+                throw new IllegalArgumentException(String.format("Transformation target %s conflicts with targets "
+                        + "of %s%s, a list can be targeted by either [*] or indexes", target, listPath,
+                        element.getJsonName()));
+            }
+        }
+
+        final List<OpenRtbField> fields = resolveFields(listPath, isImpTarget);
+        PathNode source = isImpTarget ? impSources : requestSources;
+        for (int i = isImpTarget ? 1 : 0; i < fields.size(); i++) {
+            source = source.child(fields.get(i));
+        }
+        givenListSizes.merge(listPath, isWildcard ? 2 : Integer.parseInt(selector) + 2, Math::max);
+        return list.element(selector);
+    }
+
+    private void addSource(Transformation transformation, PathNode target, Map<String, ParamType> paramTypes) {
+        final String from = transformation.getFrom();
+        if (transformation.getStaticValue() != null || StringUtils.isBlank(from)) {
+            return;
+        }
+        final boolean isImpTarget = transformation.getTarget().startsWith(IMP_PREFIX);
+        if (from.startsWith(IMP_EXT_PREFIX)) {
+            if (!isImpTarget) {
+                throw new IllegalArgumentException(String.format(
+                        "Transformation source %s can be read by imp targets only", from));
+            }
+            final ParamType paramType = paramTypes.get(from.substring(IMP_EXT_PREFIX.length()));
+            if (paramType == null) {
+                throw new IllegalArgumentException(String.format(
+                        "Transformation source %s is not a bidder param", from));
+            }
+            resolveCast(transformation, target, paramType.getTypeName(), paramType);
+            return;
+        }
+
+        final boolean isImpSource = from.startsWith(IMP_PREFIX);
+        if (isImpTarget != isImpSource) {
+            throw new IllegalArgumentException(String.format(isImpTarget
+                    ? "Imp target %s can read imp fields and bidder params only, not %s"
+                    : "Request target %s can't read imp field %s", transformation.getTarget(), from));
+        }
+        final List<OpenRtbField> fields = resolveFields(from, isImpSource);
+        PathNode current = isImpSource ? impSources : requestSources;
+        for (int i = isImpSource ? 1 : 0; i < fields.size(); i++) {
+            current = current.child(fields.get(i));
+        }
+        if (!current.isLeaf()) {
+            current.setTransformation(transformation);
+        }
+        resolveCast(transformation, target, current.getField().getType(), current.getField().getValueType());
+    }
+
+    /**
+     * Compiles the condition of the transformation, which is checked against the same imp or request the
+     * transformation reads from. Checked fields are added to the sources, so the given request of generated tests
+     * satisfies every condition.
+     */
+    private void addCondition(Transformation transformation, PathNode target, Map<String, ParamType> paramTypes) {
+        final TransformationCondition condition = transformation.getCondition();
+        if (condition == null) {
+            return;
+        }
+        final String targetPath = transformation.getTarget();
+        final boolean isImpTarget = targetPath.startsWith(IMP_PREFIX);
+        final String path = resolveConditionPath(condition, targetPath);
+        final JsonNode value = condition.getValue() != null && !condition.getValue().isNull()
+                ? condition.getValue()
+                : null;
+
+        final ParamType valueType;
+        if (path.startsWith(IMP_EXT_PREFIX)) {
+            if (!isImpTarget) {
+                throw new IllegalArgumentException(String.format(
+                        "Transformation condition %s can be checked by imp targets only", path));
+            }
+            valueType = paramTypes.get(path.substring(IMP_EXT_PREFIX.length()));
+            if (valueType == null) {
+                throw new IllegalArgumentException(String.format(
+                        "Transformation condition %s is not a bidder param", path));
+            }
+        } else {
+            final boolean isImpField = path.startsWith(IMP_PREFIX);
+            if (isImpTarget != isImpField) {
+                throw new IllegalArgumentException(String.format(isImpTarget
+                        ? "Imp target %s can check imp fields and bidder params only, not %s"
+                        : "Request target %s can't check imp field %s", targetPath, path));
+            }
+            final List<OpenRtbField> fields = resolveFields(path, isImpField);
+            PathNode source = isImpField ? impSources : requestSources;
+            PathNode checked = isImpField ? impConditions : requestConditions;
+            for (int i = isImpField ? 1 : 0; i < fields.size(); i++) {
+                source = source.child(fields.get(i));
+                checked = checked.child(fields.get(i));
+            }
+            valueType = checked.getField().getValueType();
+        }
+
+        if (value != null) {
+            if (valueType == null || !valueType.accepts(value)) {
+                throw new IllegalArgumentException(String.format("Condition value %s of %s doesn't fit %s",
+                        value, targetPath, path));
+            }
+            final JsonNode previousValue = conditionValues.putIfAbsent(path, value);
+            if (previousValue != null && !previousValue.equals(value)) {
+                throw new IllegalArgumentException(String.format("Conditions expect %s to be both %s and %s, "
+                        + "which can't be tested together", path, previousValue, value));
+            }
+        }
+        conditionPaths.add(path);
+        target.setCondition(PathCondition.of(path, valueType, value));
+    }
+
+    private static String resolveConditionPath(TransformationCondition condition, String target) {
+        final String mediaType = condition.getMediaType();
+        if (StringUtils.isNotBlank(mediaType)) {
+            if (StringUtils.isNotBlank(condition.getField())) {
+                throw new IllegalArgumentException(String.format(
+                        "Condition of %s checks both a field and a media type", target));
+            }
+            if (!MEDIA_TYPES.contains(mediaType)) {
+                throw new IllegalArgumentException(String.format("Condition of %s checks unknown media type %s, "
+                        + "expected one of %s", target, mediaType, MEDIA_TYPES));
+            }
+            return IMP_PREFIX + mediaType;
+        }
+        if (StringUtils.isBlank(condition.getField())) {
+            throw new IllegalArgumentException(String.format("Condition of %s checks neither a field nor a media type",
+                    target));
+        }
+        return condition.getField();
+    }
+
+    /**
+     * Checks that the source value fits the target, or that the transformation casts it when it doesn't.
+     */
+    private void resolveCast(Transformation transformation, PathNode target, TypeName sourceType,
+                             ParamType sourceValueType) {
+        final OpenRtbField targetField = target.getField();
+        if (sourceType.equals(targetField.getType())) {
+            return;
+        }
+        if (!transformation.isCast()) {
+            throw new IllegalArgumentException(String.format("Transformation source %s of type %s doesn't fit %s "
+                            + "of type %s, set \"cast\": true to convert it", transformation.getFrom(), sourceType,
+                    transformation.getTarget(), targetField.getType()));
+        }
+        final TypeCast cast = sourceValueType != null && targetField.getValueType() != null
+                ? TypeCasts.find(sourceValueType, targetField.getValueType())
+                : null;
+        if (cast == null) {
+            throw new IllegalArgumentException(String.format("Transformation source %s of type %s can't be cast "
+                    + "to %s of type %s", transformation.getFrom(), sourceType, transformation.getTarget(),
+                    targetField.getType()));
+        }
+
+        target.setCast(cast);
+        converters.putIfAbsent(cast.getConverter().name, cast.getConverter());
+        if (cast.getSourceType().getTypeName().equals(TypeName.get(String.class))) {
+            numericTextSources.add(transformation.getFrom());
+        } else if (cast.getSourceType().getTypeName().equals(TypeName.get(BigDecimal.class))
+                && (cast.getTargetType().getTypeName().equals(TypeName.get(Integer.class))
+                || cast.getTargetType().getTypeName().equals(TypeName.get(Long.class)))) {
+            integralDecimalSources.add(transformation.getFrom());
+        }
+    }
+
+    /**
+     * Returns the fields along the given path, which may go through objects only, except the imp list of imp paths.
+     */
+    private static List<OpenRtbField> resolveFields(String path, boolean isImpPath) {
+        if (path.indexOf('[') >= 0) {
+            throw new IllegalArgumentException(String.format("Transformation path %s selects list elements, "
+                    + "which only targets can do", path));
+        }
+        final List<OpenRtbField> fields = OpenRtbIndex.resolvePath(path);
+        if (isImpPath && fields.size() < 2) {
+            throw new IllegalArgumentException(String.format("Transformation path %s has no imp field", path));
+        }
+        for (int i = isImpPath ? 1 : 0; i < fields.size() - 1; i++) {
+            final OpenRtbField field = fields.get(i);
+            if (!field.hasBuilder() || field.isList()) {
+                throw new IllegalArgumentException(String.format("Transformation path %s goes through %s, "
+                        + "which is not a single object", path, field.getPath()));
+            }
+        }
+        return fields;
+    }
+
+    /**
+     * Tells whether some transformation reads a field written by a transformation, so applying the transformations
+     * to an already transformed request could change it again.
+     */
+    public boolean hasOverlappingSources() {
+        return overlaps(impTargets, impSources) || overlaps(requestTargets, requestSources);
+    }
+
+    private static boolean overlaps(PathNode targets, PathNode sources) {
+        for (PathNode target : targets.getChildren()) {
+            final PathNode source = sources.find(target.getJsonName());
+            if (source != null && (target.isLeaf() || source.isLeaf() || overlaps(target, source))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Converter methods the generated bidder needs for casts, each named once.
+     */
+    public Collection<MethodSpec> getConverters() {
+        return Collections.unmodifiableCollection(converters.values());
+    }
+
+    /**
+     * Tells whether a transformation casts the text read from the given source, e.g. "imp.tagid" or
+     * "impExt.zoneId", to a number, so test values of the source must be numbers.
+     */
+    public boolean isNumericTextSource(String from) {
+        return numericTextSources.contains(from);
+    }
+
+    /**
+     * Tells whether a transformation casts the decimal read from the given source to an integral number, so test
+     * values of the source must have no fraction.
+     */
+    public boolean isIntegralDecimalSource(String from) {
+        return integralDecimalSources.contains(from);
+    }
+
+    /**
+     * Tells whether the request of generated tests can leave out some condition path, so that conditions don't hold.
+     */
+    public boolean hasUnmatchedPaths() {
+        return !unmatchedPaths.isEmpty();
+    }
+
+    /**
+     * Paths checked by conditions, e.g. "site", "imp.video" or "impExt.placement".
+     */
+    public Set<String> getConditionPaths() {
+        return Collections.unmodifiableSet(conditionPaths);
+    }
+
+    /**
+     * Condition paths left out of the request of generated tests where conditions don't hold, e.g. "user" or
+     * "impExt.placement". Objects that transformations applied to that request use are never left out.
+     */
+    public Set<String> getUnmatchedPaths() {
+        return Collections.unmodifiableSet(unmatchedPaths);
+    }
+
+    /**
+     * Tells whether the given path, e.g. "site.page" or "impExt.zoneId", is absent in the request of generated tests
+     * where conditions don't hold: it or an object containing it is left out.
+     */
+    public boolean isUnmatchedPath(String path) {
+        for (String unmatchedPath : unmatchedPaths) {
+            if (path.equals(unmatchedPath) || isUnder(path, unmatchedPath)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the literal some condition expects at the given path, e.g. "imp.banner.pos", or null when conditions
+     * only check that the field is present.
+     */
+    public JsonNode getConditionValue(String path) {
+        return conditionValues.get(path);
+    }
+
+    /**
+     * Returns the size of the list at the given path, e.g. "imp.banner.format", in the given request of generated
+     * tests, or null when targets select no elements of the list.
+     */
+    public Integer getGivenListSize(String path) {
+        return givenListSizes.get(path);
+    }
+
+    /**
+     * Imp level targets, relative to the imp, e.g. "banner.w".
+     */
+    public PathNode getImpTargets() {
+        return impTargets;
+    }
+
+    /**
+     * Request level targets, relative to the bid request, e.g. "site.publisher.id".
+     */
+    public PathNode getRequestTargets() {
+        return requestTargets;
+    }
+
+    /**
+     * Imp fields that transformations read from, relative to the imp.
+     */
+    public PathNode getImpSources() {
+        return impSources;
+    }
+
+    /**
+     * Request fields that transformations read from, relative to the bid request.
+     */
+    public PathNode getRequestSources() {
+        return requestSources;
+    }
+
+    /**
+     * Imp fields that conditions check, relative to the imp.
+     */
+    public PathNode getImpConditions() {
+        return impConditions;
+    }
+
+    /**
+     * Request fields that conditions check, relative to the bid request.
+     */
+    public PathNode getRequestConditions() {
+        return requestConditions;
+    }
+}
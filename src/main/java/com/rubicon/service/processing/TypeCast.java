@@ -0,0 +1,45 @@
+package com.rubicon.service.processing;
+
+import com.squareup.javapoet.CodeBlock;
+import com.squareup.javapoet.MethodSpec;
+import com.squareup.javapoet.TypeName;
+import lombok.AllArgsConstructor;
+import lombok.Value;
+
+/**
+ * Conversion of a value between two types, as known to {@link TypeCasts}.
+ */
+@AllArgsConstructor(staticName = "of")
+@Value
+public class TypeCast {
+
+    ParamType sourceType;
+
+    ParamType targetType;
+
+    /**
+     * Private static method of the generated bidder converting a value, e.g. {@code integerToString}.
+     */
+    MethodSpec converter;
+
+    /**
+     * Format of the expression generated tests compute the expected value with, using plain JDK conversions of
+     * the given non-null source value passed as the only argument, boxed when its type has a primitive.
+     */
+    String expectedValueFormat;
+
+    public CodeBlock convert(CodeBlock value) {
+        return CodeBlock.of("$N($L)", converter, value);
+    }
+
+    /**
+     * Returns the expected value of the given source expression. Bidder params are read from the JSON node as
+     * primitives, e.g. {@code longValue()}, and OpenRTB fields as boxed values, so the source is boxed first.
+     */
+    public String expectedValue(String value) {
+        final TypeName sourceTypeName = sourceType.getTypeName();
+        return String.format(expectedValueFormat, sourceTypeName.isBoxedPrimitive()
+                ? CodeBlock.of("$T.valueOf($L)", sourceTypeName, value).toString()
+                : value);
+    }
+}
@@ -0,0 +1,169 @@
+package com.rubicon.service.processing;
+
+import com.squareup.javapoet.ClassName;
+import com.squareup.javapoet.CodeBlock;
+import com.squareup.javapoet.MethodSpec;
+import com.squareup.javapoet.TypeName;
+import org.apache.commons.lang3.StringUtils;
+
+import javax.lang.model.element.Modifier;
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Casts between scalar bidder param types and the value types of OpenRTB fields, built once and never changed.
+ * <p>
+ * Each cast compiles to a private static converter of the generated bidder that keeps null as null and reads
+ * the boxed value once, without reflection. Numbers are converted exactly: a fractional or out of range value cast
+ * to an integral type, and a text that is not a number, fail the imp with a {@code PreBidException}, which PBS
+ * reports as a bad input error. Booleans become "true"/"false" or 1/0.
+ */
+public final class TypeCasts {
+
+    private static final ClassName PRE_BID_EXCEPTION = ClassName.get("org.prebid.server.exception",
+            "PreBidException");
+
+    private static final String STRING = "String";
+    private static final String INTEGER = "Integer";
+    private static final String LONG = "Long";
+    private static final String FLOAT = "Float";
+    private static final String DOUBLE = "Double";
+    private static final String BIG_DECIMAL = "BigDecimal";
+    private static final String BOOLEAN = "Boolean";
+
+    private static final Map<String, TypeCast> CASTS = createCasts();
+
+    private TypeCasts() {
+    }
+
+    /**
+     * Returns the cast between the given types, or null when the value can't be cast.
+     */
+    public static TypeCast find(ParamType sourceType, ParamType targetType) {
+        return CASTS.get(key(sourceType.getName(), targetType.getName()));
+    }
+
+    private static Map<String, TypeCast> createCasts() {
+        final Map<String, TypeCast> casts = new HashMap<>();
+
+        for (String number : new String[]{INTEGER, LONG, FLOAT, DOUBLE, BIG_DECIMAL}) {
+            final boolean isBigDecimal = BIG_DECIMAL.equals(number);
+            add(casts, number, STRING, convert(isBigDecimal ? "value.toPlainString()" : "value.toString()"),
+                    isBigDecimal ? "%s.toPlainString()" : "String.valueOf(%s)");
+        }
+        add(casts, BOOLEAN, STRING, convert("value.toString()"), "String.valueOf(%s)");
+
+        add(casts, STRING, INTEGER, tryConvert(CodeBlock.of("$T.parseInt(value)", Integer.class),
+                NumberFormatException.class, INTEGER), "Integer.valueOf(%s)");
+        add(casts, STRING, LONG, tryConvert(CodeBlock.of("$T.parseLong(value)", Long.class),
+                NumberFormatException.class, LONG), "Long.valueOf(%s)");
+        add(casts, STRING, FLOAT, tryConvert(CodeBlock.of("$T.parseFloat(value)", Float.class),
+                NumberFormatException.class, FLOAT), "Float.valueOf(%s)");
+        add(casts, STRING, BIG_DECIMAL, tryConvert(CodeBlock.of("new $T(value)", BigDecimal.class),
+                NumberFormatException.class, BIG_DECIMAL), "new java.math.BigDecimal(%s)");
+
+        add(casts, INTEGER, LONG, convert("value.longValue()"), "%s.longValue()");
+        add(casts, INTEGER, FLOAT, convert("value.floatValue()"), "%s.floatValue()");
+        add(casts, INTEGER, BIG_DECIMAL, convert(CodeBlock.of("$T.valueOf(value.longValue())", BigDecimal.class)),
+                "java.math.BigDecimal.valueOf(%s)");
+
+        add(casts, LONG, INTEGER, tryConvert(CodeBlock.of("$T.toIntExact(value)", Math.class),
+                ArithmeticException.class, INTEGER), "%s.intValue()");
+        add(casts, LONG, FLOAT, convert("value.floatValue()"), "%s.floatValue()");
+        add(casts, LONG, BIG_DECIMAL, convert(CodeBlock.of("$T.valueOf(value)", BigDecimal.class)),
+                "java.math.BigDecimal.valueOf(%s)");
+
+        add(casts, FLOAT, INTEGER, exactConvert(TypeName.INT, INTEGER), "%s.intValue()");
+        add(casts, FLOAT, LONG, exactConvert(TypeName.LONG, LONG), "%s.longValue()");
+        add(casts, FLOAT, BIG_DECIMAL, convert(CodeBlock.of("new $T(value.toString())", BigDecimal.class)),
+                "new java.math.BigDecimal(String.valueOf(%s))");
+
+        add(casts, DOUBLE, INTEGER, exactConvert(TypeName.INT, INTEGER), "%s.intValue()");
+        add(casts, DOUBLE, LONG, exactConvert(TypeName.LONG, LONG), "%s.longValue()");
+        add(casts, DOUBLE, FLOAT, convert("value.floatValue()"), "%s.floatValue()");
+        add(casts, DOUBLE, BIG_DECIMAL, convert(CodeBlock.of("$T.valueOf(value)", BigDecimal.class)),
+                "java.math.BigDecimal.valueOf(%s)");
+
+        add(casts, BIG_DECIMAL, INTEGER, tryConvert(CodeBlock.of("value.intValueExact()"),
+                ArithmeticException.class, INTEGER), "%s.intValue()");
+        add(casts, BIG_DECIMAL, LONG, tryConvert(CodeBlock.of("value.longValueExact()"),
+                ArithmeticException.class, LONG), "%s.longValue()");
+        add(casts, BIG_DECIMAL, FLOAT, convert("value.floatValue()"), "%s.floatValue()");
+
+        add(casts, BOOLEAN, INTEGER, convert("(value ? 1 : 0)"), "(%s ? 1 : 0)");
+        add(casts, BOOLEAN, LONG, convert("(value ? 1L : 0L)"), "(%s ? 1L : 0L)");
+        return Collections.unmodifiableMap(casts);
+    }
+
+    private static void add(Map<String, TypeCast> casts, String source, String target, CodeBlock body,
+                            String expectedValueFormat) {
+        final ParamType sourceType = ParamTypeRegistry.find(source);
+        final ParamType targetType = ParamTypeRegistry.find(target);
+        final MethodSpec converter = MethodSpec.methodBuilder(StringUtils.uncapitalize(source) + "To" + target)
+                .addModifiers(Modifier.PRIVATE, Modifier.STATIC)
+                .returns(targetType.getTypeName())
+                .addParameter(sourceType.getTypeName(), "value")
+                .addCode(body)
+                .build();
+        casts.put(key(source, target), TypeCast.of(sourceType, targetType, converter, expectedValueFormat));
+    }
+
+    private static CodeBlock convert(String conversion) {
+        return convert(CodeBlock.of(conversion));
+    }
+
+    private static CodeBlock convert(CodeBlock conversion) {
+        return CodeBlock.builder()
+                .addStatement("return value != null ? $L : null", conversion)
+                .build();
+    }
+
+    private static CodeBlock tryConvert(CodeBlock conversion, Class<? extends RuntimeException> failure,
+                                        String target) {
+        return CodeBlock.builder()
+                .beginControlFlow("if (value == null)")
+                .addStatement("return null")
+                .endControlFlow()
+                .beginControlFlow("try")
+                .addStatement("return $L", conversion)
+                .nextControlFlow("catch ($T e)", failure)
+                .add(cannotCast(target))
+                .endControlFlow()
+                .build();
+    }
+
+    /**
+     * Casts a floating point value to an integral type, failing when it has a fraction or is out of range.
+     * <p>
+     * The range is checked before the cast, which would otherwise saturate: 9.223372036854775807E18 is 2^63 and casts
+     * to {@code Long.MAX_VALUE}, which compares equal to it as a double. MIN_VALUE is a negated power of two, so
+     * {@code -(double) MIN_VALUE} is the exact exclusive upper bound. NaN fails both comparisons.
+     */
+    private static CodeBlock exactConvert(TypeName integralType, String target) {
+        final TypeName boxedType = integralType.box();
+        return CodeBlock.builder()
+                .beginControlFlow("if (value == null)")
+                .addStatement("return null")
+                .endControlFlow()
+                .addStatement("final double number = value.doubleValue()")
+                .beginControlFlow("if (!(number >= $T.MIN_VALUE && number < -(double) $T.MIN_VALUE)"
+                        + " || number != ($T) number)", boxedType, boxedType, integralType)
+                .add(cannotCast(target))
+                .endControlFlow()
+                .addStatement("return ($T) number", integralType)
+                .build();
+    }
+
+    private static CodeBlock cannotCast(String target) {
+        return CodeBlock.builder()
+                .addStatement("throw new $T(String.format($S, value))", PRE_BID_EXCEPTION,
+                        "Cannot cast %s to " + target)
+                .build();
+    }
+
+    private static String key(String source, String target) {
+        return source + ">" + target;
+    }
+}
@@ -1,6 +1,12 @@
 package org.prebid.server.bidder.${bidderName?lower_case};
 
+<#if instrumentBidder>
+import com.codahale.metrics.MetricRegistry;
+</#if>
 import com.fasterxml.jackson.core.JsonProcessingException;
+<#if testsImpExtReading>
+import com.fasterxml.jackson.databind.node.ObjectNode;
+</#if>
 import com.iab.openrtb.request.BidRequest;
 import com.iab.openrtb.request.Imp;
 import com.iab.openrtb.response.Bid;
@@ -15,21 +21,40 @@ import org.prebid.server.bidder.model.HttpCall;
 import org.prebid.server.bidder.model.HttpRequest;
 import org.prebid.server.bidder.model.HttpResponse;
 import org.prebid.server.bidder.model.Result;
+<#if testsImpExtReading>
+import org.prebid.server.exception.PreBidException;
+</#if>
+<#if instrumentBidder>
+import org.prebid.server.metric.CounterType;
+import org.prebid.server.metric.Metrics;
+</#if>
 import org.prebid.server.proto.openrtb.ext.ExtPrebid;
 import org.prebid.server.proto.openrtb.ext.request.${bidderName?lower_case}.ExtImp${bidderName?cap_first};
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.List;
 import java.util.function.Function;
+<#if streamBidResponses>
+import java.util.stream.Collectors;
+</#if>
 
 import static java.util.Collections.emptyMap;
 import static java.util.Collections.singletonList;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+<#if testsImpExtReading>
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+</#if>
 import static org.prebid.server.proto.openrtb.ext.response.BidType.banner;
 
 public class ${bidderName?cap_first}BidderTest extends VertxTest {
 
     private static final String ENDPOINT_URL = "https://test.endpoint.com";
+<#if streamBidResponses>
+
+    private static final String BID_RESPONSE = "${bidResponse?j_string}";
+</#if>
 
     private ${bidderName?cap_first}Bidder ${bidderName?lower_case}Bidder;
 
@@ -63,35 +88,18 @@ public class ${bidderName?cap_first}BidderTest extends VertxTest {
         assertThat(result.getValue()).isEmpty();
     }
 
-    <#function resolveValue type value>
-        <#local double = 1.2>
-        <#local float = 0.8>
-        <#local bool = true>
-        <#if type?matches("Double")>
-            <#local double += value>
-            <#return double?c>
-        <#elseif type?matches("Long")>
-            <#return value + "L">
-        <#elseif type?matches("Float")>
-            <#local float += value>
-            <#return float?c + "F">
-        <#elseif type?matches("Boolean")>
-            <#return bool?c>
-        <#else>
-            <#return value>
-        </#if>
-    </#function>
+    <#macro givenExtImp>ExtImp${bidderName?cap_first}<#if bidderParams?size gt 4>.builder()
+                                        <#list bidderParams as p>
+                                        .${p.name}(${paramTestValues[p?index]})
+                                        </#list>
+                                        .build()<#else>.of(<#list paramTestValues as value>${value}<#if value?has_next>, </#if></#list>)</#if></#macro>
     @Test
     public void makeHttpRequestsShouldNotModifyIncomingRequest() {
         // given
         final BidRequest bidRequest = BidRequest.builder()
                 .imp(singletonList(Imp.builder()
-                        .ext(mapper.valueToTree(ExtPrebid.of(null, <#assign x=1>
-                                ExtImp${bidderName?cap_first}<#if bidderParams?size gt 4>.builder()
-                                        <#list bidderParams as p>
-                                        .${p.name}(<#if p.type?matches("String")>"${p.name}"<#else><#assign y = resolveValue(p.type, x)>${y}<#assign x++></#if>)
-                                        </#list>
-                                        .build()<#else>.of(<#list bidderParams as p><#if p.type?matches("String")>"${p.name}"<#else></#if><#if p?has_next>,</#if></#list>)</#if>)))
+                        .ext(mapper.valueToTree(ExtPrebid.of(null,
+                                <@givenExtImp/>)))
                         .build()))
                 .id("request_id")
                 .build();
@@ -103,8 +111,34 @@ public class ${bidderName?cap_first}BidderTest extends VertxTest {
         assertThat(result.getErrors()).isEmpty();
         assertThat(result.getValue()).hasSize(1)
                 .extracting(httpRequest -> mapper.readValue(httpRequest.getBody(), BidRequest.class))
-                .containsOnly(bidRequest);
+                .containsOnly(toSentRequest(bidRequest));
+    }
+<#if instrumentBidder>
+
+    @Test
+    public void makeHttpRequestsShouldRecordInstrumentationMetrics() {
+        // given
+        final MetricRegistry metricRegistry = new MetricRegistry();
+        final Metrics metrics = new Metrics(metricRegistry, CounterType.counter);
+        final ${bidderName?cap_first}Bidder instrumentedBidder = new ${bidderName?cap_first}Bidder(ENDPOINT_URL, jacksonMapper, metrics);
+        final BidRequest bidRequest = BidRequest.builder()
+                .imp(singletonList(Imp.builder()
+                        .ext(mapper.valueToTree(ExtPrebid.of(null,
+                                <@givenExtImp/>)))
+                        .build()))
+                .id("request_id")
+                .build();
+
+        // when
+        final Result<List<HttpRequest<BidRequest>>> result = instrumentedBidder.makeHttpRequests(bidRequest);
+
+        // then
+        assertThat(result.getErrors()).isEmpty();
+        assertThat(metricRegistry.timer("adapter.${bidderName?lower_case}.ext_extraction_time").getCount()).isEqualTo(1);
+        assertThat(metricRegistry.timer("adapter.${bidderName?lower_case}.modify_imp_time").getCount()).isEqualTo(1);
+        assertThat(metricRegistry.timer("adapter.${bidderName?lower_case}.modify_request_time").getCount()).isEqualTo(1);
     }
+</#if>
 
     @Test
     public void makeBidsShouldReturnErrorIfResponseBodyCouldNotBeParsed() {
@@ -167,6 +201,113 @@ public class ${bidderName?cap_first}BidderTest extends VertxTest {
         assertThat(result.getValue())
                 .containsOnly(BidderBid.of(Bid.builder().impid("123").build(), banner, "USD"));
     }
+<#if streamBidResponses>
+
+    @Test
+    public void makeBidsShouldReturnBidsOfDecodedBidResponse() throws IOException {
+        // given
+        final HttpCall<BidRequest> httpCall = givenHttpCall(
+                BidRequest.builder()
+                        .imp(singletonList(Imp.builder().id("123").build()))
+                        .build(),
+                BID_RESPONSE);
+
+        // when
+        final Result<List<BidderBid>> result = ${bidderName?lower_case}Bidder.makeBids(httpCall, null);
+
+        // then
+        final List<BidderBid> expectedBids = mapper.readValue(BID_RESPONSE, BidResponse.class).getSeatbid().stream()
+                .flatMap(seatBid -> seatBid.getBid().stream())
+                .map(bid -> BidderBid.of(bid, banner, "USD"))
+                .collect(Collectors.toList());
+        assertThat(result.getErrors()).isEmpty();
+        assertThat(result.getValue()).hasSize(3).isEqualTo(expectedBids);
+    }
+</#if>
+<#if instrumentBidder>
+
+    @Test
+    public void makeBidsShouldCount<#if streamBidResponses>AndTime</#if>Bids() throws JsonProcessingException {
+        // given
+        final MetricRegistry metricRegistry = new MetricRegistry();
+        final Metrics metrics = new Metrics(metricRegistry, CounterType.counter);
+        final ${bidderName?cap_first}Bidder instrumentedBidder = new ${bidderName?cap_first}Bidder(ENDPOINT_URL, jacksonMapper, metrics);
+        final HttpCall<BidRequest> httpCall = givenHttpCall(
+                BidRequest.builder()
+                        .imp(singletonList(Imp.builder().id("123").build()))
+                        .build(),
+                mapper.writeValueAsString(
+                        givenBidResponse(bidBuilder -> bidBuilder.impid("123"))));
+
+        // when
+        final Result<List<BidderBid>> result = instrumentedBidder.makeBids(httpCall, null);
+
+        // then
+        assertThat(result.getValue()).hasSize(1);
+        assertThat(metricRegistry.counter("adapter.${bidderName?lower_case}.parsed_bids").getCount()).isEqualTo(1);
+<#if streamBidResponses>
+        assertThat(metricRegistry.timer("adapter.${bidderName?lower_case}.make_bids_time").getCount()).isEqualTo(1);
+</#if>
+    }
+</#if>
+<#if testsImpExtReading>
+
+    @Test
+    public void readImpExtShouldReuseExtOfEqualImpExtWithinRequest() {
+        // given
+        final ExtImp${bidderName?cap_first} impExt = ${bidderName?lower_case}Bidder.readImpExt(givenImp());
+
+        // when
+        final ExtImp${bidderName?cap_first} otherImpExt = ${bidderName?lower_case}Bidder.readImpExt(givenImp());
+
+        // then
+        assertThat(otherImpExt).isSameAs(impExt);
+    }
+
+    @Test
+    public void readImpExtShouldKeepEachExtOfRequestAsMapperReadsIt() throws JsonProcessingException {
+        // given
+        final Imp imp = givenImp();
+        final ObjectNode otherExt = imp.getExt().deepCopy();
+        ((ObjectNode) otherExt.get("bidder")).putNull("${bidderParams[0].name}");
+        final Imp otherImp = imp.toBuilder().ext(otherExt).build();
+        final ExtImp${bidderName?cap_first} impExt = ${bidderName?lower_case}Bidder.readImpExt(imp);
+        final ExtImp${bidderName?cap_first} otherImpExt = ${bidderName?lower_case}Bidder.readImpExt(otherImp);
+
+        // when
+        final ExtImp${bidderName?cap_first} keptImpExt = ${bidderName?lower_case}Bidder.readImpExt(imp);
+        final ExtImp${bidderName?cap_first} keptOtherImpExt = ${bidderName?lower_case}Bidder.readImpExt(otherImp);
+
+        // then
+        assertThat(keptImpExt).isSameAs(impExt)
+                .isEqualTo(mapper.treeToValue(imp.getExt().get("bidder"), ExtImp${bidderName?cap_first}.class));
+        assertThat(keptOtherImpExt).isSameAs(otherImpExt)
+                .isEqualTo(mapper.treeToValue(otherExt.get("bidder"), ExtImp${bidderName?cap_first}.class))
+                .isNotEqualTo(impExt);
+    }
+
+    @Test
+    public void readImpExtShouldNotReuseExtOfPreviousRequest() {
+        // given
+        final Imp imp = givenImp();
+        final ExtImp${bidderName?cap_first} impExt = ${bidderName?lower_case}Bidder.readImpExt(imp);
+        ${bidderName?lower_case}Bidder.makeHttpRequests(BidRequest.builder().imp(singletonList(imp)).build());
+
+        // when
+        final ExtImp${bidderName?cap_first} nextImpExt = ${bidderName?lower_case}Bidder.readImpExt(imp);
+
+        // then
+        assertThat(nextImpExt).isNotSameAs(impExt).isEqualTo(impExt);
+    }
+
+    @Test
+    public void readImpExtShouldFailWithoutImpExt() {
+        // when and then
+        assertThatThrownBy(() -> ${bidderName?lower_case}Bidder.readImpExt(Imp.builder().build()))
+                .isInstanceOf(PreBidException.class)
+                .hasMessageStartingWith("Cannot deserialize instance");
+    }
+</#if>
 
     @Test
     public void extractTargetingShouldReturnEmptyMap() {
@@ -181,10 +322,29 @@ public class ${bidderName?cap_first}BidderTest extends VertxTest {
                 .build();
     }
 
+<#if testsImpExtReading>
+    private static Imp givenImp() {
+        return Imp.builder()
+                .ext(mapper.valueToTree(ExtPrebid.of(null,
+                        <@givenExtImp/>)))
+                .build();
+    }
+
+</#if>
     private static HttpCall<BidRequest> givenHttpCall(BidRequest bidRequest, String body) {
         return HttpCall.success(
                 HttpRequest.<BidRequest>builder().payload(bidRequest).build(),
                 HttpResponse.of(200, null, body),
                 null);
     }
+
+    // the bidder sends the request as JSON, so the expected request is compared as it reads back, e.g. with
+    // a Long imp ext param read as an int and a Float one as a decimal
+    private static BidRequest toSentRequest(BidRequest bidRequest) {
+        try {
+            return mapper.readValue(mapper.writeValueAsString(bidRequest), BidRequest.class);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
 }
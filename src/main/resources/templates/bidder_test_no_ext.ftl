@@ -1,5 +1,8 @@
 package org.prebid.server.bidder.${bidderName?lower_case};
 
+<#if instrumentBidder>
+import com.codahale.metrics.MetricRegistry;
+</#if>
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.iab.openrtb.request.BidRequest;
 import com.iab.openrtb.request.Imp;
@@ -15,10 +18,20 @@ import org.prebid.server.bidder.model.HttpCall;
 import org.prebid.server.bidder.model.HttpRequest;
 import org.prebid.server.bidder.model.HttpResponse;
 import org.prebid.server.bidder.model.Result;
+<#if instrumentBidder>
+import org.prebid.server.metric.CounterType;
+import org.prebid.server.metric.Metrics;
+</#if>
 import org.prebid.server.proto.openrtb.ext.ExtPrebid;
 
+<#if streamBidResponses>
+import java.io.IOException;
+</#if>
 import java.util.List;
 import java.util.function.Function;
+<#if streamBidResponses>
+import java.util.stream.Collectors;
+</#if>
 
 import static java.util.Collections.emptyMap;
 import static java.util.Collections.singletonList;
@@ -29,6 +42,10 @@ import static org.prebid.server.proto.openrtb.ext.response.BidType.banner;
 public class ${bidderName?cap_first}BidderTest extends VertxTest {
 
     private static final String ENDPOINT_URL = "https://test.endpoint.com";
+<#if streamBidResponses>
+
+    private static final String BID_RESPONSE = "${bidResponse?j_string}";
+</#if>
 
     private ${bidderName?cap_first}Bidder ${bidderName?lower_case}Bidder;
 
@@ -62,6 +79,31 @@ public class ${bidderName?cap_first}BidderTest extends VertxTest {
                 .extracting(httpRequest -> mapper.readValue(httpRequest.getBody(), BidRequest.class))
                 .containsOnly(bidRequest);
     }
+<#if instrumentBidder>
+
+    @Test
+    public void makeHttpRequestsShouldRecordInstrumentationMetrics() {
+        // given
+        final MetricRegistry metricRegistry = new MetricRegistry();
+        final Metrics metrics = new Metrics(metricRegistry, CounterType.counter);
+        final ${bidderName?cap_first}Bidder instrumentedBidder = new ${bidderName?cap_first}Bidder(ENDPOINT_URL, jacksonMapper, metrics);
+        final BidRequest bidRequest = BidRequest.builder()
+                .imp(singletonList(Imp.builder()
+                        .ext(mapper.valueToTree(ExtPrebid.of(null, mapper.createObjectNode())))
+                        .build()))
+                .id("request_id")
+                .build();
+
+        // when
+        final Result<List<HttpRequest<BidRequest>>> result = instrumentedBidder.makeHttpRequests(bidRequest);
+
+        // then
+        assertThat(result.getErrors()).isEmpty();
+        assertThat(metricRegistry.timer("adapter.${bidderName?lower_case}.ext_extraction_time").getCount()).isEqualTo(1);
+        assertThat(metricRegistry.timer("adapter.${bidderName?lower_case}.modify_imp_time").getCount()).isEqualTo(1);
+        assertThat(metricRegistry.timer("adapter.${bidderName?lower_case}.modify_request_time").getCount()).isEqualTo(1);
+    }
+</#if>
 
     @Test
     public void makeBidsShouldReturnErrorIfResponseBodyCouldNotBeParsed() {
@@ -124,6 +166,55 @@ public class ${bidderName?cap_first}BidderTest extends VertxTest {
         assertThat(result.getValue())
                 .containsOnly(BidderBid.of(Bid.builder().impid("123").build(), banner, "USD"));
     }
+<#if streamBidResponses>
+
+    @Test
+    public void makeBidsShouldReturnBidsOfDecodedBidResponse() throws IOException {
+        // given
+        final HttpCall<BidRequest> httpCall = givenHttpCall(
+                BidRequest.builder()
+                        .imp(singletonList(Imp.builder().id("123").build()))
+                        .build(),
+                BID_RESPONSE);
+
+        // when
+        final Result<List<BidderBid>> result = ${bidderName?lower_case}Bidder.makeBids(httpCall, null);
+
+        // then
+        final List<BidderBid> expectedBids = mapper.readValue(BID_RESPONSE, BidResponse.class).getSeatbid().stream()
+                .flatMap(seatBid -> seatBid.getBid().stream())
+                .map(bid -> BidderBid.of(bid, banner, "USD"))
+                .collect(Collectors.toList());
+        assertThat(result.getErrors()).isEmpty();
+        assertThat(result.getValue()).hasSize(3).isEqualTo(expectedBids);
+    }
+</#if>
+<#if instrumentBidder>
+
+    @Test
+    public void makeBidsShouldCount<#if streamBidResponses>AndTime</#if>Bids() throws JsonProcessingException {
+        // given
+        final MetricRegistry metricRegistry = new MetricRegistry();
+        final Metrics metrics = new Metrics(metricRegistry, CounterType.counter);
+        final ${bidderName?cap_first}Bidder instrumentedBidder = new ${bidderName?cap_first}Bidder(ENDPOINT_URL, jacksonMapper, metrics);
+        final HttpCall<BidRequest> httpCall = givenHttpCall(
+                BidRequest.builder()
+                        .imp(singletonList(Imp.builder().id("123").build()))
+                        .build(),
+                mapper.writeValueAsString(
+                        givenBidResponse(bidBuilder -> bidBuilder.impid("123"))));
+
+        // when
+        final Result<List<BidderBid>> result = instrumentedBidder.makeBids(httpCall, null);
+
+        // then
+        assertThat(result.getValue()).hasSize(1);
+        assertThat(metricRegistry.counter("adapter.${bidderName?lower_case}.parsed_bids").getCount()).isEqualTo(1);
+<#if streamBidResponses>
+        assertThat(metricRegistry.timer("adapter.${bidderName?lower_case}.make_bids_time").getCount()).isEqualTo(1);
+</#if>
+    }
+</#if>
 
     @Test
     public void extractTargetingShouldReturnEmptyMap() {
@@ -3,6 +3,9 @@ package org.prebid.server.spring.config.bidder;
 import org.prebid.server.bidder.BidderDeps;
 import org.prebid.server.bidder.${bidderName?lower_case}.${bidderName?cap_first}Bidder;
 import org.prebid.server.json.JacksonMapper;
+<#if instrumentBidder>
+import org.prebid.server.metric.Metrics;
+</#if>
 import org.prebid.server.spring.config.bidder.model.BidderConfigurationProperties;
 import org.prebid.server.spring.config.bidder.util.BidderDepsAssembler;
 import org.prebid.server.spring.config.bidder.util.UsersyncerCreator;
@@ -29,6 +32,11 @@ public class ${bidderName?cap_first}Configuration {
 
     @Autowired
     private JacksonMapper mapper;
+<#if instrumentBidder>
+
+    @Autowired
+    private Metrics metrics;
+</#if>
 
     @Autowired
     @Qualifier("${bidderName?lower_case}ConfigurationProperties")
@@ -45,7 +53,7 @@ public class ${bidderName?cap_first}Configuration {
         return BidderDepsAssembler.forBidder(BIDDER_NAME)
                 .withConfig(configProperties)
                 .usersyncerCreator(UsersyncerCreator.create(externalUrl))
-                .bidderCreator(config -> new ${bidderName?cap_first}Bidder(config.getEndpoint(), mapper))
+                .bidderCreator(config -> new ${bidderName?cap_first}Bidder(config.getEndpoint(), mapper<#if instrumentBidder>, metrics</#if>))
                 .assemble();
     }
 }
@@ -6,7 +6,8 @@
   "properties": {
   <#list bidderParams as param>
     "${param.name}": {
-      "type": "${param.type?lower_case}"
+      ${paramSchemas[param.name]}<#if param.values?has_content>,
+      "enum": [<#list param.values as value>"${value?json_string}"<#if value?has_next>, </#if></#list>]</#if>
     }<#if param?has_next>,</#if>
     <#else>
     </#list>
@@ -0,0 +1,14 @@
+package com.codahale.metrics;
+
+public class Counter {
+
+    private long count;
+
+    public void inc() {
+        count++;
+    }
+
+    public long getCount() {
+        return count;
+    }
+}
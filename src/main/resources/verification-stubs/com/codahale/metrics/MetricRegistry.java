@@ -0,0 +1,17 @@
+package com.codahale.metrics;
+
+import java.util.HashMap;
+import java.util.Map;
+
+public class MetricRegistry {
+
+    private final Map<String, Object> metrics = new HashMap<>();
+
+    public Timer timer(String name) {
+        return (Timer) metrics.computeIfAbsent(name, key -> new Timer());
+    }
+
+    public Counter counter(String name) {
+        return (Counter) metrics.computeIfAbsent(name, key -> new Counter());
+    }
+}
@@ -0,0 +1,16 @@
+package com.codahale.metrics;
+
+import java.util.concurrent.TimeUnit;
+
+public class Timer {
+
+    private long count;
+
+    public void update(long duration, TimeUnit unit) {
+        count++;
+    }
+
+    public long getCount() {
+        return count;
+    }
+}
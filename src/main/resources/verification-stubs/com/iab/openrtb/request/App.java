@@ -0,0 +1,42 @@
+package com.iab.openrtb.request;
+
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import lombok.Builder;
+import lombok.Value;
+
+import java.util.List;
+
+@Builder(toBuilder = true)
+@Value
+public class App {
+
+    String id;
+
+    String name;
+
+    String bundle;
+
+    String domain;
+
+    String storeurl;
+
+    List<String> cat;
+
+    List<String> sectioncat;
+
+    List<String> pagecat;
+
+    String ver;
+
+    Integer privacypolicy;
+
+    Integer paid;
+
+    Publisher publisher;
+
+    Content content;
+
+    String keywords;
+
+    ObjectNode ext;
+}
@@ -0,0 +1,50 @@
+package com.iab.openrtb.request;
+
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import lombok.Builder;
+import lombok.Value;
+
+import java.util.List;
+
+@Builder(toBuilder = true)
+@Value
+public class Audio {
+
+    List<String> mimes;
+
+    Integer minduration;
+
+    Integer maxduration;
+
+    List<Integer> protocols;
+
+    Integer startdelay;
+
+    Integer sequence;
+
+    List<Integer> battr;
+
+    Integer maxextended;
+
+    Integer minbitrate;
+
+    Integer maxbitrate;
+
+    List<Integer> delivery;
+
+    List<Banner> companionad;
+
+    List<Integer> api;
+
+    List<Integer> companiontype;
+
+    Integer maxseq;
+
+    Integer feed;
+
+    Integer stitched;
+
+    Integer nvol;
+
+    ObjectNode ext;
+}
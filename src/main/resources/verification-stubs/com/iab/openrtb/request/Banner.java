@@ -0,0 +1,46 @@
+package com.iab.openrtb.request;
+
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import lombok.Builder;
+import lombok.Value;
+
+import java.util.List;
+
+@Builder(toBuilder = true)
+@Value
+public class Banner {
+
+    List<Format> format;
+
+    Integer w;
+
+    Integer h;
+
+    Integer wmax;
+
+    Integer hmax;
+
+    Integer wmin;
+
+    Integer hmin;
+
+    List<Integer> btype;
+
+    List<Integer> battr;
+
+    Integer pos;
+
+    List<String> mimes;
+
+    Integer topframe;
+
+    List<Integer> expdir;
+
+    List<Integer> api;
+
+    String id;
+
+    Integer vcm;
+
+    ObjectNode ext;
+}
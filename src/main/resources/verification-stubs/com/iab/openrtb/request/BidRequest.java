@@ -0,0 +1,52 @@
+package com.iab.openrtb.request;
+
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import lombok.Builder;
+import lombok.Value;
+
+import java.util.List;
+
+@Builder(toBuilder = true)
+@Value
+public class BidRequest {
+
+    String id;
+
+    List<Imp> imp;
+
+    Site site;
+
+    App app;
+
+    Device device;
+
+    User user;
+
+    Integer test;
+
+    Integer at;
+
+    Long tmax;
+
+    List<String> wseat;
+
+    List<String> bseat;
+
+    Integer allimps;
+
+    List<String> cur;
+
+    List<String> wlang;
+
+    List<String> bcat;
+
+    List<String> badv;
+
+    List<String> bapp;
+
+    Source source;
+
+    Regs regs;
+
+    ObjectNode ext;
+}
@@ -0,0 +1,64 @@
+package com.iab.openrtb.request;
+
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import lombok.Builder;
+import lombok.Value;
+
+import java.util.List;
+
+@Builder
+@Value
+public class Content {
+
+    String id;
+
+    Integer episode;
+
+    String title;
+
+    String series;
+
+    String season;
+
+    String artist;
+
+    String genre;
+
+    String album;
+
+    String isrc;
+
+    Producer producer;
+
+    String url;
+
+    List<String> cat;
+
+    Integer prodq;
+
+    Integer videoquality;
+
+    Integer context;
+
+    String contentrating;
+
+    String userrating;
+
+    Integer qagmediarating;
+
+    String keywords;
+
+    Integer livestream;
+
+    Integer sourcerelationship;
+
+    Integer len;
+
+    String language;
+
+    Integer embeddable;
+
+    List<Data> data;
+
+    ObjectNode ext;
+}
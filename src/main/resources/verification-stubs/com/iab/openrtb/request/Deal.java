@@ -0,0 +1,27 @@
+package com.iab.openrtb.request;
+
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import lombok.Builder;
+import lombok.Value;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@Builder(toBuilder = true)
+@Value
+public class Deal {
+
+    String id;
+
+    BigDecimal bidfloor;
+
+    String bidfloorcur;
+
+    Integer at;
+
+    List<String> wseat;
+
+    List<String> wadomain;
+
+    ObjectNode ext;
+}
@@ -0,0 +1,74 @@
+package com.iab.openrtb.request;
+
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import lombok.Builder;
+import lombok.Value;
+
+import java.math.BigDecimal;
+
+@Builder(toBuilder = true)
+@Value
+public class Device {
+
+    String ua;
+
+    Geo geo;
+
+    Integer dnt;
+
+    Integer lmt;
+
+    String ip;
+
+    String ipv6;
+
+    Integer devicetype;
+
+    String make;
+
+    String model;
+
+    String os;
+
+    String osv;
+
+    String hwv;
+
+    Integer h;
+
+    Integer w;
+
+    Integer ppi;
+
+    BigDecimal pxratio;
+
+    Integer js;
+
+    Integer geofetch;
+
+    String flashver;
+
+    String language;
+
+    String carrier;
+
+    String mccmnc;
+
+    Integer connectiontype;
+
+    String ifa;
+
+    String didsha1;
+
+    String didmd5;
+
+    String dpidsha1;
+
+    String dpidmd5;
+
+    String macsha1;
+
+    String macmd5;
+
+    ObjectNode ext;
+}
@@ -0,0 +1,22 @@
+package com.iab.openrtb.request;
+
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import lombok.Builder;
+import lombok.Value;
+
+@Builder(toBuilder = true)
+@Value
+public class Format {
+
+    Integer w;
+
+    Integer h;
+
+    Integer wratio;
+
+    Integer hratio;
+
+    Integer wmin;
+
+    ObjectNode ext;
+}
@@ -0,0 +1,38 @@
+package com.iab.openrtb.request;
+
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import lombok.Builder;
+import lombok.Value;
+
+@Builder(toBuilder = true)
+@Value
+public class Geo {
+
+    Float lat;
+
+    Float lon;
+
+    Integer type;
+
+    Integer accuracy;
+
+    Integer lastfix;
+
+    Integer ipservice;
+
+    String country;
+
+    String region;
+
+    String regionfips104;
+
+    String metro;
+
+    String city;
+
+    String zip;
+
+    Integer utcoffset;
+
+    ObjectNode ext;
+}
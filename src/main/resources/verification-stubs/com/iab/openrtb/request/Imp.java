@@ -0,0 +1,51 @@
+package com.iab.openrtb.request;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import lombok.Builder;
+import lombok.Value;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@Builder(toBuilder = true)
+@Value
+public class Imp {
+
+    String id;
+
+    List<Metric> metric;
+
+    Banner banner;
+
+    Video video;
+
+    Audio audio;
+
+    @JsonProperty("native")
+    Native xNative;
+
+    Pmp pmp;
+
+    String displaymanager;
+
+    String displaymanagerver;
+
+    Integer instl;
+
+    String tagid;
+
+    BigDecimal bidfloor;
+
+    String bidfloorcur;
+
+    Integer clickbrowser;
+
+    Integer secure;
+
+    List<String> iframebuster;
+
+    Integer exp;
+
+    ObjectNode ext;
+}
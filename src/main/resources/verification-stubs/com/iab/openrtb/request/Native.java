@@ -0,0 +1,22 @@
+package com.iab.openrtb.request;
+
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import lombok.Builder;
+import lombok.Value;
+
+import java.util.List;
+
+@Builder(toBuilder = true)
+@Value
+public class Native {
+
+    String request;
+
+    String ver;
+
+    List<Integer> api;
+
+    List<Integer> battr;
+
+    ObjectNode ext;
+}
@@ -0,0 +1,20 @@
+package com.iab.openrtb.request;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import lombok.Builder;
+import lombok.Value;
+
+import java.util.List;
+
+@Builder(toBuilder = true)
+@Value
+public class Pmp {
+
+    @JsonProperty("private_auction")
+    Integer privateAuction;
+
+    List<Deal> deals;
+
+    ObjectNode ext;
+}
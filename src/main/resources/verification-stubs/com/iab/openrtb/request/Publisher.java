@@ -0,0 +1,22 @@
+package com.iab.openrtb.request;
+
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import lombok.Builder;
+import lombok.Value;
+
+import java.util.List;
+
+@Builder(toBuilder = true)
+@Value
+public class Publisher {
+
+    String id;
+
+    String name;
+
+    List<String> cat;
+
+    String domain;
+
+    ObjectNode ext;
+}
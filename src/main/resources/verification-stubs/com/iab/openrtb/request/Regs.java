@@ -0,0 +1,14 @@
+package com.iab.openrtb.request;
+
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import lombok.Builder;
+import lombok.Value;
+
+@Builder(toBuilder = true)
+@Value
+public class Regs {
+
+    Integer coppa;
+
+    ObjectNode ext;
+}
@@ -0,0 +1,42 @@
+package com.iab.openrtb.request;
+
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import lombok.Builder;
+import lombok.Value;
+
+import java.util.List;
+
+@Builder(toBuilder = true)
+@Value
+public class Site {
+
+    String id;
+
+    String name;
+
+    String domain;
+
+    List<String> cat;
+
+    List<String> sectioncat;
+
+    List<String> pagecat;
+
+    String page;
+
+    String ref;
+
+    String search;
+
+    Integer mobile;
+
+    Integer privacypolicy;
+
+    Publisher publisher;
+
+    Content content;
+
+    String keywords;
+
+    ObjectNode ext;
+}
@@ -0,0 +1,18 @@
+package com.iab.openrtb.request;
+
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import lombok.Builder;
+import lombok.Value;
+
+@Builder(toBuilder = true)
+@Value
+public class Source {
+
+    Integer fd;
+
+    String tid;
+
+    String pchain;
+
+    ObjectNode ext;
+}
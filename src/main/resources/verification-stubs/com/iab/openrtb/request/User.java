@@ -0,0 +1,30 @@
+package com.iab.openrtb.request;
+
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import lombok.Builder;
+import lombok.Value;
+
+import java.util.List;
+
+@Builder(toBuilder = true)
+@Value
+public class User {
+
+    String id;
+
+    String buyeruid;
+
+    Integer yob;
+
+    String gender;
+
+    String keywords;
+
+    String customdata;
+
+    Geo geo;
+
+    List<Data> data;
+
+    ObjectNode ext;
+}
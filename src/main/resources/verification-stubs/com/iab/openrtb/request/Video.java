@@ -0,0 +1,64 @@
+package com.iab.openrtb.request;
+
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import lombok.Builder;
+import lombok.Value;
+
+import java.util.List;
+
+@Builder(toBuilder = true)
+@Value
+public class Video {
+
+    List<String> mimes;
+
+    Integer minduration;
+
+    Integer maxduration;
+
+    List<Integer> protocols;
+
+    Integer w;
+
+    Integer h;
+
+    Integer startdelay;
+
+    Integer placement;
+
+    Integer linearity;
+
+    Integer skip;
+
+    Integer skipmin;
+
+    Integer skipafter;
+
+    Integer sequence;
+
+    List<Integer> battr;
+
+    Integer maxextended;
+
+    Integer minbitrate;
+
+    Integer maxbitrate;
+
+    Integer boxingallowed;
+
+    List<Integer> playbackmethod;
+
+    Integer playbackend;
+
+    List<Integer> delivery;
+
+    Integer pos;
+
+    List<Banner> companionad;
+
+    List<Integer> api;
+
+    List<Integer> companiontype;
+
+    ObjectNode ext;
+}
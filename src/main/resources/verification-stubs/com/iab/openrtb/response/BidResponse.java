@@ -0,0 +1,26 @@
+package com.iab.openrtb.response;
+
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import lombok.Builder;
+import lombok.Value;
+
+import java.util.List;
+
+@Builder(toBuilder = true)
+@Value
+public class BidResponse {
+
+    String id;
+
+    List<SeatBid> seatbid;
+
+    String bidid;
+
+    String cur;
+
+    String customdata;
+
+    Integer nbr;
+
+    ObjectNode ext;
+}
@@ -0,0 +1,20 @@
+package com.iab.openrtb.response;
+
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import lombok.Builder;
+import lombok.Value;
+
+import java.util.List;
+
+@Builder(toBuilder = true)
+@Value
+public class SeatBid {
+
+    List<Bid> bid;
+
+    String seat;
+
+    Integer group;
+
+    ObjectNode ext;
+}
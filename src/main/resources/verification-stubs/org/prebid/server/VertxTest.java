@@ -0,0 +1,19 @@
+package org.prebid.server;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.BeforeClass;
+import org.prebid.server.json.JacksonMapper;
+import org.prebid.server.json.ObjectMapperProvider;
+
+public abstract class VertxTest {
+
+    protected static ObjectMapper mapper;
+
+    protected static JacksonMapper jacksonMapper;
+
+    @BeforeClass
+    public static void beforeClass() {
+        mapper = ObjectMapperProvider.mapper();
+        jacksonMapper = new JacksonMapper(mapper);
+    }
+}
@@ -0,0 +1,20 @@
+package org.prebid.server.bidder;
+
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.iab.openrtb.request.BidRequest;
+import org.prebid.server.bidder.model.BidderBid;
+import org.prebid.server.bidder.model.HttpCall;
+import org.prebid.server.bidder.model.HttpRequest;
+import org.prebid.server.bidder.model.Result;
+
+import java.util.List;
+import java.util.Map;
+
+public interface Bidder<T> {
+
+    Result<List<HttpRequest<T>>> makeHttpRequests(BidRequest request);
+
+    Result<List<BidderBid>> makeBids(HttpCall<T> httpCall, BidRequest bidRequest);
+
+    Map<String, String> extractTargeting(ObjectNode ext);
+}
@@ -0,0 +1,4 @@
+package org.prebid.server.bidder;
+
+public class BidderDeps {
+}
@@ -0,0 +1,57 @@
+package org.prebid.server.bidder;
+
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.iab.openrtb.request.BidRequest;
+import com.iab.openrtb.request.Imp;
+import org.prebid.server.bidder.model.BidderBid;
+import org.prebid.server.bidder.model.HttpCall;
+import org.prebid.server.bidder.model.HttpRequest;
+import org.prebid.server.bidder.model.ImpWithExt;
+import org.prebid.server.bidder.model.Result;
+import org.prebid.server.json.JacksonMapper;
+import org.prebid.server.proto.openrtb.ext.response.BidType;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+public abstract class OpenrtbBidder<T> implements Bidder<BidRequest> {
+
+    protected OpenrtbBidder(String endpointUrl, RequestCreationStrategy requestCreationStrategy,
+                            Class<T> extType, JacksonMapper mapper) {
+    }
+
+    @Override
+    public final Result<List<HttpRequest<BidRequest>>> makeHttpRequests(BidRequest bidRequest) {
+        return Result.of(Collections.emptyList(), Collections.emptyList());
+    }
+
+    protected void validateImp(Imp imp) {
+    }
+
+    protected Imp modifyImp(Imp imp, T impExt) {
+        return imp;
+    }
+
+    protected void modifyRequest(BidRequest bidRequest, BidRequest.BidRequestBuilder requestBuilder,
+                                 List<ImpWithExt<T>> impsWithExts) {
+    }
+
+    @Override
+    public final Result<List<BidderBid>> makeBids(HttpCall<BidRequest> httpCall, BidRequest bidRequest) {
+        return Result.of(Collections.emptyList(), Collections.emptyList());
+    }
+
+    @Override
+    public final Map<String, String> extractTargeting(ObjectNode ext) {
+        return Collections.emptyMap();
+    }
+
+    protected BidType getBidType(String impId, List<Imp> imps) {
+        return BidType.banner;
+    }
+
+    public enum RequestCreationStrategy {
+        SINGLE_REQUEST, REQUEST_PER_IMP
+    }
+}
@@ -0,0 +1,17 @@
+package org.prebid.server.bidder.model;
+
+import com.iab.openrtb.response.Bid;
+import lombok.AllArgsConstructor;
+import lombok.Value;
+import org.prebid.server.proto.openrtb.ext.response.BidType;
+
+@AllArgsConstructor(staticName = "of")
+@Value
+public class BidderBid {
+
+    Bid bid;
+
+    BidType type;
+
+    String bidCurrency;
+}
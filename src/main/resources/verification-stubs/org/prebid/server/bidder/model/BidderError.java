@@ -0,0 +1,21 @@
+package org.prebid.server.bidder.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Value;
+
+@AllArgsConstructor(staticName = "of")
+@Value
+public class BidderError {
+
+    String message;
+
+    Type type;
+
+    public static BidderError badServerResponse(String message) {
+        return of(message, Type.bad_server_response);
+    }
+
+    public enum Type {
+        bad_server_response
+    }
+}
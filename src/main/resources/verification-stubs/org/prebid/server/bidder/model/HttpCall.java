@@ -0,0 +1,20 @@
+package org.prebid.server.bidder.model;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Value;
+
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+@Value
+public class HttpCall<T> {
+
+    HttpRequest<T> request;
+
+    HttpResponse response;
+
+    BidderError error;
+
+    public static <T> HttpCall<T> success(HttpRequest<T> request, HttpResponse response, BidderError error) {
+        return new HttpCall<>(request, response, error);
+    }
+}
@@ -0,0 +1,18 @@
+package org.prebid.server.bidder.model;
+
+import io.vertx.core.MultiMap;
+import lombok.Builder;
+import lombok.Value;
+
+@Builder(toBuilder = true)
+@Value
+public class HttpRequest<T> {
+
+    String uri;
+
+    String body;
+
+    MultiMap headers;
+
+    T payload;
+}
@@ -0,0 +1,16 @@
+package org.prebid.server.bidder.model;
+
+import io.vertx.core.MultiMap;
+import lombok.AllArgsConstructor;
+import lombok.Value;
+
+@AllArgsConstructor(staticName = "of")
+@Value
+public class HttpResponse {
+
+    int statusCode;
+
+    MultiMap headers;
+
+    String body;
+}
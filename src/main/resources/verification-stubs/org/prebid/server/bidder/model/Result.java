@@ -0,0 +1,20 @@
+package org.prebid.server.bidder.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Value;
+
+import java.util.Collections;
+import java.util.List;
+
+@AllArgsConstructor(staticName = "of")
+@Value
+public class Result<T> {
+
+    T value;
+
+    List<BidderError> errors;
+
+    public static <R> Result<List<R>> emptyWithError(BidderError error) {
+        return of(Collections.emptyList(), Collections.singletonList(error));
+    }
+}
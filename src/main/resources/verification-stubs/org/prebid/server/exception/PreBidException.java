@@ -0,0 +1,8 @@
+package org.prebid.server.exception;
+
+public class PreBidException extends RuntimeException {
+
+    public PreBidException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,16 @@
+package org.prebid.server.json;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+public class JacksonMapper {
+
+    private final ObjectMapper mapper;
+
+    public JacksonMapper(ObjectMapper mapper) {
+        this.mapper = mapper;
+    }
+
+    public ObjectMapper mapper() {
+        return mapper;
+    }
+}
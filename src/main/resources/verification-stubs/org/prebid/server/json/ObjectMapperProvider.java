@@ -0,0 +1,15 @@
+package org.prebid.server.json;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+public final class ObjectMapperProvider {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private ObjectMapperProvider() {
+    }
+
+    public static ObjectMapper mapper() {
+        return MAPPER;
+    }
+}
@@ -0,0 +1,24 @@
+package org.prebid.server.metric;
+
+import com.codahale.metrics.MetricRegistry;
+
+import java.util.concurrent.TimeUnit;
+
+public class AdapterMetrics {
+
+    private final MetricRegistry metricRegistry;
+    private final String prefix;
+
+    AdapterMetrics(MetricRegistry metricRegistry, String adapterType) {
+        this.metricRegistry = metricRegistry;
+        this.prefix = "adapter." + adapterType + ".";
+    }
+
+    public void incCounter(MetricName metricName) {
+        metricRegistry.counter(prefix + metricName).inc();
+    }
+
+    public void updateTimer(MetricName metricName, long millis) {
+        metricRegistry.timer(prefix + metricName).update(millis, TimeUnit.MILLISECONDS);
+    }
+}
@@ -0,0 +1,6 @@
+package org.prebid.server.metric;
+
+public enum CounterType {
+
+    counter, flushingCounter, meter
+}
@@ -0,0 +1,10 @@
+package org.prebid.server.metric;
+
+public enum MetricName {
+
+    ext_extraction_time,
+    modify_imp_time,
+    modify_request_time,
+    make_bids_time,
+    parsed_bids
+}
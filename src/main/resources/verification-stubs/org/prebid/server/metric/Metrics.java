@@ -0,0 +1,20 @@
+package org.prebid.server.metric;
+
+import com.codahale.metrics.MetricRegistry;
+
+import java.util.HashMap;
+import java.util.Map;
+
+public class Metrics {
+
+    private final MetricRegistry metricRegistry;
+    private final Map<String, AdapterMetrics> adapterMetrics = new HashMap<>();
+
+    public Metrics(MetricRegistry metricRegistry, CounterType counterType) {
+        this.metricRegistry = metricRegistry;
+    }
+
+    public AdapterMetrics forAdapter(String adapterType) {
+        return adapterMetrics.computeIfAbsent(adapterType, key -> new AdapterMetrics(metricRegistry, key));
+    }
+}
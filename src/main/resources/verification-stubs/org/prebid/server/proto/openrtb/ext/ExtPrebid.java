@@ -0,0 +1,13 @@
+package org.prebid.server.proto.openrtb.ext;
+
+import lombok.AllArgsConstructor;
+import lombok.Value;
+
+@AllArgsConstructor(staticName = "of")
+@Value
+public class ExtPrebid<P, B> {
+
+    P prebid;
+
+    B bidder;
+}
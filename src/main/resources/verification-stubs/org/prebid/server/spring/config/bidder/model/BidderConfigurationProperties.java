@@ -0,0 +1,11 @@
+package org.prebid.server.spring.config.bidder.model;
+
+import lombok.Data;
+
+@Data
+public class BidderConfigurationProperties {
+
+    private Boolean enabled;
+
+    private String endpoint;
+}
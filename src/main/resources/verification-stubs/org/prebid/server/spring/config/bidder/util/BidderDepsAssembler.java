@@ -0,0 +1,30 @@
+package org.prebid.server.spring.config.bidder.util;
+
+import org.prebid.server.bidder.Bidder;
+import org.prebid.server.bidder.BidderDeps;
+import org.prebid.server.spring.config.bidder.model.BidderConfigurationProperties;
+
+import java.util.function.Function;
+
+public class BidderDepsAssembler {
+
+    public static BidderDepsAssembler forBidder(String bidderName) {
+        return new BidderDepsAssembler();
+    }
+
+    public BidderDepsAssembler withConfig(BidderConfigurationProperties configProperties) {
+        return this;
+    }
+
+    public BidderDepsAssembler usersyncerCreator(UsersyncerCreator usersyncerCreator) {
+        return this;
+    }
+
+    public BidderDepsAssembler bidderCreator(Function<BidderConfigurationProperties, Bidder<?>> bidderCreator) {
+        return this;
+    }
+
+    public BidderDeps assemble() {
+        return new BidderDeps();
+    }
+}
@@ -0,0 +1,8 @@
+package org.prebid.server.spring.config.bidder.util;
+
+public class UsersyncerCreator {
+
+    public static UsersyncerCreator create(String externalUrl) {
+        return new UsersyncerCreator();
+    }
+}
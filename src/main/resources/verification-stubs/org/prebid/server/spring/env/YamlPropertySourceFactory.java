@@ -0,0 +1,13 @@
+package org.prebid.server.spring.env;
+
+import org.springframework.core.env.PropertySource;
+import org.springframework.core.io.support.EncodedResource;
+import org.springframework.core.io.support.PropertySourceFactory;
+
+public class YamlPropertySourceFactory implements PropertySourceFactory {
+
+    @Override
+    public PropertySource<?> createPropertySource(String name, EncodedResource resource) {
+        throw new UnsupportedOperationException();
+    }
+}
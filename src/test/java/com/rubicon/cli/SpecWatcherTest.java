@@ -0,0 +1,142 @@
+package com.rubicon.cli;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class SpecWatcherTest {
+
+    private static final long DEBOUNCE_MILLIS = 200L;
+
+    // long enough for a saved file to be reported, with room for a slow build machine
+    private static final long REPORT_TIMEOUT_MILLIS = DEBOUNCE_MILLIS * 10;
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private final BlockingQueue<Path> reportedFiles = new LinkedBlockingQueue<>();
+
+    private Path directory;
+
+    private Thread watchingThread;
+
+    @Before
+    public void setUp() throws IOException, InterruptedException {
+        directory = temporaryFolder.getRoot().toPath();
+        final SpecWatcher specWatcher = new SpecWatcher(directory, DEBOUNCE_MILLIS, reportedFiles::add);
+        watchingThread = new Thread(() -> {
+            try {
+                specWatcher.watch();
+            } catch (IOException | InterruptedException e) {
+                // the test is over
+            }
+        }, "spec-watcher-test");
+        watchingThread.start();
+        awaitWatching();
+    }
+
+    @After
+    public void tearDown() throws InterruptedException {
+        watchingThread.interrupt();
+        watchingThread.join(REPORT_TIMEOUT_MILLIS);
+    }
+
+    @Test
+    public void watchShouldReportSpecFileEveryTimeItIsSaved() throws IOException, InterruptedException {
+        // given
+        final Path specFile = givenSpecFile("bidder.json", "{}");
+
+        // when
+        final Path firstReport = reportedFiles.poll(REPORT_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+        givenSpecFile("bidder.json", "{\"bidderName\":\"bidder\"}");
+        final Path secondReport = reportedFiles.poll(REPORT_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+
+        // then
+        assertThat(firstReport).isEqualTo(specFile);
+        assertThat(secondReport).isEqualTo(specFile);
+    }
+
+    @Test
+    public void watchShouldReportFileSavedInSeveralStepsOnceAfterDebouncePeriod()
+            throws IOException, InterruptedException {
+        // given
+        final long start = System.nanoTime();
+        for (int i = 0; i < 5; i++) {
+            givenSpecFile("bidder.json", "{\"step\":" + i + "}");
+            Thread.sleep(DEBOUNCE_MILLIS / 10);
+        }
+
+        // when
+        final Path report = reportedFiles.poll(REPORT_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+
+        // then
+        assertThat(report).isEqualTo(directory.resolve("bidder.json"));
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)).isGreaterThanOrEqualTo(DEBOUNCE_MILLIS);
+        assertThat(reportedFiles.poll(DEBOUNCE_MILLIS * 3, TimeUnit.MILLISECONDS)).isNull();
+    }
+
+    @Test
+    public void watchShouldIgnoreFilesOtherThanSpecFiles() throws IOException, InterruptedException {
+        // given
+        givenSpecFile("notes.txt", "notes");
+        givenSpecFile("bidder.json.swp", "swap");
+        final Path specFile = givenSpecFile("bidder.json", "{}");
+
+        // when
+        final Path report = reportedFiles.poll(REPORT_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+
+        // then
+        assertThat(report).isEqualTo(specFile);
+        assertThat(reportedFiles.poll(DEBOUNCE_MILLIS * 3, TimeUnit.MILLISECONDS)).isNull();
+    }
+
+    @Test
+    public void watchShouldNotReportSpecFileDeletedWithinDebouncePeriod() throws IOException, InterruptedException {
+        // given
+        Files.delete(givenSpecFile("deleted.json", "{}"));
+        final Path specFile = givenSpecFile("bidder.json", "{}");
+
+        // when
+        final Path report = reportedFiles.poll(REPORT_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+
+        // then
+        assertThat(report).isEqualTo(specFile);
+        assertThat(reportedFiles.poll(DEBOUNCE_MILLIS * 3, TimeUnit.MILLISECONDS)).isNull();
+    }
+
+    /**
+     * Saves a probe spec file until the watcher reports it, since files saved before the directory is registered
+     * are never reported, and then waits until no more reports come.
+     */
+    private void awaitWatching() throws IOException, InterruptedException {
+        final Path probeFile = directory.resolve("probe.json");
+        final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        Path report = null;
+        while (report == null && System.nanoTime() - deadline < 0) {
+            Files.write(probeFile, "{}".getBytes(StandardCharsets.UTF_8));
+            report = reportedFiles.poll(DEBOUNCE_MILLIS * 3, TimeUnit.MILLISECONDS);
+        }
+        assertThat(report).isEqualTo(probeFile);
+
+        Files.delete(probeFile);
+        while (reportedFiles.poll(DEBOUNCE_MILLIS * 3, TimeUnit.MILLISECONDS) != null) {
+            // a probe saved while the previous one was pending is reported once more
+        }
+    }
+
+    private Path givenSpecFile(String name, String content) throws IOException {
+        return Files.write(directory.resolve(name), content.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,124 @@
+package com.rubicon.controller;
+
+import com.rubicon.model.BidderData;
+import com.rubicon.model.JobState;
+import com.rubicon.model.JobStatus;
+import com.rubicon.service.BidderService;
+import com.rubicon.service.DuplicateJobException;
+import com.rubicon.service.GenerationJobService;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.net.URI;
+import java.util.Collections;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class GenerationRestControllerTest {
+
+    private static final JobStatus QUEUED_JOB = JobStatus.of("jobId", "testBidder", JobState.QUEUED,
+            Collections.emptyMap(), null, null);
+
+    private StubJobService jobService;
+    private GenerationRestController controller;
+
+    @Before
+    public void setUp() {
+        jobService = new StubJobService();
+        controller = new GenerationRestController(new BidderService(null, null, null, null, null, null, null, null,
+                null), jobService, false);
+    }
+
+    @Test
+    public void submitJobShouldRespondAcceptedWithLocationOfJob() {
+        // given
+        jobService.submitted = QUEUED_JOB;
+
+        // when
+        final ResponseEntity<JobStatus> response = controller.submitJob(givenBidderData());
+
+        // then
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.ACCEPTED);
+        assertThat(response.getHeaders().getLocation()).isEqualTo(URI.create("/jobs/jobId"));
+        assertThat(response.getBody()).isEqualTo(QUEUED_JOB);
+    }
+
+    @Test
+    public void submitJobShouldRespondConflictWhenBidderIsBeingGenerated() {
+        // given
+        jobService.failure = new DuplicateJobException(QUEUED_JOB);
+
+        // when and then
+        assertThatThrownBy(() -> controller.submitJob(givenBidderData()))
+                .isInstanceOf(ResponseStatusException.class)
+                .hasFieldOrPropertyWithValue("status", HttpStatus.CONFLICT)
+                .hasMessageContaining("Bidder testBidder is already being generated by job jobId");
+    }
+
+    @Test
+    public void submitJobShouldRespondServiceUnavailableWhenQueueIsFull() {
+        // given
+        jobService.failure = new RejectedExecutionException();
+
+        // when and then
+        assertThatThrownBy(() -> controller.submitJob(givenBidderData()))
+                .isInstanceOf(ResponseStatusException.class)
+                .hasFieldOrPropertyWithValue("status", HttpStatus.SERVICE_UNAVAILABLE)
+                .hasMessageContaining("Generation job queue is full");
+    }
+
+    @Test
+    public void jobStatusShouldReturnStatusOfPolledJob() {
+        // given
+        jobService.submitted = QUEUED_JOB;
+
+        // when and then
+        assertThat(controller.jobStatus("jobId")).isEqualTo(QUEUED_JOB);
+    }
+
+    @Test
+    public void jobStatusShouldRespondNotFoundForUnknownJob() {
+        // when and then
+        assertThatThrownBy(() -> controller.jobStatus("unknown"))
+                .isInstanceOf(ResponseStatusException.class)
+                .hasFieldOrPropertyWithValue("status", HttpStatus.NOT_FOUND);
+    }
+
+    private static BidderData givenBidderData() {
+        return BidderData.builder()
+                .bidderName("testBidder")
+                .strategy("SINGLE_REQUEST")
+                .build();
+    }
+
+    /**
+     * Answers with the given job or failure instead of queueing jobs.
+     */
+    private static class StubJobService extends GenerationJobService {
+
+        private JobStatus submitted;
+        private RuntimeException failure;
+
+        StubJobService() {
+            super(null, null, 0);
+        }
+
+        @Override
+        public JobStatus submit(BidderData bidderData) {
+            if (failure != null) {
+                throw failure;
+            }
+            return submitted;
+        }
+
+        @Override
+        public JobStatus status(String id) {
+            return submitted != null && submitted.getId().equals(id) ? submitted : null;
+        }
+    }
+}
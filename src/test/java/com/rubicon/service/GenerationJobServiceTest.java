@@ -0,0 +1,212 @@
+package com.rubicon.service;
+
+import com.rubicon.model.ArtifactStatus;
+import com.rubicon.model.BidderData;
+import com.rubicon.model.GenerationResult;
+import com.rubicon.model.JobState;
+import com.rubicon.model.JobStatus;
+import com.rubicon.service.processing.FileType;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class GenerationJobServiceTest {
+
+    private static final long TIMEOUT_MILLIS = 10_000L;
+
+    private BlockingBidderService bidderService;
+    private ExecutorService jobExecutor;
+    private GenerationJobService jobService;
+
+    @Before
+    public void setUp() {
+        bidderService = new BlockingBidderService();
+        // a single worker keeps the second job queued while the first one is held, a third job finds the queue full
+        jobExecutor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(1),
+                new ThreadPoolExecutor.AbortPolicy());
+        jobService = new GenerationJobService(bidderService, jobExecutor, 10);
+    }
+
+    @After
+    public void tearDown() {
+        bidderService.release.countDown();
+        jobExecutor.shutdownNow();
+    }
+
+    @Test
+    public void submitShouldRejectJobOfBidderThatIsBeingGenerated() {
+        // given
+        final JobStatus activeJob = jobService.submit(givenBidderData("testBidder"));
+
+        // when and then
+        assertThatThrownBy(() -> jobService.submit(givenBidderData("TestBidder")))
+                .isInstanceOf(DuplicateJobException.class)
+                .hasMessage("Bidder testBidder is already being generated by job " + activeJob.getId());
+    }
+
+    @Test
+    public void submitShouldAcceptJobsOfOtherBidders() {
+        // given
+        jobService.submit(givenBidderData("testBidder"));
+
+        // when
+        final JobStatus jobStatus = jobService.submit(givenBidderData("otherBidder"));
+
+        // then
+        assertThat(jobStatus.getBidderName()).isEqualTo("otherBidder");
+        assertThat(jobStatus.getState()).isEqualTo(JobState.QUEUED);
+    }
+
+    @Test
+    public void submitShouldAcceptJobOfBidderWhoseJobFinished() throws InterruptedException {
+        // given
+        final JobStatus finishedJob = jobService.submit(givenBidderData("testBidder"));
+        bidderService.release.countDown();
+        awaitState(finishedJob.getId(), JobState.SUCCEEDED);
+
+        // when
+        final JobStatus jobStatus = jobService.submit(givenBidderData("testBidder"));
+
+        // then
+        assertThat(jobStatus.getId()).isNotEqualTo(finishedJob.getId());
+    }
+
+    @Test
+    public void submitShouldRejectJobWhenQueueIsFull() {
+        // given
+        jobService.submit(givenBidderData("firstBidder"));
+        jobService.submit(givenBidderData("secondBidder"));
+
+        // when and then
+        assertThatThrownBy(() -> jobService.submit(givenBidderData("thirdBidder")))
+                .isInstanceOf(RejectedExecutionException.class);
+    }
+
+    @Test
+    public void submitShouldAcceptBidderWhoseJobWasRejectedOnceQueueHasRoom() throws InterruptedException {
+        // given
+        final JobStatus firstJob = jobService.submit(givenBidderData("firstBidder"));
+        final JobStatus secondJob = jobService.submit(givenBidderData("secondBidder"));
+        assertThatThrownBy(() -> jobService.submit(givenBidderData("thirdBidder")))
+                .isInstanceOf(RejectedExecutionException.class);
+        bidderService.release.countDown();
+        awaitState(firstJob.getId(), JobState.SUCCEEDED);
+        awaitState(secondJob.getId(), JobState.SUCCEEDED);
+
+        // when
+        final JobStatus jobStatus = jobService.submit(givenBidderData("thirdBidder"));
+
+        // then
+        awaitState(jobStatus.getId(), JobState.SUCCEEDED);
+    }
+
+    @Test
+    public void statusShouldFollowJobFromQueuedToSucceeded() throws InterruptedException {
+        // given
+        final JobStatus runningJob = jobService.submit(givenBidderData("firstBidder"));
+        final JobStatus queuedJob = jobService.submit(givenBidderData("secondBidder"));
+        awaitState(runningJob.getId(), JobState.RUNNING);
+
+        // when and then
+        assertThat(jobService.status(queuedJob.getId()).getState()).isEqualTo(JobState.QUEUED);
+        assertThat(jobService.status(runningJob.getId()).getArtifacts())
+                .containsEntry(FileType.BIDDER, ArtifactStatus.RENDERED);
+
+        bidderService.release.countDown();
+        awaitState(queuedJob.getId(), JobState.SUCCEEDED);
+        final JobStatus finishedJob = jobService.status(queuedJob.getId());
+        assertThat(finishedJob.getResult().getBidderName()).isEqualTo("secondBidder");
+        assertThat(finishedJob.getError()).isNull();
+    }
+
+    @Test
+    public void statusShouldReportErrorOfFailedJob() throws InterruptedException {
+        // given
+        bidderService.failure = new IllegalArgumentException("Unknown strategy");
+        final JobStatus job = jobService.submit(givenBidderData("testBidder"));
+
+        // when
+        bidderService.release.countDown();
+
+        // then
+        awaitState(job.getId(), JobState.FAILED);
+        final JobStatus failedJob = jobService.status(job.getId());
+        assertThat(failedJob.getError()).isEqualTo("java.lang.IllegalArgumentException: Unknown strategy");
+        assertThat(failedJob.getResult()).isNull();
+    }
+
+    @Test
+    public void statusShouldReturnNullForUnknownJob() {
+        // when and then
+        assertThat(jobService.status("unknown")).isNull();
+    }
+
+    @Test
+    public void statusShouldReturnNullForEvictedJob() throws InterruptedException {
+        // given
+        jobService = new GenerationJobService(bidderService, jobExecutor, 1);
+        bidderService.release.countDown();
+        final JobStatus evictedJob = jobService.submit(givenBidderData("firstBidder"));
+        awaitState(evictedJob.getId(), JobState.SUCCEEDED);
+        final JobStatus retainedJob = jobService.submit(givenBidderData("secondBidder"));
+        awaitState(retainedJob.getId(), JobState.SUCCEEDED);
+
+        // when and then
+        assertThat(jobService.status(evictedJob.getId())).isNull();
+        assertThat(jobService.status(retainedJob.getId()).getState()).isEqualTo(JobState.SUCCEEDED);
+    }
+
+    private void awaitState(String id, JobState state) throws InterruptedException {
+        final long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+        while (jobService.status(id).getState() != state) {
+            assertThat(System.currentTimeMillis()).isLessThan(deadline);
+            TimeUnit.MILLISECONDS.sleep(10);
+        }
+    }
+
+    private static BidderData givenBidderData(String bidderName) {
+        return BidderData.builder()
+                .bidderName(bidderName)
+                .strategy("SINGLE_REQUEST")
+                .build();
+    }
+
+    /**
+     * Reports the bidder file rendered and holds every generation until released, so jobs stay active
+     * as long as the test needs.
+     */
+    private static class BlockingBidderService extends BidderService {
+
+        private final CountDownLatch release = new CountDownLatch(1);
+        private volatile RuntimeException failure;
+
+        BlockingBidderService() {
+            super(null, null, null, null, null, null, null, null, null);
+        }
+
+        @Override
+        public GenerationResult generateBidderFiles(BidderData bidderData, ArtifactListener listener) {
+            listener.onStatus(FileType.BIDDER, ArtifactStatus.RENDERED);
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            }
+            if (failure != null) {
+                throw failure;
+            }
+            return GenerationResult.builder().bidderName(bidderData.getBidderName()).build();
+        }
+    }
+}
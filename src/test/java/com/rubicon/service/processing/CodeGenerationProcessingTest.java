@@ -0,0 +1,102 @@
+package com.rubicon.service.processing;
+
+import com.fasterxml.jackson.databind.node.TextNode;
+import com.rubicon.model.BidderData;
+import com.rubicon.model.BidderParam;
+import com.rubicon.model.PropertiesData;
+import com.rubicon.model.Transformation;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+
+public class CodeGenerationProcessingTest {
+
+    private static final int GENERATIONS = 400;
+    private static final int THREADS = 16;
+
+    // bidder names are of fixed width, so no name is a part of another one
+    private static final Pattern BIDDER_NAME = Pattern.compile("[bB]idder\\d{3}");
+
+    private CodeGenerationProcessing codeGenerationProcessing;
+
+    @Before
+    public void setUp() {
+        codeGenerationProcessing = new CodeGenerationProcessing(new StringGenerator());
+    }
+
+    @Test
+    public void generateBidderJavaFilesShouldKeepConcurrentGenerationsApart() throws Exception {
+        // given
+        final ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        final List<Future<List<GeneratedFile>>> generations = new ArrayList<>(GENERATIONS);
+
+        // when
+        try {
+            for (int i = 0; i < GENERATIONS; i++) {
+                final BidderData bidderData = givenBidderData(String.format("bidder%03d", i));
+                final Callable<List<GeneratedFile>> generation =
+                        () -> codeGenerationProcessing.generateBidderJavaFiles(bidderData);
+                generations.add(executor.submit(generation));
+            }
+
+            // then
+            for (int i = 0; i < GENERATIONS; i++) {
+                final String bidderName = String.format("bidder%03d", i);
+                final String capitalizedName = "B" + bidderName.substring(1);
+                final List<GeneratedFile> files = generations.get(i).get();
+                assertThat(files).isNotEmpty();
+                for (GeneratedFile file : files) {
+                    assertThat(file.getPath()).contains(bidderName);
+                    assertThat(file.getContent())
+                            .contains("." + bidderName + ";")
+                            .contains(capitalizedName);
+                    assertThat(findBidderNames(file.getContent())).containsOnly(bidderName, capitalizedName);
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void warmUpShouldCompileSampleTransformations() {
+        // when and then
+        assertThatCode(codeGenerationProcessing::warmUp).doesNotThrowAnyException();
+    }
+
+    private static List<String> findBidderNames(String content) {
+        final List<String> names = new ArrayList<>();
+        final Matcher matcher = BIDDER_NAME.matcher(content);
+        while (matcher.find()) {
+            names.add(matcher.group());
+        }
+        return names;
+    }
+
+    private static BidderData givenBidderData(String bidderName) {
+        return BidderData.builder()
+                .bidderName(bidderName)
+                .strategy("SINGLE_REQUEST")
+                .urlParams("%2Fsetuid%3Fbidder%3D" + bidderName + "%26uid%3D")
+                .properties(new PropertiesData(null, "https://test." + bidderName + ".com/openrtb",
+                        "https://rtb." + bidderName + ".com/usersync", null, bidderName + "@email.com",
+                        Arrays.asList("banner", "video"), Arrays.asList("banner", "video"), 1))
+                .bidderParams(Arrays.asList(new BidderParam("placement", "String"),
+                        new BidderParam("zoneId", "Integer")))
+                .transformations(Arrays.asList(new Transformation("imp.tagid", null, "impExt.placement"),
+                        new Transformation("site.publisher.name", TextNode.valueOf(bidderName), null)))
+                .build();
+    }
+}
@@ -0,0 +1,177 @@
+package com.rubicon.service.processing;
+
+import com.fasterxml.jackson.databind.node.IntNode;
+import com.fasterxml.jackson.databind.node.TextNode;
+import com.rubicon.model.BidderData;
+import com.rubicon.model.BidderParam;
+import com.rubicon.model.CompilationDiagnostic;
+import com.rubicon.model.PropertiesData;
+import com.rubicon.model.Transformation;
+import freemarker.cache.ClassTemplateLoader;
+import freemarker.template.Configuration;
+import freemarker.template.TemplateException;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class CompilationVerifierTest {
+
+    private static CompilationVerifier compilationVerifier;
+
+    private CodeGenerationProcessing codeGenerationProcessing;
+    private TemplateProcessing templateProcessing;
+
+    @BeforeClass
+    public static void setUpClass() throws IOException {
+        compilationVerifier = new CompilationVerifier(true, null);
+        compilationVerifier.warmUp();
+    }
+
+    @AfterClass
+    public static void tearDownClass() throws IOException {
+        compilationVerifier.close();
+    }
+
+    @Before
+    public void setUp() {
+        final Configuration configuration = new Configuration(Configuration.VERSION_2_3_28);
+        configuration.setTemplateLoader(new ClassTemplateLoader(CompilationVerifierTest.class, "/templates"));
+        codeGenerationProcessing = new CodeGenerationProcessing(new StringGenerator());
+        templateProcessing = new TemplateProcessing(new FileCreator(new GenerationManifest()), configuration);
+    }
+
+    @Test
+    public void verifyShouldCompileGeneratedTestOfBidderWithTransformations() throws Exception {
+        // given
+        final List<GeneratedFile> generatedFiles = generate(givenBidderData()
+                .transformations(Arrays.asList(
+                        new Transformation("imp.tagid", null, "impExt.placement"),
+                        new Transformation("imp.banner.w", IntNode.valueOf(300), null),
+                        new Transformation("site.page", TextNode.valueOf("page"), null)))
+                .instrumentBidder(true)
+                .streamBidResponses(true)
+                .build());
+
+        // when
+        final List<CompilationDiagnostic> diagnostics = compilationVerifier.verify(generatedFiles);
+
+        // then
+        assertThat(generatedFiles).extracting(GeneratedFile::getFileType).contains(FileType.BIDDER_TEST);
+        assertThat(diagnostics).filteredOn(diagnostic -> "ERROR".equals(diagnostic.getKind())).isEmpty();
+    }
+
+    @Test
+    public void verifyShouldCompileTemplateTestOfBidderWithParams() throws Exception {
+        // given
+        final List<GeneratedFile> generatedFiles = generate(givenBidderData()
+                .instrumentBidder(true)
+                .streamBidResponses(true)
+                .build());
+
+        // when
+        final List<CompilationDiagnostic> diagnostics = compilationVerifier.verify(generatedFiles);
+
+        // then
+        assertThat(generatedFiles).extracting(GeneratedFile::getFileType).contains(FileType.TEST_SIMPLE_BIDDER);
+        assertThat(diagnostics).filteredOn(diagnostic -> "ERROR".equals(diagnostic.getKind())).isEmpty();
+    }
+
+    @Test
+    public void verifyShouldCompileTemplateTestOfBidderWithoutParams() throws Exception {
+        // given
+        final List<GeneratedFile> generatedFiles = generate(givenBidderData()
+                .bidderParams(Collections.emptyList())
+                .build());
+
+        // when
+        final List<CompilationDiagnostic> diagnostics = compilationVerifier.verify(generatedFiles);
+
+        // then
+        assertThat(generatedFiles).extracting(GeneratedFile::getFileType).contains(FileType.TEST_SIMPLE_BIDDER);
+        assertThat(diagnostics).filteredOn(diagnostic -> "ERROR".equals(diagnostic.getKind())).isEmpty();
+    }
+
+    @Test
+    public void verifyShouldReportErrorOfGeneratedTest() {
+        // given
+        final GeneratedFile brokenTest = GeneratedFile.of(FileType.BIDDER_TEST,
+                "src/test/java/org/prebid/server/bidder/broken/BrokenBidderTest.java",
+                "package org.prebid.server.bidder.broken;\n\n"
+                        + "public class BrokenBidderTest extends org.prebid.server.VertxTest {\n"
+                        + "    Object bidder = brokenBidderBidder;\n}\n");
+
+        // when
+        final List<CompilationDiagnostic> diagnostics =
+                compilationVerifier.verify(Collections.singletonList(brokenTest));
+
+        // then
+        assertThat(CompilationVerifier.hasErrors(diagnostics)).isTrue();
+        assertThat(diagnostics).extracting(CompilationDiagnostic::getFile).containsOnly(brokenTest.getPath());
+    }
+
+    @Test
+    public void verifyShouldCompileConcurrently() throws Exception {
+        // given
+        final List<GeneratedFile> generatedFiles = generate(givenBidderData().build());
+        final GeneratedFile brokenTest = GeneratedFile.of(FileType.BIDDER_TEST,
+                "src/test/java/org/prebid/server/bidder/broken/BrokenBidderTest.java",
+                "package org.prebid.server.bidder.broken;\n\nclass BrokenBidderTest {\n    int value = \"text\";\n}\n");
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+
+        // when
+        final List<Future<List<CompilationDiagnostic>>> verifications = new ArrayList<>();
+        try {
+            for (int i = 0; i < 8; i++) {
+                final List<GeneratedFile> verifiedFiles = i % 2 == 0
+                        ? generatedFiles
+                        : Collections.singletonList(brokenTest);
+                verifications.add(executor.submit(() -> compilationVerifier.verify(verifiedFiles)));
+            }
+
+            // then
+            for (int i = 0; i < verifications.size(); i++) {
+                assertThat(CompilationVerifier.hasErrors(verifications.get(i).get(1, TimeUnit.MINUTES)))
+                        .isEqualTo(i % 2 != 0);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private List<GeneratedFile> generate(BidderData bidderData) throws IOException, TemplateException {
+        final List<GeneratedFile> generatedFiles = new ArrayList<>(
+                codeGenerationProcessing.generateBidderJavaFiles(bidderData));
+        generatedFiles.addAll(templateProcessing.generateBidderFilesFromTemplates(bidderData));
+        return generatedFiles;
+    }
+
+    private static BidderData.BidderDataBuilder givenBidderData() {
+        return BidderData.builder()
+                .bidderName("testBidder")
+                .strategy("SINGLE_REQUEST")
+                .urlParams("%2Fsetuid%3Fbidder%3DtestBidder%26uid%3D")
+                .properties(PropertiesData.builder()
+                        .endpointUrl("https://test.endpoint.com")
+                        .usersyncerUrl("https://test.usersyncer.com")
+                        .maintainerEmail("maintainer@test.com")
+                        .appMediaTypes(Collections.singletonList("banner"))
+                        .siteMediaTypes(Collections.singletonList("banner"))
+                        .vendorId(1)
+                        .build())
+                .bidderParams(Arrays.asList(new BidderParam("placement", "String"),
+                        new BidderParam("zoneId", "Integer")));
+    }
+}
@@ -0,0 +1,123 @@
+package com.rubicon.service.processing;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class FileCreatorTest {
+
+    // files are staged in the working directory, renames within a single filesystem are atomic
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder(new File("target"));
+
+    private FileCreator fileCreator;
+
+    private Path directory;
+
+    @Before
+    public void setUp() {
+        directory = temporaryFolder.getRoot().toPath().toAbsolutePath();
+        fileCreator = new FileCreator(new GenerationManifest(directory.resolve(GenerationManifest.FILE_NAME)));
+    }
+
+    @Test
+    public void writeBidderFilesShouldWriteChangedFilesOnly() throws IOException {
+        // given
+        givenFile("unchanged.yaml", "unchanged");
+        givenFile("changed.yaml", "old");
+        final GeneratedFile unchanged = givenGeneratedFile("unchanged.yaml", "unchanged");
+        final GeneratedFile changed = givenGeneratedFile("changed.yaml", "new");
+        final GeneratedFile created = givenGeneratedFile("created/created.json", "created");
+
+        // when
+        final Set<GeneratedFile> writtenFiles = fileCreator.writeBidderFiles("testBidder",
+                Arrays.asList(unchanged, changed, created));
+
+        // then
+        assertThat(writtenFiles).containsOnly(changed, created);
+        assertThat(readFile("unchanged.yaml")).isEqualTo("unchanged");
+        assertThat(readFile("changed.yaml")).isEqualTo("new");
+        assertThat(readFile("created/created.json")).isEqualTo("created");
+        assertThat(listStagingDirectories()).isEmpty();
+    }
+
+    @Test
+    public void writeBidderFilesShouldRollBackAllFilesWhenOneCanNotBeWritten() throws IOException {
+        // given
+        givenFile("replaced.yaml", "old");
+        Files.createDirectories(directory.resolve("directory.json"));
+        final List<GeneratedFile> generatedFiles = Arrays.asList(
+                givenGeneratedFile("replaced.yaml", "new"),
+                givenGeneratedFile("created.yaml", "created"),
+                givenGeneratedFile("directory.json", "blocked"));
+
+        // when and then
+        assertThatThrownBy(() -> fileCreator.writeBidderFiles("testBidder", generatedFiles))
+                .isInstanceOf(FileAlreadyExistsException.class);
+        assertThat(readFile("replaced.yaml")).isEqualTo("old");
+        assertThat(directory.resolve("created.yaml")).doesNotExist();
+        assertThat(directory.resolve("directory.json")).isDirectory();
+        assertThat(listStagingDirectories()).isEmpty();
+    }
+
+    @Test
+    public void writeBidderFilesShouldWriteFilesRolledBackBefore() throws IOException {
+        // given
+        givenFile("replaced.yaml", "old");
+        final Path blockingDirectory = Files.createDirectories(directory.resolve("directory.json"));
+        final List<GeneratedFile> generatedFiles = Arrays.asList(
+                givenGeneratedFile("replaced.yaml", "new"),
+                givenGeneratedFile("directory.json", "unblocked"));
+        assertThatThrownBy(() -> fileCreator.writeBidderFiles("testBidder", generatedFiles))
+                .isInstanceOf(FileAlreadyExistsException.class);
+        Files.delete(blockingDirectory);
+
+        // when
+        final Set<GeneratedFile> writtenFiles = fileCreator.writeBidderFiles("testBidder", generatedFiles);
+
+        // then
+        assertThat(writtenFiles).containsOnlyElementsOf(generatedFiles);
+        assertThat(readFile("replaced.yaml")).isEqualTo("new");
+        assertThat(readFile("directory.json")).isEqualTo("unblocked");
+    }
+
+    private void givenFile(String path, String content) throws IOException {
+        final Path file = directory.resolve(path);
+        Files.createDirectories(file.getParent());
+        Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private GeneratedFile givenGeneratedFile(String path, String content) {
+        return GeneratedFile.of(FileType.PROPERTIES, directory.resolve(path).toString(), content);
+    }
+
+    private String readFile(String path) throws IOException {
+        return new String(Files.readAllBytes(directory.resolve(path)), StandardCharsets.UTF_8);
+    }
+
+    private static List<Path> listStagingDirectories() throws IOException {
+        final List<Path> stagingDirectories = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(Paths.get("").toAbsolutePath(),
+                ".bidder-generation-*")) {
+            files.forEach(stagingDirectories::add);
+        }
+        return stagingDirectories;
+    }
+}
@@ -0,0 +1,254 @@
+package com.rubicon.service.processing;
+
+import com.fasterxml.jackson.databind.node.TextNode;
+import com.rubicon.model.BidderData;
+import com.rubicon.model.BidderParam;
+import com.rubicon.model.Transformation;
+import freemarker.cache.ClassTemplateLoader;
+import freemarker.template.Configuration;
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.JUnitCore;
+import org.junit.runner.Result;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.net.URLClassLoader;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compiles generated bidders with their tests and runs the tests against the {@link PbsRuntime}.
+ */
+public class GeneratedTestExecutionTest {
+
+    private static final Set<FileType> JAVA_FILE_TYPES = EnumSet.of(FileType.BIDDER, FileType.EXT,
+            FileType.BIDDER_TEST, FileType.TEST_SIMPLE_BIDDER);
+
+    @ClassRule
+    public static TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private static PbsRuntime runtime;
+
+    private final CodeGenerationProcessing codeGenerationProcessing =
+            new CodeGenerationProcessing(new StringGenerator());
+    private final TemplateProcessing templateProcessing = new TemplateProcessing(
+            new FileCreator(new GenerationManifest()), templateConfiguration());
+
+    @BeforeClass
+    public static void setUpClass() throws IOException, URISyntaxException {
+        runtime = PbsRuntime.compile(temporaryFolder);
+    }
+
+    @Test
+    public void generatedTestsShouldPassForTransformationsOfBidderWithNumericParams() throws Exception {
+        // when and then
+        assertGeneratedTestsPass(givenNumericParamsBidder("numericTransformations")
+                .transformations(Arrays.asList(
+                        new Transformation("imp.tagid", null, "impExt.placement"),
+                        new Transformation("site.page", TextNode.valueOf("page"), null)))
+                .build());
+    }
+
+    @Test
+    public void generatedTestsShouldPassForBidderWithNumericParams() throws Exception {
+        // when and then
+        assertGeneratedTestsPass(givenNumericParamsBidder("numericParams").build());
+    }
+
+    @Test
+    public void generatedTestsShouldPassForBidderWithoutParams() throws Exception {
+        // when and then
+        assertGeneratedTestsPass(BidderData.builder()
+                .bidderName("noParams")
+                .strategy("SINGLE_REQUEST")
+                .bidderParams(Collections.emptyList())
+                .build());
+    }
+
+    @Test
+    public void generatedTestsShouldPassForStreamingBidder() throws Exception {
+        // when and then
+        assertGeneratedTestsPass(givenNumericParamsBidder("streaming")
+                .transformations(Arrays.asList(
+                        new Transformation("imp.tagid", null, "impExt.placement"),
+                        new Transformation("site.page", TextNode.valueOf("page"), null)))
+                .streamBidResponses(true)
+                .build());
+    }
+
+    @Test
+    public void generatedTestsShouldPassForInstrumentedStreamingBidder() throws Exception {
+        // when and then
+        assertGeneratedTestsPass(givenNumericParamsBidder("instrumentedStreaming")
+                .instrumentBidder(true)
+                .streamBidResponses(true)
+                .build());
+    }
+
+    @Test
+    public void generatedTestsShouldPassForBidderReadingImpExts() throws Exception {
+        // when and then
+        assertGeneratedTestsPass(givenNumericParamsBidder("impExtReading")
+                .transformations(Collections.singletonList(new Transformation("imp.tagid", null,
+                        "impExt.placement")))
+                .cacheImpExts(true)
+                .build());
+    }
+
+    @Test
+    public void generatedTestsShouldPassForInstrumentedBidderReadingImpExts() throws Exception {
+        // when and then
+        assertGeneratedTestsPass(givenNumericParamsBidder("instrumentedImpExtReading")
+                .instrumentBidder(true)
+                .cacheImpExts(true)
+                .build());
+    }
+
+    @Test
+    public void generatedTestsShouldPassForBidderReadingImpExtsAndChangingRequest() throws Exception {
+        // when and then
+        assertGeneratedTestsPass(givenNumericParamsBidder("requestChangingImpExtReading")
+                .transformations(Collections.singletonList(new Transformation("site.page", TextNode.valueOf("page"),
+                        null)))
+                .cacheImpExts(true)
+                .build());
+    }
+
+    @Test
+    public void generatedTestsShouldPassForCastsOfBidderParamsToString() throws Exception {
+        // when and then
+        assertGeneratedTestsPass(givenScalarParamsBidder("castsToString",
+                cast("imp.tagid", "impExt.integerParam"),
+                cast("imp.displaymanager", "impExt.longParam"),
+                cast("imp.displaymanagerver", "impExt.floatParam"),
+                cast("imp.bidfloorcur", "impExt.doubleParam"),
+                cast("imp.banner.id", "impExt.decimalParam"),
+                cast("imp.native.ver", "impExt.flagParam")));
+    }
+
+    @Test
+    public void generatedTestsShouldPassForCastsOfBidderParamsToInteger() throws Exception {
+        // when and then
+        assertGeneratedTestsPass(givenScalarParamsBidder("castsToInteger",
+                cast("imp.banner.w", "impExt.textParam"),
+                cast("imp.banner.h", "impExt.longParam"),
+                cast("imp.banner.wmin", "impExt.floatParam"),
+                cast("imp.banner.hmin", "impExt.doubleParam"),
+                cast("imp.banner.pos", "impExt.decimalParam"),
+                cast("imp.instl", "impExt.flagParam")));
+    }
+
+    @Test
+    public void generatedTestsShouldPassForCastsOfBidderParamsToBigDecimal() throws Exception {
+        // when and then
+        assertGeneratedTestsPass(givenScalarParamsBidder("castsToBigDecimal",
+                cast("imp.bidfloor", "impExt.textParam"),
+                cast("imp.pmp.deals[0].bidfloor", "impExt.integerParam"),
+                cast("imp.pmp.deals[1].bidfloor", "impExt.longParam"),
+                cast("imp.pmp.deals[2].bidfloor", "impExt.floatParam"),
+                cast("imp.pmp.deals[3].bidfloor", "impExt.doubleParam")));
+    }
+
+    @Test
+    public void generatedTestsShouldPassForCastsOfBidderParamsToFloat() throws Exception {
+        // when and then
+        assertGeneratedTestsPass(givenScalarParamsBidder("castsToFloat",
+                cast("imp.metric[0].value", "impExt.textParam"),
+                cast("imp.metric[1].value", "impExt.integerParam"),
+                cast("imp.metric[2].value", "impExt.longParam"),
+                cast("imp.metric[3].value", "impExt.doubleParam"),
+                cast("imp.metric[4].value", "impExt.decimalParam")));
+    }
+
+    @Test
+    public void generatedTestsShouldPassForCastsOfRequestFields() throws Exception {
+        // when and then
+        assertGeneratedTestsPass(givenScalarParamsBidder("castsOfRequestFields",
+                cast("tmax", "device.geo.lat"),
+                cast("device.geo.lon", "at"),
+                cast("device.pxratio", "test"),
+                cast("site.page", "device.geo.lon")));
+    }
+
+    private void assertGeneratedTestsPass(BidderData bidderData) throws Exception {
+        final List<GeneratedFile> generatedFiles = new ArrayList<>(
+                codeGenerationProcessing.generateBidderJavaFiles(bidderData));
+        final ArtifactTask templateTest = templateProcessing.createArtifactTasks(bidderData)
+                .get(FileType.TEST_SIMPLE_BIDDER);
+        if (templateTest != null) {
+            generatedFiles.add(templateTest.render());
+        }
+
+        final Path sources = temporaryFolder.newFolder(bidderData.getBidderName() + "-sources").toPath();
+        String testClassName = null;
+        for (GeneratedFile generatedFile : generatedFiles) {
+            if (JAVA_FILE_TYPES.contains(generatedFile.getFileType())) {
+                PbsRuntime.writeFile(sources.resolve(generatedFile.getPath()), generatedFile.getContent());
+            }
+            if (generatedFile.getFileType() == FileType.BIDDER_TEST
+                    || generatedFile.getFileType() == FileType.TEST_SIMPLE_BIDDER) {
+                testClassName = generatedFile.getPath().substring(FileType.BIDDER_TEST.getFilePrefix().length(),
+                        generatedFile.getPath().length() - ".java".length()).replace('/', '.');
+            }
+        }
+        final File classes = runtime.compile(sources, bidderData.getBidderName() + "-classes");
+
+        try (URLClassLoader classLoader = runtime.classLoader(classes)) {
+            final Result result = new JUnitCore().run(Class.forName(testClassName, true, classLoader));
+            assertThat(result.getFailures())
+                    .extracting(failure -> failure.getTestHeader() + ": " + failure.getTrace())
+                    .isEmpty();
+            assertThat(result.getRunCount()).isPositive();
+        }
+    }
+
+    private static Configuration templateConfiguration() {
+        final Configuration configuration = new Configuration(Configuration.VERSION_2_3_28);
+        configuration.setTemplateLoader(new ClassTemplateLoader(GeneratedTestExecutionTest.class, "/templates"));
+        return configuration;
+    }
+
+    private static BidderData givenScalarParamsBidder(String bidderName, Transformation... transformations) {
+        return BidderData.builder()
+                .bidderName(bidderName)
+                .strategy("SINGLE_REQUEST")
+                .bidderParams(Arrays.asList(
+                        new BidderParam("textParam", "String"),
+                        new BidderParam("integerParam", "Integer"),
+                        new BidderParam("longParam", "Long"),
+                        new BidderParam("floatParam", "Float"),
+                        new BidderParam("doubleParam", "Double"),
+                        new BidderParam("decimalParam", "BigDecimal"),
+                        new BidderParam("flagParam", "Boolean")))
+                .transformations(Arrays.asList(transformations))
+                .build();
+    }
+
+    private static Transformation cast(String target, String from) {
+        return new Transformation(target, null, from, true, null);
+    }
+
+    private static BidderData.BidderDataBuilder givenNumericParamsBidder(String bidderName) {
+        return BidderData.builder()
+                .bidderName(bidderName)
+                .strategy("SINGLE_REQUEST")
+                .bidderParams(Arrays.asList(
+                        new BidderParam("placement", "String"),
+                        new BidderParam("zoneId", "Long"),
+                        new BidderParam("zoneIds", "List<Long>"),
+                        new BidderParam("floor", "Float"),
+                        new BidderParam("price", "BigDecimal"),
+                        new BidderParam("ratio", "Double")));
+    }
+}
@@ -0,0 +1,139 @@
+package com.rubicon.service.processing;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class GenerationManifestTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private GenerationManifest manifest;
+
+    private Path manifestFile;
+
+    private Path path;
+
+    @Before
+    public void setUp() throws IOException {
+        manifestFile = temporaryFolder.getRoot().toPath().resolve(GenerationManifest.FILE_NAME);
+        manifest = new GenerationManifest(manifestFile);
+        path = temporaryFolder.getRoot().toPath().resolve("TestBidder.java");
+    }
+
+    @Test
+    public void isUnchangedShouldReturnFalseForMissingFile() throws IOException {
+        // when and then
+        assertThat(manifest.isUnchanged(path, bytes("content"))).isFalse();
+    }
+
+    @Test
+    public void isUnchangedShouldCompareContentOfFileNotInManifest() throws IOException {
+        // given
+        Files.write(path, bytes("content"));
+
+        // when and then
+        assertThat(manifest.isUnchanged(path, bytes("content"))).isTrue();
+        assertThat(manifest.isUnchanged(path, bytes("changed"))).isFalse();
+    }
+
+    @Test
+    public void isUnchangedShouldCompareRecordedContent() throws IOException {
+        // given
+        givenRecordedFile("content", System.currentTimeMillis());
+
+        // when and then
+        assertThat(manifest.isUnchanged(path, bytes("content"))).isTrue();
+        assertThat(manifest.isUnchanged(path, bytes("changed"))).isFalse();
+    }
+
+    @Test
+    public void isUnchangedShouldDetectSameSizeRewriteWithinModificationTimeGranularity() throws IOException {
+        // given
+        final FileTime lastModified = givenRecordedFile("content", System.currentTimeMillis());
+        Files.write(path, bytes("rewrite"));
+        Files.setLastModifiedTime(path, lastModified);
+
+        // when and then
+        assertThat(manifest.isUnchanged(path, bytes("content"))).isFalse();
+        assertThat(manifest.isUnchanged(path, bytes("rewrite"))).isTrue();
+    }
+
+    @Test
+    public void isUnchangedShouldTrustModificationTimeOutsideGranularity() throws IOException {
+        // given
+        final FileTime lastModified = givenRecordedFile("content",
+                System.currentTimeMillis() - TimeUnit.HOURS.toMillis(1));
+        Files.write(path, bytes("rewrite"));
+        Files.setLastModifiedTime(path, lastModified);
+
+        // when and then
+        assertThat(manifest.isUnchanged(path, bytes("content"))).isTrue();
+    }
+
+    @Test
+    public void isUnchangedShouldCompareContentOfFileModifiedAfterRecording() throws IOException {
+        // given
+        final FileTime lastModified = givenRecordedFile("content",
+                System.currentTimeMillis() - TimeUnit.HOURS.toMillis(1));
+        Files.write(path, bytes("rewrite"));
+        Files.setLastModifiedTime(path, FileTime.fromMillis(lastModified.toMillis() + 1000L));
+
+        // when and then
+        assertThat(manifest.isUnchanged(path, bytes("content"))).isFalse();
+        assertThat(manifest.isUnchanged(path, bytes("rewrite"))).isTrue();
+    }
+
+    @Test
+    public void saveShouldKeepEntriesForNextManifest() throws IOException {
+        // given
+        final FileTime lastModified = givenRecordedFile("content",
+                System.currentTimeMillis() - TimeUnit.HOURS.toMillis(1));
+        manifest.save();
+        Files.write(path, bytes("rewrite"));
+        Files.setLastModifiedTime(path, lastModified);
+
+        // when
+        final GenerationManifest nextManifest = new GenerationManifest(manifestFile);
+
+        // then
+        assertThat(nextManifest.isUnchanged(path, bytes("content"))).isTrue();
+    }
+
+    @Test
+    public void creationShouldIgnoreUnreadableManifest() throws IOException {
+        // given
+        Files.write(manifestFile, bytes("{\"TestBidder.java\":"));
+        Files.write(path, bytes("content"));
+
+        // when
+        final GenerationManifest nextManifest = new GenerationManifest(manifestFile);
+
+        // then
+        assertThat(nextManifest.isUnchanged(path, bytes("content"))).isTrue();
+        assertThat(nextManifest.isUnchanged(path, bytes("changed"))).isFalse();
+    }
+
+    private FileTime givenRecordedFile(String content, long lastModifiedMillis) throws IOException {
+        final FileTime lastModified = FileTime.fromMillis(lastModifiedMillis);
+        Files.write(path, bytes(content));
+        Files.setLastModifiedTime(path, lastModified);
+        manifest.record(path, bytes(content));
+        return lastModified;
+    }
+
+    private static byte[] bytes(String content) {
+        return content.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,157 @@
+package com.rubicon.service.processing;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.Builder;
+import org.assertj.core.api.Assertions;
+import org.hamcrest.Matcher;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.core.io.support.PropertySourceFactory;
+import org.springframework.util.StreamUtils;
+
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.StandardLocation;
+import javax.tools.ToolProvider;
+import javax.validation.constraints.NotBlank;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Stubs that run the request and response flow of PBS, compiled once for tests that compile and run generated
+ * sources: the verification stubs, with the PBS-like classes of {@code pbs-runtime} in place of their stubs.
+ * Lombok is loaded as by the {@link CompilationVerifier}, so that it sees the compiler classes of tools.jar on JDK 8.
+ */
+final class PbsRuntime {
+
+    private static final List<Class<?>> LIBRARIES = Arrays.asList(Builder.class, JsonProperty.class,
+            JsonParser.class, ObjectMapper.class, Test.class, Matcher.class, Assertions.class,
+            PropertySourceFactory.class, Autowired.class, org.springframework.context.annotation.Configuration.class,
+            ConfigurationProperties.class, NotBlank.class);
+
+    private final TemporaryFolder temporaryFolder;
+    private final Class<?> lombokProcessor;
+    private final List<File> classpath;
+
+    private PbsRuntime(TemporaryFolder temporaryFolder, Class<?> lombokProcessor, List<File> classpath) {
+        this.temporaryFolder = temporaryFolder;
+        this.lombokProcessor = lombokProcessor;
+        this.classpath = classpath;
+    }
+
+    /**
+     * Compiles the runtime into a new folder of the given temporary folder, which also holds the classes
+     * compiled against it.
+     */
+    static PbsRuntime compile(TemporaryFolder temporaryFolder) throws IOException, URISyntaxException {
+        final Path sources = temporaryFolder.newFolder("runtime-sources").toPath();
+        for (String stub : readResource("verification-stubs/stubs.list").split("\n")) {
+            if (!stub.trim().isEmpty() && !stub.startsWith("#")) {
+                writeFile(sources.resolve(stub.trim()), readResource("verification-stubs/" + stub.trim()));
+            }
+        }
+        final Path runtime = Paths.get(PbsRuntime.class.getResource("/pbs-runtime").toURI());
+        try (Stream<Path> files = Files.walk(runtime)) {
+            for (Path file : files.filter(Files::isRegularFile).collect(Collectors.toList())) {
+                writeFile(sources.resolve(runtime.relativize(file).toString()),
+                        new String(Files.readAllBytes(file), StandardCharsets.UTF_8));
+            }
+        }
+
+        final List<File> libraries = classpathOf(LIBRARIES);
+        final Class<?> lombokProcessor = CompilationVerifier.loadLombokProcessor(
+                ToolProvider.getSystemJavaCompiler(), libraries.get(LIBRARIES.indexOf(Builder.class)));
+        final List<File> classpath = new ArrayList<>(libraries);
+        classpath.add(compile(temporaryFolder, lombokProcessor, libraries, sources, "runtime-classes"));
+        return new PbsRuntime(temporaryFolder, lombokProcessor, classpath);
+    }
+
+    /**
+     * Compiles the given sources against the runtime.
+     */
+    File compile(Path sources, String outputName) throws IOException {
+        return compile(temporaryFolder, lombokProcessor, classpath, sources, outputName);
+    }
+
+    /**
+     * Returns a class loader of the given classes and the runtime, which the caller closes.
+     */
+    URLClassLoader classLoader(File classes) throws IOException {
+        final List<URL> urls = new ArrayList<>();
+        urls.add(classes.toURI().toURL());
+        for (File entry : classpath) {
+            urls.add(entry.toURI().toURL());
+        }
+        return new URLClassLoader(urls.toArray(new URL[0]), PbsRuntime.class.getClassLoader());
+    }
+
+    static void writeFile(Path path, String content) throws IOException {
+        Files.createDirectories(path.getParent());
+        Files.write(path, content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static File compile(TemporaryFolder temporaryFolder, Class<?> lombokProcessor, List<File> classpath,
+                                Path sources, String outputName) throws IOException {
+        final List<File> sourceFiles;
+        try (Stream<Path> files = Files.walk(sources)) {
+            sourceFiles = files.filter(file -> file.toString().endsWith(".java"))
+                    .map(Path::toFile)
+                    .collect(Collectors.toList());
+        }
+        final File output = temporaryFolder.newFolder(outputName);
+        final JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        final DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+        try (StandardJavaFileManager fileManager = compiler.getStandardFileManager(null, Locale.ROOT,
+                StandardCharsets.UTF_8)) {
+            fileManager.setLocation(StandardLocation.CLASS_PATH, classpath);
+            fileManager.setLocation(StandardLocation.CLASS_OUTPUT, Collections.singletonList(output));
+            final JavaCompiler.CompilationTask task = compiler.getTask(null, fileManager, diagnostics, null, null,
+                    fileManager.getJavaFileObjectsFromFiles(sourceFiles));
+            task.setProcessors(Collections.singletonList(CompilationVerifier.newLombokProcessor(lombokProcessor)));
+            assertThat(task.call()).as("compilation of %s: %s", sources, diagnostics.getDiagnostics()).isTrue();
+        }
+        return output;
+    }
+
+    private static List<File> classpathOf(List<Class<?>> classes) {
+        return classes.stream()
+                .map(library -> {
+                    try {
+                        return Paths.get(library.getProtectionDomain().getCodeSource().getLocation().toURI())
+                                .toFile();
+                    } catch (URISyntaxException e) {
+                        throw new IllegalStateException(e);
+                    }
+                })
+                .collect(Collectors.toList());
+    }
+
+    private static String readResource(String resource) throws IOException {
+        try (InputStream inputStream = PbsRuntime.class.getClassLoader().getResourceAsStream(resource)) {
+            return StreamUtils.copyToString(inputStream, StandardCharsets.UTF_8);
+        }
+    }
+}
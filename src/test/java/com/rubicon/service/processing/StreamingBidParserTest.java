@@ -0,0 +1,164 @@
+package com.rubicon.service.processing;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rubicon.model.BidderData;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.net.URLClassLoader;
+import java.nio.file.Path;
+import java.util.Collections;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs {@code makeBids} of a compiled streaming bidder on bid responses the sample response of generated tests
+ * doesn't cover.
+ */
+public class StreamingBidParserTest {
+
+    private static final String BID_REQUEST = "{\"imp\":[{\"id\":\"123\",\"banner\":{}}]}";
+
+    @ClassRule
+    public static TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private static URLClassLoader classLoader;
+    private static ObjectMapper mapper;
+    private static Object bidder;
+
+    @BeforeClass
+    public static void setUpClass() throws Exception {
+        final PbsRuntime runtime = PbsRuntime.compile(temporaryFolder);
+        final Path sources = temporaryFolder.newFolder("streaming-sources").toPath();
+        for (GeneratedFile generatedFile : new CodeGenerationProcessing(new StringGenerator())
+                .generateBidderJavaFiles(BidderData.builder()
+                        .bidderName("streaming")
+                        .strategy("SINGLE_REQUEST")
+                        .bidderParams(Collections.emptyList())
+                        .streamBidResponses(true)
+                        .build())) {
+            if (generatedFile.getFileType() == FileType.BIDDER) {
+                PbsRuntime.writeFile(sources.resolve(generatedFile.getPath()), generatedFile.getContent());
+            }
+        }
+        final File classes = runtime.compile(sources, "streaming-classes");
+
+        classLoader = runtime.classLoader(classes);
+        mapper = (ObjectMapper) loadClass("org.prebid.server.json.ObjectMapperProvider").getMethod("mapper")
+                .invoke(null);
+        final Object jacksonMapper = loadClass("org.prebid.server.json.JacksonMapper")
+                .getConstructor(ObjectMapper.class)
+                .newInstance(mapper);
+        bidder = loadClass("org.prebid.server.bidder.streaming.StreamingBidder").getConstructors()[0]
+                .newInstance("https://test.endpoint.com", jacksonMapper);
+    }
+
+    @AfterClass
+    public static void tearDownClass() throws IOException {
+        classLoader.close();
+    }
+
+    @Test
+    public void makeBidsShouldReturnNoBidsWithoutSeatBids() throws Exception {
+        // when and then
+        assertNoBids(makeBids("{}"));
+        assertNoBids(makeBids("{\"id\":\"response\",\"seatbid\":null}"));
+        assertNoBids(makeBids("null"));
+    }
+
+    @Test
+    public void makeBidsShouldReturnNoBidsForEmptySeatBids() throws Exception {
+        // when and then
+        assertNoBids(makeBids("{\"seatbid\":[]}"));
+        assertNoBids(makeBids("{\"seatbid\":[null,{},{\"bid\":null},{\"bid\":[]}]}"));
+    }
+
+    @Test
+    public void makeBidsShouldSkipUnknownFieldsOnEveryLevel() throws Exception {
+        // when
+        final JsonNode result = makeBids("{\"unknown\":{\"seatbid\":[{\"bid\":[{\"impid\":\"456\"}]}]},"
+                + "\"seatbid\":[{\"unknown\":[1,{\"bid\":[]}],\"bid\":[{\"unknown\":{\"price\":2},\"impid\":\"123\","
+                + "\"price\":1.5,\"ext\":{\"unknown\":[true]}}],\"seat\":\"seat\"}],\"ext\":{\"unknown\":null}}");
+
+        // then
+        assertThat(result.get("errors")).isEmpty();
+        assertThat(result.get("value")).hasSize(1);
+        final JsonNode bid = result.get("value").get(0).get("bid");
+        assertThat(bid.get("impid").textValue()).isEqualTo("123");
+        assertThat(bid.get("price").decimalValue()).isEqualByComparingTo("1.5");
+        assertThat(bid.get("ext")).isEqualTo(mapper.readTree("{\"unknown\":[true]}"));
+    }
+
+    @Test
+    public void makeBidsShouldReturnBadServerResponseForMalformedJson() throws Exception {
+        // when and then
+        assertBadServerResponse(makeBids("{\"seatbid\":[{\"bid\":[{\"impid\":\"123\""));
+        assertBadServerResponse(makeBids("{\"seatbid\":{}}"));
+        assertBadServerResponse(makeBids("[]"));
+        assertBadServerResponse(makeBids(""));
+        assertBadServerResponse(makeBids("{\"seatbid\":[{\"bid\":[{\"w\":\"wide\"}]}]}"));
+    }
+
+    @Test
+    public void makeBidsShouldReturnBidsInUsdWhateverCurrencyResponseNames() throws Exception {
+        // when
+        final JsonNode result = makeBids("{\"cur\":\"EUR\",\"seatbid\":[{\"bid\":[{\"impid\":\"123\"}]}]}");
+
+        // then
+        assertThat(result.get("errors")).isEmpty();
+        assertThat(result.get("value")).hasSize(1);
+        assertThat(result.get("value").get(0).get("bidCurrency").textValue()).isEqualTo("USD");
+        assertThat(result.get("value").get(0).get("type").textValue()).isEqualTo("banner");
+    }
+
+    private static void assertNoBids(JsonNode result) {
+        assertThat(result.get("value")).isEmpty();
+        assertThat(result.get("errors")).isEmpty();
+    }
+
+    private static void assertBadServerResponse(JsonNode result) {
+        assertThat(result.get("value")).isEmpty();
+        assertThat(result.get("errors")).hasSize(1);
+        assertThat(result.get("errors").get(0).get("type").textValue()).isEqualTo("bad_server_response");
+        assertThat(result.get("errors").get(0).get("message").textValue()).startsWith("Failed to decode: ");
+    }
+
+    /**
+     * Returns the result of {@code makeBids} for the given response body as a JSON tree.
+     */
+    private static JsonNode makeBids(String responseBody) throws ReflectiveOperationException, IOException {
+        final Class<?> bidRequestClass = loadClass("com.iab.openrtb.request.BidRequest");
+        final Object bidRequest = mapper.readValue(BID_REQUEST, bidRequestClass);
+
+        final Object requestBuilder = loadClass("org.prebid.server.bidder.model.HttpRequest").getMethod("builder")
+                .invoke(null);
+        requestBuilder.getClass().getMethod("payload", Object.class).invoke(requestBuilder, bidRequest);
+        final Object httpRequest = requestBuilder.getClass().getMethod("build").invoke(requestBuilder);
+        final Class<?> httpResponseClass = loadClass("org.prebid.server.bidder.model.HttpResponse");
+        final Object httpResponse = httpResponseClass.getMethod("of", int.class,
+                loadClass("io.vertx.core.MultiMap"), String.class)
+                .invoke(null, 200, null, responseBody);
+        final Class<?> httpCallClass = loadClass("org.prebid.server.bidder.model.HttpCall");
+        final Object httpCall = httpCallClass.getMethod("success", httpRequest.getClass(), httpResponseClass,
+                loadClass("org.prebid.server.bidder.model.BidderError"))
+                .invoke(null, httpRequest, httpResponse, null);
+
+        try {
+            return mapper.valueToTree(bidder.getClass().getMethod("makeBids", httpCallClass, bidRequestClass)
+                    .invoke(bidder, httpCall, bidRequest));
+        } catch (InvocationTargetException e) {
+            throw new AssertionError("makeBids failed", e.getCause());
+        }
+    }
+
+    private static Class<?> loadClass(String name) throws ClassNotFoundException {
+        return Class.forName(name, true, classLoader);
+    }
+}
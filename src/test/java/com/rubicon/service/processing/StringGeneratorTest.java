@@ -0,0 +1,176 @@
+package com.rubicon.service.processing;
+
+import com.fasterxml.jackson.databind.node.IntNode;
+import com.fasterxml.jackson.databind.node.TextNode;
+import com.rubicon.model.BidderData;
+import com.rubicon.model.BidderParam;
+import com.rubicon.model.Transformation;
+import com.rubicon.model.TransformationCondition;
+import com.squareup.javapoet.MethodSpec;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class StringGeneratorTest {
+
+    private StringGenerator stringGenerator;
+
+    @Before
+    public void setUp() {
+        stringGenerator = new StringGenerator();
+    }
+
+    @Test
+    public void resolveMethodBodyShouldChangeObjectWithConditionalFieldsInsideSingleGuard() {
+        // given
+        final GenerationContext context = givenContext(new Transformation("site.page", TextNode.valueOf("page"),
+                null, false, new TransformationCondition("user", null, null)));
+
+        // when
+        final String body = resolveMethodBody(context.getTransformations().getRequestTargets(),
+                ModificationType.REQUEST);
+
+        // then
+        assertThat(body)
+                .startsWith("void modify() {\n  if (bidRequest.getUser() != null) {\n")
+                .contains("    siteBuilder.page(\"page\");\n    requestBuilder.site(siteBuilder.build());\n  }\n}");
+    }
+
+    @Test
+    public void resolveMethodBodyShouldBuildNestedObjectsNullSafe() {
+        // given
+        final GenerationContext context = givenContext(new Transformation("site.publisher.name", null, "app.name"));
+
+        // when
+        final String body = resolveMethodBody(context.getTransformations().getRequestTargets(),
+                ModificationType.REQUEST);
+
+        // then
+        assertThat(body)
+                .contains("sitePublisher = site != null ? site.getPublisher() : null;")
+                .contains("sitePublisherBuilder.name(bidRequest.getApp().getName());")
+                .contains("siteBuilder.publisher(sitePublisherBuilder.build());")
+                .contains("requestBuilder.site(siteBuilder.build());");
+    }
+
+    @Test
+    public void resolveMethodBodyShouldLeaveAbsentObjectWhoseListsAloneChange() {
+        // given
+        final GenerationContext context = givenContext(new Transformation("imp.banner.format[*].w",
+                IntNode.valueOf(300), null));
+
+        // when
+        final String body = resolveMethodBody(context.getTransformations().getImpTargets(), ModificationType.IMP);
+
+        // then
+        assertThat(body)
+                .contains("if (banner != null) {")
+                .contains("bannerFormatItemBuilder.w(300);")
+                .doesNotContain("Banner.builder()")
+                .endsWith("return impBuilder.build();\n}\n");
+    }
+
+    @Test
+    public void resolveGivenBidRequestStringShouldFillInSourcesAndSelectedElements() {
+        // given
+        final GenerationContext context = givenContext(
+                new Transformation("site.name", null, "app.name"),
+                new Transformation("imp.banner.format[1].w", IntNode.valueOf(300), null));
+
+        // when
+        final String givenRequest = stringGenerator.resolveGivenBidRequestString(context);
+
+        // then
+        assertThat(givenRequest)
+                .contains("impBuilder -> impBuilder\n.banner(")
+                .contains(".format(java.util.Collections.nCopies(3, ")
+                .contains("requestBuilder -> requestBuilder\n.app(")
+                .contains(".name(\"nameString\")");
+    }
+
+    @Test
+    public void resolveGivenBidRequestStringShouldUseIdentityWithoutSources() {
+        // given
+        final GenerationContext context = givenContext(new Transformation("site.page", TextNode.valueOf("page"),
+                null));
+
+        // when and then
+        assertThat(stringGenerator.resolveGivenBidRequestString(context))
+                .isEqualTo("final BidRequest bidRequest = givenBidRequest(\nidentity(),\nidentity());");
+    }
+
+    @Test
+    public void resolveExpectedBidRequestStringShouldCopyGivenObjectsAndBuildAbsentOnes() {
+        // given
+        final GenerationContext context = givenContext(
+                new Transformation("site.publisher.name", null, "app.name"),
+                new Transformation("imp.banner.w", IntNode.valueOf(300), null),
+                new Transformation("imp.tagid", null, "impExt.placement"));
+
+        // when
+        final String expectedRequest = stringGenerator.resolveExpectedBidRequestString(context);
+
+        // then
+        assertThat(expectedRequest)
+                .contains(".site(com.iab.openrtb.request.Site.builder()\n"
+                        + ".publisher(com.iab.openrtb.request.Publisher.builder()\n"
+                        + ".name(bidRequest.getApp().getName())")
+                .contains(".banner(bidRequest.getImp().get(0).getBanner().toBuilder()\n.w(300)")
+                .contains(".tagid(bidRequest.getImp().get(0).getExt().get(\"bidder\").get(\"placement\")"
+                        + ".textValue())");
+    }
+
+    @Test
+    public void resolveUnmatchedBidRequestStringShouldLeaveOutUnmatchedPaths() {
+        // given
+        final GenerationContext context = givenContext(
+                new Transformation("site.page", TextNode.valueOf("page"), null, false,
+                        new TransformationCondition("user", null, null)),
+                new Transformation("imp.tagid", TextNode.valueOf("tag"), null, false,
+                        new TransformationCondition("impExt.placement", null, null)));
+
+        // when
+        final String unmatchedRequest = stringGenerator.resolveUnmatchedBidRequestString(context);
+
+        // then
+        assertThat(unmatchedRequest)
+                .contains(".getExt().get(\"bidder\")).remove(\"placement\");")
+                .contains("final BidRequest bidRequest = matchingRequest.toBuilder()\n.user(null)\n");
+    }
+
+    @Test
+    public void resolveUnmatchedExpectedBidRequestStringShouldApplyUnconditionalTransformationsOnly() {
+        // given
+        final GenerationContext context = givenContext(
+                new Transformation("site.page", TextNode.valueOf("page"), null, false,
+                        new TransformationCondition("user", null, null)),
+                new Transformation("site.name", TextNode.valueOf("name"), null));
+
+        // when
+        final String expectedRequest = stringGenerator.resolveUnmatchedExpectedBidRequestString(context);
+
+        // then
+        assertThat(expectedRequest)
+                .contains(".name(\"name\")")
+                .doesNotContain(".page(");
+    }
+
+    private String resolveMethodBody(PathNode root, ModificationType modificationType) {
+        final MethodSpec.Builder method = MethodSpec.methodBuilder("modify");
+        stringGenerator.resolveMethodBody(method, root, modificationType);
+        return method.build().toString();
+    }
+
+    private static GenerationContext givenContext(Transformation... transformations) {
+        return GenerationContext.from(BidderData.builder()
+                .bidderName("testBidder")
+                .strategy("SINGLE_REQUEST")
+                .bidderParams(Collections.singletonList(new BidderParam("placement", "String")))
+                .transformations(Arrays.asList(transformations))
+                .build());
+    }
+}
@@ -0,0 +1,270 @@
+package com.rubicon.service.processing;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.IntNode;
+import com.fasterxml.jackson.databind.node.TextNode;
+import com.rubicon.model.BidderParam;
+import com.rubicon.model.Transformation;
+import com.rubicon.model.TransformationCondition;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class TransformationTreeTest {
+
+    private static final Map<String, ParamType> PARAM_TYPES = Collections.singletonMap("placement",
+            ParamTypeRegistry.resolve(new BidderParam("placement", "String")));
+
+    @Test
+    public void compileShouldReturnEmptyTreeWithoutTransformations() {
+        // when
+        final TransformationTree tree = TransformationTree.compile(null, PARAM_TYPES);
+
+        // then
+        assertThat(tree.getImpTargets().hasChildren()).isFalse();
+        assertThat(tree.getRequestTargets().hasChildren()).isFalse();
+        assertThat(tree.hasUnmatchedPaths()).isFalse();
+    }
+
+    @Test
+    public void compileShouldNestTargetsOfAnyDepth() {
+        // when
+        final TransformationTree tree = compile(
+                new Transformation("site.publisher.name", TextNode.valueOf("name"), null),
+                new Transformation("site.page", TextNode.valueOf("page"), null));
+
+        // then
+        final PathNode site = tree.getRequestTargets().find("site");
+        assertThat(site.getChildren()).extracting(PathNode::getJsonName).containsExactly("publisher", "page");
+        final PathNode publisher = site.find("publisher");
+        assertThat(publisher.getVariableName()).isEqualTo("sitePublisher");
+        assertThat(publisher.find("name").isLeaf()).isTrue();
+        assertThat(publisher.find("name").getPath()).isEqualTo("site.publisher.name");
+    }
+
+    @Test
+    public void compileShouldStoreImpTargetsRelativeToImp() {
+        // when
+        final TransformationTree tree = compile(new Transformation("imp.tagid", null, "impExt.placement"));
+
+        // then
+        assertThat(tree.getImpTargets().find("tagid").isLeaf()).isTrue();
+        assertThat(tree.getRequestTargets().hasChildren()).isFalse();
+    }
+
+    @Test
+    public void compileShouldRejectDuplicateTarget() {
+        // when and then
+        assertThatThrownBy(() -> compile(
+                new Transformation("site.page", TextNode.valueOf("page"), null),
+                new Transformation("site.page", TextNode.valueOf("other"), null)))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Transformation target site.page conflicts with site.page");
+    }
+
+    @Test
+    public void compileShouldRejectTargetOfObjectWithNestedTargets() {
+        // when and then
+        assertThatThrownBy(() -> compile(
+                new Transformation("site.publisher.name", TextNode.valueOf("name"), null),
+                new Transformation("site.publisher", null, "app.publisher")))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Transformation target site.publisher conflicts with nested targets");
+    }
+
+    @Test
+    public void compileShouldRejectTargetWithinObjectWithoutToBuilder() {
+        // when and then
+        assertThatThrownBy(() -> compile(new Transformation("site.content.title", TextNode.valueOf("title"), null)))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Transformation target site.content.title modifies site.content, whose class Content "
+                        + "has no toBuilder()");
+    }
+
+    @Test
+    public void compileShouldAcceptTargetOfWholeObjectWithoutToBuilder() {
+        // when
+        final TransformationTree tree = compile(new Transformation("site.content", null, "app.content"));
+
+        // then
+        assertThat(tree.getRequestTargets().find("site").find("content").isLeaf()).isTrue();
+    }
+
+    @Test
+    public void compileShouldRejectImpTargetWithoutImpField() {
+        // when and then
+        assertThatThrownBy(() -> compile(new Transformation("imp.", null, "imp.tagid")))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Transformation path imp. has no imp field");
+    }
+
+    @Test
+    public void compileShouldRejectStaticValueNotFittingTarget() {
+        // when and then
+        assertThatThrownBy(() -> compile(new Transformation("imp.banner.w", TextNode.valueOf("wide"), null)))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageStartingWith("Static value \"wide\" doesn't fit imp.banner.w");
+    }
+
+    @Test
+    public void compileShouldRejectSourceOfOtherTypeWithoutCast() {
+        // when and then
+        assertThatThrownBy(() -> compile(new Transformation("imp.bidfloor", null, "imp.tagid")))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("set \"cast\": true to convert it");
+    }
+
+    @Test
+    public void compileShouldRejectUnknownBidderParamSource() {
+        // when and then
+        assertThatThrownBy(() -> compile(new Transformation("imp.tagid", null, "impExt.zoneId")))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Transformation source impExt.zoneId is not a bidder param");
+    }
+
+    @Test
+    public void compileShouldRejectListTargetedByBothWildcardAndIndex() {
+        // when and then
+        assertThatThrownBy(() -> compile(
+                new Transformation("imp.banner.format[*].w", IntNode.valueOf(300), null),
+                new Transformation("imp.banner.format[0].h", IntNode.valueOf(250), null)))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("a list can be targeted by either [*] or indexes");
+    }
+
+    @Test
+    public void compileShouldRejectElementIndexAboveLimit() {
+        // when and then
+        assertThatThrownBy(() -> compile(new Transformation("imp.banner.format[100].w", IntNode.valueOf(300), null)))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Transformation target imp.banner.format[100].w selects element 100, elements up to 99 "
+                        + "can be selected");
+    }
+
+    @Test
+    public void compileShouldSizeGivenListToHoldSelectedElementAndOneMore() {
+        // when
+        final TransformationTree tree = compile(new Transformation("imp.banner.format[2].w", IntNode.valueOf(300),
+                null));
+
+        // then
+        assertThat(tree.getGivenListSize("imp.banner.format")).isEqualTo(4);
+        assertThat(tree.getImpSources().find("banner.format")).isNotNull();
+    }
+
+    @Test
+    public void compileShouldRejectConflictingConditionValues() {
+        // when and then
+        assertThatThrownBy(() -> compile(
+                conditional("imp.banner.w", IntNode.valueOf(300),
+                        new TransformationCondition("imp.banner.pos", IntNode.valueOf(1), null)),
+                conditional("imp.banner.h", IntNode.valueOf(250),
+                        new TransformationCondition("imp.banner.pos", IntNode.valueOf(2), null))))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Conditions expect imp.banner.pos to be both 1 and 2, which can't be tested together");
+    }
+
+    @Test
+    public void compileShouldRejectUnknownMediaType() {
+        // when and then
+        assertThatThrownBy(() -> compile(conditional("imp.banner.w", IntNode.valueOf(300),
+                new TransformationCondition(null, null, "display"))))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Condition of imp.banner.w checks unknown media type display, expected one of "
+                        + "[banner, video, audio, native]");
+    }
+
+    @Test
+    public void getGuardShouldReturnDistinctConditionsOfConditionalChildren() {
+        // given
+        final TransformationCondition userCondition = new TransformationCondition("user", null, null);
+        final TransformationTree tree = compile(
+                new Transformation("site.page", TextNode.valueOf("page"), null, false, userCondition),
+                new Transformation("site.name", TextNode.valueOf("name"), null, false, userCondition),
+                new Transformation("site.domain", TextNode.valueOf("domain"), null, false,
+                        new TransformationCondition("device", null, null)));
+
+        // when and then
+        assertThat(tree.getRequestTargets().find("site").getGuard())
+                .extracting(PathCondition::getPath)
+                .containsExactly("user", "device");
+    }
+
+    @Test
+    public void getGuardShouldReturnEmptySetWhenSomeChildIsAlwaysChanged() {
+        // given
+        final TransformationTree tree = compile(
+                new Transformation("site.page", TextNode.valueOf("page"), null, false,
+                        new TransformationCondition("user", null, null)),
+                new Transformation("site.name", TextNode.valueOf("name"), null));
+
+        // when and then
+        assertThat(tree.getRequestTargets().find("site").getGuard()).isEmpty();
+        assertThat(tree.getRequestTargets().find("site.page").getGuard()).hasSize(1);
+    }
+
+    @Test
+    public void changesElementsOnlyShouldTellObjectsWhoseListsAloneChange() {
+        // given
+        final TransformationTree tree = compile(
+                new Transformation("imp.banner.format[*].w", IntNode.valueOf(300), null),
+                new Transformation("imp.video.w", IntNode.valueOf(640), null));
+
+        // when and then
+        final PathNode impTargets = tree.getImpTargets();
+        assertThat(impTargets.find("banner").changesElementsOnly()).isTrue();
+        assertThat(impTargets.find("banner.format").isList()).isTrue();
+        assertThat(impTargets.find("video").changesElementsOnly()).isFalse();
+        assertThat(impTargets.find("video.w").changesElementsOnly()).isFalse();
+    }
+
+    @Test
+    public void compileShouldKeepConditionPathThatUnconditionalTransformationReads() {
+        // when
+        final TransformationTree tree = compile(
+                conditional("site.page", TextNode.valueOf("page"), new TransformationCondition("user", null,
+                        null)),
+                new Transformation("site.name", null, "user.id"));
+
+        // then
+        assertThat(tree.getConditionPaths()).containsExactly("user");
+        assertThat(tree.hasUnmatchedPaths()).isFalse();
+    }
+
+    @Test
+    public void compileShouldLeaveOutConditionPathNoOtherTransformationUses() {
+        // when
+        final TransformationTree tree = compile(
+                conditional("site.page", TextNode.valueOf("page"), new TransformationCondition("user", null,
+                        null)),
+                new Transformation("site.name", null, "app.name"));
+
+        // then
+        assertThat(tree.getUnmatchedPaths()).containsExactly("user");
+        assertThat(tree.isUnmatchedPath("user.id")).isTrue();
+        assertThat(tree.isUnmatchedPath("app.name")).isFalse();
+    }
+
+    @Test
+    public void hasOverlappingSourcesShouldTellWhetherSomeSourceIsWritten() {
+        // when and then
+        assertThat(compile(new Transformation("site.name", null, "site.page")).hasOverlappingSources()).isFalse();
+        assertThat(compile(
+                new Transformation("site.name", null, "site.page"),
+                new Transformation("site.page", TextNode.valueOf("page"), null)).hasOverlappingSources()).isTrue();
+    }
+
+    private static Transformation conditional(String target, JsonNode staticValue,
+                                              TransformationCondition condition) {
+        return new Transformation(target, staticValue, null, false, condition);
+    }
+
+    private static TransformationTree compile(Transformation... transformations) {
+        return TransformationTree.compile(Arrays.asList(transformations), PARAM_TYPES);
+    }
+}
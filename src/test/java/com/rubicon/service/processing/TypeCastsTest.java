@@ -0,0 +1,234 @@
+package com.rubicon.service.processing;
+
+import com.squareup.javapoet.CodeBlock;
+import com.squareup.javapoet.JavaFile;
+import com.squareup.javapoet.TypeSpec;
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.springframework.util.StreamUtils;
+
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Compiles every converter into one class and runs it, with the verification stub of {@code PreBidException}.
+ */
+public class TypeCastsTest {
+
+    private static final List<String> TYPES = Arrays.asList("String", "Integer", "Long", "Float", "Double",
+            "BigDecimal", "Boolean");
+
+    @ClassRule
+    public static TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private static Class<?> converters;
+
+    @BeforeClass
+    public static void setUpClass() throws IOException, ClassNotFoundException {
+        final TypeSpec.Builder convertersBuilder = TypeSpec.classBuilder("Converters");
+        for (String source : TYPES) {
+            for (String target : TYPES) {
+                final TypeCast typeCast = find(source, target);
+                if (typeCast != null) {
+                    convertersBuilder.addMethod(typeCast.getConverter());
+                }
+            }
+        }
+        final String convertersSource = JavaFile.builder("test", convertersBuilder.build()).build().toString();
+
+        final File classes = temporaryFolder.newFolder("classes");
+        final JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        final DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+        try (StandardJavaFileManager fileManager = compiler.getStandardFileManager(diagnostics, null,
+                StandardCharsets.UTF_8)) {
+            final boolean compiled = compiler.getTask(null, fileManager, diagnostics,
+                    Arrays.asList("-d", classes.getPath()), null,
+                    Arrays.asList(source("test/Converters", convertersSource),
+                            source("org/prebid/server/exception/PreBidException", preBidExceptionSource())))
+                    .call();
+            assertThat(compiled).as(diagnostics.getDiagnostics().toString()).isTrue();
+        }
+        converters = new URLClassLoader(new URL[]{classes.toURI().toURL()}, TypeCastsTest.class.getClassLoader())
+                .loadClass("test.Converters");
+    }
+
+    @Test
+    public void findShouldReturnNullForTypesThatCantBeCast() {
+        // when and then
+        assertThat(find("String", "Boolean")).isNull();
+        assertThat(find("Integer", "Double")).isNull();
+    }
+
+    @Test
+    public void convertersShouldKeepNullAsNull() throws ReflectiveOperationException {
+        for (String source : TYPES) {
+            for (String target : TYPES) {
+                if (find(source, target) != null) {
+                    assertThat(convert(source, target, null)).as(source + " to " + target).isNull();
+                }
+            }
+        }
+    }
+
+    @Test
+    public void integerConvertersShouldConvertWholeFloatingPointNumbers() throws ReflectiveOperationException {
+        // when and then
+        assertThat(convert("Float", "Integer", 300F)).isEqualTo(300);
+        assertThat(convert("Double", "Integer", -2147483648D)).isEqualTo(Integer.MIN_VALUE);
+        assertThat(convert("Double", "Integer", 2147483647D)).isEqualTo(Integer.MAX_VALUE);
+        assertThat(convert("Double", "Long", -9.223372036854775808E18)).isEqualTo(Long.MIN_VALUE);
+        assertThat(convert("Float", "Long", 16777216F)).isEqualTo(16777216L);
+    }
+
+    @Test
+    public void integerConvertersShouldRejectFractionalFloatingPointNumbers() {
+        // when and then
+        assertCannotCast("Float", "Integer", 1.5F);
+        assertCannotCast("Float", "Long", 1.5F);
+        assertCannotCast("Double", "Integer", 0.1D);
+        assertCannotCast("Double", "Long", -0.1D);
+    }
+
+    @Test
+    public void integerConvertersShouldRejectOutOfRangeFloatingPointNumbers() {
+        // when and then
+        assertCannotCast("Double", "Integer", 2147483648D);
+        assertCannotCast("Double", "Integer", -2147483649D);
+        assertCannotCast("Float", "Integer", 3e9F);
+        assertCannotCast("Double", "Long", 9.223372036854775807E18);
+        assertCannotCast("Double", "Long", -1e19);
+        assertCannotCast("Float", "Long", Float.POSITIVE_INFINITY);
+        assertCannotCast("Double", "Long", Double.NaN);
+    }
+
+    @Test
+    public void longToIntegerShouldRejectOverflow() throws ReflectiveOperationException {
+        // when and then
+        assertThat(convert("Long", "Integer", 2147483647L)).isEqualTo(Integer.MAX_VALUE);
+        assertCannotCast("Long", "Integer", 2147483648L);
+        assertCannotCast("Long", "Integer", -2147483649L);
+    }
+
+    @Test
+    public void bigDecimalToIntegerShouldRejectFractionAndOverflow() throws ReflectiveOperationException {
+        // when and then
+        assertThat(convert("BigDecimal", "Integer", new BigDecimal("12.00"))).isEqualTo(12);
+        assertCannotCast("BigDecimal", "Integer", new BigDecimal("12.5"));
+        assertCannotCast("BigDecimal", "Long", new BigDecimal("9223372036854775808"));
+    }
+
+    @Test
+    public void stringToNumberShouldParseNumbers() throws ReflectiveOperationException {
+        // when and then
+        assertThat(convert("String", "Integer", "-42")).isEqualTo(-42);
+        assertThat(convert("String", "Long", "9223372036854775807")).isEqualTo(Long.MAX_VALUE);
+        assertThat(convert("String", "Float", "1.25")).isEqualTo(1.25F);
+        assertThat(convert("String", "BigDecimal", "0.10")).isEqualTo(new BigDecimal("0.10"));
+    }
+
+    @Test
+    public void stringToNumberShouldRejectUnparsableText() {
+        // when and then
+        assertCannotCast("String", "Integer", "300px");
+        assertCannotCast("String", "Integer", "2147483648");
+        assertCannotCast("String", "Long", "");
+        assertCannotCast("String", "Float", "wide");
+        assertCannotCast("String", "BigDecimal", "1,5");
+    }
+
+    @Test
+    public void booleanToNumberShouldReturnOneOrZero() throws ReflectiveOperationException {
+        // when and then
+        assertThat(convert("Boolean", "Integer", true)).isEqualTo(1);
+        assertThat(convert("Boolean", "Integer", false)).isEqualTo(0);
+        assertThat(convert("Boolean", "Long", true)).isEqualTo(1L);
+        assertThat(convert("Boolean", "Long", false)).isEqualTo(0L);
+    }
+
+    @Test
+    public void toStringShouldWriteBigDecimalWithoutExponent() throws ReflectiveOperationException {
+        // when and then
+        assertThat(convert("BigDecimal", "String", new BigDecimal("1E+3"))).isEqualTo("1000");
+        assertThat(convert("BigDecimal", "String", new BigDecimal("1.5E-7"))).isEqualTo("0.00000015");
+        assertThat(convert("Double", "String", 0.5D)).isEqualTo("0.5");
+        assertThat(convert("Boolean", "String", true)).isEqualTo("true");
+    }
+
+    @Test
+    public void expectedValueShouldBoxPrimitiveSources() {
+        // when and then
+        assertThat(find("Long", "Integer").expectedValue("5L")).isEqualTo("java.lang.Long.valueOf(5L).intValue()");
+        assertThat(find("BigDecimal", "String").expectedValue("value")).isEqualTo("value.toPlainString()");
+    }
+
+    @Test
+    public void convertShouldCallConverterOfGeneratedBidder() {
+        // when and then
+        assertThat(find("Integer", "String").convert(CodeBlock.of("zoneId")).toString())
+                .isEqualTo("integerToString(zoneId)");
+    }
+
+    private static void assertCannotCast(String source, String target, Object value) {
+        assertThatThrownBy(() -> convert(source, target, value))
+                .hasMessage("Cannot cast " + value + " to " + target)
+                .satisfies(e -> assertThat(e.getClass().getName())
+                        .isEqualTo("org.prebid.server.exception.PreBidException"));
+    }
+
+    private static Object convert(String source, String target, Object value) throws ReflectiveOperationException {
+        final TypeCast typeCast = find(source, target);
+        final Method converter = converters.getDeclaredMethod(typeCast.getConverter().name,
+                Class.forName(typeCast.getSourceType().getTypeName().toString()));
+        converter.setAccessible(true);
+        try {
+            return converter.invoke(null, value);
+        } catch (InvocationTargetException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    private static TypeCast find(String source, String target) {
+        return TypeCasts.find(ParamTypeRegistry.find(source), ParamTypeRegistry.find(target));
+    }
+
+    private static String preBidExceptionSource() throws IOException {
+        try (InputStream stub = TypeCastsTest.class.getResourceAsStream(
+                "/verification-stubs/org/prebid/server/exception/PreBidException.java")) {
+            return StreamUtils.copyToString(stub, StandardCharsets.UTF_8);
+        }
+    }
+
+    private static JavaFileObject source(String className, String code) {
+        return new SimpleJavaFileObject(URI.create("string:///" + className + JavaFileObject.Kind.SOURCE.extension),
+                JavaFileObject.Kind.SOURCE) {
+            @Override
+            public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+                return code;
+            }
+        };
+    }
+}
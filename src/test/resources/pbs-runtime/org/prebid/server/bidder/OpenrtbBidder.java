@@ -0,0 +1,156 @@
+package org.prebid.server.bidder;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.iab.openrtb.request.BidRequest;
+import com.iab.openrtb.request.Imp;
+import com.iab.openrtb.response.BidResponse;
+import com.iab.openrtb.response.SeatBid;
+import org.prebid.server.bidder.model.BidderBid;
+import org.prebid.server.bidder.model.BidderError;
+import org.prebid.server.bidder.model.HttpCall;
+import org.prebid.server.bidder.model.HttpRequest;
+import org.prebid.server.bidder.model.ImpWithExt;
+import org.prebid.server.bidder.model.Result;
+import org.prebid.server.exception.PreBidException;
+import org.prebid.server.json.JacksonMapper;
+import org.prebid.server.proto.openrtb.ext.response.BidType;
+
+import java.io.IOException;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Runs the request and response flow of the PBS OpenrtbBidder, so that generated tests can be run.
+ */
+public abstract class OpenrtbBidder<T> implements Bidder<BidRequest> {
+
+    private static final String DEFAULT_BID_CURRENCY = "USD";
+
+    private final String endpointUrl;
+    private final RequestCreationStrategy requestCreationStrategy;
+    private final Class<T> extType;
+    private final JacksonMapper mapper;
+
+    protected OpenrtbBidder(String endpointUrl, RequestCreationStrategy requestCreationStrategy,
+                            Class<T> extType, JacksonMapper mapper) {
+        this.endpointUrl = validateUrl(Objects.requireNonNull(endpointUrl));
+        this.requestCreationStrategy = Objects.requireNonNull(requestCreationStrategy);
+        this.extType = extType;
+        this.mapper = Objects.requireNonNull(mapper);
+    }
+
+    @Override
+    public final Result<List<HttpRequest<BidRequest>>> makeHttpRequests(BidRequest bidRequest) {
+        final List<BidderError> errors = new ArrayList<>();
+        final List<ImpWithExt<T>> impsWithExts = new ArrayList<>();
+        for (Imp imp : bidRequest.getImp()) {
+            try {
+                validateImp(imp);
+                final T impExt = parseImpExt(imp);
+                impsWithExts.add(ImpWithExt.of(modifyImp(imp, impExt), impExt));
+            } catch (PreBidException e) {
+                errors.add(BidderError.badInput(e.getMessage()));
+            }
+        }
+        if (impsWithExts.isEmpty()) {
+            return Result.of(Collections.emptyList(), errors);
+        }
+
+        final List<HttpRequest<BidRequest>> httpRequests = new ArrayList<>();
+        if (requestCreationStrategy == RequestCreationStrategy.REQUEST_PER_IMP) {
+            for (ImpWithExt<T> impWithExt : impsWithExts) {
+                httpRequests.add(createRequest(bidRequest, Collections.singletonList(impWithExt)));
+            }
+        } else {
+            httpRequests.add(createRequest(bidRequest, impsWithExts));
+        }
+        return Result.of(httpRequests, errors);
+    }
+
+    private T parseImpExt(Imp imp) {
+        try {
+            return mapper.mapper().convertValue(imp.getExt().get("bidder"), extType);
+        } catch (IllegalArgumentException e) {
+            throw new PreBidException(e.getMessage());
+        }
+    }
+
+    private HttpRequest<BidRequest> createRequest(BidRequest bidRequest, List<ImpWithExt<T>> impsWithExts) {
+        final List<Imp> imps = new ArrayList<>(impsWithExts.size());
+        for (ImpWithExt<T> impWithExt : impsWithExts) {
+            imps.add(impWithExt.getImp());
+        }
+        final BidRequest.BidRequestBuilder requestBuilder = bidRequest.toBuilder();
+        modifyRequest(bidRequest, requestBuilder, impsWithExts);
+        final BidRequest outgoingRequest = requestBuilder.imp(imps).build();
+        try {
+            return HttpRequest.<BidRequest>builder()
+                    .uri(endpointUrl)
+                    .body(mapper.mapper().writeValueAsString(outgoingRequest))
+                    .payload(outgoingRequest)
+                    .build();
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    protected void validateImp(Imp imp) {
+    }
+
+    protected Imp modifyImp(Imp imp, T impExt) {
+        return imp;
+    }
+
+    protected void modifyRequest(BidRequest bidRequest, BidRequest.BidRequestBuilder requestBuilder,
+                                 List<ImpWithExt<T>> impsWithExts) {
+    }
+
+    @Override
+    public final Result<List<BidderBid>> makeBids(HttpCall<BidRequest> httpCall, BidRequest bidRequest) {
+        final BidResponse bidResponse;
+        try {
+            bidResponse = mapper.mapper().readValue(httpCall.getResponse().getBody(), BidResponse.class);
+        } catch (IOException e) {
+            return Result.emptyWithError(BidderError.badServerResponse("Failed to decode: " + e.getMessage()));
+        }
+        if (bidResponse == null || bidResponse.getSeatbid() == null) {
+            return Result.of(Collections.emptyList(), Collections.emptyList());
+        }
+
+        final List<Imp> imps = httpCall.getRequest().getPayload().getImp();
+        final List<BidderBid> bidderBids = new ArrayList<>();
+        for (SeatBid seatBid : bidResponse.getSeatbid()) {
+            for (com.iab.openrtb.response.Bid bid : seatBid.getBid()) {
+                bidderBids.add(BidderBid.of(bid, getBidType(bid.getImpid(), imps), DEFAULT_BID_CURRENCY));
+            }
+        }
+        return Result.of(bidderBids, Collections.emptyList());
+    }
+
+    protected BidType getBidType(String impId, List<Imp> imps) {
+        return BidType.banner;
+    }
+
+    @Override
+    public final Map<String, String> extractTargeting(ObjectNode ext) {
+        return Collections.emptyMap();
+    }
+
+    private static String validateUrl(String url) {
+        try {
+            return new URL(url).toString();
+        } catch (MalformedURLException e) {
+            throw new IllegalArgumentException("URL supplied is not valid: " + url, e);
+        }
+    }
+
+    public enum RequestCreationStrategy {
+        SINGLE_REQUEST, REQUEST_PER_IMP
+    }
+}